@@ -0,0 +1,129 @@
+package com.admarketplace.sdk.shaapi.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks with allocation profiling and compares the results with a baseline.
+ *
+ * <p>Accepts the regular JMH command line. Unless other profilers are requested, the {@link GCProfiler} is enabled so
+ * every result reports the bytes allocated per operation ({@code gc.alloc.rate.norm}). Results are written as JSON to
+ * {@code results.json} unless {@code -rff} is given. When the {@code baseline} system property names a results file
+ * (it defaults to {@code baseline.json} in the working directory), each score is compared with the baseline. A change is
+ * only flagged when the confidence intervals of both scores do not overlap and the gap between them is larger than the
+ * {@code threshold} system property (a fraction of the baseline score, {@code 0.10} by default), so changes within the
+ * measurement error are never reported however large the difference of the scores is.</p>
+ */
+public final class BenchmarkRunner {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        var commandLine = new CommandLineOptions(args);
+        var builder = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getProfilers().isEmpty()) {
+            builder.addProfiler(GCProfiler.class);
+        }
+        if (commandLine.getResult().hasValue()) {
+            builder.resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON));
+        } else {
+            builder.resultFormat(ResultFormatType.JSON).result("results.json");
+        }
+        var options = builder.build();
+        new Runner(options).run();
+
+        Path baseline = Path.of(System.getProperty("baseline", "baseline.json"));
+        Path results = Path.of(options.getResult().get());
+        if (options.getResultFormat().orElse(null) == ResultFormatType.JSON && Files.exists(baseline)
+                && !baseline.toAbsolutePath().equals(results.toAbsolutePath())) {
+            compare(baseline, results, Double.parseDouble(System.getProperty("threshold", "0.10")));
+        }
+    }
+
+    private static void compare(Path baselineFile, Path resultsFile, double threshold) throws IOException {
+        var objectMapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(objectMapper.readTree(baselineFile.toFile()));
+        Map<String, JsonNode> results = index(objectMapper.readTree(resultsFile.toFile()));
+
+        System.out.printf("%nComparison with %s (threshold %.0f%% beyond the score error)%n", baselineFile, threshold * 100);
+        System.out.printf("%-90s %24s %24s %9s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change", "Alloc B/op", "Change");
+        results.forEach((key, result) -> {
+            JsonNode base = baseline.get(key);
+            if (base == null) {
+                return;
+            }
+            Score baseScore = Score.of(base.path("primaryMetric"));
+            Score score = Score.of(result.path("primaryMetric"));
+            // Throughput is better when higher, every other mode measures time and is better when lower.
+            boolean higherIsBetter = "thrpt".equals(result.get("mode").asText());
+            boolean regression = baseScore.regressedTo(score, higherIsBetter, threshold);
+
+            Score baseAllocation = Score.of(base.at("/secondaryMetrics/" + ALLOCATION_METRIC));
+            Score allocation = Score.of(result.at("/secondaryMetrics/" + ALLOCATION_METRIC));
+            boolean allocationRegression = baseAllocation.regressedTo(allocation, false, threshold);
+
+            System.out.printf("%-90s %24s %24s %+8.1f%% %14.0f %+8.1f%%%s%n", key, baseScore, score,
+                    baseScore.changeTo(score) * 100, allocation.score(), baseAllocation.changeTo(allocation) * 100,
+                    regression || allocationRegression ? "  REGRESSION" : "");
+        });
+    }
+
+    /**
+     * A score with the half-width of its 99.9% confidence interval, as reported by JMH in {@code scoreError}. The error
+     * is {@code NaN} when a score was measured with a single iteration and is then treated as zero.
+     */
+    private record Score(double score, double error) {
+        static Score of(JsonNode metric) {
+            double error = metric.path("scoreError").asDouble(Double.NaN);
+            return new Score(metric.path("score").asDouble(Double.NaN), Double.isNaN(error) ? 0 : error);
+        }
+
+        double changeTo(Score current) {
+            return score == 0 || Double.isNaN(score) ? 0 : (current.score - score) / score;
+        }
+
+        /**
+         * Whether the confidence interval of {@code current} lies entirely on the worse side of this one, with a gap
+         * larger than {@code threshold} times this score.
+         */
+        boolean regressedTo(Score current, boolean higherIsBetter, double threshold) {
+            double gap = higherIsBetter
+                    ? (score - error) - (current.score + current.error)
+                    : (current.score - current.error) - (score + error);
+            return gap > 0 && gap > threshold * score;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f \u00b1 %.3f", score, error);
+        }
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> index = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+            String benchmark = result.get("benchmark").asText();
+            index.put(benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1)
+                    + (params.isEmpty() ? "" : " " + params), result);
+        }
+        return index;
+    }
+}
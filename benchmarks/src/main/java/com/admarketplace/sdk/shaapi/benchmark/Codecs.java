@@ -0,0 +1,22 @@
+package com.admarketplace.sdk.shaapi.benchmark;
+
+import com.admarketplace.sdk.shaapi.client.codec.JacksonCodec;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.codec.blackbird.BlackbirdCodec;
+
+/**
+ * The codecs compared by the benchmarks, selected by the {@code codec} parameter.
+ */
+final class Codecs {
+
+    private Codecs() {
+    }
+
+    static ShaapiCodec named(String name) {
+        return switch (name) {
+            case "jackson" -> JacksonCodec.defaults();
+            case "blackbird" -> new BlackbirdCodec();
+            default -> throw new IllegalArgumentException("Unknown codec: " + name);
+        };
+    }
+}
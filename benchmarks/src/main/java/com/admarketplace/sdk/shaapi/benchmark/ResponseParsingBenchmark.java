@@ -0,0 +1,88 @@
+package com.admarketplace.sdk.shaapi.benchmark;
+
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.handler.ProductResponseHandler;
+import com.admarketplace.sdk.shaapi.handler.TokenResponseHandler;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of response bodies by {@link ProductResponseHandler} and {@link TokenResponseHandler}.
+ * Product responses range from a plain success to a batch in which every product failed validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class ResponseParsingBenchmark {
+    @Param({"jackson", "blackbird"})
+    private String codec;
+
+    private ProductResponseHandler productResponseHandler;
+    private TokenResponseHandler tokenResponseHandler;
+    private byte[] tokenBody;
+
+    /**
+     * The body of a product response, parameterized separately so token parsing does not run once per combination.
+     */
+    @State(Scope.Benchmark)
+    public static class ProductBody {
+
+        @Param({"1000"})
+        private int batchSize;
+
+        @Param({"0.0", "0.1", "1.0"})
+        private double failureRate;
+
+        private byte[] body;
+
+        @Setup
+        public void setUp() {
+            body = Payloads.productResponse(batchSize, failureRate);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        ShaapiCodec shaapiCodec = Codecs.named(codec);
+        productResponseHandler = new ProductResponseHandler(shaapiCodec);
+        tokenResponseHandler = new TokenResponseHandler(shaapiCodec);
+        tokenBody = Payloads.tokenResponse();
+    }
+
+    @Benchmark
+    public ProductResponse parseProductResponse(ProductBody productBody) {
+        return productResponseHandler.handleResponse(response(productBody.body));
+    }
+
+    @Benchmark
+    public TokenResponse parseTokenResponse() {
+        return tokenResponseHandler.handleResponse(response(tokenBody));
+    }
+
+    private static ClassicHttpResponse response(byte[] body) {
+        var response = new BasicClassicHttpResponse(HttpStatus.SC_OK);
+        response.setEntity(new ByteArrayEntity(body, ContentType.APPLICATION_JSON));
+        return response;
+    }
+}
@@ -0,0 +1,87 @@
+package com.admarketplace.sdk.shaapi.benchmark;
+
+import com.admarketplace.sdk.shaapi.client.JsonStreamingEntity;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.compression.EncodingEntity;
+import com.admarketplace.sdk.shaapi.client.compression.StandardContentEncoder;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import org.apache.hc.core5.http.HttpEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of product batches into request bodies, as done by {@code HttpExecutor} when a request is sent.
+ * The body is written to a sink that discards the bytes, so only the cost of serialization (and compression) is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class SerializationBenchmark {
+
+    @Param({"1", "100", "1000", "10000"})
+    private int batchSize;
+
+    @Param({"identity", "gzip"})
+    private String encoding;
+
+    @Param({"jackson", "blackbird"})
+    private String codec;
+
+    private ShaapiCodec shaapiCodec;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        shaapiCodec = Codecs.named(codec);
+        products = Payloads.products(batchSize);
+    }
+
+    @Benchmark
+    public void writeBody(Blackhole blackhole) throws IOException {
+        HttpEntity entity = new JsonStreamingEntity(products, shaapiCodec);
+        if ("gzip".equals(encoding)) {
+            entity = new EncodingEntity(entity, StandardContentEncoder.GZIP);
+        }
+        entity.writeTo(new BlackholeOutputStream(blackhole));
+    }
+
+    /**
+     * Consumes written bytes without retaining them.
+     */
+    private static final class BlackholeOutputStream extends OutputStream {
+        private final Blackhole blackhole;
+
+        private BlackholeOutputStream(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            blackhole.consume(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            blackhole.consume(b);
+            blackhole.consume(len);
+        }
+    }
+}
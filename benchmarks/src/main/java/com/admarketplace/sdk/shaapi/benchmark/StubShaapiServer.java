@@ -0,0 +1,60 @@
+package com.admarketplace.sdk.shaapi.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * An in-process HTTP server answering every request with a fixed successful product response.
+ * Request bodies are read and discarded, so the client pays the full cost of sending them.
+ */
+final class StubShaapiServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Starts a server on an ephemeral local port.
+     *
+     * @param threads The number of threads handling requests.
+     * @throws IOException If the server cannot be bound.
+     */
+    StubShaapiServer(int threads) throws IOException {
+        byte[] body = Payloads.productResponse(0, 0);
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            try (InputStream requestBody = exchange.getRequestBody()) {
+                requestBody.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(HttpStatus.SC_OK, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    /**
+     * Returns the base URL of the server.
+     *
+     * @return The URL.
+     */
+    URI getUrl() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,84 @@
+package com.admarketplace.sdk.shaapi.benchmark;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.compression.StandardContentEncoder;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.impl.ShaapiClientV1;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end {@link ShaapiClient#upsertProducts} throughput over loopback against a {@link StubShaapiServer}, with
+ * several threads sharing one client and its connection pool. Includes request serialization, the HTTP exchange and
+ * response parsing; the score is in requests per second, multiply by the batch size for products per second.
+ *
+ * <p>The fork enables {@code TCP_NODELAY} on the JDK HTTP server, otherwise every exchange stalls on delayed
+ * acknowledgements and the score measures the TCP stack instead of the SDK.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 10, time = 5)
+@Threads(4)
+@Fork(value = 3, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+public class UpsertThroughputBenchmark {
+    private static final String ACCOUNT_ID = "benchmark";
+    private static final String ACCESS_TOKEN = "token";
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private StubShaapiServer server;
+    private ShaapiClient client;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StubShaapiServer(4);
+        client = ShaapiClientV1.builder()
+                .shaapiUrl(server.getUrl())
+                .authServiceUrl(server.getUrl())
+                .httpClientConfig(HttpClientConfig.builder()
+                        .requestEncoder(gzip ? StandardContentEncoder.GZIP : null)
+                        .retryPolicy(null)
+                        .build())
+                .build();
+        products = Payloads.products(batchSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.close();
+        server.close();
+    }
+
+    @Benchmark
+    public ProductResponse upsertProducts() {
+        ProductResponse response = client.upsertProducts(ACCOUNT_ID, ACCESS_TOKEN, products);
+        if (response.getHttpStatus() != 200) {
+            throw new IllegalStateException("Unexpected response " + response.getHttpStatus() + ": " + response.getMessage());
+        }
+        return response;
+    }
+}
@@ -0,0 +1,325 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.compression.ContentEncoder;
+import com.admarketplace.sdk.shaapi.client.metrics.Endpoint;
+import com.admarketplace.sdk.shaapi.client.metrics.ShaapiMetrics;
+import com.admarketplace.sdk.shaapi.client.retry.RetriesExhaustedException;
+import com.admarketplace.sdk.shaapi.client.retry.ShaapiRetryStrategy;
+import com.admarketplace.sdk.shaapi.model.AuthType;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.entity.DeflateDecompressingEntity;
+import org.apache.hc.client5.http.entity.GzipDecompressingEntity;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException;
+import org.apache.hc.core5.io.CloseMode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Provides a non-blocking mechanism for executing HTTP requests within the Shopping Ads Asset API (SHAAPI) SDK.
+ * This is the asynchronous counterpart of {@link HttpExecutor}: requests are executed on the I/O reactor of a
+ * {@link CloseableHttpAsyncClient} and their outcome is delivered through a {@link CompletableFuture}, so many
+ * requests can be in flight without dedicating a thread to each one.
+ *
+ * <p>Responses are buffered by the I/O reactor and then handed to the same {@link HttpClientResponseHandler}
+ * implementations used by the synchronous client, keeping response parsing identical between both clients.
+ * Responses with a {@code gzip} or {@code deflate} content coding are decompressed before being handed over.
+ * Requests are retried by the async client according to its {@link com.admarketplace.sdk.shaapi.client.retry.RetryPolicy},
+ * and the number of attempts can be recorded on the response.</p>
+ *
+ * <p>With an HTTP/2 client, concurrent requests to a host are multiplexed as streams of a single connection, at most
+ * {@code maxConcurrentStreams} at a time, and hosts that do not negotiate HTTP/2 can fall back to an HTTP/1.1 client
+ * (see {@link #AsyncHttpExecutor(CloseableHttpAsyncClient, CloseableHttpAsyncClient, HttpClientConfig)}).</p>
+ *
+ * <p>The executor owns the async clients, starts them on construction and releases them on {@link #close()}.</p>
+ */
+public abstract class AsyncHttpExecutor implements AutoCloseable {
+
+    private static final String AUTH_HEADER = "Authorization";
+    private static final String ACCEPT_HEADER = "Accept";
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final CloseableHttpAsyncClient http1Client;
+    private final int maxConcurrentStreams;
+    private final Map<String, StreamLimiter> streamLimiters = new ConcurrentHashMap<>();
+    private final Set<String> http1Hosts = ConcurrentHashMap.newKeySet();
+    private final ContentEncoder requestEncoder;
+    private final ShaapiCodec codec;
+    private final ShaapiMetrics metrics;
+
+    /**
+     * Creates an executor backed by the given async HTTP client with the default settings, and starts it.
+     *
+     * @param httpAsyncClient The (typically pooled) async HTTP client used for every request. Closed by {@link #close()}.
+     */
+    protected AsyncHttpExecutor(CloseableHttpAsyncClient httpAsyncClient) {
+        this(httpAsyncClient, null, HttpClientConfig.builder().build());
+    }
+
+    /**
+     * Creates an executor backed by the given async HTTP clients, and starts them.
+     *
+     * <p>When {@code http1Client} is given, requests to plain {@code http} URLs, and to hosts for which
+     * {@code httpAsyncClient} failed to negotiate HTTP/2 (the server selected another protocol through ALPN), are sent
+     * with {@code http1Client} instead. The request that failed the negotiation is sent again with it, and the host
+     * keeps using HTTP/1.1 until the executor is closed. HTTP/2 connection errors, such as a {@code GOAWAY} or a reset
+     * connection, fail the request without changing the protocol of the host, even on its first exchange.</p>
+     *
+     * @param httpAsyncClient The async client used for every request by default. Closed by {@link #close()}.
+     * @param http1Client The HTTP/1.1 async client to fall back to, or {@code null} to never fall back. Closed by {@link #close()}.
+     * @param config The client settings; unless its HTTP version policy is {@code FORCE_HTTP_1}, its
+     *               {@code maxConcurrentStreams} bounds the requests in flight per host on {@code httpAsyncClient}.
+     *               Its request encoder compresses request bodies, its metrics receive the measurements of every call
+     *               and its codec serializes request bodies.
+     */
+    protected AsyncHttpExecutor(CloseableHttpAsyncClient httpAsyncClient, CloseableHttpAsyncClient http1Client, HttpClientConfig config) {
+        this.httpAsyncClient = httpAsyncClient;
+        this.http1Client = http1Client;
+        this.maxConcurrentStreams = config.getHttpVersionPolicy() != HttpVersionPolicy.FORCE_HTTP_1 ? config.getMaxConcurrentStreams() : 0;
+        this.requestEncoder = config.getRequestEncoder();
+        this.codec = ShaapiCodec.orDefault(config.getCodec());
+        this.metrics = config.getMetrics();
+        this.httpAsyncClient.start();
+        if (this.http1Client != null) {
+            this.http1Client.start();
+        }
+    }
+
+    /**
+     * Executes an HTTP request asynchronously with the specified parameters.
+     *
+     * @param uri The URI against which the request is to be executed.
+     * @param method The HTTP method to use for the request.
+     * @param authType The type of authentication required for the request.
+     * @param authHeader The authorization header value.
+     * @param body The request body, which may be {@code null} for methods that do not require it.
+     * @param responseHandler A handler for processing the response into a desired format or object.
+     * @param <T> The type of the response object expected.
+     * @return A {@link CompletableFuture} completed with the instance of {@code T} produced by the response handler,
+     *         or completed exceptionally if the request could not be executed.
+     */
+    protected <T> CompletableFuture<T> sendRequest(URI uri, Method method, AuthType authType, String authHeader, Object body, HttpClientResponseHandler<T> responseHandler) {
+        return sendRequest(uri, method, authType, authHeader, body, responseHandler, (response, attempts) -> response);
+    }
+
+    /**
+     * Executes an HTTP request asynchronously like {@link #sendRequest(URI, Method, AuthType, String, Object, HttpClientResponseHandler)}
+     * and records on the response how many times the request was sent.
+     *
+     * @param uri The URI against which the request is to be executed.
+     * @param method The HTTP method to use for the request.
+     * @param authType The type of authentication required for the request.
+     * @param authHeader The authorization header value.
+     * @param body The request body, which may be {@code null} for methods that do not require it.
+     * @param responseHandler A handler for processing the response into a desired format or object.
+     * @param withAttempts Returns the response with the given number of attempts.
+     * @param <T> The type of the response object expected.
+     * @return A {@link CompletableFuture} completed with the instance of {@code T} produced by the response handler,
+     *         or completed exceptionally if the request could not be executed, with a {@link RetriesExhaustedException}
+     *         if it was retried and the last attempt failed with an I/O error.
+     */
+    protected <T> CompletableFuture<T> sendRequest(URI uri, Method method, AuthType authType, String authHeader, Object body,
+                                                   HttpClientResponseHandler<T> responseHandler, BiFunction<T, Integer, T> withAttempts) {
+        var future = new CompletableFuture<T>();
+        try {
+            SimpleHttpRequest request = createRequest(uri, method, authType, authHeader, body);
+            var context = HttpClientContext.create();
+            Endpoint endpoint = Endpoint.of(method);
+            long requestBytes = request.getBodyBytes() != null ? request.getBodyBytes().length : 0;
+            int products = body instanceof Collection<?> collection ? collection.size() : 0;
+            long startNanos = System.nanoTime();
+            execute(request, context, new FutureCallback<>() {
+                @Override
+                public void completed(SimpleHttpResponse response) {
+                    ClassicHttpResponse classicResponse = toClassicResponse(response);
+                    CountingEntity responseEntity = null;
+                    if (metrics != null && classicResponse.getEntity() != null) {
+                        responseEntity = new CountingEntity(classicResponse.getEntity());
+                        classicResponse.setEntity(responseEntity);
+                    }
+                    long handlerStartNanos = System.nanoTime();
+                    try {
+                        T result = responseHandler.handleResponse(classicResponse);
+                        int attempts = ShaapiRetryStrategy.getAttempts(context);
+                        future.complete(attempts > 1 && result != null ? withAttempts.apply(result, attempts) : result);
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        if (metrics != null) {
+                            long endNanos = System.nanoTime();
+                            metrics.recordDeserialization(endpoint, endNanos - handlerStartNanos);
+                            metrics.recordRequest(endpoint, response.getCode(), endNanos - startNanos, requestBytes,
+                                    responseEntity != null ? responseEntity.getBytes() : 0, products);
+                        }
+                    }
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    recordFailure();
+                    int attempts = ShaapiRetryStrategy.getAttempts(context);
+                    future.completeExceptionally(attempts > 1 && e instanceof IOException ioException
+                            ? new RetriesExhaustedException(attempts, ioException) : e);
+                }
+
+                @Override
+                public void cancelled() {
+                    recordFailure();
+                    future.completeExceptionally(new CancellationException("The request was cancelled."));
+                }
+
+                private void recordFailure() {
+                    if (metrics != null) {
+                        metrics.recordRequest(endpoint, 0, System.nanoTime() - startNanos, requestBytes, 0, products);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * Releases the underlying async HTTP clients, their I/O reactors and all pooled connections.
+     * In-flight requests are allowed to complete.
+     */
+    @Override
+    public void close() {
+        httpAsyncClient.close(CloseMode.GRACEFUL);
+        if (http1Client != null) {
+            http1Client.close(CloseMode.GRACEFUL);
+        }
+    }
+
+    private void execute(SimpleHttpRequest request, HttpClientContext context, FutureCallback<SimpleHttpResponse> callback) {
+        String host = request.getScheme() + "://" + request.getAuthority();
+        if (http1Client != null && (URIScheme.HTTP.same(request.getScheme()) || http1Hosts.contains(host))) {
+            http1Client.execute(request, context, callback);
+            return;
+        }
+        if (maxConcurrentStreams <= 0) {
+            httpAsyncClient.execute(request, context, callback);
+            return;
+        }
+
+        StreamLimiter streamLimiter = streamLimiters.computeIfAbsent(host, key -> new StreamLimiter(maxConcurrentStreams));
+        streamLimiter.execute(() -> {
+            try {
+                httpAsyncClient.execute(request, context, new FutureCallback<>() {
+                    @Override
+                    public void completed(SimpleHttpResponse response) {
+                        streamLimiter.release();
+                        callback.completed(response);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        streamLimiter.release();
+                        // Only a protocol selected through ALPN is final; connection errors may be transient
+                        if (http1Client != null && e instanceof ProtocolNegotiationException) {
+                            http1Hosts.add(host);
+                            executeOnHttp1(request, context, callback);
+                        } else {
+                            callback.failed(e);
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        streamLimiter.release();
+                        callback.cancelled();
+                    }
+                });
+            } catch (RuntimeException e) {
+                streamLimiter.release();
+                callback.failed(e);
+            }
+        });
+    }
+
+    private void executeOnHttp1(SimpleHttpRequest request, HttpClientContext context, FutureCallback<SimpleHttpResponse> callback) {
+        try {
+            http1Client.execute(request, context, callback);
+        } catch (RuntimeException e) {
+            callback.failed(e);
+        }
+    }
+
+    private SimpleHttpRequest createRequest(URI uri, Method method, AuthType authType, String authHeader, Object body) throws IOException {
+        var builder = switch (method) {
+            case GET, POST, PUT, DELETE -> SimpleRequestBuilder.create(method).setUri(uri);
+            default -> throw new IllegalArgumentException("Unsupported HTTP method: " + method);
+        };
+
+        builder.setHeader(AUTH_HEADER, authType.getPrefix() + authHeader);
+        builder.setHeader(ACCEPT_HEADER, ContentType.APPLICATION_JSON.getMimeType());
+        if (body != null) {
+            builder.setBody(serialize(body), ContentType.APPLICATION_JSON);
+            if (requestEncoder != null) {
+                builder.setHeader(HttpHeaders.CONTENT_ENCODING, requestEncoder.getName());
+            }
+        }
+        return builder.build();
+    }
+
+    private byte[] serialize(Object body) throws IOException {
+        if (requestEncoder == null) {
+            return codec.writeAsBytes(body);
+        }
+        var buffer = new ByteArrayOutputStream();
+        try (OutputStream encoded = requestEncoder.encode(buffer)) {
+            codec.write(body, encoded);
+        }
+        return buffer.toByteArray();
+    }
+
+    private ClassicHttpResponse toClassicResponse(SimpleHttpResponse response) {
+        var classicResponse = new BasicClassicHttpResponse(response.getCode(), response.getReasonPhrase());
+        classicResponse.setHeaders(response.getHeaders());
+        byte[] bodyBytes = response.getBodyBytes();
+        if (bodyBytes != null) {
+            classicResponse.setEntity(decode(new ByteArrayEntity(bodyBytes, response.getContentType()), response.getFirstHeader(HttpHeaders.CONTENT_ENCODING)));
+        }
+        return classicResponse;
+    }
+
+    private HttpEntity decode(HttpEntity entity, Header contentEncoding) {
+        if (contentEncoding == null) {
+            return entity;
+        }
+        return switch (contentEncoding.getValue().trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip" -> new GzipDecompressingEntity(entity);
+            case "deflate" -> new DeflateDecompressingEntity(entity);
+            default -> entity;
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps an entity to count the bytes of its content written to a connection or read from it, for metrics.
+ */
+final class CountingEntity extends HttpEntityWrapper {
+    private final AtomicLong bytes = new AtomicLong();
+
+    CountingEntity(HttpEntity wrappedEntity) {
+        super(wrappedEntity);
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        super.writeTo(new FilterOutputStream(outStream) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                bytes.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                bytes.addAndGet(len);
+            }
+        });
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return new FilterInputStream(super.getContent()) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) {
+                    bytes.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = in.read(b, off, len);
+                if (read > 0) {
+                    bytes.addAndGet(read);
+                }
+                return read;
+            }
+        };
+    }
+}
@@ -1,22 +1,34 @@
 package com.admarketplace.sdk.shaapi.client;
 
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CallNotPermittedException;
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CircuitBreaker;
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CircuitBreakers;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.compression.ContentEncoder;
+import com.admarketplace.sdk.shaapi.client.compression.EncodingEntity;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.metrics.Endpoint;
+import com.admarketplace.sdk.shaapi.client.metrics.ShaapiMetrics;
+import com.admarketplace.sdk.shaapi.client.retry.RetriesExhaustedException;
+import com.admarketplace.sdk.shaapi.client.retry.ShaapiRetryStrategy;
 import com.admarketplace.sdk.shaapi.model.AuthType;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpDelete;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.classic.methods.HttpPut;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.Method;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
-import org.apache.hc.core5.http.io.entity.HttpEntities;
+import org.apache.hc.core5.io.CloseMode;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collection;
+import java.util.function.BiFunction;
 
 /**
  * Provides a mechanism for executing HTTP requests within the Shopping Ads Asset API (SHAAPI) SDK.
@@ -25,20 +37,62 @@ import java.net.URI;
  *
  * <p>It supports various HTTP methods, including POST, PUT, and DELETE, allowing for flexible interactions
  * with web services. The class manages the creation of HTTP requests, setting of headers, and serialization
- * and deserialization of request and response bodies.</p>
+ * and deserialization of request and response bodies. Request bodies are streamed to the connection through a
+ * {@link JsonStreamingEntity} rather than being serialized into memory first, and optionally compressed on the fly
+ * with a {@link ContentEncoder}. Compressed responses are decompressed transparently by the HTTP client.</p>
+ *
+ * <p>All requests are executed through a single long-lived {@link CloseableHttpClient}, so pooled connections
+ * are reused across calls. The executor owns that client and releases it on {@link #close()}. Failed requests are retried
+ * by that client according to its {@link com.admarketplace.sdk.shaapi.client.retry.RetryPolicy}, and the number of attempts
+ * can be reported on the response.</p>
+ *
+ * <p>When circuit breakers are configured, requests to an endpoint whose circuit is open fail fast with a
+ * {@link CallNotPermittedException} instead of waiting for a degraded service.</p>
+ *
+ * <p>When {@link HttpClientConfig#getMetrics() metrics} are configured, every call is reported with its latency, body
+ * sizes, product count, status and response deserialization time.</p>
  */
-public abstract class HttpExecutor {
+public abstract class HttpExecutor implements AutoCloseable {
 
     private static final String AUTH_HEADER = "Authorization";
     private static final String CONTENT_TYPE_HEADER = "Content-Type";
     private static final String ACCEPT_HEADER = "Accept";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
 
+    private final CloseableHttpClient httpClient;
+    private final ContentEncoder requestEncoder;
+    private final ShaapiCodec codec;
+    private final CircuitBreakers circuitBreakers;
+    private final ShaapiMetrics metrics;
+
+    /**
+     * Creates an executor backed by the given HTTP client, sending request bodies uncompressed.
+     *
+     * @param httpClient The (typically pooled) HTTP client used for every request. Closed by {@link #close()}.
+     */
+    protected HttpExecutor(CloseableHttpClient httpClient) {
+        this(httpClient, HttpClientConfig.builder().build());
+    }
+
+    /**
+     * Creates an executor backed by the given HTTP client.
+     *
+     * @param httpClient The (typically pooled) HTTP client used for every request. Closed by {@link #close()}.
+     * @param config The client settings; its request encoder compresses request bodies and its circuit breaker settings
+     *               protect each endpoint, its metrics receive the measurements of every call and its codec serializes
+     *               request bodies.
+     */
+    protected HttpExecutor(CloseableHttpClient httpClient, HttpClientConfig config) {
+        this.httpClient = httpClient;
+        this.requestEncoder = config.getRequestEncoder();
+        this.codec = ShaapiCodec.orDefault(config.getCodec());
+        this.circuitBreakers = config.getCircuitBreaker() != null ? new CircuitBreakers(config.getCircuitBreaker()) : null;
+        this.metrics = config.getMetrics();
+    }
 
     /**
      * Executes an HTTP request with the specified parameters and returns the response.
-     * The method handles the instantiation of the HTTP client, setting up the request
-     * according to the provided method, URL, headers, body, and executing the request.
+     * The method sets up the request according to the provided method, URL, headers and body,
+     * and executes it on the shared HTTP client.
      *
      * @param uri The URI against which the request is to be executed.
      * @param method The HTTP method to use for the request.
@@ -51,13 +105,114 @@ public abstract class HttpExecutor {
      * @throws IOException If an I/O error occurs during request execution.
      */
     protected <T> T sendRequest(URI uri, Method method, AuthType authType, String authHeader, Object body, HttpClientResponseHandler<T> responseHandler) throws IOException {
-        try (CloseableHttpClient httpClient = HttpClients.createDefault()) {
+        return sendRequest(uri, method, authType, authHeader, body, responseHandler, (response, attempts) -> response);
+    }
+
+    /**
+     * Executes an HTTP request like {@link #sendRequest(URI, Method, AuthType, String, Object, HttpClientResponseHandler)}
+     * and records on the response how many times the request was sent.
+     *
+     * @param uri The URI against which the request is to be executed.
+     * @param method The HTTP method to use for the request.
+     * @param authType The type of authentication required for the request.
+     * @param authHeader The authorization header value.
+     * @param body The request body, which may be {@code null} for methods that do not require it.
+     * @param responseHandler A handler for processing the response into a desired format or object.
+     * @param withAttempts Returns the response with the given number of attempts.
+     * @param <T> The type of the response object expected.
+     * @return An instance of {@code T}, as processed by the provided response handler.
+     * @throws CallNotPermittedException If the circuit breaker of the endpoint is open and the request was not sent.
+     * @throws RetriesExhaustedException If the request was retried and the last attempt failed with an I/O error.
+     * @throws IOException If an I/O error occurs during request execution.
+     */
+    protected <T> T sendRequest(URI uri, Method method, AuthType authType, String authHeader, Object body,
+                                HttpClientResponseHandler<T> responseHandler, BiFunction<T, Integer, T> withAttempts) throws IOException {
+        CircuitBreaker circuitBreaker = circuitBreakers != null ? circuitBreakers.get(uri) : null;
+        if (circuitBreaker != null && !circuitBreaker.tryAcquirePermission()) {
+            if (metrics != null) {
+                metrics.recordRequest(Endpoint.of(method), CallNotPermittedException.HTTP_STATUS, 0, 0, 0,
+                        body instanceof Collection<?> collection ? collection.size() : 0);
+            }
+            throw new CallNotPermittedException(circuitBreaker.getName());
+        }
+
+        // Every permitted call must report its result, even if the request cannot be built
+        var context = HttpClientContext.create();
+        Measurement measurement = null;
+        long startNanos = System.nanoTime();
+        boolean failed = true;
+        try {
             ClassicHttpRequest request = createRequest(uri, method, authType, authHeader, body);
-            return httpClient.execute(request, responseHandler);
+            measurement = metrics != null ? new Measurement(Endpoint.of(method), request, body) : null;
+            T response = httpClient.execute(request, context, measurement != null ? measurement.wrap(responseHandler) : responseHandler);
+            failed = context.getResponse() != null && context.getResponse().getCode() >= HttpStatus.SC_SERVER_ERROR;
+            int attempts = ShaapiRetryStrategy.getAttempts(context);
+            return attempts > 1 && response != null ? withAttempts.apply(response, attempts) : response;
+        } catch (IOException e) {
+            int attempts = ShaapiRetryStrategy.getAttempts(context);
+            throw attempts > 1 ? new RetriesExhaustedException(attempts, e) : e;
+        } finally {
+            long durationNanos = System.nanoTime() - startNanos;
+            if (circuitBreaker != null) {
+                circuitBreaker.onResult(durationNanos, failed);
+            }
+            if (measurement != null) {
+                measurement.record(context.getResponse() != null ? context.getResponse().getCode() : 0, durationNanos);
+            }
+        }
+    }
+
+    /**
+     * Releases the underlying HTTP client and all pooled connections.
+     * In-flight requests are allowed to complete.
+     */
+    @Override
+    public void close() {
+        httpClient.close(CloseMode.GRACEFUL);
+    }
+
+    /**
+     * Collects the body sizes and deserialization time of a single call and reports them to the metrics.
+     */
+    private final class Measurement {
+        private final Endpoint endpoint;
+        private final CountingEntity requestEntity;
+        private final int products;
+        private CountingEntity responseEntity;
+
+        private Measurement(Endpoint endpoint, ClassicHttpRequest request, Object body) {
+            this.endpoint = endpoint;
+            this.requestEntity = request.getEntity() != null ? new CountingEntity(request.getEntity()) : null;
+            this.products = body instanceof Collection<?> collection ? collection.size() : 0;
+            if (requestEntity != null) {
+                request.setEntity(requestEntity);
+            }
+        }
+
+        private <T> HttpClientResponseHandler<T> wrap(HttpClientResponseHandler<T> responseHandler) {
+            return response -> {
+                if (response.getEntity() != null) {
+                    responseEntity = new CountingEntity(response.getEntity());
+                    response.setEntity(responseEntity);
+                }
+                long startNanos = System.nanoTime();
+                try {
+                    return responseHandler.handleResponse(response);
+                } finally {
+                    metrics.recordDeserialization(endpoint, System.nanoTime() - startNanos);
+                }
+            };
+        }
+
+        private void record(int httpStatus, long latencyNanos) {
+            metrics.recordRequest(endpoint, httpStatus, latencyNanos,
+                    requestEntity != null ? requestEntity.getBytes() : 0,
+                    responseEntity != null ? responseEntity.getBytes() : 0,
+                    products);
         }
     }
 
-    private ClassicHttpRequest createRequest(URI uri, Method method, AuthType authType, String authHeader, Object body) throws JsonProcessingException {
+    private ClassicHttpRequest createRequest(URI uri, Method method, AuthType authType, String authHeader, Object body) {
         var request = switch (method) {
             case GET -> new HttpGet(uri);
             case POST -> new HttpPost(uri);
@@ -77,9 +232,10 @@ public abstract class HttpExecutor {
         request.setHeader(ACCEPT_HEADER, ContentType.APPLICATION_JSON.getMimeType());
     }
 
-    private void addBody(ClassicHttpRequest request, Object body) throws JsonProcessingException {
+    private void addBody(ClassicHttpRequest request, Object body) {
         if (body != null && request != null) {
-            request.setEntity(HttpEntities.create(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON));
+            var entity = new JsonStreamingEntity(body, codec);
+            request.setEntity(requestEncoder != null ? new EncodingEntity(entity, requestEncoder) : entity);
         }
     }
 }
@@ -0,0 +1,87 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import com.admarketplace.sdk.shaapi.client.codec.JacksonCodec;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * An HTTP entity that serializes its body to JSON directly into the connection output stream.
+ *
+ * <p>Unlike building the JSON document as a {@code String} and wrapping it in a string entity, the body is written
+ * through a {@link ShaapiCodec} (by default a Jackson generator with a small fixed-size buffer) while the request is being sent, using chunked
+ * transfer encoding. Heap usage per request therefore stays flat regardless of how many products a batch holds.</p>
+ *
+ * <p>The entity is repeatable: the body is serialized again every time it is written, so a request can be re-sent
+ * (e.g. on retry) without holding a serialized copy in memory.</p>
+ */
+public final class JsonStreamingEntity extends AbstractHttpEntity {
+    private final Object body;
+    private final ShaapiCodec codec;
+
+    /**
+     * Creates a new streaming entity.
+     *
+     * @param body The object to be serialized as the request body.
+     * @param codec The codec used to serialize the body.
+     */
+    public JsonStreamingEntity(Object body, ShaapiCodec codec) {
+        super(ContentType.APPLICATION_JSON, null, true);
+        this.body = body;
+        this.codec = codec;
+    }
+
+    /**
+     * Creates a new streaming entity serialized with a mapper. Prefer {@link #JsonStreamingEntity(Object, ShaapiCodec)}
+     * with a shared codec: this creates a new {@link JacksonCodec} for the entity.
+     *
+     * @param body The object to be serialized as the request body.
+     * @param objectMapper The mapper used to serialize the body.
+     */
+    public JsonStreamingEntity(Object body, ObjectMapper objectMapper) {
+        this(body, new JacksonCodec(objectMapper));
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        codec.write(body, outStream);
+    }
+
+    /**
+     * Returns the serialized body as an input stream. This buffers the whole document in memory and is only
+     * meant for consumers that cannot work with {@link #writeTo(OutputStream)}; HTTP transports stream the body instead.
+     *
+     * @return An input stream over the serialized body.
+     * @throws IOException If the body cannot be serialized.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        return new ByteArrayInputStream(codec.writeAsBytes(body));
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release: the body is serialized on demand.
+    }
+}
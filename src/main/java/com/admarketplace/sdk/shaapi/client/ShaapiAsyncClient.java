@@ -0,0 +1,75 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import com.admarketplace.sdk.shaapi.client.impl.ShaapiAsyncClientV1;
+import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link ShaapiClient} for interacting with the Shopping Ads Asset API (SHAAPI).
+ * Every operation returns immediately with a {@link CompletableFuture} that is completed once SHAAPI responds,
+ * allowing a small number of I/O threads to keep many requests in flight.
+ *
+ * <p>Futures returned by this client are never completed exceptionally: as with {@link ShaapiClient}, errors
+ * encountered while executing a request are reported through the HTTP status and message of the response object.</p>
+ *
+ * <p>Callbacks attached to the returned futures run on the client's I/O threads unless an executor is supplied
+ * (e.g. {@link CompletableFuture#thenApplyAsync(java.util.function.Function, java.util.concurrent.Executor)}),
+ * so they should not block.</p>
+ *
+ * @see ShaapiAsyncClientV1 for the concrete implementation
+ */
+public interface ShaapiAsyncClient extends AutoCloseable {
+
+   /**
+    * Retrieves an authentication token using the provided Base64-encoded credentials.
+    *
+    * @param encodedCredentials Base64-encoded client credentials ("clientId:clientSecret")
+    * @return A future of {@link TokenResponse} containing the access token and related information,
+    *         or an appropriate response indicating failure to authenticate.
+    */
+   CompletableFuture<TokenResponse> getToken(String encodedCredentials);
+
+   /**
+    * Upsert a collection of products within SHAAPI.
+    *
+    * @param accountId The account identifier for which products are being upserted.
+    * @param accessToken A valid access token for SHAAPI service authentication.
+    * @param products A collection of {@link Product} objects to be upserted.
+    * @return A future of {@link ProductResponse} containing the result of the upsert operation,
+    *         including success or failure details for individual products.
+    */
+   CompletableFuture<ProductResponse> upsertProducts(String accountId, String accessToken, Collection<Product> products);
+
+   /**
+    * Delete a collection of products from SHAAPI.
+    *
+    * @param accountId The account identifier from which products are being deleted.
+    * @param accessToken A valid access token for SHAAPI service authentication.
+    * @param products A collection of {@link ProductIdentifier} objects representing the products to be deleted.
+    * @return A future of {@link ProductResponse} containing the result of the delete operation,
+    *         including success or failure details for individual product deletions.
+    */
+   CompletableFuture<ProductResponse> deleteProducts(String accountId, String accessToken, Collection<ProductIdentifier> products);
+
+   /**
+    * Retrieves the count of available products for the specified account.
+    *
+    * @param accountId The account identifier for which product count is being retrieved.
+    * @param accessToken A valid access token for SHAAPI service authentication.
+    * @return A future of {@link ProductCountResponse} containing the product count information.
+    */
+   CompletableFuture<ProductCountResponse> getProductCount(String accountId, String accessToken);
+
+   /**
+    * Releases the I/O reactor and HTTP connection pool held by this client.
+    * The client must not be used after it has been closed.
+    */
+   @Override
+   void close();
+}
@@ -19,11 +19,26 @@ import java.util.Collection;
  *    <li>Authenticating to obtain a token via {@link #getToken(String)}</li>
  *    <li>Using the token to upsert (insert or update) products with {@link #upsertProducts(String, String, Collection)}</li>
  *    <li>Using the token to delete products with {@link #deleteProducts(String, String, Collection)}</li>
+ *    <li>Closing the client with {@link #close()} once it is no longer needed</li>
  * </ol>
  *
+ * <p>Alternatively, a client created with credentials (see
+ * {@link com.admarketplace.sdk.shaapi.client.factory.ShaapiClientFactory#getAuthenticatedInstance(String, String, String, String)})
+ * manages the token itself: the overloads without an {@code accessToken} parameter obtain, cache and refresh it
+ * transparently, and retry a request once with a new token if SHAAPI service rejects the current one with HTTP 401.</p>
+ *
+ * <p>A client instance holds a pool of HTTP connections and is safe to share between threads.
+ * Create it once and reuse it rather than creating a client per request.</p>
+ *
  * @see ShaapiClientV1 for the concrete implementation
  */
-public interface ShaapiClient {
+public interface ShaapiClient extends AutoCloseable {
+
+   /**
+    * The message of the {@link IllegalStateException} thrown by the managed-token overloads of a client created
+    * without credentials.
+    */
+   String NO_CREDENTIALS = "No credentials configured. Please create the client with credentials or inform an access token.";
 
    /**
     * Retrieves an authentication token using the provided Base64-encoded credentials.
@@ -66,4 +81,55 @@ public interface ShaapiClient {
     *         including account ID and the number of available products.
     */
    ProductCountResponse getProductCount(String accountId, String accessToken);
+
+   /**
+    * Upsert a collection of products within SHAAPI, authenticating with the token managed by the client.
+    *
+    * @param accountId The account identifier for which products are being upserted.
+    * @param products A collection of {@link Product} objects to be upserted.
+    * @return A {@link ProductResponse} containing the result of the upsert operation,
+    *         or the status and message of the authentication service if no token could be obtained.
+    * @throws IllegalStateException If the client was created without credentials, which the default implementation
+    *         assumes.
+    */
+   default ProductResponse upsertProducts(String accountId, Collection<Product> products) {
+      throw new IllegalStateException(NO_CREDENTIALS);
+   }
+
+   /**
+    * Delete a collection of products from SHAAPI, authenticating with the token managed by the client.
+    *
+    * @param accountId The account identifier from which products are being deleted.
+    * @param products A collection of {@link ProductIdentifier} objects representing the products to be deleted.
+    * @return A {@link ProductResponse} containing the result of the delete operation,
+    *         or the status and message of the authentication service if no token could be obtained.
+    * @throws IllegalStateException If the client was created without credentials, which the default implementation
+    *         assumes.
+    */
+   default ProductResponse deleteProducts(String accountId, Collection<ProductIdentifier> products) {
+      throw new IllegalStateException(NO_CREDENTIALS);
+   }
+
+   /**
+    * Retrieves the count of available products for the specified account, authenticating with the token
+    * managed by the client.
+    *
+    * @param accountId The account identifier for which product count is being retrieved.
+    * @return A {@link ProductCountResponse} containing the product count information,
+    *         or the status and message of the authentication service if no token could be obtained.
+    * @throws IllegalStateException If the client was created without credentials, which the default implementation
+    *         assumes.
+    */
+   default ProductCountResponse getProductCount(String accountId) {
+      throw new IllegalStateException(NO_CREDENTIALS);
+   }
+
+   /**
+    * Releases the HTTP connection pool held by this client.
+    * The client must not be used after it has been closed.
+    * The default implementation does nothing, for implementations holding no resources.
+    */
+   @Override
+   default void close() {
+   }
 }
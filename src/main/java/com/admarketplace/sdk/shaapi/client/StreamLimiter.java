@@ -0,0 +1,50 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Bounds the number of requests multiplexed at the same time on the HTTP/2 connection to one host, without blocking:
+ * requests above the limit are queued and started, in order, as earlier ones complete.
+ */
+final class StreamLimiter {
+    private final int maxStreams;
+    private final Deque<Runnable> waiting = new ArrayDeque<>();
+    private int active;
+
+    StreamLimiter(int maxStreams) {
+        this.maxStreams = maxStreams;
+    }
+
+    /**
+     * Starts a request now if a stream is available, or once one is released. Every started request must call
+     * {@link #release()} exactly once when it completes.
+     *
+     * @param request Starts the request; it must not block.
+     */
+    void execute(Runnable request) {
+        synchronized (this) {
+            if (active >= maxStreams) {
+                waiting.add(request);
+                return;
+            }
+            active++;
+        }
+        request.run();
+    }
+
+    /**
+     * Releases the stream of a completed request, handing it to the next queued request if any.
+     */
+    void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiting.poll();
+            if (next == null) {
+                active--;
+                return;
+            }
+        }
+        next.run();
+    }
+}
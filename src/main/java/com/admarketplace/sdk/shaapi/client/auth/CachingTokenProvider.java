@@ -0,0 +1,169 @@
+package com.admarketplace.sdk.shaapi.client.auth;
+
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+import lombok.Builder;
+import lombok.NonNull;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A {@link TokenProvider} that caches the bearer token returned by the authentication service and refreshes it
+ * before it expires, based on {@link TokenResponse#getExpiresIn()}.
+ *
+ * <p>Refreshes are single-flight: however many threads need a token at the same time, only one call to the
+ * authentication service is made. While a token is still valid but inside its refresh window, a single thread
+ * refreshes it and the others keep using the current token instead of waiting. Only once the token has expired
+ * (or has been {@link #invalidate(String) invalidated}) do callers wait for the refresh to complete.</p>
+ *
+ * <p>If a refresh fails, the current token is kept until it expires and the refresh is attempted again on a later
+ * call, at most once per {@code retryInterval}: until then, callers get the current token or, once it has expired, the
+ * response of the failed attempt, without calling the authentication service.</p>
+ */
+public class CachingTokenProvider implements TokenProvider {
+    private static final Duration DEFAULT_REFRESH_MARGIN = Duration.ofSeconds(60);
+    private static final Duration DEFAULT_RETRY_INTERVAL = Duration.ofSeconds(5);
+
+    private final Function<String, TokenResponse> tokenSource;
+    private final String encodedCredentials;
+    private final Duration refreshMargin;
+    private final long retryIntervalMillis;
+    private final Clock clock;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private volatile CachedToken cachedToken;
+    private volatile FailedRefresh lastFailure;
+
+    /**
+     * Creates a new provider.
+     *
+     * @param tokenSource The function used to obtain a token from the encoded credentials, typically
+     *                    {@code shaapiClient::getToken}.
+     * @param encodedCredentials Base64-encoded client credentials ("clientId:clientSecret").
+     * @param refreshMargin How long before expiry the token is refreshed; defaults to 60 seconds. For tokens with
+     *                      a short lifetime the margin is capped at half of it.
+     * @param retryInterval The minimum time between a failed call to the authentication service and the next one;
+     *                      defaults to 5 seconds.
+     * @param clock The clock used to track token expiry; defaults to the system UTC clock.
+     */
+    @Builder
+    private CachingTokenProvider(@NonNull Function<String, TokenResponse> tokenSource, @NonNull String encodedCredentials,
+                                 Duration refreshMargin, Duration retryInterval, Clock clock) {
+        this.tokenSource = tokenSource;
+        this.encodedCredentials = encodedCredentials;
+        this.refreshMargin = refreshMargin != null ? refreshMargin : DEFAULT_REFRESH_MARGIN;
+        this.retryIntervalMillis = (retryInterval != null ? retryInterval : DEFAULT_RETRY_INTERVAL).toMillis();
+        this.clock = clock != null ? clock : Clock.systemUTC();
+    }
+
+    @Override
+    public TokenResponse getToken() {
+        CachedToken current = cachedToken;
+        long now = clock.millis();
+
+        if (current != null && now < current.refreshAt()) {
+            return current.response();
+        }
+
+        TokenResponse backedOff = backedOff(current, now);
+        if (backedOff != null) {
+            return backedOff;
+        }
+
+        if (current != null && now < current.expiresAt()) {
+            // Still valid: one caller refreshes it while the others keep using the current token.
+            if (refreshLock.tryLock()) {
+                try {
+                    return refresh(current);
+                } finally {
+                    refreshLock.unlock();
+                }
+            }
+            return current.response();
+        }
+
+        refreshLock.lock();
+        try {
+            return refresh(current);
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(String accessToken) {
+        refreshLock.lock();
+        try {
+            CachedToken current = cachedToken;
+            if (current != null && Objects.equals(current.response().getAccessToken(), accessToken)) {
+                cachedToken = null;
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private TokenResponse refresh(CachedToken observed) {
+        CachedToken current = cachedToken;
+        long now = clock.millis();
+
+        // Another thread refreshed (or invalidated) the token while this one was waiting for the lock.
+        if (current != observed && current != null && now < current.refreshAt()) {
+            return current.response();
+        }
+        // Or its attempt failed, which the callers waiting for the lock share.
+        TokenResponse backedOff = backedOff(current, now);
+        if (backedOff != null) {
+            return backedOff;
+        }
+
+        TokenResponse response = tokenSource.apply(encodedCredentials);
+        if (isUsable(response)) {
+            cachedToken = CachedToken.of(response, now, refreshMargin);
+            lastFailure = null;
+            return response;
+        }
+        lastFailure = new FailedRefresh(response, now);
+
+        if (current != null && now < current.expiresAt()) {
+            return current.response();
+        }
+        return response;
+    }
+
+    /**
+     * Returns the token to use instead of calling the authentication service while the last attempt failed less than
+     * {@code retryInterval} ago, or {@code null} once a new attempt may be made.
+     */
+    private TokenResponse backedOff(CachedToken current, long now) {
+        FailedRefresh failure = lastFailure;
+        if (failure == null || now - failure.failedAt() >= retryIntervalMillis) {
+            return null;
+        }
+        return current != null && now < current.expiresAt() ? current.response() : failure.response();
+    }
+
+    private static boolean isUsable(TokenResponse response) {
+        return response != null && response.getHttpStatus() == HttpStatus.SC_OK && response.getAccessToken() != null;
+    }
+
+    private record FailedRefresh(TokenResponse response, long failedAt) {
+    }
+
+    private record CachedToken(TokenResponse response, long refreshAt, long expiresAt) {
+
+        static CachedToken of(TokenResponse response, long obtainedAt, Duration refreshMargin) {
+            if (response.getExpiresIn() == null) {
+                // Without an expiry the token is kept until SHAAPI service rejects it.
+                return new CachedToken(response, Long.MAX_VALUE, Long.MAX_VALUE);
+            }
+            long lifetime = Duration.ofSeconds(response.getExpiresIn()).toMillis();
+            long margin = Math.min(refreshMargin.toMillis(), lifetime / 2);
+            return new CachedToken(response, obtainedAt + lifetime - margin, obtainedAt + lifetime);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.admarketplace.sdk.shaapi.client.auth;
+
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+
+/**
+ * Supplies bearer tokens for SHAAPI requests so callers don't have to obtain and thread an access token
+ * through every call themselves.
+ *
+ * <p>Implementations must be thread-safe, as a single provider is shared by all threads using a client.</p>
+ *
+ * @see CachingTokenProvider for the default implementation
+ */
+public interface TokenProvider {
+
+    /**
+     * Returns a token that can be used for the next request.
+     *
+     * @return A {@link TokenResponse} holding a usable access token, or the failed response of the
+     *         authentication service if no token could be obtained (in which case the access token is {@code null}).
+     */
+    TokenResponse getToken();
+
+    /**
+     * Signals that the given access token was rejected by SHAAPI service (e.g. with HTTP 401),
+     * so that the next call to {@link #getToken()} obtains a new one.
+     *
+     * @param accessToken The rejected access token.
+     */
+    void invalidate(String accessToken);
+}
@@ -0,0 +1,49 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Settings of a {@link BulkExecutor}.
+ *
+ * <ul>
+ *     <li><b>batchSize</b> – maximum number of products sent in a single upsert or delete request.</li>
+ *     <li><b>maxBatchBytes</b> – maximum serialized size of a single request body. Products are measured by
+ *     serializing them once before batching, and a batch is closed when the next product would exceed either limit.
+ *     Products larger than this on their own are not sent; they are reported as failures with status 413, and
+ *     products that cannot be serialized with status 400.
+ *     {@code 0} (the default) disables size-based batching, and the products are not serialized twice.</li>
+ *     <li><b>parallelism</b> – maximum number of batch requests in flight at the same time.</li>
+ *     <li><b>resubmitPolicy</b> – when set, products rejected with one of its {@code retryableStatusCodes} in a partial
+ *     failure are sent again, alone, up to {@code maxAttempts} times in total, waiting the policy's backoff between
+ *     attempts. Products that succeeded or failed with any other status are not sent again. {@code null} (the default)
+ *     disables resubmission.</li>
+ *     <li><b>codec</b> – measures the serialized size of products against {@code maxBatchBytes}; it should be the
+ *     codec of the client. Defaults to the shared {@link com.admarketplace.sdk.shaapi.client.codec.JacksonCodec}.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class BulkConfig {
+
+    @Builder.Default
+    private final int batchSize = 1000;
+    @Builder.Default
+    private final long maxBatchBytes = 0;
+    @Builder.Default
+    private final int parallelism = 4;
+    private final RetryPolicy resubmitPolicy;
+    @Builder.Default
+    private final ShaapiCodec codec = ShaapiCodec.defaultCodec();
+
+    /**
+     * Returns a configuration with the default batch size and parallelism.
+     *
+     * @return A {@link BulkConfig} with default values.
+     */
+    public static BulkConfig defaults() {
+        return BulkConfig.builder().build();
+    }
+}
@@ -0,0 +1,413 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.Builder;
+import lombok.NonNull;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sends large product collections to SHAAPI service in batches.
+ *
+ * <p>Instead of a single request carrying the whole collection, the products are split into batches of at most
+ * {@link BulkConfig#getBatchSize()} items and {@link BulkConfig#getMaxBatchBytes()} serialized bytes which are sent
+ * concurrently, with at most {@link BulkConfig#getParallelism()} requests in flight. The per-batch responses are merged
+ * into a single {@link BulkProductResponse}. Products too large to fit in any batch are not sent; they are reported in
+ * a last batch response with status 413 that was never sent to the service, together with products that cannot be
+ * serialized, reported with status 400.</p>
+ *
+ * <p>With a {@link BulkConfig#getResubmitPolicy() resubmit policy}, the products of a batch rejected with a retryable
+ * status are matched to the {@link Failure}s by identifier and sent again in a smaller follow-up request, while the
+ * products that succeeded are not uploaded again. The response of the batch then reports the final outcome: its
+ * {@code results} only hold the products that still failed after the last attempt.</p>
+ *
+ * <p>Products can also be sent from a {@link Flow.Publisher}, such as a reactive pipeline, without materializing
+ * them: they are requested as batches are sent and the response of every batch is published in turn (see
+ * {@link #upsertProducts(String, String, Flow.Publisher)}).</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * try (BulkExecutor bulkExecutor = BulkExecutor.builder()
+ *         .client(shaapiClient)
+ *         .config(BulkConfig.builder().batchSize(500).parallelism(8).build())
+ *         .build()) {
+ *     BulkProductResponse response = bulkExecutor.upsertProducts(accountId, accessToken, catalog);
+ * }
+ * }</pre>
+ *
+ * <p>The executor owns a pool of {@code parallelism} threads, is safe to share between threads and must be
+ * closed when no longer needed. Closing it does not close the underlying {@link ShaapiClient}.</p>
+ */
+public class BulkExecutor implements AutoCloseable {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+    // Like the default of SubmissionPublisher, the common pool is only used when it has more than one thread
+    private static final Executor DELIVERY_EXECUTOR = ForkJoinPool.getCommonPoolParallelism() > 1
+            ? ForkJoinPool.commonPool() : runnable -> deliveryThread(runnable).start();
+
+    private final ShaapiClient client;
+    private final BulkConfig config;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new bulk executor.
+     *
+     * @param client The client used to send every batch.
+     * @param config The batch size and parallelism; defaults are used when {@code null}.
+     */
+    @Builder
+    private BulkExecutor(@NonNull ShaapiClient client, BulkConfig config) {
+        this.client = client;
+        this.config = config != null ? config : BulkConfig.defaults();
+        if (this.config.getBatchSize() < 1 || this.config.getParallelism() < 1 || this.config.getMaxBatchBytes() < 0) {
+            throw new IllegalArgumentException("Invalid bulk configuration. Batch size and parallelism must be positive "
+                    + "and the maximum batch bytes must not be negative.");
+        }
+        this.executor = Executors.newFixedThreadPool(this.config.getParallelism(), threadFactory());
+    }
+
+    /**
+     * Upserts a collection of products in batches.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The products to be upserted.
+     * @return A {@link BulkProductResponse} aggregating the responses of all batches.
+     */
+    public BulkProductResponse upsertProducts(String accountId, String accessToken, Collection<Product> products) {
+        return execute(products, batch -> client.upsertProducts(accountId, accessToken, batch));
+    }
+
+    /**
+     * Upserts a collection of products in batches, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param products The products to be upserted.
+     * @return A {@link BulkProductResponse} aggregating the responses of all batches.
+     * @see ShaapiClient#upsertProducts(String, Collection)
+     */
+    public BulkProductResponse upsertProducts(String accountId, Collection<Product> products) {
+        return execute(products, batch -> client.upsertProducts(accountId, batch));
+    }
+
+    /**
+     * Deletes a collection of products in batches.
+     *
+     * @param accountId The account identifier from which products are being deleted.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The identifiers of the products to be deleted.
+     * @return A {@link BulkProductResponse} aggregating the responses of all batches.
+     */
+    public BulkProductResponse deleteProducts(String accountId, String accessToken, Collection<ProductIdentifier> products) {
+        return execute(products, batch -> client.deleteProducts(accountId, accessToken, batch));
+    }
+
+    /**
+     * Deletes a collection of products in batches, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier from which products are being deleted.
+     * @param products The identifiers of the products to be deleted.
+     * @return A {@link BulkProductResponse} aggregating the responses of all batches.
+     * @see ShaapiClient#deleteProducts(String, Collection)
+     */
+    public BulkProductResponse deleteProducts(String accountId, Collection<ProductIdentifier> products) {
+        return execute(products, batch -> client.deleteProducts(accountId, batch));
+    }
+
+    /**
+     * Upserts a stream of products in batches, requesting them from the publisher as batches are sent.
+     *
+     * <p>Products are requested one batch at a time and only while the previous batches can be sent, so at most
+     * {@code parallelism + 1} batches are held in memory whatever the size of the stream. The response of every batch
+     * is published, in completion order, and a batch is only sent once the subscriber has requested its response:
+     * while responses are not requested, batches wait without holding the executor threads. Products too large to be
+     * sent are reported in a response with status 413 and zero attempts.</p>
+     *
+     * <p>A batch is sent once it is full or the stream completes: for unbounded streams that must be sent within a
+     * bounded delay, use a {@link BulkProcessor} instead. Every subscription to the returned publisher subscribes to
+     * {@code products} again. If {@code products} fails, the products already received are sent and the error is then
+     * passed to the subscriber; cancelling the subscription cancels the upstream one.</p>
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The products to be upserted.
+     * @return A publisher of the response of every batch.
+     */
+    public Flow.Publisher<ProductResponse> upsertProducts(String accountId, String accessToken, Flow.Publisher<Product> products) {
+        return publish(products, batch -> client.upsertProducts(accountId, accessToken, batch));
+    }
+
+    /**
+     * Upserts a stream of products in batches, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param products The products to be upserted.
+     * @return A publisher of the response of every batch.
+     * @see #upsertProducts(String, String, Flow.Publisher)
+     */
+    public Flow.Publisher<ProductResponse> upsertProducts(String accountId, Flow.Publisher<Product> products) {
+        return publish(products, batch -> client.upsertProducts(accountId, batch));
+    }
+
+    /**
+     * Deletes a stream of products in batches, requesting them from the publisher as batches are sent.
+     *
+     * @param accountId The account identifier from which products are being deleted.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The identifiers of the products to be deleted.
+     * @return A publisher of the response of every batch.
+     * @see #upsertProducts(String, String, Flow.Publisher)
+     */
+    public Flow.Publisher<ProductResponse> deleteProducts(String accountId, String accessToken, Flow.Publisher<ProductIdentifier> products) {
+        return publish(products, batch -> client.deleteProducts(accountId, accessToken, batch));
+    }
+
+    /**
+     * Deletes a stream of products in batches, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier from which products are being deleted.
+     * @param products The identifiers of the products to be deleted.
+     * @return A publisher of the response of every batch.
+     * @see #upsertProducts(String, String, Flow.Publisher)
+     */
+    public Flow.Publisher<ProductResponse> deleteProducts(String accountId, Flow.Publisher<ProductIdentifier> products) {
+        return publish(products, batch -> client.deleteProducts(accountId, batch));
+    }
+
+    /**
+     * Stops the batch threads. Batches already submitted are completed first.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T extends ProductIdentifier> BulkProductResponse execute(Collection<T> products, Function<List<T>, ProductResponse> request) {
+        List<Failure> rejected = new ArrayList<>();
+        List<Callable<ProductResponse>> tasks = partition(products, rejected).stream()
+                .<Callable<ProductResponse>>map(batch -> () -> send(batch, request))
+                .toList();
+
+        List<ProductResponse> responses = new ArrayList<>(tasks.size());
+        try {
+            for (Future<ProductResponse> future : executor.invokeAll(tasks)) {
+                responses.add(getResponse(future));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responses.add(new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, "The bulk request was interrupted.", null, null));
+        }
+        if (!rejected.isEmpty()) {
+            responses.add(notSent(rejected, config.getMaxBatchBytes()));
+        }
+        return BulkProductResponse.of(responses);
+    }
+
+    private <T extends ProductIdentifier> Flow.Publisher<ProductResponse> publish(@NonNull Flow.Publisher<T> products,
+                                                                                 Function<List<T>, ProductResponse> request) {
+        return subscriber -> {
+            // Every batch yields up to two responses: its own and the one reporting the products rejected while filling it
+            var publisher = new SubmissionPublisher<ProductResponse>(DELIVERY_EXECUTOR, 2 * config.getParallelism());
+            var batcher = new FlowBatcher<T>(config, executor, batch -> sendSafely(batch, request), publisher);
+            publisher.subscribe(batcher.downstream(subscriber));
+            products.subscribe(batcher);
+        };
+    }
+
+    private <T extends ProductIdentifier> ProductResponse sendSafely(List<T> batch, Function<List<T>, ProductResponse> request) {
+        try {
+            return send(batch, request);
+        } catch (RuntimeException e) {
+            return new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                    "An unexpected error occurred during the request: " + e.getMessage(), null, null);
+        }
+    }
+
+    static Failure tooLarge(ProductIdentifier item, long size, long maxBatchBytes) {
+        return new Failure(HttpStatus.SC_REQUEST_TOO_LONG, item, List.of("The product is " + size
+                + " bytes when serialized, more than the maximum batch size of " + maxBatchBytes + " bytes."));
+    }
+
+    static Failure notSerializable(ProductIdentifier item, IllegalArgumentException e) {
+        return new Failure(HttpStatus.SC_BAD_REQUEST, item, List.of(e.getMessage()));
+    }
+
+    static ProductResponse notSent(List<Failure> rejected, long maxBatchBytes) {
+        if (rejected.stream().allMatch(failure -> failure.status() == HttpStatus.SC_REQUEST_TOO_LONG)) {
+            return new ProductResponse(HttpStatus.SC_REQUEST_TOO_LONG, rejected.size() + " products were not sent because they "
+                    + "exceed the maximum batch size of " + maxBatchBytes + " bytes.", null, rejected, 0);
+        }
+        return new ProductResponse(HttpStatus.SC_BAD_REQUEST, rejected.size() + " products were not sent because they "
+                + "cannot be serialized or exceed the maximum batch size of " + maxBatchBytes + " bytes.", null, rejected, 0);
+    }
+
+    private <T extends ProductIdentifier> ProductResponse send(List<T> batch, Function<List<T>, ProductResponse> request) {
+        ProductResponse response = request.apply(batch);
+        RetryPolicy policy = config.getResubmitPolicy();
+        if (policy == null) {
+            return response;
+        }
+
+        List<ProductResponse> responses = new ArrayList<>();
+        List<Failure> permanent = new ArrayList<>();
+        List<Failure> retryable = new ArrayList<>();
+        List<T> items = batch;
+        for (int attempt = 1; ; attempt++) {
+            responses.add(response);
+            retryable.clear();
+            if (response.getResults() != null) {
+                for (Failure failure : response.getResults()) {
+                    (policy.isRetryable(failure.status()) && failure.product() != null ? retryable : permanent).add(failure);
+                }
+            }
+            if (retryable.isEmpty() || attempt >= policy.getMaxAttempts()) {
+                break;
+            }
+
+            Map<Key, T> submitted = new HashMap<>(items.size() * 2);
+            items.forEach(item -> submitted.put(Key.of(item), item));
+            List<T> resubmitted = new ArrayList<>(retryable.size());
+            for (Failure failure : retryable) {
+                T item = submitted.remove(Key.of(failure.product()));
+                if (item != null) {
+                    resubmitted.add(item);
+                } else {
+                    permanent.add(failure);
+                }
+            }
+            if (resubmitted.isEmpty() || !sleep(policy.getDelay(attempt, null).toMillis())) {
+                retryable.removeIf(permanent::contains);
+                break;
+            }
+
+            ProductResponse followUp = request.apply(resubmitted);
+            if (followUp.getHttpStatus() < 200 || followUp.getHttpStatus() >= 300) {
+                // The follow-up request failed as a whole: the products keep the failures of the previous attempt
+                responses.add(followUp);
+                retryable.removeIf(permanent::contains);
+                break;
+            }
+            items = resubmitted;
+            response = followUp;
+        }
+        return responses.size() == 1 ? response : merge(responses, permanent, retryable);
+    }
+
+    private static ProductResponse merge(List<ProductResponse> responses, List<Failure> permanent, List<Failure> retryable) {
+        List<Failure> failures = new ArrayList<>(permanent);
+        failures.addAll(retryable);
+        ProductResponse first = responses.get(0);
+        ProductResponse last = responses.get(responses.size() - 1);
+        ProductResponse outcome = failures.isEmpty() ? last : first;
+        List<String> requestIds = responses.stream().map(ProductResponse::getRequestId).filter(Objects::nonNull).toList();
+        return new ProductResponse(failures.isEmpty() ? outcome.getHttpStatus() : HttpStatus.SC_MULTI_STATUS, outcome.getMessage(),
+                requestIds.isEmpty() ? null : String.join(",", requestIds), failures.isEmpty() ? null : failures,
+                responses.stream().mapToInt(ProductResponse::getAttempts).sum());
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T extends ProductIdentifier> List<List<T>> partition(Collection<T> products, List<Failure> rejected) {
+        List<T> items = products instanceof List<T> list ? list : new ArrayList<>(products);
+        int batchSize = config.getBatchSize();
+        long maxBatchBytes = config.getMaxBatchBytes();
+        ShaapiCodec codec = ShaapiCodec.orDefault(config.getCodec());
+        List<List<T>> batches = new ArrayList<>((items.size() + batchSize - 1) / batchSize);
+        if (maxBatchBytes == 0) {
+            for (int from = 0; from < items.size(); from += batchSize) {
+                batches.add(items.subList(from, Math.min(from + batchSize, items.size())));
+            }
+            return batches;
+        }
+
+        List<T> batch = new ArrayList<>();
+        long bytes = SerializedSize.ARRAY_OVERHEAD;
+        for (T item : items) {
+            long size;
+            try {
+                size = SerializedSize.of(item, codec);
+            } catch (IllegalArgumentException e) {
+                rejected.add(notSerializable(item, e));
+                continue;
+            }
+            if (size + SerializedSize.ARRAY_OVERHEAD > maxBatchBytes) {
+                rejected.add(tooLarge(item, size, maxBatchBytes));
+                continue;
+            }
+            if (batch.size() == batchSize || bytes + size > maxBatchBytes) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                bytes = SerializedSize.ARRAY_OVERHEAD;
+            }
+            batch.add(item);
+            bytes += size;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static ProductResponse getResponse(Future<ProductResponse> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            return new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                    "An unexpected error occurred during the request: " + e.getCause().getMessage(), null, null);
+        }
+    }
+
+    private record Key(String id, String country, String language) {
+
+        static Key of(ProductIdentifier product) {
+            return new Key(product.getId(), product.getCountry(), product.getLanguage());
+        }
+    }
+
+    private static Thread deliveryThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "shaapi-flow-delivery");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static ThreadFactory threadFactory() {
+        int pool = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shaapi-bulk-" + pool + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
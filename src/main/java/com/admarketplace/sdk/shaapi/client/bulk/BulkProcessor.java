@@ -0,0 +1,480 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.outbox.Outbox;
+import com.admarketplace.sdk.shaapi.client.outbox.OutboxRecord;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.Builder;
+import lombok.NonNull;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Buffers single product upserts and deletes and sends them to SHAAPI service in batches.
+ *
+ * <p>Repeated writes of the same product (same account, id, country and language) are coalesced while buffered: the
+ * last write wins, so a delete replaces a pending upsert and vice versa. The buffer is flushed when it holds
+ * {@link BulkProcessorConfig#getBatchSize()} products or {@link BulkProcessorConfig#getMaxBatchBytes()} serialized
+ * bytes, and at least every {@link BulkProcessorConfig#getFlushInterval()}. Writes of a product are never sent out of
+ * order: a product whose previous write is still in flight stays buffered until that request completes. A product
+ * larger than {@code maxBatchBytes} on its own is rejected by {@link #upsert} instead of being sent.</p>
+ *
+ * <p>At most {@link BulkProcessorConfig#getMaxInFlightFlushes()} requests are in flight at the same time. When
+ * {@link BulkProcessorConfig#getMaxBufferedProducts()} products are buffered or in flight, {@link #upsert} and
+ * {@link #delete} block until a request completes.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * try (BulkProcessor bulkProcessor = BulkProcessor.builder()
+ *         .client(shaapiClient)
+ *         .config(BulkProcessorConfig.builder().batchSize(500).flushInterval(Duration.ofMillis(200)).build())
+ *         .listener(listener)
+ *         .build()) {
+ *     bulkProcessor.upsert(accountId, product);
+ *     bulkProcessor.delete(accountId, identifier);
+ * }
+ * }</pre>
+ *
+ * <p>With an {@link Outbox}, every write is appended to the outbox before it is buffered and acknowledged once SHAAPI
+ * service has processed it; writes left in the outbox by a previous process are buffered again when the processor is
+ * created. Writes whose request or product failed with a retryable outcome (an I/O error, 408, 429, 5xx, or 401 with
+ * the token managed by the client) stay in the outbox until the next restart, unless a later write of the same product
+ * is processed first: a write left in the outbox is acknowledged as soon as a later write of the product completes, so
+ * it is never replayed over it. Writes rejected with any other status are acknowledged, since sending them again would
+ * fail the same way; they are only reported to the listener.</p>
+ *
+ * <p>The outcome of every request is reported to the {@link BulkProcessorListener}. The processor is safe to share
+ * between threads and must be closed when no longer needed; closing it sends everything still buffered. Closing it
+ * does not close the underlying {@link ShaapiClient}.</p>
+ */
+public class BulkProcessor implements AutoCloseable {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ShaapiClient client;
+    private final String accessToken;
+    private final BulkProcessorConfig config;
+    private final BulkProcessorListener listener;
+    private final Outbox outbox;
+    private final ShaapiCodec codec;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<Key, Entry> pending = new LinkedHashMap<>();
+    private final Map<Key, Long> inFlight = new HashMap<>();
+    private final Map<Key, Long> leftInOutbox = new HashMap<>();
+    private long pendingBytes;
+    private long sequence;
+    private long drainUpTo;
+    private int flushesInFlight;
+    private boolean closed;
+
+    /**
+     * Creates a new bulk processor.
+     *
+     * @param client The client used to send every batch.
+     * @param accessToken A valid access token for SHAAPI service authentication; the token managed by the client is
+     *                    used when {@code null}.
+     * @param config The flush triggers and limits; defaults are used when {@code null}.
+     * @param listener Receives the outcome of every request; may be {@code null}.
+     * @param outbox Persists writes until SHAAPI service processed them; may be {@code null}. Not closed with the
+     *               processor.
+     * @throws UncheckedIOException If the pending writes of the outbox cannot be read.
+     */
+    @Builder
+    private BulkProcessor(@NonNull ShaapiClient client, String accessToken, BulkProcessorConfig config, BulkProcessorListener listener,
+                          Outbox outbox) {
+        this.client = client;
+        this.accessToken = accessToken;
+        this.config = config != null ? config : BulkProcessorConfig.defaults();
+        this.listener = listener != null ? listener : new BulkProcessorListener() { };
+        this.outbox = outbox;
+        this.codec = ShaapiCodec.orDefault(this.config.getCodec());
+        if (this.config.getBatchSize() < 1 || this.config.getMaxInFlightFlushes() < 1
+                || this.config.getMaxBufferedProducts() < this.config.getBatchSize() || this.config.getMaxBatchBytes() < 0) {
+            throw new IllegalArgumentException("Invalid bulk processor configuration. Batch size and in-flight flushes must be positive "
+                    + "and the buffer must hold at least one batch.");
+        }
+        int pool = POOL_COUNTER.incrementAndGet();
+        this.executor = Executors.newFixedThreadPool(this.config.getMaxInFlightFlushes(), threadFactory("shaapi-bulk-processor-" + pool + "-"));
+        Duration interval = this.config.getFlushInterval();
+        if (interval != null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("shaapi-bulk-processor-" + pool + "-timer-"));
+            this.scheduler.scheduleWithFixedDelay(this::drain, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            this.scheduler = null;
+        }
+        if (outbox != null) {
+            replay();
+        }
+    }
+
+    /**
+     * Buffers the upsert of a product, replacing any buffered write of the same product.
+     *
+     * @param accountId The account identifier for which the product is being upserted.
+     * @param product The product to be upserted.
+     * @throws InterruptedException If interrupted while waiting for buffer space.
+     * @throws IllegalStateException If the processor is closed.
+     * @throws IllegalArgumentException If the product alone exceeds {@link BulkProcessorConfig#getMaxBatchBytes()}.
+     * @throws UncheckedIOException If the write cannot be appended to the outbox.
+     */
+    public void upsert(@NonNull String accountId, @NonNull Product product) throws InterruptedException {
+        add(new Entry(Key.of(accountId, product), product, product, checkedSizeOf(product), 0, 0));
+    }
+
+    /**
+     * Buffers the delete of a product, replacing any buffered write of the same product.
+     *
+     * @param accountId The account identifier from which the product is being deleted.
+     * @param product The identifier of the product to be deleted.
+     * @throws InterruptedException If interrupted while waiting for buffer space.
+     * @throws IllegalStateException If the processor is closed.
+     * @throws UncheckedIOException If the write cannot be appended to the outbox.
+     */
+    public void delete(@NonNull String accountId, @NonNull ProductIdentifier product) throws InterruptedException {
+        add(new Entry(Key.of(accountId, product), null, product, sizeOf(product), 0, 0));
+    }
+
+    /**
+     * Sends every write buffered before this call and waits until their requests complete.
+     *
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public void flush() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            long mark = drain(sequence);
+            while (isPending(mark)) {
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of writes buffered or in flight.
+     *
+     * @return The number of products not yet acknowledged by SHAAPI service.
+     */
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size() + inFlight.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rejects further writes, sends everything still buffered and waits until all requests complete.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            changed.signalAll();
+            long mark = drain(sequence);
+            while (isPending(mark)) {
+                changed.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        executor.shutdown();
+    }
+
+    private void add(Entry entry) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            ensureOpen();
+            while (!pending.containsKey(entry.key()) && pending.size() + inFlight.size() >= config.getMaxBufferedProducts()) {
+                drain(sequence);
+                changed.await();
+                ensureOpen();
+            }
+            buffer(outbox != null ? entry.withOutboxSequence(append(entry)) : entry);
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void buffer(Entry entry) {
+        Entry previous = pending.get(entry.key());
+        if (previous != null) {
+            pendingBytes -= previous.bytes();
+            pending.put(entry.key(), entry.withSequence(previous.sequence()));
+            if (previous.outboxSequence() != 0) {
+                outbox.ack(previous.outboxSequence());
+            }
+        } else {
+            pending.put(entry.key(), entry.withSequence(++sequence));
+        }
+        pendingBytes += entry.bytes();
+    }
+
+    private long append(Entry entry) {
+        try {
+            return entry.isUpsert()
+                    ? outbox.appendUpsert(entry.key().accountId(), entry.product())
+                    : outbox.appendDelete(entry.key().accountId(), entry.identifier());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append the write to the outbox", e);
+        }
+    }
+
+    private void replay() {
+        List<OutboxRecord> records;
+        try {
+            records = outbox.getPending();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the pending writes of the outbox", e);
+        }
+        lock.lock();
+        try {
+            for (OutboxRecord entry : records) {
+                ProductIdentifier product = entry.getProduct();
+                Product upserted = entry.getType() == OutboxRecord.Type.UPSERT ? entry.getUpsertedProduct() : null;
+                buffer(new Entry(Key.of(entry.getAccountId(), product), upserted, product, sizeOf(product), 0, entry.getSequence()));
+            }
+            drain(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void drain() {
+        lock.lock();
+        try {
+            drain(sequence);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long drain(long mark) {
+        drainUpTo = Math.max(drainUpTo, mark);
+        dispatch();
+        return mark;
+    }
+
+    private void dispatch() {
+        while (flushesInFlight < config.getMaxInFlightFlushes() && !pending.isEmpty() && (isFull() || firstSequence() <= drainUpTo)) {
+            List<Entry> batch = nextBatch();
+            if (batch.isEmpty()) {
+                return;
+            }
+            flushesInFlight++;
+            batch.forEach(entry -> inFlight.put(entry.key(), entry.sequence()));
+            executor.execute(() -> send(batch));
+        }
+    }
+
+    private List<Entry> nextBatch() {
+        List<Entry> batch = new ArrayList<>();
+        long bytes = 0;
+        Iterator<Entry> iterator = pending.values().iterator();
+        while (iterator.hasNext() && batch.size() < config.getBatchSize()) {
+            Entry entry = iterator.next();
+            if (inFlight.containsKey(entry.key()) || !batch.isEmpty() && !batch.get(0).isSameRequest(entry)) {
+                continue;
+            }
+            if (!batch.isEmpty() && config.getMaxBatchBytes() > 0 && bytes + entry.bytes() > config.getMaxBatchBytes()) {
+                break;
+            }
+            iterator.remove();
+            pendingBytes -= entry.bytes();
+            bytes += entry.bytes();
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    private void send(List<Entry> batch) {
+        String accountId = batch.get(0).key().accountId();
+        try {
+            if (batch.get(0).isUpsert()) {
+                List<Product> products = batch.stream().map(Entry::product).toList();
+                ProductResponse response = request(() -> accessToken != null
+                        ? client.upsertProducts(accountId, accessToken, products)
+                        : client.upsertProducts(accountId, products));
+                ack(batch, response);
+                listener.afterUpsert(accountId, products, response);
+            } else {
+                List<ProductIdentifier> products = batch.stream().map(Entry::identifier).toList();
+                ProductResponse response = request(() -> accessToken != null
+                        ? client.deleteProducts(accountId, accessToken, products)
+                        : client.deleteProducts(accountId, products));
+                ack(batch, response);
+                listener.afterDelete(accountId, products, response);
+            }
+        } finally {
+            lock.lock();
+            try {
+                flushesInFlight--;
+                batch.forEach(entry -> inFlight.remove(entry.key()));
+                dispatch();
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void ack(List<Entry> batch, ProductResponse response) {
+        if (outbox == null) {
+            return;
+        }
+        boolean failed = response.getHttpStatus() >= 300 && isRetryable(response.getHttpStatus());
+        Set<Key> retryable = new HashSet<>();
+        if (response.getHttpStatus() < 300 && response.getResults() != null) {
+            String accountId = batch.get(0).key().accountId();
+            for (Failure failure : response.getResults()) {
+                if (failure.product() != null && isRetryable(failure.status())) {
+                    retryable.add(Key.of(accountId, failure.product()));
+                }
+            }
+        }
+        lock.lock();
+        try {
+            for (Entry entry : batch) {
+                if (entry.outboxSequence() == 0) {
+                    continue;
+                }
+                // Writes of a product complete in order, so an earlier write left in the outbox is superseded by this one
+                Long superseded;
+                if (failed || retryable.contains(entry.key())) {
+                    superseded = leftInOutbox.put(entry.key(), entry.outboxSequence());
+                } else {
+                    superseded = leftInOutbox.remove(entry.key());
+                    outbox.ack(entry.outboxSequence());
+                }
+                if (superseded != null) {
+                    outbox.ack(superseded);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a write failed with this status may succeed when sent again, in which case it is kept in the outbox.
+     */
+    private boolean isRetryable(int status) {
+        return status == 0 || status == HttpStatus.SC_REQUEST_TIMEOUT || status == HttpStatus.SC_TOO_MANY_REQUESTS || status >= 500
+                // A rejected explicit token stays rejected, the managed one is renewed
+                || status == HttpStatus.SC_UNAUTHORIZED && accessToken == null;
+    }
+
+    private boolean isFull() {
+        return pending.size() >= config.getBatchSize() || config.getMaxBatchBytes() > 0 && pendingBytes >= config.getMaxBatchBytes();
+    }
+
+    private boolean isPending(long mark) {
+        return !pending.isEmpty() && firstSequence() <= mark
+                || inFlight.values().stream().anyMatch(entrySequence -> entrySequence <= mark);
+    }
+
+    private long firstSequence() {
+        return pending.values().iterator().next().sequence();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The bulk processor is closed.");
+        }
+    }
+
+    private long sizeOf(ProductIdentifier product) {
+        return config.getMaxBatchBytes() > 0 ? SerializedSize.of(product, codec) : 0;
+    }
+
+    private long checkedSizeOf(ProductIdentifier product) {
+        long bytes = sizeOf(product);
+        if (config.getMaxBatchBytes() > 0 && bytes + SerializedSize.ARRAY_OVERHEAD > config.getMaxBatchBytes()) {
+            throw new IllegalArgumentException("Product " + product.getId() + " is " + bytes + " bytes when serialized, "
+                    + "more than the maximum batch size of " + config.getMaxBatchBytes() + " bytes.");
+        }
+        return bytes;
+    }
+
+    private static ProductResponse request(Supplier<ProductResponse> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                    "An unexpected error occurred during the request: " + e.getMessage(), null, null);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record Key(String accountId, String id, String country, String language) {
+
+        static Key of(String accountId, ProductIdentifier product) {
+            return new Key(accountId, product.getId(), product.getCountry(), product.getLanguage());
+        }
+    }
+
+    private record Entry(Key key, Product product, ProductIdentifier identifier, long bytes, long sequence, long outboxSequence) {
+
+        boolean isUpsert() {
+            return product != null;
+        }
+
+        boolean isSameRequest(Entry other) {
+            return key.accountId().equals(other.key.accountId()) && isUpsert() == other.isUpsert();
+        }
+
+        Entry withSequence(long sequence) {
+            return new Entry(key, product, identifier, bytes, sequence, outboxSequence);
+        }
+
+        Entry withOutboxSequence(long outboxSequence) {
+            return new Entry(key, product, identifier, bytes, sequence, outboxSequence);
+        }
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link BulkProcessor}.
+ *
+ * <ul>
+ *     <li><b>batchSize</b> – number of buffered products that triggers a flush, and the maximum number of products
+ *     sent in a single request.</li>
+ *     <li><b>maxBatchBytes</b> – serialized size of the buffered products that triggers a flush, and the maximum size
+ *     of a single request; {@code 0} (the default) disables size tracking, and the products are not serialized
+ *     twice.</li>
+ *     <li><b>flushInterval</b> – maximum time a product stays in the buffer; {@code null} flushes by size only.</li>
+ *     <li><b>maxInFlightFlushes</b> – maximum number of flush requests in flight at the same time.</li>
+ *     <li><b>maxBufferedProducts</b> – number of buffered and in-flight products above which callers are blocked
+ *     until flushes complete.</li>
+ *     <li><b>codec</b> – measures the serialized size of products against {@code maxBatchBytes}; it should be the
+ *     codec of the client. Defaults to the shared {@link com.admarketplace.sdk.shaapi.client.codec.JacksonCodec}.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class BulkProcessorConfig {
+
+    @Builder.Default
+    private final int batchSize = 1000;
+    @Builder.Default
+    private final long maxBatchBytes = 0;
+    @Builder.Default
+    private final Duration flushInterval = Duration.ofSeconds(1);
+    @Builder.Default
+    private final int maxInFlightFlushes = 2;
+    @Builder.Default
+    private final int maxBufferedProducts = 10_000;
+    @Builder.Default
+    private final ShaapiCodec codec = ShaapiCodec.defaultCodec();
+
+    /**
+     * Returns a configuration with default values.
+     *
+     * @return A {@link BulkProcessorConfig} with default values.
+     */
+    public static BulkProcessorConfig defaults() {
+        return BulkProcessorConfig.builder().build();
+    }
+}
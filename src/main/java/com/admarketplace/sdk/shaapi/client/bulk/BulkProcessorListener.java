@@ -0,0 +1,34 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+
+import java.util.List;
+
+/**
+ * Receives the outcome of every request sent by a {@link BulkProcessor}. Called on the flush thread which sent the
+ * request; implementations should return quickly as the flush slot is held until they do.
+ */
+public interface BulkProcessorListener {
+
+    /**
+     * Called after a batch of buffered upserts was sent.
+     *
+     * @param accountId The account the products were upserted to.
+     * @param products The products sent.
+     * @param response The response of SHAAPI service.
+     */
+    default void afterUpsert(String accountId, List<Product> products, ProductResponse response) {
+    }
+
+    /**
+     * Called after a batch of buffered deletes was sent.
+     *
+     * @param accountId The account the products were deleted from.
+     * @param products The identifiers sent.
+     * @param response The response of SHAAPI service.
+     */
+    default void afterDelete(String accountId, List<ProductIdentifier> products, ProductResponse response) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import lombok.Getter;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Aggregated {@link ProductResponse} of a bulk upsert or delete that was sent to SHAAPI service in several batches.
+ *
+ * <p>In addition to the fields of {@link ProductResponse}, it includes:</p>
+ * <ul>
+ *     <li>{@code batchResponses}: The response of every batch, in the order the batches were built.</li>
+ *     <li>{@code requestIds}: The request identifiers of all batches that returned one.</li>
+ * </ul>
+ *
+ * <p>The aggregated {@code httpStatus} is the status shared by all batches, or {@code 207 Multi-Status} when batches
+ * ended with different statuses. {@code results} holds the failures reported by all batches, {@code requestId} the
+ * comma-separated list of {@code requestIds}, and {@code attempts} the total number of requests sent for all batches.
+ * Batches that failed as a whole (e.g. with HTTP 5xx) don't report per-product failures; they can be found with
+ * {@link #getFailedBatches()}.</p>
+ */
+@Getter
+public class BulkProductResponse extends ProductResponse {
+    private final List<ProductResponse> batchResponses;
+    private final List<String> requestIds;
+
+    BulkProductResponse(int httpStatus, String message, List<String> requestIds, List<Failure> results, List<ProductResponse> batchResponses) {
+        super(httpStatus, message, requestIds.isEmpty() ? null : String.join(",", requestIds), results,
+                batchResponses.stream().mapToInt(ProductResponse::getAttempts).sum());
+        this.batchResponses = batchResponses;
+        this.requestIds = requestIds;
+    }
+
+    /**
+     * Returns the responses of batches that did not complete with a 2xx status.
+     *
+     * @return The failed batch responses, in the order the batches were built.
+     */
+    public List<ProductResponse> getFailedBatches() {
+        return batchResponses.stream().filter(response -> !isSuccessful(response)).toList();
+    }
+
+    static BulkProductResponse of(List<ProductResponse> batchResponses) {
+        if (batchResponses.isEmpty()) {
+            return new BulkProductResponse(HttpStatus.SC_OK, "No products to process.", List.of(), null, batchResponses);
+        }
+
+        List<String> requestIds = new ArrayList<>();
+        List<Failure> failures = new ArrayList<>();
+        int succeeded = 0;
+        for (ProductResponse response : batchResponses) {
+            if (response.getRequestId() != null) {
+                requestIds.add(response.getRequestId());
+            }
+            if (response.getResults() != null) {
+                failures.addAll(response.getResults());
+            }
+            if (isSuccessful(response)) {
+                succeeded++;
+            }
+        }
+
+        ProductResponse first = batchResponses.get(0);
+        boolean sameStatus = batchResponses.stream().allMatch(response -> response.getHttpStatus() == first.getHttpStatus());
+        int httpStatus = sameStatus ? first.getHttpStatus() : HttpStatus.SC_MULTI_STATUS;
+        boolean sameMessage = batchResponses.stream().allMatch(response -> Objects.equals(response.getMessage(), first.getMessage()));
+        String message = sameStatus && sameMessage
+                ? first.getMessage()
+                : "Processed " + batchResponses.size() + " batches: " + succeeded + " succeeded, " + (batchResponses.size() - succeeded) + " failed.";
+
+        return new BulkProductResponse(httpStatus, message, requestIds, failures.isEmpty() ? null : failures, batchResponses);
+    }
+
+    private static boolean isSuccessful(ProductResponse response) {
+        return response.getHttpStatus() >= 200 && response.getHttpStatus() < 300;
+    }
+}
@@ -0,0 +1,364 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.function.Function;
+
+/**
+ * Subscribes to a stream of products for a {@link BulkExecutor}, groups them into batches and publishes the response
+ * of every batch.
+ *
+ * <p>Products are requested to fill the current batch only, and only while no full batch is waiting for one of the
+ * {@code parallelism} send slots, so at most {@code parallelism + 1} batches are held in memory. Responses are
+ * published through a {@link SubmissionPublisher}, whose subscriber is wrapped by {@link #downstream}: a batch is only
+ * sent once the subscriber has requested its responses and the publisher buffer has room for them, so
+ * {@link SubmissionPublisher#submit(Object)} never blocks the executor threads, which are shared with the other calls
+ * of the {@link BulkExecutor}. When the subscriber stops requesting, full batches wait and no more products are
+ * requested.</p>
+ *
+ * <p>Upstream signals, downstream demand and batch completions are serialized by the instance lock. The upstream
+ * subscription and the publisher are only called outside of it, since {@link Flow.Subscription#request(long)} may call
+ * {@link #onNext(ProductIdentifier)} synchronously.</p>
+ */
+final class FlowBatcher<T extends ProductIdentifier> implements Flow.Subscriber<T> {
+    private final int batchSize;
+    private final long maxBatchBytes;
+    private final ShaapiCodec codec;
+    private final int parallelism;
+    private final Executor executor;
+    private final Function<List<T>, ProductResponse> send;
+    private final SubmissionPublisher<ProductResponse> publisher;
+    private final int bufferCapacity;
+
+    private final Deque<Chunk<T>> ready = new ArrayDeque<>();
+    private Flow.Subscription subscription;
+    private List<T> batch = new ArrayList<>();
+    private List<Failure> rejected = new ArrayList<>();
+    private long bytes = SerializedSize.ARRAY_OVERHEAD;
+    private long requested;
+    private int inFlight;
+    private long downstreamRequested;
+    private long submitted;
+    private long delivered;
+    private long reserved;
+    private boolean completed;
+    private boolean cancelled;
+    private boolean closed;
+    private boolean cancelUpstream;
+    private Throwable error;
+
+    /**
+     * The products of a request and the products rejected while it was filled, which are reported after its response.
+     */
+    private record Chunk<T>(List<T> batch, List<Failure> rejected) {
+    }
+
+    FlowBatcher(BulkConfig config, Executor executor, Function<List<T>, ProductResponse> send,
+                SubmissionPublisher<ProductResponse> publisher) {
+        this.batchSize = config.getBatchSize();
+        this.maxBatchBytes = config.getMaxBatchBytes();
+        this.codec = ShaapiCodec.orDefault(config.getCodec());
+        this.parallelism = config.getParallelism();
+        this.executor = executor;
+        this.send = send;
+        this.publisher = publisher;
+        this.bufferCapacity = publisher.getMaxBufferCapacity();
+    }
+
+    /**
+     * Wraps the subscriber of the publisher so that its demand, deliveries and cancellation reach this batcher.
+     */
+    Flow.Subscriber<ProductResponse> downstream(Flow.Subscriber<? super ProductResponse> subscriber) {
+        return new Downstream(subscriber);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+        long demand;
+        synchronized (this) {
+            if (this.subscription != null || cancelled) {
+                demand = -1;
+            } else {
+                this.subscription = subscription;
+                demand = demand();
+            }
+        }
+        if (demand < 0) {
+            subscription.cancel();
+        } else {
+            signal(demand, false);
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        Objects.requireNonNull(item);
+        long demand;
+        synchronized (this) {
+            requested--;
+            if (cancelled) {
+                return;
+            }
+            add(item);
+            demand = dispatch();
+        }
+        signal(demand, false);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable);
+        synchronized (this) {
+            error = throwable;
+        }
+        onComplete();
+    }
+
+    @Override
+    public void onComplete() {
+        boolean close;
+        synchronized (this) {
+            completed = true;
+            if (!cancelled) {
+                closeBatch();
+                dispatch();
+            }
+            close = shouldClose();
+        }
+        signal(0, close);
+    }
+
+    private void add(T item) {
+        long size = 0;
+        if (maxBatchBytes > 0) {
+            try {
+                size = SerializedSize.of(item, codec);
+            } catch (IllegalArgumentException e) {
+                rejected.add(BulkExecutor.notSerializable(item, e));
+                closeBatchIfFull();
+                return;
+            }
+            if (size + SerializedSize.ARRAY_OVERHEAD > maxBatchBytes) {
+                rejected.add(BulkExecutor.tooLarge(item, size, maxBatchBytes));
+                closeBatchIfFull();
+                return;
+            }
+            if (bytes + size > maxBatchBytes) {
+                closeBatch();
+            }
+        }
+        batch.add(item);
+        bytes += size;
+        closeBatchIfFull();
+    }
+
+    private void closeBatchIfFull() {
+        // Rejected products count towards the batch so that the products held in memory stay bounded
+        if (batch.size() + rejected.size() >= batchSize) {
+            closeBatch();
+        }
+    }
+
+    private void closeBatch() {
+        if (!batch.isEmpty() || !rejected.isEmpty()) {
+            ready.add(new Chunk<>(batch, rejected));
+            batch = new ArrayList<>();
+            rejected = new ArrayList<>();
+            bytes = SerializedSize.ARRAY_OVERHEAD;
+        }
+    }
+
+    /**
+     * Hands the full batches to the executor while send slots are free.
+     *
+     * @return The number of products to request from upstream.
+     */
+    private long dispatch() {
+        while (!ready.isEmpty() && inFlight < parallelism && hasDemandFor(ready.peek())) {
+            Chunk<T> chunk = ready.poll();
+            inFlight++;
+            reserved += responses(chunk);
+            try {
+                executor.execute(() -> send(chunk));
+            } catch (RejectedExecutionException e) {
+                inFlight--;
+                reserved -= responses(chunk);
+                cancel(new IllegalStateException("The bulk executor is closed.", e));
+                return 0;
+            }
+        }
+        return demand();
+    }
+
+    /**
+     * Whether the subscriber has requested the first response of a chunk, and all its responses fit in the publisher
+     * buffer together with those already submitted or being sent.
+     */
+    private boolean hasDemandFor(Chunk<T> chunk) {
+        long pending = submitted + reserved;
+        return pending < downstreamRequested && pending + responses(chunk) - delivered <= bufferCapacity;
+    }
+
+    private static int responses(Chunk<?> chunk) {
+        return (chunk.batch().isEmpty() ? 0 : 1) + (chunk.rejected().isEmpty() ? 0 : 1);
+    }
+
+    private long demand() {
+        if (cancelled || completed || requested > 0 || !ready.isEmpty()) {
+            return 0;
+        }
+        long demand = batchSize - batch.size() - rejected.size();
+        requested += demand;
+        return demand;
+    }
+
+    private void cancel(Throwable cause) {
+        cancelled = true;
+        cancelUpstream = !completed;
+        ready.clear();
+        if (error == null) {
+            error = cause;
+        }
+    }
+
+    private boolean shouldClose() {
+        if (!closed && (completed || cancelled) && ready.isEmpty() && inFlight == 0) {
+            closed = true;
+            return true;
+        }
+        return false;
+    }
+
+    private void send(Chunk<T> chunk) {
+        if (!chunk.batch().isEmpty()) {
+            publisher.submit(send.apply(chunk.batch()));
+        }
+        if (!chunk.rejected().isEmpty()) {
+            publisher.submit(BulkExecutor.notSent(chunk.rejected(), maxBatchBytes));
+        }
+
+        long demand;
+        boolean close;
+        synchronized (this) {
+            inFlight--;
+            reserved -= responses(chunk);
+            submitted += responses(chunk);
+            demand = cancelled ? 0 : dispatch();
+            close = shouldClose();
+        }
+        signal(demand, close);
+    }
+
+    private void onRequest(long n) {
+        long demand;
+        synchronized (this) {
+            downstreamRequested = downstreamRequested + n < 0 ? Long.MAX_VALUE : downstreamRequested + n;
+            demand = cancelled || subscription == null ? 0 : dispatch();
+        }
+        signal(demand, false);
+    }
+
+    private void onDelivered() {
+        long demand;
+        synchronized (this) {
+            delivered++;
+            demand = cancelled || subscription == null ? 0 : dispatch();
+        }
+        signal(demand, false);
+    }
+
+    private void onCancel() {
+        boolean close;
+        synchronized (this) {
+            if (!cancelled) {
+                cancel(null);
+            }
+            close = shouldClose();
+        }
+        signal(0, close);
+    }
+
+    private void signal(long demand, boolean close) {
+        boolean cancel;
+        Throwable cause;
+        Flow.Subscription upstream;
+        synchronized (this) {
+            upstream = subscription;
+            // Without a subscription yet, onSubscribe cancels it once it arrives
+            cancel = cancelUpstream && upstream != null;
+            cancelUpstream = false;
+            cause = error;
+        }
+        if (cancel) {
+            upstream.cancel();
+        } else if (demand > 0) {
+            upstream.request(demand);
+        }
+        if (close) {
+            if (cause != null) {
+                publisher.closeExceptionally(cause);
+            } else {
+                publisher.close();
+            }
+        }
+    }
+
+    /**
+     * Passes the publisher signals on to the subscriber, reporting its requests, deliveries and cancellation.
+     */
+    private final class Downstream implements Flow.Subscriber<ProductResponse> {
+        private final Flow.Subscriber<? super ProductResponse> subscriber;
+
+        Downstream(Flow.Subscriber<? super ProductResponse> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                    if (n > 0) {
+                        onRequest(n);
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    onCancel();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(ProductResponse item) {
+            subscriber.onNext(item);
+            onDelivered();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            subscriber.onComplete();
+        }
+    }
+}
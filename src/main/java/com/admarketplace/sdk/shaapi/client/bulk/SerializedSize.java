@@ -0,0 +1,49 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Measures how many bytes products take in the JSON array body of an upsert or delete request, as written by a
+ * {@link ShaapiCodec}.
+ */
+@UtilityClass
+class SerializedSize {
+    /** The enclosing brackets of the JSON array. */
+    static final long ARRAY_OVERHEAD = 2;
+
+    /**
+     * Serializes a product into a counting sink, without buffering the JSON document.
+     *
+     * @param product The product or product identifier.
+     * @param codec The codec the request bodies are serialized with.
+     * @return Its serialized size in bytes, plus one for the separating comma.
+     * @throws IllegalArgumentException If the product cannot be serialized.
+     */
+    static long of(Object product, ShaapiCodec codec) {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        try {
+            codec.write(product, outputStream);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("The product cannot be serialized: " + e.getMessage(), e);
+        }
+        return outputStream.count + 1;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.admarketplace.sdk.shaapi.client.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings of the product count cache of {@link com.admarketplace.sdk.shaapi.client.ShaapiClient}, which serves repeated
+ * {@code getProductCount} calls for an account from memory; see {@link ProductCountCache}.
+ *
+ * <ul>
+ *     <li><b>ttl</b> – how long a successful count is served before it is requested again.</li>
+ *     <li><b>maxAccounts</b> – maximum number of accounts whose count is cached. Once reached, expired counts are
+ *     dropped and, if none has expired, counts of further accounts are requested without being cached.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class CountCacheConfig {
+
+    @Builder.Default
+    private final Duration ttl = Duration.ofSeconds(30);
+    @Builder.Default
+    private final int maxAccounts = 10_000;
+
+    /**
+     * Returns a configuration with the default TTL and size.
+     *
+     * @return A {@link CountCacheConfig} with default values.
+     */
+    public static CountCacheConfig defaults() {
+        return CountCacheConfig.builder().build();
+    }
+}
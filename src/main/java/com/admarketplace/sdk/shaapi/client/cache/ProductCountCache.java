@@ -0,0 +1,132 @@
+package com.admarketplace.sdk.shaapi.client.cache;
+
+import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Caches the product count of each account for {@link CountCacheConfig#getTtl()}.
+ *
+ * <p>Requests are coalesced: while the count of an account is being requested, concurrent callers wait for that
+ * request and share its response instead of sending their own. Only successful (HTTP 200) responses are cached; any
+ * other response is returned to the callers that waited for it and the next call requests the count again.</p>
+ *
+ * <p>Writes to an account {@link #invalidate(String) invalidate} its count, including a request still in flight: its
+ * response is returned to the callers already waiting for it, but is not cached since it may predate the write.</p>
+ *
+ * <p>The cache is thread-safe and meant to be shared by all threads using a client.</p>
+ */
+public class ProductCountCache {
+    private final CountCacheConfig config;
+    private final LongSupplier nanoTime;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param config The TTL and size of the cache.
+     */
+    public ProductCountCache(CountCacheConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    ProductCountCache(CountCacheConfig config, LongSupplier nanoTime) {
+        if (config.getTtl() == null || config.getTtl().isNegative() || config.getMaxAccounts() < 1) {
+            throw new IllegalArgumentException("Invalid count cache configuration. The TTL must not be negative and maxAccounts must be positive.");
+        }
+        this.config = config;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the cached count of an account, waits for the request in flight for it, or requests it.
+     *
+     * @param accountId The account.
+     * @param request Sends the product count request when neither a cached count nor a request in flight exists.
+     * @return The cached or received response.
+     */
+    public ProductCountResponse get(String accountId, Supplier<ProductCountResponse> request) {
+        Entry entry = entries.get(accountId);
+        if (entry != null && isFresh(entry)) {
+            return join(entry);
+        }
+
+        if (entries.size() >= config.getMaxAccounts()) {
+            entries.values().removeIf(candidate -> !isFresh(candidate));
+            if (entries.size() >= config.getMaxAccounts()) {
+                return request.get();
+            }
+        }
+
+        Entry created = new Entry();
+        entry = entries.compute(accountId, (id, current) -> current != null && isFresh(current) ? current : created);
+        if (entry != created) {
+            return join(entry);
+        }
+        return load(accountId, created, request);
+    }
+
+    /**
+     * Drops the count of an account, so the next call requests it again.
+     *
+     * @param accountId The account whose products changed.
+     */
+    public void invalidate(String accountId) {
+        entries.remove(accountId);
+    }
+
+    /**
+     * Drops every cached count.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    private ProductCountResponse load(String accountId, Entry entry, Supplier<ProductCountResponse> request) {
+        ProductCountResponse response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            entries.remove(accountId, entry);
+            entry.expiresAt = nanoTime.getAsLong();
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        long now = nanoTime.getAsLong();
+        if (response.getHttpStatus() == HttpStatus.SC_OK) {
+            entry.expiresAt = now + config.getTtl().toNanos();
+        } else {
+            entries.remove(accountId, entry);
+            entry.expiresAt = now;
+        }
+        entry.future.complete(response);
+        return response;
+    }
+
+    private boolean isFresh(Entry entry) {
+        // expiresAt is written before the future completes, so it is visible once the future is done
+        return !entry.future.isDone() || entry.expiresAt - nanoTime.getAsLong() > 0;
+    }
+
+    private static ProductCountResponse join(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    /**
+     * A cached count, or a count being requested while its future is not done.
+     */
+    private static final class Entry {
+        private final CompletableFuture<ProductCountResponse> future = new CompletableFuture<>();
+        private volatile long expiresAt;
+    }
+}
@@ -0,0 +1,31 @@
+package com.admarketplace.sdk.shaapi.client.circuitbreaker;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Signals that a request was not sent because the circuit breaker of its endpoint is open.
+ * The client reports such requests with {@link #HTTP_STATUS} and zero attempts, so they can be told apart from errors
+ * returned by the service.
+ */
+@Getter
+public class CallNotPermittedException extends IOException {
+    /**
+     * The status of responses to requests rejected by an open circuit breaker. It is outside the range of statuses sent
+     * by SHAAPI service and, being a 5xx status, is treated as a server-side failure by code checking for success.
+     */
+    public static final int HTTP_STATUS = 599;
+
+    private final String circuitBreakerName;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param circuitBreakerName The name of the open circuit breaker.
+     */
+    public CallNotPermittedException(String circuitBreakerName) {
+        super("Circuit breaker for " + circuitBreakerName + " is open, the request was not sent.");
+        this.circuitBreakerName = circuitBreakerName;
+    }
+}
@@ -0,0 +1,185 @@
+package com.admarketplace.sdk.shaapi.client.circuitbreaker;
+
+import java.util.function.LongSupplier;
+
+/**
+ * A count-based circuit breaker protecting a single endpoint.
+ *
+ * <ul>
+ *     <li>{@link State#CLOSED} – calls are permitted and their outcomes recorded in a sliding window. Once the window
+ *     holds at least {@code minimumNumberOfCalls}, the circuit opens if the failure rate or the slow-call rate reaches
+ *     its threshold.</li>
+ *     <li>{@link State#OPEN} – calls are rejected without being sent, until {@code waitDurationInOpenState} elapses.</li>
+ *     <li>{@link State#HALF_OPEN} – up to {@code permittedCallsInHalfOpenState} probe calls are permitted. When all of
+ *     them completed, the circuit closes if both rates are below their thresholds and opens again otherwise.</li>
+ * </ul>
+ *
+ * <p>A circuit breaker is shared by all threads calling its endpoint and is thread-safe.</p>
+ */
+public class CircuitBreaker {
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final CircuitBreakerConfig config;
+    private final LongSupplier nanoTime;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private Window window;
+    private int halfOpenPermits;
+
+    CircuitBreaker(String name, CircuitBreakerConfig config, LongSupplier nanoTime) {
+        this.name = name;
+        this.config = config;
+        this.nanoTime = nanoTime;
+        this.window = new Window(Math.max(1, config.getSlidingWindowSize()));
+    }
+
+    /**
+     * Returns the name of this circuit breaker, i.e. the endpoint it protects.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current state, moving from {@link State#OPEN} to {@link State#HALF_OPEN} if the wait duration elapsed.
+     *
+     * @return The current state.
+     */
+    public State getState() {
+        State from;
+        State to;
+        synchronized (this) {
+            from = state;
+            openIfWaitElapsed();
+            to = state;
+        }
+        notifyTransition(from, to);
+        return to;
+    }
+
+    /**
+     * Checks whether a call may be sent. Every permitted call must be followed by {@link #onResult(long, boolean)}.
+     *
+     * @return {@code true} if the call is permitted, {@code false} if it must fail fast.
+     */
+    public boolean tryAcquirePermission() {
+        State from;
+        State to;
+        boolean permitted;
+        synchronized (this) {
+            from = state;
+            openIfWaitElapsed();
+            to = state;
+            permitted = switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (halfOpenPermits > 0) {
+                        halfOpenPermits--;
+                        yield true;
+                    }
+                    yield false;
+                }
+            };
+        }
+        notifyTransition(from, to);
+        return permitted;
+    }
+
+    /**
+     * Records the outcome of a permitted call.
+     *
+     * @param durationNanos How long the call took.
+     * @param failed Whether the call failed.
+     */
+    public void onResult(long durationNanos, boolean failed) {
+        boolean slow = durationNanos > config.getSlowCallDurationThreshold().toNanos();
+        State from;
+        State to;
+        synchronized (this) {
+            from = state;
+            if (state != State.OPEN) {
+                window.record(failed, slow);
+                if (state == State.CLOSED && window.size >= config.getMinimumNumberOfCalls() && isAboveThresholds()) {
+                    transitionTo(State.OPEN);
+                } else if (state == State.HALF_OPEN && window.size >= config.getPermittedCallsInHalfOpenState()) {
+                    transitionTo(isAboveThresholds() ? State.OPEN : State.CLOSED);
+                }
+            }
+            to = state;
+        }
+        notifyTransition(from, to);
+    }
+
+    private boolean isAboveThresholds() {
+        return window.failures >= config.getFailureRateThreshold() * window.size
+                || window.slowCalls >= config.getSlowCallRateThreshold() * window.size;
+    }
+
+    private void openIfWaitElapsed() {
+        if (state == State.OPEN && nanoTime.getAsLong() - openedAtNanos >= config.getWaitDurationInOpenState().toNanos()) {
+            transitionTo(State.HALF_OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        switch (newState) {
+            case OPEN -> openedAtNanos = nanoTime.getAsLong();
+            case HALF_OPEN -> {
+                halfOpenPermits = Math.max(1, config.getPermittedCallsInHalfOpenState());
+                window = new Window(halfOpenPermits);
+            }
+            case CLOSED -> window = new Window(Math.max(1, config.getSlidingWindowSize()));
+        }
+    }
+
+    private void notifyTransition(State from, State to) {
+        if (from != to && config.getListener() != null) {
+            config.getListener().onStateTransition(name, from, to);
+        }
+    }
+
+    /**
+     * Ring buffer of the outcomes of the most recent calls.
+     */
+    private static final class Window {
+        private final boolean[] failed;
+        private final boolean[] slow;
+        private int next;
+        private int size;
+        private int failures;
+        private int slowCalls;
+
+        private Window(int capacity) {
+            this.failed = new boolean[capacity];
+            this.slow = new boolean[capacity];
+        }
+
+        private void record(boolean callFailed, boolean callSlow) {
+            if (size == failed.length) {
+                failures -= failed[next] ? 1 : 0;
+                slowCalls -= slow[next] ? 1 : 0;
+            } else {
+                size++;
+            }
+            failed[next] = callFailed;
+            slow[next] = callSlow;
+            failures += callFailed ? 1 : 0;
+            slowCalls += callSlow ? 1 : 0;
+            next = (next + 1) % failed.length;
+        }
+    }
+}
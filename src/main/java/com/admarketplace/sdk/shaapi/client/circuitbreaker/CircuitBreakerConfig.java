@@ -0,0 +1,51 @@
+package com.admarketplace.sdk.shaapi.client.circuitbreaker;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings of the circuit breakers that protect {@link com.admarketplace.sdk.shaapi.client.ShaapiClient} from a degraded
+ * SHAAPI or authentication service. One {@link CircuitBreaker} is kept per service endpoint (scheme, host and port).
+ *
+ * <ul>
+ *     <li><b>slidingWindowSize</b> – number of most recent calls the failure and slow-call rates are computed over.</li>
+ *     <li><b>minimumNumberOfCalls</b> – calls required in the window before the rates are evaluated.</li>
+ *     <li><b>failureRateThreshold</b> – share of failed calls (I/O errors and HTTP 5xx) that opens the circuit.</li>
+ *     <li><b>slowCallDurationThreshold</b> – calls taking longer than this are considered slow.</li>
+ *     <li><b>slowCallRateThreshold</b> – share of slow calls that opens the circuit.</li>
+ *     <li><b>waitDurationInOpenState</b> – how long the circuit stays open, failing calls fast, before letting probe calls through.</li>
+ *     <li><b>permittedCallsInHalfOpenState</b> – number of probe calls whose outcome decides whether the circuit closes again.</li>
+ *     <li><b>listener</b> – notified of every state transition; optional.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class CircuitBreakerConfig {
+
+    @Builder.Default
+    private final int slidingWindowSize = 50;
+    @Builder.Default
+    private final int minimumNumberOfCalls = 20;
+    @Builder.Default
+    private final double failureRateThreshold = 0.5;
+    @Builder.Default
+    private final Duration slowCallDurationThreshold = Duration.ofSeconds(10);
+    @Builder.Default
+    private final double slowCallRateThreshold = 0.8;
+    @Builder.Default
+    private final Duration waitDurationInOpenState = Duration.ofSeconds(30);
+    @Builder.Default
+    private final int permittedCallsInHalfOpenState = 5;
+    private final CircuitBreakerListener listener;
+
+    /**
+     * Returns a configuration with the default thresholds and no listener.
+     *
+     * @return A {@link CircuitBreakerConfig} with default values.
+     */
+    public static CircuitBreakerConfig defaults() {
+        return CircuitBreakerConfig.builder().build();
+    }
+}
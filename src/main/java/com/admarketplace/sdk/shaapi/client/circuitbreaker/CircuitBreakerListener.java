@@ -0,0 +1,18 @@
+package com.admarketplace.sdk.shaapi.client.circuitbreaker;
+
+/**
+ * Receives the state transitions of {@link CircuitBreaker}s, e.g. to log them or export them as metrics.
+ * Called synchronously on the thread that caused the transition, so implementations should return quickly.
+ */
+@FunctionalInterface
+public interface CircuitBreakerListener {
+
+    /**
+     * Called when a circuit breaker changes state.
+     *
+     * @param name The name of the circuit breaker, i.e. the endpoint it protects.
+     * @param from The previous state.
+     * @param to The new state.
+     */
+    void onStateTransition(String name, CircuitBreaker.State from, CircuitBreaker.State to);
+}
@@ -0,0 +1,41 @@
+package com.admarketplace.sdk.shaapi.client.circuitbreaker;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps one {@link CircuitBreaker} per endpoint (scheme, host and port), so that a degraded authentication service does
+ * not stop product requests to SHAAPI service, and vice versa.
+ */
+public class CircuitBreakers {
+    private final CircuitBreakerConfig config;
+    private final LongSupplier nanoTime;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a registry whose circuit breakers use the given settings.
+     *
+     * @param config The circuit breaker settings.
+     */
+    public CircuitBreakers(CircuitBreakerConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    CircuitBreakers(CircuitBreakerConfig config, LongSupplier nanoTime) {
+        this.config = config;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the circuit breaker of the endpoint the given URI belongs to, creating it on first use.
+     *
+     * @param uri A request URI.
+     * @return The {@link CircuitBreaker} of the endpoint.
+     */
+    public CircuitBreaker get(URI uri) {
+        String name = uri.getScheme() + "://" + uri.getAuthority();
+        return circuitBreakers.computeIfAbsent(name, key -> new CircuitBreaker(key, config, nanoTime));
+    }
+}
@@ -0,0 +1,19 @@
+package com.admarketplace.sdk.shaapi.client.codec;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a {@link ShaapiCodec} when a response body is not a valid document of the expected type.
+ */
+public class CodecException extends IOException {
+
+    /**
+     * Creates a new exception.
+     *
+     * @param message Describes what is wrong with the document, without the document itself.
+     * @param cause The exception thrown by the JSON engine, or {@code null}.
+     */
+    public CodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,90 @@
+package com.admarketplace.sdk.shaapi.client.codec;
+
+import com.admarketplace.authorization.api.model.v1.AuthenticationResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.ProductCount;
+import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * A {@link ShaapiCodec} backed by Jackson.
+ *
+ * <p>The {@link ObjectReader} of every response type and the {@link ObjectWriter} of request bodies are created once,
+ * when the codec is created, so the generic response types are not resolved again on every call and the
+ * (de)serializers looked up on the first call are cached for the lifetime of the codec. Share a codec rather than
+ * creating one per request.</p>
+ */
+public class JacksonCodec implements ShaapiCodec {
+    private static final JacksonCodec DEFAULT = new JacksonCodec(new ObjectMapper());
+
+    private final ObjectWriter writer;
+    private final ObjectReader productResponseReader;
+    private final ObjectReader productCountResponseReader;
+    private final ObjectReader authenticationResponseReader;
+
+    /**
+     * Creates a codec using the settings and modules of a mapper. The mapper must not be reconfigured afterwards.
+     *
+     * @param objectMapper The mapper the readers and writer are created from.
+     */
+    public JacksonCodec(ObjectMapper objectMapper) {
+        this.writer = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.productResponseReader = objectMapper.readerFor(new TypeReference<ShaapiResponse<List<Failure>>>() {
+        });
+        this.productCountResponseReader = objectMapper.readerFor(new TypeReference<ShaapiResponse<ProductCount>>() {
+        });
+        this.authenticationResponseReader = objectMapper.readerFor(AuthenticationResponse.class);
+    }
+
+    /**
+     * Returns the shared codec with Jackson's default settings.
+     *
+     * @return The default codec.
+     */
+    public static JacksonCodec defaults() {
+        return DEFAULT;
+    }
+
+    @Override
+    public void write(Object body, OutputStream outputStream) throws IOException {
+        writer.writeValue(outputStream, body);
+    }
+
+    @Override
+    public byte[] writeAsBytes(Object body) throws IOException {
+        return writer.writeValueAsBytes(body);
+    }
+
+    @Override
+    public ShaapiResponse<List<Failure>> readProductResponse(InputStream inputStream) throws IOException {
+        return read(productResponseReader, inputStream);
+    }
+
+    @Override
+    public ShaapiResponse<ProductCount> readProductCountResponse(InputStream inputStream) throws IOException {
+        return read(productCountResponseReader, inputStream);
+    }
+
+    @Override
+    public AuthenticationResponse readAuthenticationResponse(InputStream inputStream) throws IOException {
+        return read(authenticationResponseReader, inputStream);
+    }
+
+    private static <T> T read(ObjectReader reader, InputStream inputStream) throws IOException {
+        try {
+            return reader.readValue(inputStream);
+        } catch (JacksonException e) {
+            throw new CodecException(e.getOriginalMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.admarketplace.sdk.shaapi.client.codec;
+
+import com.admarketplace.authorization.api.model.v1.AuthenticationResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.ProductCount;
+import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Serializes request bodies and deserializes the responses of the SHAAPI and authentication services. A single codec
+ * is shared by every request of a client, see {@link com.admarketplace.sdk.shaapi.client.config.HttpClientConfig#getCodec()}.
+ *
+ * <p>{@link JacksonCodec} is the default. {@link com.admarketplace.sdk.shaapi.client.codec.blackbird.BlackbirdCodec}
+ * replaces Jackson's reflection with generated accessors, and other JSON engines can be plugged in by implementing
+ * this interface.</p>
+ *
+ * <p>Implementations must be thread-safe. A body that is not a valid document of the expected type must be reported
+ * with a {@link CodecException}; any other {@link IOException} is treated as a failure to read the body.</p>
+ */
+public interface ShaapiCodec {
+
+    /**
+     * Serializes a request body, a collection of products or product identifiers, as JSON.
+     *
+     * @param body The request body.
+     * @param outputStream The stream the JSON document is written to. It must not be closed by the codec.
+     * @throws IOException If the body cannot be serialized or written.
+     */
+    void write(Object body, OutputStream outputStream) throws IOException;
+
+    /**
+     * Serializes a request body as JSON into memory.
+     *
+     * @param body The request body.
+     * @return The JSON document.
+     * @throws IOException If the body cannot be serialized.
+     */
+    default byte[] writeAsBytes(Object body) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        write(body, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Deserializes the response of an upsert or delete request.
+     *
+     * @param inputStream The response body.
+     * @return The message and the failed products of the response.
+     * @throws CodecException If the body is not a valid response.
+     * @throws IOException If the body cannot be read.
+     */
+    ShaapiResponse<List<Failure>> readProductResponse(InputStream inputStream) throws IOException;
+
+    /**
+     * Deserializes the response of a product count request.
+     *
+     * @param inputStream The response body.
+     * @return The message and the product count of the response.
+     * @throws CodecException If the body is not a valid response.
+     * @throws IOException If the body cannot be read.
+     */
+    ShaapiResponse<ProductCount> readProductCountResponse(InputStream inputStream) throws IOException;
+
+    /**
+     * Deserializes the response of the authentication service.
+     *
+     * @param inputStream The response body.
+     * @return The access token and its lifetime, or the error message.
+     * @throws CodecException If the body is not a valid response.
+     * @throws IOException If the body cannot be read.
+     */
+    AuthenticationResponse readAuthenticationResponse(InputStream inputStream) throws IOException;
+
+    /**
+     * Returns the shared default codec.
+     *
+     * @return A {@link JacksonCodec} with Jackson's default settings.
+     */
+    static ShaapiCodec defaultCodec() {
+        return JacksonCodec.defaults();
+    }
+
+    /**
+     * Returns the given codec, or the default one if it is {@code null}.
+     *
+     * @param codec A codec, possibly {@code null}.
+     * @return {@code codec} or {@link #defaultCodec()}.
+     */
+    static ShaapiCodec orDefault(ShaapiCodec codec) {
+        return codec != null ? codec : defaultCodec();
+    }
+}
@@ -0,0 +1,33 @@
+package com.admarketplace.sdk.shaapi.client.codec.blackbird;
+
+import com.admarketplace.sdk.shaapi.client.codec.JacksonCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+/**
+ * A {@link JacksonCodec} with the Jackson Blackbird module, which replaces reflective property access with
+ * bytecode generated through {@code LambdaMetafactory}. It produces and accepts exactly the same JSON as the default
+ * codec; whether it is faster depends on the product shape and JVM, so compare both with the SDK benchmarks.
+ *
+ * <p>Blackbird is an optional dependency of the SDK; applications using this class must depend on
+ * {@code com.fasterxml.jackson.module:jackson-module-blackbird} themselves, in the version of their Jackson.</p>
+ */
+public class BlackbirdCodec extends JacksonCodec {
+
+    /**
+     * Creates a codec with Jackson's default settings and the Blackbird module.
+     */
+    public BlackbirdCodec() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * Creates a codec using the settings and modules of a mapper, adding the Blackbird module to it. The mapper must
+     * not be reconfigured afterwards.
+     *
+     * @param objectMapper The mapper the readers and writer are created from.
+     */
+    public BlackbirdCodec(ObjectMapper objectMapper) {
+        super(objectMapper.registerModule(new BlackbirdModule()));
+    }
+}
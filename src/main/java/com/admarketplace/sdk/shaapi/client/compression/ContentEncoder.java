@@ -0,0 +1,31 @@
+package com.admarketplace.sdk.shaapi.client.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Compresses request bodies sent to SHAAPI service.
+ *
+ * <p>Implementations wrap the connection output stream so the body is compressed while it is being streamed,
+ * without buffering it. The standard encodings are available in {@link StandardContentEncoder}; custom codecs
+ * can be plugged in through {@link com.admarketplace.sdk.shaapi.client.config.HttpClientConfig#getRequestEncoder()}.</p>
+ */
+public interface ContentEncoder {
+
+    /**
+     * Returns the content coding sent in the {@code Content-Encoding} header (e.g. {@code gzip}).
+     *
+     * @return The content coding name.
+     */
+    String getName();
+
+    /**
+     * Wraps the given stream in a compressing stream. Closing the returned stream must finish the compressed
+     * representation and close the given stream.
+     *
+     * @param outputStream The stream the compressed bytes are written to.
+     * @return A stream accepting the uncompressed bytes.
+     * @throws IOException If the compressing stream cannot be created.
+     */
+    OutputStream encode(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,84 @@
+package com.admarketplace.sdk.shaapi.client.compression;
+
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Wraps a request entity so its content is compressed with a {@link ContentEncoder} while it is written to the
+ * connection. The compressed body is streamed with chunked transfer encoding and never buffered in full.
+ */
+public final class EncodingEntity extends HttpEntityWrapper {
+    private final ContentEncoder encoder;
+
+    /**
+     * Creates a new encoding entity.
+     *
+     * @param wrappedEntity The entity providing the uncompressed content.
+     * @param encoder The encoder applied to the content.
+     */
+    public EncodingEntity(HttpEntity wrappedEntity, ContentEncoder encoder) {
+        super(wrappedEntity);
+        this.encoder = encoder;
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return encoder.getName();
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return true;
+    }
+
+    @Override
+    public void writeTo(OutputStream outStream) throws IOException {
+        // The connection owns outStream: close only the encoder, which finishes the compressed representation.
+        try (OutputStream encoded = encoder.encode(new NonClosingOutputStream(outStream))) {
+            super.writeTo(encoded);
+        }
+    }
+
+    /**
+     * Returns the compressed content as an input stream. This buffers the whole compressed body in memory and is
+     * only meant for consumers that cannot work with {@link #writeTo(OutputStream)}.
+     *
+     * @return An input stream over the compressed content.
+     * @throws IOException If the content cannot be compressed.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        writeTo(buffer);
+        return new ByteArrayInputStream(buffer.toByteArray());
+    }
+
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
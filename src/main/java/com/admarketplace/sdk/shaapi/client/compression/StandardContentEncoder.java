@@ -0,0 +1,50 @@
+package com.admarketplace.sdk.shaapi.client.compression;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Enumerates the request body encodings supported out of the box by the SHAAPI SDK.
+ *
+ * <ul>
+ *     <li>{@code GZIP}: gzip compression, the most widely supported content coding.</li>
+ *     <li>{@code DEFLATE}: zlib-wrapped deflate compression, slightly smaller than gzip for the same level.</li>
+ * </ul>
+ */
+@Getter
+public enum StandardContentEncoder implements ContentEncoder {
+    GZIP("gzip") {
+        @Override
+        public OutputStream encode(OutputStream outputStream) throws IOException {
+            return new GZIPOutputStream(outputStream, BUFFER_SIZE);
+        }
+    },
+    DEFLATE("deflate") {
+        @Override
+        public OutputStream encode(OutputStream outputStream) {
+            return new DeflaterOutputStream(outputStream, new Deflater(Deflater.DEFAULT_COMPRESSION), BUFFER_SIZE) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final String name;
+
+    StandardContentEncoder(String name) {
+        this.name = name;
+    }
+}
@@ -0,0 +1,117 @@
+package com.admarketplace.sdk.shaapi.client.config;
+
+import com.admarketplace.sdk.shaapi.client.cache.CountCacheConfig;
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CircuitBreakerConfig;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.compression.ContentEncoder;
+import com.admarketplace.sdk.shaapi.client.metrics.ShaapiMetrics;
+import com.admarketplace.sdk.shaapi.client.ratelimit.RateLimitConfig;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeout settings for the HTTP client used by the SHAAPI SDK.
+ * A single pooled client is created per {@link com.admarketplace.sdk.shaapi.client.ShaapiClient}
+ * (or {@link com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient}) instance
+ * and reused for every request, so connections (and their TLS sessions) are kept alive between calls.
+ *
+ * <ul>
+ *     <li><b>maxTotalConnections</b> – maximum number of connections kept in the pool across all routes.</li>
+ *     <li><b>maxConnectionsPerRoute</b> – maximum number of connections to a single host (auth or SHAAPI service).</li>
+ *     <li><b>connectTimeout</b> – timeout for establishing a new connection.</li>
+ *     <li><b>socketTimeout</b> – timeout waiting for data on an established connection.</li>
+ *     <li><b>connectionRequestTimeout</b> – timeout waiting for a free connection from the pool.</li>
+ *     <li><b>keepAlive</b> – how long an idle connection is kept when the server does not send a {@code Keep-Alive} header.</li>
+ *     <li><b>evictIdleConnectionsAfter</b> – idle connections older than this are closed by a background evictor.</li>
+ *     <li><b>validateAfterInactivity</b> – pooled connections idle for longer than this are checked before being reused.</li>
+ *     <li><b>ioThreads</b> – number of I/O reactor threads used by {@link com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient}.</li>
+ *     <li><b>httpVersionPolicy</b> – the HTTP version used by {@link com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient}.
+ *     {@code FORCE_HTTP_1} (the default) sends each request on its own pooled HTTP/1.1 connection. {@code NEGOTIATE}
+ *     multiplexes requests over a single HTTP/2 connection per host when the server selects {@code h2} through TLS
+ *     ALPN, and falls back to the HTTP/1.1 pool for hosts that don't and for plain {@code http} URLs.
+ *     {@code FORCE_HTTP_2} always uses HTTP/2, with prior knowledge on plain {@code http} URLs. The blocking
+ *     {@link com.admarketplace.sdk.shaapi.client.ShaapiClient} always uses HTTP/1.1.</li>
+ *     <li><b>maxConcurrentStreams</b> – maximum number of requests multiplexed at the same time on the HTTP/2
+ *     connection to a host; further requests wait until a stream completes. The limit announced by the server also
+ *     applies, and {@code 0} leaves it as the only one.</li>
+ *     <li><b>requestEncoder</b> – compresses request bodies (e.g. {@link com.admarketplace.sdk.shaapi.client.compression.StandardContentEncoder#GZIP});
+ *     {@code null} (the default) sends them uncompressed.</li>
+ *     <li><b>responseCompression</b> – whether compressed responses are requested with {@code Accept-Encoding} and
+ *     transparently decompressed.</li>
+ *     <li><b>retryPolicy</b> – when and how failed requests are retried; see {@link RetryPolicy}, whose
+ *     {@link RetryPolicy#defaults() defaults} suit most uses. {@code null} (the default) sends every request once.</li>
+ *     <li><b>rateLimit</b> – per-account request rate, product rate and adaptive concurrency limits applied by
+ *     {@link com.admarketplace.sdk.shaapi.client.ShaapiClient}; see {@link RateLimitConfig}. {@code null} (the default)
+ *     applies no limits.</li>
+ *     <li><b>circuitBreaker</b> – circuit breakers failing requests fast while the SHAAPI or authentication service is
+ *     degraded; see {@link CircuitBreakerConfig}. {@code null} (the default) disables them.</li>
+ *     <li><b>countCache</b> – serves repeated product count requests of an account made with the token managed by the
+ *     client from memory, coalescing concurrent ones, until it expires or products of the account are written; see
+ *     {@link CountCacheConfig}. Requests with an explicit access token are always sent. {@code null} (the default)
+ *     sends every count request.</li>
+ *     <li><b>metrics</b> – receives the latency, payload sizes and status of every call and observes the connection
+ *     pool; see {@link ShaapiMetrics}. {@code null} (the default) disables instrumentation.</li>
+ *     <li><b>codec</b> – serializes request bodies and deserializes responses; see {@link ShaapiCodec}. Defaults to
+ *     the shared {@link com.admarketplace.sdk.shaapi.client.codec.JacksonCodec}.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class HttpClientConfig {
+
+    @Builder.Default
+    private final int maxTotalConnections = 100;
+    @Builder.Default
+    private final int maxConnectionsPerRoute = 20;
+    @Builder.Default
+    private final Duration connectTimeout = Duration.ofSeconds(10);
+    @Builder.Default
+    private final Duration socketTimeout = Duration.ofSeconds(60);
+    @Builder.Default
+    private final Duration connectionRequestTimeout = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration keepAlive = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration evictIdleConnectionsAfter = Duration.ofSeconds(30);
+    @Builder.Default
+    private final Duration validateAfterInactivity = Duration.ofSeconds(2);
+    @Builder.Default
+    private final int ioThreads = Runtime.getRuntime().availableProcessors();
+    @Builder.Default
+    private final HttpVersionPolicy httpVersionPolicy = HttpVersionPolicy.FORCE_HTTP_1;
+    @Builder.Default
+    private final int maxConcurrentStreams = 100;
+    private final ContentEncoder requestEncoder;
+    @Builder.Default
+    private final boolean responseCompression = true;
+    private final RetryPolicy retryPolicy;
+    private final RateLimitConfig rateLimit;
+    private final CircuitBreakerConfig circuitBreaker;
+    private final CountCacheConfig countCache;
+    private final ShaapiMetrics metrics;
+    @Builder.Default
+    private final ShaapiCodec codec = ShaapiCodec.defaultCodec();
+
+    /**
+     * Returns a configuration with the default pool size and timeouts.
+     *
+     * @return A {@link HttpClientConfig} with default values.
+     */
+    public static HttpClientConfig defaults() {
+        return HttpClientConfig.builder().build();
+    }
+
+    /**
+     * Returns the given configuration, or the default one if it is {@code null}.
+     *
+     * @param config A configuration, possibly {@code null}.
+     * @return {@code config} or {@link #defaults()}.
+     */
+    public static HttpClientConfig orDefaults(HttpClientConfig config) {
+        return config != null ? config : defaults();
+    }
+}
@@ -0,0 +1,184 @@
+package com.admarketplace.sdk.shaapi.client.factory;
+
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.retry.ShaapiRetryStrategy;
+import lombok.experimental.UtilityClass;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequestInterceptor;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.time.Duration;
+
+/**
+ * A utility class to create the pooled {@link CloseableHttpClient} shared by all requests of a
+ * {@link com.admarketplace.sdk.shaapi.client.ShaapiClient} instance, and the pooled or HTTP/2
+ * {@link CloseableHttpAsyncClient} used by a {@link com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient} instance.
+ *
+ * <p>The returned client keeps connections alive between requests, evicts idle and expired connections
+ * in the background and validates stale connections before reusing them, as configured by {@link HttpClientConfig}.
+ * Failed requests are retried according to {@link HttpClientConfig#getRetryPolicy()}. The connection pool is
+ * registered with {@link HttpClientConfig#getMetrics()} when metrics are configured.</p>
+ */
+@UtilityClass
+public class HttpClientFactory {
+    private static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+    // The async clients do not negotiate compression themselves; responses are decompressed by AsyncHttpExecutor.
+    private static final HttpRequestInterceptor ACCEPT_ENCODING_INTERCEPTOR = (request, entity, context) -> {
+        if (!request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, ACCEPTED_ENCODINGS);
+        }
+    };
+
+    /**
+     * Creates a new pooled {@link CloseableHttpClient}.
+     * The caller owns the returned client and is responsible for closing it.
+     *
+     * @param config The pool and timeout settings.
+     * @return A configured {@link CloseableHttpClient}.
+     */
+    public static CloseableHttpClient createPooledClient(HttpClientConfig config) {
+        var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxTotalConnections())
+                .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(config))
+                .build();
+        if (config.getMetrics() != null) {
+            config.getMetrics().registerConnectionPool("sync", connectionManager::getTotalStats);
+        }
+
+        var builder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig(config))
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(config.getEvictIdleConnectionsAfter()));
+        if (!config.isResponseCompression()) {
+            builder.disableContentCompression();
+        }
+        if (config.getRetryPolicy() != null) {
+            builder.setRetryStrategy(new ShaapiRetryStrategy(config.getRetryPolicy()));
+        } else {
+            builder.disableAutomaticRetries();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a new pooled {@link CloseableHttpAsyncClient} driven by an I/O reactor with
+     * {@link HttpClientConfig#getIoThreads()} threads. The returned client is not started.
+     * The caller owns the returned client and is responsible for starting and closing it.
+     *
+     * @param config The pool, timeout and I/O reactor settings.
+     * @return A configured {@link CloseableHttpAsyncClient}.
+     */
+    public static CloseableHttpAsyncClient createPooledAsyncClient(HttpClientConfig config) {
+        var connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxTotalConnections())
+                .setMaxConnPerRoute(config.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(connectionConfig(config))
+                .build();
+        if (config.getMetrics() != null) {
+            config.getMetrics().registerConnectionPool("async", connectionManager::getTotalStats);
+        }
+
+        var builder = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setIOReactorConfig(ioReactorConfig(config))
+                .setDefaultRequestConfig(requestConfig(config))
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(config.getEvictIdleConnectionsAfter()));
+        if (config.isResponseCompression()) {
+            builder.addRequestInterceptorFirst(ACCEPT_ENCODING_INTERCEPTOR);
+        }
+        if (config.getRetryPolicy() != null) {
+            builder.setRetryStrategy(new ShaapiRetryStrategy(config.getRetryPolicy()));
+        } else {
+            builder.disableAutomaticRetries();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates a new HTTP/2-only {@link CloseableHttpAsyncClient} that multiplexes concurrent requests over a single
+     * connection per host, driven by an I/O reactor with {@link HttpClientConfig#getIoThreads()} threads. TLS
+     * connections negotiate {@code h2} through ALPN and fail with a
+     * {@link org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException} when the server selects another protocol;
+     * plain {@code http} connections use HTTP/2 with prior knowledge. The returned client is not started.
+     * The caller owns the returned client and is responsible for starting and closing it.
+     *
+     * @param config The timeout and I/O reactor settings; the pool sizes do not apply.
+     * @return A configured {@link CloseableHttpAsyncClient}.
+     */
+    public static CloseableHttpAsyncClient createH2AsyncClient(HttpClientConfig config) {
+        var builder = H2AsyncClientBuilder.create()
+                .setIOReactorConfig(ioReactorConfig(config))
+                .setH2Config(H2Config.custom().setPushEnabled(false).build())
+                .setDefaultConnectionConfig(connectionConfig(config))
+                .setDefaultRequestConfig(requestConfig(config))
+                .evictIdleConnections(toTimeValue(config.getEvictIdleConnectionsAfter()));
+        if (config.isResponseCompression()) {
+            builder.addRequestInterceptorFirst(ACCEPT_ENCODING_INTERCEPTOR);
+        }
+        if (config.getRetryPolicy() != null) {
+            builder.setRetryStrategy(new ShaapiRetryStrategy(config.getRetryPolicy()));
+        } else {
+            builder.disableAutomaticRetries();
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates the async client matching {@link HttpClientConfig#getHttpVersionPolicy()}: the HTTP/1.1 pool of
+     * {@link #createPooledAsyncClient(HttpClientConfig)} for {@code FORCE_HTTP_1}, and the multiplexing client of
+     * {@link #createH2AsyncClient(HttpClientConfig)} otherwise. The returned client is not started.
+     *
+     * @param config The pool, timeout, I/O reactor and HTTP version settings.
+     * @return A configured {@link CloseableHttpAsyncClient}.
+     */
+    public static CloseableHttpAsyncClient createAsyncClient(HttpClientConfig config) {
+        return config.getHttpVersionPolicy() == HttpVersionPolicy.FORCE_HTTP_1
+                ? createPooledAsyncClient(config) : createH2AsyncClient(config);
+    }
+
+    private static IOReactorConfig ioReactorConfig(HttpClientConfig config) {
+        return IOReactorConfig.custom()
+                .setIoThreadCount(config.getIoThreads())
+                .setSoTimeout(toTimeout(config.getSocketTimeout()))
+                .build();
+    }
+
+    private static ConnectionConfig connectionConfig(HttpClientConfig config) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(config.getConnectTimeout()))
+                .setSocketTimeout(toTimeout(config.getSocketTimeout()))
+                .setValidateAfterInactivity(toTimeValue(config.getValidateAfterInactivity()))
+                .build();
+    }
+
+    private static RequestConfig requestConfig(HttpClientConfig config) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(toTimeout(config.getConnectionRequestTimeout()))
+                .setConnectionKeepAlive(toTimeValue(config.getKeepAlive()))
+                .build();
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue toTimeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+}
@@ -1,6 +1,9 @@
 package com.admarketplace.sdk.shaapi.client.factory;
 
+import com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient;
 import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.impl.ShaapiAsyncClientV1;
 import com.admarketplace.sdk.shaapi.client.impl.ShaapiClientV1;
 import lombok.experimental.UtilityClass;
 
@@ -8,7 +11,7 @@ import java.net.URI;
 import java.net.URL;
 
 /**
- * A utility class to instantiate and configure instances of {@link ShaapiClient}.
+ * A utility class to instantiate and configure instances of {@link ShaapiClient} and {@link ShaapiAsyncClient}.
  * This factory ensures that all {@link ShaapiClient} instances are correctly initialized with the necessary URLs and API version.
  *
  * <p>Example usage:</p>
@@ -17,7 +20,11 @@ import java.net.URL;
  * String shaapiServiceUrl = "https://api.example.com";
  * String apiVersion = "v1";
  * ShaapiClient shaapiClient = ShaapiClientFactory.getInstance(authServiceUrl, shaapiServiceUrl, apiVersion);
+ * ShaapiAsyncClient shaapiAsyncClient = ShaapiClientFactory.getAsyncInstance(authServiceUrl, shaapiServiceUrl, apiVersion);
  * }</pre>
+ *
+ * <p>Each returned client owns a pool of HTTP connections. Clients are meant to be long-lived and shared,
+ * and must be closed with {@link ShaapiClient#close()} when no longer needed.</p>
  */
 @UtilityClass
 public class ShaapiClientFactory {
@@ -32,10 +39,95 @@ public class ShaapiClientFactory {
      * @throws IllegalArgumentException If any of the parameters are invalid or incomplete information was provided.
      */
     public static ShaapiClient getInstance(String authURL, String shaapiURL, String apiVersion) {
+        return getInstance(authURL, shaapiURL, apiVersion, HttpClientConfig.defaults());
+    }
+
+    /**
+     * Creates a new {@link ShaapiClient} instance with custom connection pool settings.
+     *
+     * @param authURL The base URL provided by adMarketplace for the authentication service.
+     * @param shaapiURL The base URL provided by adMarketplace for SHAAPI service.
+     * @param apiVersion The version of the API to be used (e.g., "v1").
+     * @param httpClientConfig The connection pool and timeout settings of the underlying HTTP client.
+     * @return A configured {@link ShaapiClient}.
+     * @throws IllegalArgumentException If any of the parameters are invalid or incomplete information was provided.
+     */
+    public static ShaapiClient getInstance(String authURL, String shaapiURL, String apiVersion, HttpClientConfig httpClientConfig) {
+        validateVersion(apiVersion);
+        return ShaapiClientV1.builder()
+                .authServiceUrl(validateURL(authURL))
+                .shaapiUrl(validateURL(shaapiURL))
+                .httpClientConfig(validateConfig(httpClientConfig))
+                .build();
+    }
+
+    /**
+     * Creates a new {@link ShaapiClient} instance that manages its own bearer token.
+     * The token is obtained with the given credentials on first use, cached, and refreshed before it expires,
+     * so the overloads of {@link ShaapiClient} without an {@code accessToken} parameter can be used.
+     *
+     * @param authURL The base URL provided by adMarketplace for the authentication service.
+     * @param shaapiURL The base URL provided by adMarketplace for SHAAPI service.
+     * @param apiVersion The version of the API to be used (e.g., "v1").
+     * @param encodedCredentials Base64-encoded client credentials ("clientId:clientSecret").
+     * @return A configured {@link ShaapiClient}.
+     * @throws IllegalArgumentException If any of the parameters are invalid or incomplete information was provided.
+     */
+    public static ShaapiClient getAuthenticatedInstance(String authURL, String shaapiURL, String apiVersion, String encodedCredentials) {
+        return getAuthenticatedInstance(authURL, shaapiURL, apiVersion, encodedCredentials, HttpClientConfig.defaults());
+    }
+
+    /**
+     * Creates a new {@link ShaapiClient} instance that manages its own bearer token, with custom connection pool settings.
+     *
+     * @param authURL The base URL provided by adMarketplace for the authentication service.
+     * @param shaapiURL The base URL provided by adMarketplace for SHAAPI service.
+     * @param apiVersion The version of the API to be used (e.g., "v1").
+     * @param encodedCredentials Base64-encoded client credentials ("clientId:clientSecret").
+     * @param httpClientConfig The connection pool and timeout settings of the underlying HTTP client.
+     * @return A configured {@link ShaapiClient}.
+     * @throws IllegalArgumentException If any of the parameters are invalid or incomplete information was provided.
+     */
+    public static ShaapiClient getAuthenticatedInstance(String authURL, String shaapiURL, String apiVersion, String encodedCredentials,
+                                                        HttpClientConfig httpClientConfig) {
         validateVersion(apiVersion);
         return ShaapiClientV1.builder()
                 .authServiceUrl(validateURL(authURL))
                 .shaapiUrl(validateURL(shaapiURL))
+                .httpClientConfig(validateConfig(httpClientConfig))
+                .encodedCredentials(validateCredentials(encodedCredentials))
+                .build();
+    }
+
+    /**
+     * Creates a new non-blocking {@link ShaapiAsyncClient} instance.
+     *
+     * @param authURL The base URL provided by adMarketplace for the authentication service.
+     * @param shaapiURL The base URL provided by adMarketplace for SHAAPI service.
+     * @param apiVersion The version of the API to be used (e.g., "v1").
+     * @return A configured and started {@link ShaapiAsyncClient}.
+     * @throws IllegalArgumentException If any of the parameters are invalid or incomplete information was provided.
+     */
+    public static ShaapiAsyncClient getAsyncInstance(String authURL, String shaapiURL, String apiVersion) {
+        return getAsyncInstance(authURL, shaapiURL, apiVersion, HttpClientConfig.defaults());
+    }
+
+    /**
+     * Creates a new non-blocking {@link ShaapiAsyncClient} instance with custom connection pool and I/O reactor settings.
+     *
+     * @param authURL The base URL provided by adMarketplace for the authentication service.
+     * @param shaapiURL The base URL provided by adMarketplace for SHAAPI service.
+     * @param apiVersion The version of the API to be used (e.g., "v1").
+     * @param httpClientConfig The connection pool, timeout and I/O reactor settings of the underlying HTTP client.
+     * @return A configured and started {@link ShaapiAsyncClient}.
+     * @throws IllegalArgumentException If any of the parameters are invalid or incomplete information was provided.
+     */
+    public static ShaapiAsyncClient getAsyncInstance(String authURL, String shaapiURL, String apiVersion, HttpClientConfig httpClientConfig) {
+        validateVersion(apiVersion);
+        return ShaapiAsyncClientV1.builder()
+                .authServiceUrl(validateURL(authURL))
+                .shaapiUrl(validateURL(shaapiURL))
+                .httpClientConfig(validateConfig(httpClientConfig))
                 .build();
     }
 
@@ -47,6 +139,20 @@ public class ShaapiClientFactory {
         }
     }
 
+    private static HttpClientConfig validateConfig(HttpClientConfig httpClientConfig) {
+        if (httpClientConfig == null) {
+            throw new IllegalArgumentException("Invalid HTTP client configuration. Please inform a valid configuration.");
+        }
+        return httpClientConfig;
+    }
+
+    private static String validateCredentials(String encodedCredentials) {
+        if (encodedCredentials == null || encodedCredentials.isBlank()) {
+            throw new IllegalArgumentException("Invalid credentials. Please inform the Base64-encoded client credentials provided by adMarketplace.");
+        }
+        return encodedCredentials;
+    }
+
     private static void validateVersion(String apiVersion) {
         if (!"v1".equals(apiVersion)) {
             throw new IllegalArgumentException("Invalid API version. This SDK supports only 'v1'.");
@@ -0,0 +1,60 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits CSV lines into fields.
+ */
+@UtilityClass
+class CsvRecords {
+
+    /**
+     * Splits a line into fields. Quoted fields may contain the delimiter and doubled quotes.
+     *
+     * @param line The line, without its line break.
+     * @param delimiter The field delimiter.
+     * @return The unquoted fields.
+     * @throws IllegalArgumentException If a quoted field is not terminated or is followed by other characters.
+     */
+    static List<String> split(String line, char delimiter) {
+        List<String> fields = new ArrayList<>();
+        var field = new StringBuilder();
+        int i = 0;
+        int n = line.length();
+        while (true) {
+            field.setLength(0);
+            if (i < n && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= n) {
+                        throw new IllegalArgumentException("Unterminated quoted field (line breaks inside fields are not supported)");
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < n && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < n && line.charAt(i) != delimiter) {
+                    throw new IllegalArgumentException("Unexpected character after quoted field at position " + i);
+                }
+            } else {
+                while (i < n && line.charAt(i) != delimiter) {
+                    field.append(line.charAt(i++));
+                }
+            }
+            fields.add(field.toString());
+            if (i >= n) {
+                return fields;
+            }
+            i++;
+        }
+    }
+}
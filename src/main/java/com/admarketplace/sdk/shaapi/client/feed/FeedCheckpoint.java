@@ -0,0 +1,110 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The progress of a feed ingestion: the feed it belongs to and, for each split of the file, the offset of the first
+ * line not yet known to be sent.
+ *
+ * <p>The checkpoint is a small text file, replaced atomically through a temporary file on every write:</p>
+ * <pre>
+ * account=123
+ * format=CSV
+ * size=1073741824
+ * modified=1700000000000
+ * split=0,268435456,104857600
+ * </pre>
+ */
+final class FeedCheckpoint {
+    private final String accountId;
+    private final FeedFormat format;
+    private final long size;
+    private final long modified;
+    private final List<Split> splits;
+
+    /**
+     * A range of the file read by one thread, and the offset reading resumes from.
+     */
+    record Split(long start, long end, long position) {
+    }
+
+    FeedCheckpoint(String accountId, FeedFormat format, long size, long modified, List<Split> splits) {
+        this.accountId = accountId;
+        this.format = format;
+        this.size = size;
+        this.modified = modified;
+        this.splits = splits;
+    }
+
+    List<Split> getSplits() {
+        return splits;
+    }
+
+    /**
+     * Checks that the checkpoint was written for the same ingestion of the same file.
+     *
+     * @throws IOException If the account, format, size or modification time differs.
+     */
+    void verify(String accountId, FeedFormat format, long size, long modified) throws IOException {
+        if (!this.accountId.equals(accountId) || this.format != format || this.size != size || this.modified != modified) {
+            throw new IOException("The checkpoint was written for a different feed file, account or format. "
+                    + "Delete it to ingest the feed from the start.");
+        }
+    }
+
+    void write(Path file) throws IOException {
+        var text = new StringBuilder()
+                .append("account=").append(accountId).append('\n')
+                .append("format=").append(format).append('\n')
+                .append("size=").append(size).append('\n')
+                .append("modified=").append(modified).append('\n');
+        for (Split split : splits) {
+            text.append("split=").append(split.start()).append(',').append(split.end()).append(',').append(split.position()).append('\n');
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, text, StandardCharsets.UTF_8);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static FeedCheckpoint read(Path file) throws IOException {
+        String accountId = null;
+        FeedFormat format = null;
+        long size = -1;
+        long modified = -1;
+        List<Split> splits = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int separator = line.indexOf('=');
+                if (separator < 0) {
+                    continue;
+                }
+                String value = line.substring(separator + 1);
+                switch (line.substring(0, separator)) {
+                    case "account" -> accountId = value;
+                    case "format" -> format = FeedFormat.valueOf(value);
+                    case "size" -> size = Long.parseLong(value);
+                    case "modified" -> modified = Long.parseLong(value);
+                    case "split" -> {
+                        String[] offsets = value.split(",");
+                        splits.add(new Split(Long.parseLong(offsets[0]), Long.parseLong(offsets[1]), Long.parseLong(offsets[2])));
+                    }
+                    default -> {
+                        // Unknown keys are ignored
+                    }
+                }
+            }
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("The checkpoint " + file + " is corrupted: " + e.getMessage(), e);
+        }
+        if (accountId == null || format == null || size < 0 || modified < 0 || splits.isEmpty()) {
+            throw new IOException("The checkpoint " + file + " is incomplete.");
+        }
+        return new FeedCheckpoint(accountId, format, size, modified, splits);
+    }
+}
@@ -0,0 +1,25 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A feed record that could not be upserted because it could not be mapped to a product.
+ *
+ * <ul>
+ *     <li>{@code offset}: The byte offset of the record's line in the feed file.</li>
+ *     <li>{@code message}: Why the record was skipped.</li>
+ * </ul>
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FeedError {
+    private final long offset;
+    private final String message;
+
+    @Override
+    public String toString() {
+        return "offset " + offset + ": " + message;
+    }
+}
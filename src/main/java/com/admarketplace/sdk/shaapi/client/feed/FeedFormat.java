@@ -0,0 +1,18 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+/**
+ * The formats of product feed files read by {@link FeedIngestor}. Both are line-oriented and UTF-8 encoded; a leading
+ * byte order mark and {@code \r\n} line endings are accepted, and blank lines are skipped.
+ */
+public enum FeedFormat {
+    /**
+     * One JSON product per line, with the same properties as in an upsert request body.
+     */
+    NDJSON,
+    /**
+     * Comma-separated values with a header line naming the product property of each column (e.g. {@code id},
+     * {@code country}, {@code title}, {@code imageLink}). Fields may be quoted with {@code "}, doubling quotes inside
+     * them; quoted fields must not contain line breaks. Empty fields and unknown columns are ignored.
+     */
+    CSV
+}
@@ -0,0 +1,363 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import com.admarketplace.sdk.shaapi.client.bulk.BulkProcessor;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Upserts the products of a feed file (see {@link FeedFormat}) without loading it into memory.
+ *
+ * <p>The file is divided into up to {@code parallelism} splits of at least {@code minSplitBytes} bytes, read by one
+ * thread each through a sliding memory-mapped window. A split owns the lines that start inside it, so no record is
+ * read twice or cut in half. Each record is mapped to a {@link Product} as soon as it is read and handed to the
+ * {@link BulkProcessor}, which batches the upserts and blocks the readers while its buffer is full, so memory stays
+ * bounded however large the file is.</p>
+ *
+ * <p>Records that cannot be mapped to a product (invalid JSON, a wrong number of CSV fields, a missing {@code id} or a
+ * product larger than the processor's batch limit) are skipped and reported in the {@link FeedResult}; the outcome of
+ * the upserts is reported to the processor's listener.</p>
+ *
+ * <p>When a checkpoint file is given, the offset reached in every split is saved to it every {@code checkpointInterval}
+ * records, after {@link BulkProcessor#flush() flushing} the processor, so every record before a saved offset has been
+ * sent. An interrupted ingestion resumes from the checkpoint when called again with the same file, account and format;
+ * records read after the last checkpoint are sent again. The checkpoint is deleted once the whole feed was sent.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * try (BulkProcessor bulkProcessor = BulkProcessor.builder().client(shaapiClient).listener(listener).build()) {
+ *     FeedIngestor ingestor = FeedIngestor.builder().bulkProcessor(bulkProcessor).parallelism(4).build();
+ *     FeedResult result = ingestor.ingest(accountId, Path.of("feed.csv"), FeedFormat.CSV, Path.of("feed.csv.checkpoint"));
+ * }
+ * }</pre>
+ *
+ * <p>The ingestor holds no resources between runs and can ingest several feeds concurrently, each run using its own
+ * threads. It does not close the {@link BulkProcessor}.</p>
+ */
+public class FeedIngestor {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader productReader = objectMapper.readerFor(Product.class);
+    private static final byte[] BYTE_ORDER_MARK = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    private final BulkProcessor bulkProcessor;
+    private final int parallelism;
+    private final long minSplitBytes;
+    private final long checkpointInterval;
+    private final char csvDelimiter;
+    private final int maxReportedErrors;
+
+    /**
+     * Creates a new ingestor.
+     *
+     * @param bulkProcessor The processor the products are upserted with.
+     * @param parallelism The maximum number of splits read concurrently; defaults to the number of processors.
+     * @param minSplitBytes The minimum size of a split, so small files are not divided needlessly; defaults to 8 MiB.
+     * @param checkpointInterval The number of records read between two checkpoints; defaults to {@code 100 000}.
+     * @param csvDelimiter The field delimiter of CSV feeds; defaults to {@code ,}.
+     * @param maxReportedErrors The maximum number of malformed records listed in the result; defaults to {@code 100}.
+     */
+    @Builder
+    private FeedIngestor(@NonNull BulkProcessor bulkProcessor, Integer parallelism, Long minSplitBytes, Long checkpointInterval,
+                         Character csvDelimiter, Integer maxReportedErrors) {
+        this.bulkProcessor = bulkProcessor;
+        this.parallelism = parallelism != null ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.minSplitBytes = minSplitBytes != null ? minSplitBytes : 8L * 1024 * 1024;
+        this.checkpointInterval = checkpointInterval != null ? checkpointInterval : 100_000;
+        this.csvDelimiter = csvDelimiter != null ? csvDelimiter : ',';
+        this.maxReportedErrors = maxReportedErrors != null ? maxReportedErrors : 100;
+        if (this.parallelism < 1 || this.minSplitBytes < 1 || this.checkpointInterval < 1 || this.maxReportedErrors < 0
+                || this.csvDelimiter == '"' || this.csvDelimiter == '\n' || this.csvDelimiter == '\r') {
+            throw new IllegalArgumentException("Invalid feed ingestor configuration. Parallelism, split size and checkpoint interval "
+                    + "must be positive and the CSV delimiter must not be a quote or line break.");
+        }
+    }
+
+    /**
+     * Upserts the products of a feed file, from the start.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param feed The feed file.
+     * @param format The format of the feed file.
+     * @return A {@link FeedResult} summarizing the run.
+     * @throws IOException If the feed cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the bulk processor.
+     * @throws IllegalArgumentException If a CSV feed has no {@code id} column.
+     */
+    public FeedResult ingest(String accountId, Path feed, FeedFormat format) throws IOException, InterruptedException {
+        return ingest(accountId, feed, format, null);
+    }
+
+    /**
+     * Upserts the products of a feed file, resuming from the checkpoint file if it exists.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param feed The feed file.
+     * @param format The format of the feed file.
+     * @param checkpoint The file the progress is saved to; {@code null} disables checkpoints.
+     * @return A {@link FeedResult} summarizing the run.
+     * @throws IOException If the feed or checkpoint cannot be read or written, or if the checkpoint belongs to another
+     *                     feed file, account or format.
+     * @throws InterruptedException If interrupted while waiting for the bulk processor.
+     * @throws IllegalArgumentException If a CSV feed has no {@code id} column.
+     */
+    public FeedResult ingest(@NonNull String accountId, @NonNull Path feed, @NonNull FeedFormat format, Path checkpoint)
+            throws IOException, InterruptedException {
+        try (FileChannel channel = FileChannel.open(feed, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long modified = Files.getLastModifiedTime(feed).toMillis();
+            var header = new MappedLineReader(channel, hasByteOrderMark(channel, size) ? BYTE_ORDER_MARK.length : 0);
+            String[] columns = null;
+            if (format == FeedFormat.CSV) {
+                if (!header.next()) {
+                    return new FeedResult(0, 0, 0, List.of(), false);
+                }
+                columns = CsvRecords.split(header.getLineAsString(), csvDelimiter).toArray(String[]::new);
+                if (!List.of(columns).contains("id")) {
+                    throw new IllegalArgumentException("The CSV header has no id column.");
+                }
+            }
+            long dataStart = header.getPosition();
+
+            boolean resumed = checkpoint != null && Files.exists(checkpoint);
+            List<FeedCheckpoint.Split> splits;
+            if (resumed) {
+                FeedCheckpoint saved = FeedCheckpoint.read(checkpoint);
+                saved.verify(accountId, format, size, modified);
+                splits = saved.getSplits();
+            } else {
+                splits = split(dataStart, size);
+            }
+
+            var run = new Run(accountId, format, columns, channel, dataStart, size, modified, splits, checkpoint);
+            run.execute();
+            bulkProcessor.flush();
+            if (checkpoint != null) {
+                Files.deleteIfExists(checkpoint);
+            }
+            List<FeedError> errors = new ArrayList<>(run.errors);
+            errors.sort(Comparator.comparingLong(FeedError::getOffset));
+            return new FeedResult(run.records.sum(), run.products.sum(), run.malformed.sum(), errors, resumed);
+        }
+    }
+
+    private List<FeedCheckpoint.Split> split(long start, long size) {
+        long bytes = size - start;
+        int count = (int) Math.max(1, Math.min(parallelism, bytes / minSplitBytes));
+        List<FeedCheckpoint.Split> splits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long from = start + bytes * i / count;
+            splits.add(new FeedCheckpoint.Split(from, start + bytes * (i + 1) / count, from));
+        }
+        return splits;
+    }
+
+    private static boolean hasByteOrderMark(FileChannel channel, long size) throws IOException {
+        if (size < BYTE_ORDER_MARK.length) {
+            return false;
+        }
+        var reader = new MappedLineReader(channel, 0);
+        for (int i = 0; i < BYTE_ORDER_MARK.length; i++) {
+            if (reader.byteAt(i) != BYTE_ORDER_MARK[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state of one ingestion, shared by the threads reading its splits.
+     */
+    private final class Run {
+        private final String accountId;
+        private final FeedFormat format;
+        private final String[] columns;
+        private final FileChannel channel;
+        private final long dataStart;
+        private final long size;
+        private final long modified;
+        private final List<FeedCheckpoint.Split> splits;
+        private final Path checkpoint;
+        private final AtomicLongArray positions;
+        private final AtomicLong sinceCheckpoint = new AtomicLong();
+        private final ReentrantLock checkpointLock = new ReentrantLock();
+        private final LongAdder records = new LongAdder();
+        private final LongAdder products = new LongAdder();
+        private final LongAdder malformed = new LongAdder();
+        private final List<FeedError> errors = new ArrayList<>();
+
+        private Run(String accountId, FeedFormat format, String[] columns, FileChannel channel, long dataStart, long size,
+                    long modified, List<FeedCheckpoint.Split> splits, Path checkpoint) {
+            this.accountId = accountId;
+            this.format = format;
+            this.columns = columns;
+            this.channel = channel;
+            this.dataStart = dataStart;
+            this.size = size;
+            this.modified = modified;
+            this.splits = splits;
+            this.checkpoint = checkpoint;
+            this.positions = new AtomicLongArray(splits.stream().mapToLong(FeedCheckpoint.Split::position).toArray());
+        }
+
+        private void execute() throws IOException, InterruptedException {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, splits.size()), threadFactory());
+            try {
+                CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+                for (int i = 0; i < splits.size(); i++) {
+                    int index = i;
+                    completion.submit(() -> {
+                        read(index);
+                        return null;
+                    });
+                }
+                for (int i = 0; i < splits.size(); i++) {
+                    try {
+                        completion.take().get();
+                    } catch (ExecutionException e) {
+                        throw rethrow(e.getCause());
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void read(int index) throws IOException, InterruptedException {
+            FeedCheckpoint.Split split = splits.get(index);
+            var reader = new MappedLineReader(channel, split.position());
+            // A split starting inside a line leaves that line to the previous split
+            if (split.position() > dataStart && split.position() < size && reader.byteAt(split.position() - 1) != '\n') {
+                reader.next();
+            }
+            while (reader.getPosition() < split.end() && reader.next()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                if (!reader.isBlank()) {
+                    records.increment();
+                    upsert(reader);
+                }
+                positions.set(index, reader.getPosition());
+                if (checkpoint != null && sinceCheckpoint.incrementAndGet() >= checkpointInterval) {
+                    checkpoint();
+                }
+            }
+        }
+
+        private void upsert(MappedLineReader reader) throws InterruptedException {
+            try {
+                Product product = parse(reader);
+                if (product == null || product.getId() == null || product.getId().isBlank()) {
+                    reject(reader.getLineStart(), "The product has no id.");
+                    return;
+                }
+                bulkProcessor.upsert(accountId, product);
+                products.increment();
+            } catch (JacksonException e) {
+                reject(reader.getLineStart(), e.getOriginalMessage());
+            } catch (IOException | IllegalArgumentException e) {
+                reject(reader.getLineStart(), e.getMessage());
+            }
+        }
+
+        private Product parse(MappedLineReader reader) throws IOException {
+            if (format == FeedFormat.NDJSON) {
+                return productReader.readValue(reader.getLine(), 0, reader.getLength());
+            }
+            List<String> fields = CsvRecords.split(reader.getLineAsString(), csvDelimiter);
+            if (fields.size() != columns.length) {
+                throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + fields.size() + ".");
+            }
+            ObjectNode node = objectMapper.createObjectNode();
+            for (int i = 0; i < columns.length; i++) {
+                if (!fields.get(i).isEmpty()) {
+                    node.put(columns[i], fields.get(i));
+                }
+            }
+            return productReader.readValue(node);
+        }
+
+        private void reject(long offset, String message) {
+            malformed.increment();
+            synchronized (errors) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new FeedError(offset, message));
+                }
+            }
+        }
+
+        private void checkpoint() throws IOException, InterruptedException {
+            // Readers keep going while one of them flushes; a checkpoint already being written is not repeated
+            if (!checkpointLock.tryLock()) {
+                return;
+            }
+            try {
+                if (sinceCheckpoint.get() < checkpointInterval) {
+                    return;
+                }
+                sinceCheckpoint.set(0);
+                List<FeedCheckpoint.Split> progress = new ArrayList<>(splits.size());
+                for (int i = 0; i < splits.size(); i++) {
+                    FeedCheckpoint.Split split = splits.get(i);
+                    progress.add(new FeedCheckpoint.Split(split.start(), split.end(), positions.get(i)));
+                }
+                // Every record before the saved offsets was handed to the processor before this flush
+                bulkProcessor.flush();
+                new FeedCheckpoint(accountId, format, size, modified, progress).write(checkpoint);
+            } finally {
+                checkpointLock.unlock();
+            }
+        }
+    }
+
+    private static IOException rethrow(Throwable cause) throws InterruptedException {
+        if (cause instanceof IOException e) {
+            return e;
+        }
+        if (cause instanceof InterruptedException e) {
+            throw e;
+        }
+        if (cause instanceof RuntimeException e) {
+            throw e;
+        }
+        if (cause instanceof Error e) {
+            throw e;
+        }
+        return new IOException(cause);
+    }
+
+    private static ThreadFactory threadFactory() {
+        int pool = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shaapi-feed-" + pool + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link FeedIngestor} run. Counts cover this run only: records read before the checkpoint a run resumed
+ * from are not included.
+ *
+ * <ul>
+ *     <li>{@code records}: The non-blank records read.</li>
+ *     <li>{@code products}: The products handed to the {@link com.admarketplace.sdk.shaapi.client.bulk.BulkProcessor}.
+ *     The outcome of their upserts is reported to its listener.</li>
+ *     <li>{@code malformed}: The records skipped because they could not be mapped to a product.</li>
+ *     <li>{@code errors}: The first malformed records, up to the configured maximum.</li>
+ *     <li>{@code resumed}: Whether the run resumed from a checkpoint.</li>
+ * </ul>
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class FeedResult {
+    private final long records;
+    private final long products;
+    private final long malformed;
+    private final List<FeedError> errors;
+    private final boolean resumed;
+
+    /**
+     * Checks whether every record was mapped to a product.
+     *
+     * @return {@code true} if no record was malformed.
+     */
+    public boolean isSuccessful() {
+        return malformed == 0;
+    }
+}
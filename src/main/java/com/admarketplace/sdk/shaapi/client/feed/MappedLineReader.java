@@ -0,0 +1,133 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a file through a sliding memory-mapped window, starting at any offset.
+ *
+ * <p>Only the window ({@value #WINDOW_BYTES} bytes) is mapped at a time and the current line is copied into a reusable
+ * buffer, so memory use does not depend on the file size. A trailing {@code \r} is removed from every line.</p>
+ */
+final class MappedLineReader {
+    static final int WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowBytes;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+    private long lineStart;
+    private byte[] line = new byte[4096];
+    private int length;
+
+    MappedLineReader(FileChannel channel, long position) throws IOException {
+        this(channel, position, WINDOW_BYTES);
+    }
+
+    MappedLineReader(FileChannel channel, long position, int windowBytes) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+        this.position = position;
+    }
+
+    /**
+     * Reads the line starting at the current position.
+     *
+     * @return {@code false} if the end of the file was reached.
+     * @throws IOException If the file cannot be mapped.
+     */
+    boolean next() throws IOException {
+        if (position >= size) {
+            return false;
+        }
+        lineStart = position;
+        length = 0;
+        while (position < size) {
+            map(position);
+            int from = (int) (position - windowStart);
+            int to = from;
+            int limit = window.limit();
+            while (to < limit && window.get(to) != '\n') {
+                to++;
+            }
+            append(from, to - from);
+            position = windowStart + to;
+            if (to < limit) {
+                position++;
+                break;
+            }
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the byte at an offset of the file.
+     *
+     * @param offset The offset, before the end of the file.
+     * @return The byte.
+     * @throws IOException If the file cannot be mapped.
+     */
+    byte byteAt(long offset) throws IOException {
+        map(offset);
+        return window.get((int) (offset - windowStart));
+    }
+
+    /**
+     * Returns the offset of the next line, which is the end of the file once every line has been read.
+     */
+    long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the offset of the line last read.
+     */
+    long getLineStart() {
+        return lineStart;
+    }
+
+    byte[] getLine() {
+        return line;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getLineAsString() {
+        return new String(line, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void map(long offset) throws IOException {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            windowStart = offset;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(windowBytes, size - offset));
+        }
+    }
+
+    private void append(int from, int count) {
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        window.get(from, line, length, count);
+        length += count;
+    }
+}
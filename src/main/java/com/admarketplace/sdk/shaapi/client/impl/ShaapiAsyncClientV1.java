@@ -0,0 +1,132 @@
+package com.admarketplace.sdk.shaapi.client.impl;
+
+import com.admarketplace.sdk.shaapi.client.AsyncHttpExecutor;
+import com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.factory.HttpClientFactory;
+import com.admarketplace.sdk.shaapi.handler.ProductCountResponseHandler;
+import com.admarketplace.sdk.shaapi.handler.ProductResponseHandler;
+import com.admarketplace.sdk.shaapi.handler.TokenResponseHandler;
+import com.admarketplace.sdk.shaapi.model.AuthType;
+import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.Builder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.apache.hc.core5.http.Method.DELETE;
+import static org.apache.hc.core5.http.Method.GET;
+import static org.apache.hc.core5.http.Method.POST;
+import static org.apache.hc.core5.http.Method.PUT;
+
+/**
+ * Provides an implementation for the {@link ShaapiAsyncClient} interface on top of the non-blocking
+ * {@link AsyncHttpExecutor}. It exposes the same operations as {@link ShaapiClientV1}, returning a
+ * {@link CompletableFuture} for each of them.
+ *
+ * <p>Each instance owns an async HTTP client whose pool, I/O reactor and HTTP version are configured through
+ * {@link HttpClientConfig}; connections are reused across calls and released by {@link #close()}. With HTTP/2,
+ * concurrent requests are multiplexed over one connection per host (see {@link HttpClientConfig#getHttpVersionPolicy()}).</p>
+ *
+ * <p>Errors and exceptions encountered during HTTP request execution are handled gracefully, with error information
+ * encapsulated in response objects rather than in exceptionally completed futures.</p>
+ */
+public class ShaapiAsyncClientV1 extends AsyncHttpExecutor implements ShaapiAsyncClient {
+    private final URI shaapiUrl;
+    private final URI authServiceUrl;
+
+    private final TokenResponseHandler tokenResponseHandler;
+    private final ProductResponseHandler productResponseHandler;
+    private final ProductCountResponseHandler productCountResponseHandler;
+
+    /**
+     * Creates and starts a new async client.
+     *
+     * @param shaapiUrl The base URL of SHAAPI service.
+     * @param authServiceUrl The base URL of the authentication service.
+     * @param httpClientConfig The connection pool, I/O reactor, HTTP version and compression settings; defaults are used when {@code null}.
+     * @param httpAsyncClient An async HTTP client to use instead of creating one from {@code httpClientConfig}.
+     *                        The client takes ownership of it and closes it on {@link #close()}.
+     */
+    @Builder
+    private ShaapiAsyncClientV1(URI shaapiUrl, URI authServiceUrl, HttpClientConfig httpClientConfig, CloseableHttpAsyncClient httpAsyncClient) {
+        this(shaapiUrl, authServiceUrl, HttpClientConfig.orDefaults(httpClientConfig), httpAsyncClient, httpAsyncClient == null);
+    }
+
+    private ShaapiAsyncClientV1(URI shaapiUrl, URI authServiceUrl, HttpClientConfig config, CloseableHttpAsyncClient httpAsyncClient, boolean configured) {
+        super(configured ? HttpClientFactory.createAsyncClient(config) : httpAsyncClient,
+                configured && config.getHttpVersionPolicy() == HttpVersionPolicy.NEGOTIATE ? HttpClientFactory.createPooledAsyncClient(config) : null,
+                config);
+        this.shaapiUrl = shaapiUrl;
+        this.authServiceUrl = authServiceUrl;
+        ShaapiCodec codec = ShaapiCodec.orDefault(config.getCodec());
+        this.tokenResponseHandler = new TokenResponseHandler(codec);
+        this.productResponseHandler = new ProductResponseHandler(codec);
+        this.productCountResponseHandler = new ProductCountResponseHandler(codec);
+    }
+
+    @Override
+    public CompletableFuture<TokenResponse> getToken(String encodedCredentials) {
+        try {
+            var uri = ShaapiEndpoints.tokenUri(authServiceUrl);
+            return sendRequest(uri, POST, AuthType.BASIC, encodedCredentials, null, tokenResponseHandler, TokenResponse::withAttempts)
+                    .exceptionally(e -> new TokenResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, null, getAttempts(e)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new TokenResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, null));
+        }
+    }
+
+    @Override
+    public CompletableFuture<ProductResponse> upsertProducts(String accountId, String accessToken, Collection<Product> products) {
+        return sendProductsRequest(PUT, accountId, accessToken, products);
+    }
+
+    @Override
+    public CompletableFuture<ProductResponse> deleteProducts(String accountId, String accessToken, Collection<ProductIdentifier> products) {
+        return sendProductsRequest(DELETE, accountId, accessToken, products);
+    }
+
+    private CompletableFuture<ProductResponse> sendProductsRequest(Method method, String accountId, String accessToken, Collection<? extends ProductIdentifier> products) {
+        try {
+            var uri = ShaapiEndpoints.productsUri(shaapiUrl, accountId);
+            return sendRequest(uri, method, AuthType.BEARER, accessToken, products, productResponseHandler, ProductResponse::withAttempts)
+                    .exceptionally(e -> new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, null, getAttempts(e)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, null));
+        }
+    }
+
+    @Override
+    public CompletableFuture<ProductCountResponse> getProductCount(String accountId, String accessToken) {
+        try {
+            var uri = ShaapiEndpoints.productCountUri(shaapiUrl, accountId);
+            return sendRequest(uri, GET, AuthType.BEARER, accessToken, null, productCountResponseHandler, ProductCountResponse::withAttempts)
+                    .exceptionally(e -> new ProductCountResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, getAttempts(e)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(new ProductCountResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null));
+        }
+    }
+
+    private String getMessage(Throwable e) {
+        return ShaapiEndpoints.getMessage(unwrap(e));
+    }
+
+    private int getAttempts(Throwable e) {
+        return ShaapiEndpoints.getAttempts(unwrap(e));
+    }
+
+    private Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+}
@@ -2,6 +2,16 @@ package com.admarketplace.sdk.shaapi.client.impl;
 
 import com.admarketplace.sdk.shaapi.client.HttpExecutor;
 import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.auth.CachingTokenProvider;
+import com.admarketplace.sdk.shaapi.client.auth.TokenProvider;
+import com.admarketplace.sdk.shaapi.client.cache.CountCacheConfig;
+import com.admarketplace.sdk.shaapi.client.cache.ProductCountCache;
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CallNotPermittedException;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.factory.HttpClientFactory;
+import com.admarketplace.sdk.shaapi.client.ratelimit.AccountRateLimiter;
+import com.admarketplace.sdk.shaapi.client.ratelimit.RateLimitConfig;
 import com.admarketplace.sdk.shaapi.handler.ProductCountResponseHandler;
 import com.admarketplace.sdk.shaapi.handler.ProductResponseHandler;
 import com.admarketplace.sdk.shaapi.handler.TokenResponseHandler;
@@ -12,12 +22,16 @@ import com.admarketplace.sdk.shaapi.model.TokenResponse;
 import com.admarketplace.shaapi.api.model.v1.Product;
 import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
 import lombok.Builder;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.Method;
-import org.apache.hc.core5.net.URIBuilder;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
 import static org.apache.hc.core5.http.Method.GET;
 import static org.apache.hc.core5.http.Method.DELETE;
@@ -41,28 +55,82 @@ import static org.apache.hc.core5.http.Method.PUT;
  * and response parsing through the {@link HttpExecutor}.</p>
  *
  * <p>Authentication to SHAAPI service is managed via Base64-encoded credentials for token retrieval, and bearer tokens for other
- * API interactions.</p>
+ * API interactions. When created with credentials or a {@link TokenProvider}, the client also offers overloads that obtain the
+ * bearer token from the provider and retry once with a fresh token when a request is rejected with HTTP 401.</p>
  *
- * <p>Errors and exceptions encountered during HTTP request execution are handled gracefully, with error information encapsulated in response objects.</p>
+ * <p>Errors and exceptions encountered during HTTP request execution are handled gracefully, with error information encapsulated in response objects.
+ * Requests failing with a retryable status or I/O error are retried according to {@link HttpClientConfig#getRetryPolicy()}, and the
+ * number of attempts is reported on the response.</p>
+ *
+ * <p>When {@link HttpClientConfig#getRateLimit()} is set, product and count requests wait for the rate and concurrency limits of
+ * their account before being sent; see {@link AccountRateLimiter}. When {@link HttpClientConfig#getCircuitBreaker()} is set,
+ * requests to a degraded endpoint fail fast with status {@link CallNotPermittedException#HTTP_STATUS} while its circuit is open.</p>
+ *
+ * <p>When {@link HttpClientConfig#getCountCache()} is set, product counts requested with the managed token are cached per
+ * account and concurrent count requests for an account are coalesced; upserts and deletes invalidate the count of their
+ * account. Counts requested with an explicit access token are never cached, since the token may not be authorized for
+ * the account. See {@link ProductCountCache}.</p>
+ *
+ * <p>Each instance owns a pooled HTTP client configured through {@link HttpClientConfig}; connections are reused across calls
+ * and released by {@link #close()}.</p>
  */
-@Builder
 public class ShaapiClientV1 extends HttpExecutor implements ShaapiClient {
-    private static final String API_VERSION = "v1";
-
     private final URI shaapiUrl;
     private final URI authServiceUrl;
+    private final TokenProvider tokenProvider;
+    private final AccountRateLimiter rateLimiter;
+    private final ProductCountCache countCache;
+
+    private final TokenResponseHandler tokenResponseHandler;
+    private final ProductResponseHandler productResponseHandler;
+    private final ProductCountResponseHandler productCountResponseHandler;
 
-    private final TokenResponseHandler tokenResponseHandler = new TokenResponseHandler();
-    private final ProductResponseHandler productResponseHandler = new ProductResponseHandler();
-    private final ProductCountResponseHandler productCountResponseHandler = new ProductCountResponseHandler();
+    /**
+     * Creates a new client.
+     *
+     * @param shaapiUrl The base URL of SHAAPI service.
+     * @param authServiceUrl The base URL of the authentication service.
+     * @param httpClientConfig The connection pool and compression settings; defaults are used when {@code null}.
+     * @param httpClient An HTTP client to use instead of creating a pooled one from {@code httpClientConfig}.
+     *                   The client takes ownership of it and closes it on {@link #close()}.
+     * @param encodedCredentials Base64-encoded client credentials used to manage the bearer token; optional.
+     * @param tokenRefreshMargin How long before expiry the managed token is refreshed; optional.
+     * @param tokenProvider A custom {@link TokenProvider} to use instead of one created from {@code encodedCredentials}; optional.
+     */
+    @Builder
+    private ShaapiClientV1(URI shaapiUrl, URI authServiceUrl, HttpClientConfig httpClientConfig, CloseableHttpClient httpClient,
+                           String encodedCredentials, Duration tokenRefreshMargin, TokenProvider tokenProvider) {
+        this(HttpClientConfig.orDefaults(httpClientConfig), shaapiUrl, authServiceUrl, httpClient, encodedCredentials,
+                tokenRefreshMargin, tokenProvider);
+    }
+
+    private ShaapiClientV1(HttpClientConfig config, URI shaapiUrl, URI authServiceUrl, CloseableHttpClient httpClient,
+                           String encodedCredentials, Duration tokenRefreshMargin, TokenProvider tokenProvider) {
+        super(httpClient != null ? httpClient : HttpClientFactory.createPooledClient(config), config);
+        this.shaapiUrl = shaapiUrl;
+        this.authServiceUrl = authServiceUrl;
+        ShaapiCodec codec = ShaapiCodec.orDefault(config.getCodec());
+        this.tokenResponseHandler = new TokenResponseHandler(codec);
+        this.productResponseHandler = new ProductResponseHandler(codec);
+        this.productCountResponseHandler = new ProductCountResponseHandler(codec);
+        RateLimitConfig rateLimit = config.getRateLimit();
+        this.rateLimiter = rateLimit != null ? new AccountRateLimiter(rateLimit) : null;
+        CountCacheConfig countCacheConfig = config.getCountCache();
+        this.countCache = countCacheConfig != null ? new ProductCountCache(countCacheConfig) : null;
+        this.tokenProvider = tokenProvider != null || encodedCredentials == null ? tokenProvider : CachingTokenProvider.builder()
+                .tokenSource(this::getToken)
+                .encodedCredentials(encodedCredentials)
+                .refreshMargin(tokenRefreshMargin)
+                .build();
+    }
 
     @Override
     public TokenResponse getToken(String encodedCredentials) {
         try {
-            var uri = new URIBuilder(authServiceUrl).setPathSegments("oauth2", API_VERSION, "auth").build();
-            return sendRequest(uri, POST, AuthType.BASIC, encodedCredentials, null, tokenResponseHandler);
+            var uri = ShaapiEndpoints.tokenUri(authServiceUrl);
+            return sendRequest(uri, POST, AuthType.BASIC, encodedCredentials, null, tokenResponseHandler, TokenResponse::withAttempts);
         } catch (Exception e) {
-            return new TokenResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, null);
+            return new TokenResponse(ShaapiEndpoints.getStatus(e), ShaapiEndpoints.getMessage(e), null, null, ShaapiEndpoints.getAttempts(e));
         }
     }
 
@@ -77,29 +145,120 @@ public class ShaapiClientV1 extends HttpExecutor implements ShaapiClient {
     }
 
     private ProductResponse sendProductsRequest(Method method, String accountId, String accessToken, Collection<? extends ProductIdentifier> products) {
+        ProductResponse response = throttle(accountId, products != null ? products.size() : 0,
+                () -> executeProductsRequest(method, accountId, accessToken, products),
+                ProductResponse::getHttpStatus, ProductResponse::getAttempts,
+                message -> new ProductResponse(AccountRateLimiter.HTTP_STATUS_INTERRUPTED, message, null, null, 0));
+        // Only a 4xx response guarantees that nothing was written; after a 5xx or an I/O error the outcome is unknown
+        if (countCache != null && !isClientError(response.getHttpStatus())) {
+            countCache.invalidate(accountId);
+        }
+        return response;
+    }
+
+    private ProductResponse executeProductsRequest(Method method, String accountId, String accessToken, Collection<? extends ProductIdentifier> products) {
         try {
-            var uri = productsUriBuilder(accountId).build();
-            return sendRequest(uri, method, AuthType.BEARER, accessToken, products, productResponseHandler);
+            var uri = ShaapiEndpoints.productsUri(shaapiUrl, accountId);
+            return sendRequest(uri, method, AuthType.BEARER, accessToken, products, productResponseHandler, ProductResponse::withAttempts);
         } catch (Exception e) {
-            return new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null, null);
+            return new ProductResponse(ShaapiEndpoints.getStatus(e), ShaapiEndpoints.getMessage(e), null, null, ShaapiEndpoints.getAttempts(e));
         }
     }
 
     @Override
     public ProductCountResponse getProductCount(String accountId, String accessToken) {
+        // Counts are cached per account for the managed token only, since another token may not be authorized for it
+        return sendProductCountRequest(accountId, accessToken);
+    }
+
+    private ProductCountResponse sendProductCountRequest(String accountId, String accessToken) {
+        return throttle(accountId, 0,
+                () -> executeProductCountRequest(accountId, accessToken),
+                ProductCountResponse::getHttpStatus, ProductCountResponse::getAttempts,
+                message -> new ProductCountResponse(AccountRateLimiter.HTTP_STATUS_INTERRUPTED, message, null, 0));
+    }
+
+    private ProductCountResponse executeProductCountRequest(String accountId, String accessToken) {
         try {
-            var uri = productsUriBuilder(accountId).appendPath("count").build();
-            return sendRequest(uri, GET, AuthType.BEARER, accessToken, null, productCountResponseHandler);
+            var uri = ShaapiEndpoints.productCountUri(shaapiUrl, accountId);
+            return sendRequest(uri, GET, AuthType.BEARER, accessToken, null, productCountResponseHandler, ProductCountResponse::withAttempts);
         } catch (Exception e) {
-            return new ProductCountResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, getMessage(e), null);
+            return new ProductCountResponse(ShaapiEndpoints.getStatus(e), ShaapiEndpoints.getMessage(e), null, ShaapiEndpoints.getAttempts(e));
+        }
+    }
+
+    @Override
+    public ProductResponse upsertProducts(String accountId, Collection<Product> products) {
+        return sendWithToken(token -> upsertProducts(accountId, token, products),
+                ProductResponse::getHttpStatus,
+                token -> new ProductResponse(token.getHttpStatus(), getTokenErrorMessage(token), null, null));
+    }
+
+    @Override
+    public ProductResponse deleteProducts(String accountId, Collection<ProductIdentifier> products) {
+        return sendWithToken(token -> deleteProducts(accountId, token, products),
+                ProductResponse::getHttpStatus,
+                token -> new ProductResponse(token.getHttpStatus(), getTokenErrorMessage(token), null, null));
+    }
+
+    @Override
+    public ProductCountResponse getProductCount(String accountId) {
+        if (countCache == null) {
+            return sendProductCountRequest(accountId);
+        }
+        return countCache.get(accountId, () -> sendProductCountRequest(accountId));
+    }
+
+    private ProductCountResponse sendProductCountRequest(String accountId) {
+        return sendWithToken(token -> sendProductCountRequest(accountId, token),
+                ProductCountResponse::getHttpStatus,
+                token -> new ProductCountResponse(token.getHttpStatus(), getTokenErrorMessage(token), null));
+    }
+
+    private <T> T sendWithToken(Function<String, T> request, ToIntFunction<T> statusOf, Function<TokenResponse, T> tokenError) {
+        if (tokenProvider == null) {
+            throw new IllegalStateException(NO_CREDENTIALS);
+        }
+
+        TokenResponse token = tokenProvider.getToken();
+        if (token.getAccessToken() == null) {
+            return tokenError.apply(token);
         }
+
+        T response = request.apply(token.getAccessToken());
+        if (statusOf.applyAsInt(response) != HttpStatus.SC_UNAUTHORIZED) {
+            return response;
+        }
+
+        tokenProvider.invalidate(token.getAccessToken());
+        token = tokenProvider.getToken();
+        return token.getAccessToken() == null ? tokenError.apply(token) : request.apply(token.getAccessToken());
+    }
+
+    private <T> T throttle(String accountId, int products, Supplier<T> request, ToIntFunction<T> statusOf, ToIntFunction<T> attemptsOf,
+                           Function<String, T> interrupted) {
+        if (rateLimiter == null) {
+            return request.get();
+        }
+
+        AccountRateLimiter.Permit permit;
+        try {
+            permit = rateLimiter.acquire(accountId, products);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return interrupted.apply("Interrupted while waiting for the rate limit of account " + accountId);
+        }
+
+        T response = request.get();
+        permit.release(statusOf.applyAsInt(response), attemptsOf.applyAsInt(response));
+        return response;
     }
 
-    private URIBuilder productsUriBuilder(String accountId) {
-        return new URIBuilder(shaapiUrl).setPathSegments("asset", API_VERSION, accountId, "products");
+    private static boolean isClientError(int httpStatus) {
+        return httpStatus >= HttpStatus.SC_CLIENT_ERROR && httpStatus < HttpStatus.SC_SERVER_ERROR;
     }
 
-    private String getMessage(Exception e) {
-        return "An unexpected error occurred during the request: " + e.getMessage();
+    private static String getTokenErrorMessage(TokenResponse token) {
+        return "Unable to obtain an access token: " + token.getMessage();
     }
 }
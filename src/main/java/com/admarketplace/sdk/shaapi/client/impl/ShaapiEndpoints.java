@@ -0,0 +1,49 @@
+package com.admarketplace.sdk.shaapi.client.impl;
+
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CallNotPermittedException;
+import com.admarketplace.sdk.shaapi.client.retry.RetriesExhaustedException;
+import lombok.experimental.UtilityClass;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.net.URIBuilder;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Builds the URIs of SHAAPI and authentication service endpoints shared by the v1 client implementations.
+ */
+@UtilityClass
+class ShaapiEndpoints {
+    private static final String API_VERSION = "v1";
+
+    static URI tokenUri(URI authServiceUrl) throws URISyntaxException {
+        return new URIBuilder(authServiceUrl).setPathSegments("oauth2", API_VERSION, "auth").build();
+    }
+
+    static URI productsUri(URI shaapiUrl, String accountId) throws URISyntaxException {
+        return productsUriBuilder(shaapiUrl, accountId).build();
+    }
+
+    static URI productCountUri(URI shaapiUrl, String accountId) throws URISyntaxException {
+        return productsUriBuilder(shaapiUrl, accountId).appendPath("count").build();
+    }
+
+    static String getMessage(Throwable e) {
+        return "An unexpected error occurred during the request: " + e.getMessage();
+    }
+
+    static int getStatus(Throwable e) {
+        return e instanceof CallNotPermittedException ? CallNotPermittedException.HTTP_STATUS : HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    static int getAttempts(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return 0;
+        }
+        return e instanceof RetriesExhaustedException retriesExhausted ? retriesExhausted.getAttempts() : 1;
+    }
+
+    private static URIBuilder productsUriBuilder(URI shaapiUrl, String accountId) {
+        return new URIBuilder(shaapiUrl).setPathSegments("asset", API_VERSION, accountId, "products");
+    }
+}
@@ -0,0 +1,31 @@
+package com.admarketplace.sdk.shaapi.client.metrics;
+
+import org.apache.hc.core5.http.Method;
+
+/**
+ * The SHAAPI and authentication service operations measured by {@link ShaapiMetrics}.
+ */
+public enum Endpoint {
+    TOKEN,
+    UPSERT,
+    DELETE,
+    COUNT;
+
+    /**
+     * Returns the operation sent with an HTTP method. Every operation of the SDK uses a distinct method: tokens are
+     * requested with {@code POST}, products upserted with {@code PUT}, deleted with {@code DELETE} and counted with
+     * {@code GET}.
+     *
+     * @param method The HTTP method of the request.
+     * @return The endpoint of the request.
+     */
+    public static Endpoint of(Method method) {
+        return switch (method) {
+            case POST -> TOKEN;
+            case PUT -> UPSERT;
+            case DELETE -> DELETE;
+            case GET -> COUNT;
+            default -> throw new IllegalArgumentException("Unsupported HTTP method: " + method);
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.admarketplace.sdk.shaapi.client.metrics;
+
+import lombok.Getter;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A dependency-free {@link ShaapiMetrics} keeping latency histograms, byte counters and status counts per
+ * {@link Endpoint} in memory.
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * InMemoryMetrics metrics = new InMemoryMetrics();
+ * ShaapiClient client = ShaapiClientFactory.getInstance(authUrl, shaapiUrl, "v1",
+ *         HttpClientConfig.builder().metrics(metrics).build());
+ * ...
+ * long p99 = metrics.get(Endpoint.UPSERT).getLatency().getPercentileNanos(0.99);
+ * }</pre>
+ */
+public class InMemoryMetrics implements ShaapiMetrics {
+    private final Map<Endpoint, EndpointMetrics> endpoints = new EnumMap<>(Endpoint.class);
+    private final Map<String, Supplier<PoolStats>> connectionPools = new ConcurrentHashMap<>();
+
+    /**
+     * Creates empty metrics.
+     */
+    public InMemoryMetrics() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoints.put(endpoint, new EndpointMetrics());
+        }
+    }
+
+    @Override
+    public void recordRequest(Endpoint endpoint, int httpStatus, long latencyNanos, long requestBytes, long responseBytes, int products) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        metrics.latency.record(latencyNanos);
+        metrics.requestBytes.add(requestBytes);
+        metrics.responseBytes.add(responseBytes);
+        metrics.products.add(products);
+        metrics.statusCounts.computeIfAbsent(httpStatus, status -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordDeserialization(Endpoint endpoint, long nanos) {
+        endpoints.get(endpoint).deserialization.record(nanos);
+    }
+
+    @Override
+    public void registerConnectionPool(String name, Supplier<PoolStats> stats) {
+        connectionPools.put(name, stats);
+    }
+
+    /**
+     * Returns the metrics of an endpoint.
+     *
+     * @param endpoint The endpoint.
+     * @return The metrics recorded for the endpoint.
+     */
+    public EndpointMetrics get(Endpoint endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    /**
+     * Returns the current state of a connection pool.
+     *
+     * @param name The name of the pool: {@code sync} or {@code async}.
+     * @return The pool statistics, or {@code null} if no pool with this name was created.
+     */
+    public PoolStats getConnectionPool(String name) {
+        Supplier<PoolStats> stats = connectionPools.get(name);
+        return stats != null ? stats.get() : null;
+    }
+
+    /**
+     * The measurements of a single {@link Endpoint}.
+     */
+    public static class EndpointMetrics {
+        @Getter
+        private final LatencyHistogram latency = new LatencyHistogram();
+        @Getter
+        private final LatencyHistogram deserialization = new LatencyHistogram();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final LongAdder products = new LongAdder();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+        /**
+         * Returns the total number of request body bytes sent.
+         *
+         * @return The number of bytes.
+         */
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        /**
+         * Returns the total number of response body bytes read.
+         *
+         * @return The number of bytes.
+         */
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        /**
+         * Returns the total number of products sent.
+         *
+         * @return The number of products.
+         */
+        public long getProducts() {
+            return products.sum();
+        }
+
+        /**
+         * Returns the number of calls per HTTP status, where {@code 0} counts calls that received no response.
+         *
+         * @return The counts, ordered by status.
+         */
+        public Map<Integer, Long> getStatusCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+    }
+}
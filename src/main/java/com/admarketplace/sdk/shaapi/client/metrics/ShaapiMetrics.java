@@ -0,0 +1,50 @@
+package com.admarketplace.sdk.shaapi.client.metrics;
+
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.util.function.Supplier;
+
+/**
+ * Receives measurements of every call made by the SHAAPI clients. All methods have empty default implementations, so
+ * an implementation only overrides what it records.
+ *
+ * <p>Methods are called on the thread completing the request and must be cheap and non-blocking. Implementations
+ * must be thread-safe. {@link InMemoryMetrics} keeps the measurements in histograms and counters without any
+ * dependency, and {@link com.admarketplace.sdk.shaapi.client.metrics.micrometer.MicrometerMetrics} publishes them to a
+ * Micrometer {@code MeterRegistry}.</p>
+ */
+public interface ShaapiMetrics {
+
+    /**
+     * Called once per call, after the response was handled or the request failed. Calls rejected by an open circuit
+     * breaker are recorded with status {@code 599} and no latency.
+     *
+     * @param endpoint The operation called.
+     * @param httpStatus The HTTP status of the last response, or {@code 0} if no response was received.
+     * @param latencyNanos The time from sending the request to handling the response, including retries.
+     * @param requestBytes The number of request body bytes written to connections, after compression and across
+     *                     retries.
+     * @param responseBytes The number of response body bytes read, after decompression.
+     * @param products The number of products or identifiers in the request body, or {@code 0} if it has none.
+     */
+    default void recordRequest(Endpoint endpoint, int httpStatus, long latencyNanos, long requestBytes, long responseBytes, int products) {
+    }
+
+    /**
+     * Called once per handled response with the time spent deserializing it.
+     *
+     * @param endpoint The operation called.
+     * @param nanos The time spent in the response handler.
+     */
+    default void recordDeserialization(Endpoint endpoint, long nanos) {
+    }
+
+    /**
+     * Called once when a client creates its connection pool, so the pool can be observed with gauges.
+     *
+     * @param name The name of the pool: {@code sync} or {@code async}.
+     * @param stats Returns the current leased, available, pending and maximum connections of the pool.
+     */
+    default void registerConnectionPool(String name, Supplier<PoolStats> stats) {
+    }
+}
@@ -0,0 +1,117 @@
+package com.admarketplace.sdk.shaapi.client.metrics.micrometer;
+
+import com.admarketplace.sdk.shaapi.client.metrics.Endpoint;
+import com.admarketplace.sdk.shaapi.client.metrics.ShaapiMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.core5.pool.PoolStats;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Publishes the measurements of the SHAAPI clients to a Micrometer {@link MeterRegistry}.
+ *
+ * <p>Micrometer is an optional dependency of the SDK; applications using this class must depend on
+ * {@code io.micrometer:micrometer-core} themselves. The following meters are registered, all tagged with the
+ * {@code endpoint} ({@code token}, {@code upsert}, {@code delete} or {@code count}):</p>
+ * <ul>
+ *     <li>{@code shaapi.client.requests} – timer of calls, with percentile histograms, also tagged with the HTTP
+ *     {@code status} ({@code none} when no response was received).</li>
+ *     <li>{@code shaapi.client.deserialization} – timer of response handling.</li>
+ *     <li>{@code shaapi.client.bytes.sent} and {@code shaapi.client.bytes.received} – counters of body bytes.</li>
+ *     <li>{@code shaapi.client.batch.size} – distribution of the number of products per request.</li>
+ *     <li>{@code shaapi.client.connections.leased}, {@code .available}, {@code .pending} and {@code .max} – gauges of
+ *     each connection pool, tagged with the {@code pool} name instead of the endpoint.</li>
+ * </ul>
+ */
+public class MicrometerMetrics implements ShaapiMetrics {
+    private final MeterRegistry registry;
+    private final Map<Endpoint, Map<Integer, Timer>> requestTimers = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Timer> deserializationTimers = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> bytesSent = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> bytesReceived = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, DistributionSummary> batchSizes = new EnumMap<>(Endpoint.class);
+
+    /**
+     * Creates metrics publishing to a registry. Meters of each endpoint are registered eagerly, so dashboards show
+     * them before the first call.
+     *
+     * @param registry The registry the meters are registered with.
+     */
+    public MicrometerMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Endpoint endpoint : Endpoint.values()) {
+            String tag = tagOf(endpoint);
+            requestTimers.put(endpoint, new ConcurrentHashMap<>());
+            deserializationTimers.put(endpoint, Timer.builder("shaapi.client.deserialization")
+                    .description("Time spent deserializing SHAAPI responses")
+                    .tag("endpoint", tag)
+                    .register(registry));
+            bytesSent.put(endpoint, Counter.builder("shaapi.client.bytes.sent")
+                    .description("Request body bytes written, after compression")
+                    .baseUnit("bytes")
+                    .tag("endpoint", tag)
+                    .register(registry));
+            bytesReceived.put(endpoint, Counter.builder("shaapi.client.bytes.received")
+                    .description("Response body bytes read, after decompression")
+                    .baseUnit("bytes")
+                    .tag("endpoint", tag)
+                    .register(registry));
+            batchSizes.put(endpoint, DistributionSummary.builder("shaapi.client.batch.size")
+                    .description("Products per request")
+                    .baseUnit("products")
+                    .tag("endpoint", tag)
+                    .register(registry));
+        }
+    }
+
+    @Override
+    public void recordRequest(Endpoint endpoint, int httpStatus, long latencyNanos, long requestBytes, long responseBytes, int products) {
+        requestTimers.get(endpoint).computeIfAbsent(httpStatus, status -> Timer.builder("shaapi.client.requests")
+                        .description("SHAAPI client calls, including retries")
+                        .tag("endpoint", tagOf(endpoint))
+                        .tag("status", status == 0 ? "none" : String.valueOf(status))
+                        .publishPercentileHistogram()
+                        .register(registry))
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+        bytesSent.get(endpoint).increment(requestBytes);
+        bytesReceived.get(endpoint).increment(responseBytes);
+        if (products > 0) {
+            batchSizes.get(endpoint).record(products);
+        }
+    }
+
+    @Override
+    public void recordDeserialization(Endpoint endpoint, long nanos) {
+        deserializationTimers.get(endpoint).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void registerConnectionPool(String name, Supplier<PoolStats> stats) {
+        registerGauge("shaapi.client.connections.leased", "Connections in use", name, stats, PoolStats::getLeased);
+        registerGauge("shaapi.client.connections.available", "Idle connections kept alive", name, stats, PoolStats::getAvailable);
+        registerGauge("shaapi.client.connections.pending", "Requests waiting for a connection", name, stats, PoolStats::getPending);
+        registerGauge("shaapi.client.connections.max", "Maximum number of connections", name, stats, PoolStats::getMax);
+    }
+
+    private void registerGauge(String meter, String description, String pool, Supplier<PoolStats> stats, ToIntFunction<PoolStats> value) {
+        Gauge.builder(meter, stats, supplier -> value.applyAsInt(supplier.get()))
+                .description(description)
+                .tag("pool", pool)
+                .strongReference(true)
+                .register(registry);
+    }
+
+    private static String tagOf(Endpoint endpoint) {
+        return endpoint.name().toLowerCase(Locale.ROOT);
+    }
+}
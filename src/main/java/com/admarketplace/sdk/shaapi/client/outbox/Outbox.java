@@ -0,0 +1,420 @@
+package com.admarketplace.sdk.shaapi.client.outbox;
+
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Builder;
+import lombok.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * A durable, append-only log of product mutations waiting to be acknowledged by SHAAPI service.
+ *
+ * <p>Mutations are appended to memory-mapped segment files of {@code segmentSize} bytes in a local directory, and
+ * survive a crash of the process: {@link #getPending()} returns, after a restart, every mutation that was appended but
+ * not {@link #ack(long) acknowledged}, in the order it was appended. With {@code syncOnAppend} every append is also
+ * forced to the storage device, which additionally protects against a crash of the operating system at the cost of
+ * one disk flush per append.</p>
+ *
+ * <p>Each record is laid out as:</p>
+ * <pre>
+ * state (1 byte) | type (1 byte) | payload length (4 bytes) | CRC32C (4 bytes) | sequence (8 bytes) | payload
+ * </pre>
+ * <p>where the payload is the account identifier followed by the JSON of the product, and the checksum covers the type,
+ * the sequence and the payload. The state byte is written last and is flipped in place when the record is
+ * acknowledged. Recovery stops reading a segment at the first record with an invalid state or checksum, so a record
+ * torn by a crash is dropped as if it was never appended.</p>
+ *
+ * <p>A segment is deleted as soon as all its records are acknowledged. When a new segment is started, older segments
+ * in which fewer than {@code compactionThreshold} of the records are still pending are compacted: their pending records
+ * are copied to the new segment, keeping their sequence, and the old file is deleted. Disk use therefore stays
+ * proportional to the number of pending mutations.</p>
+ *
+ * <p>Delivery is at least once: a mutation may be returned by {@link #getPending()} again if the process stops between
+ * the response of SHAAPI service and the acknowledgement. Instances are thread-safe; a directory must not be opened by
+ * more than one instance at a time.</p>
+ */
+public class Outbox implements Closeable {
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final int MAGIC = 0x5348574C;
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 8;
+    private static final int RECORD_HEADER_BYTES = 18;
+    private static final byte PENDING = 1;
+    private static final byte ACKED = 2;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean syncOnAppend;
+    private final double compactionThreshold;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private final TreeMap<Long, Location> pending = new TreeMap<>();
+    private Segment head;
+    private long nextSequence = 1;
+    private boolean closed;
+
+    /**
+     * Opens the outbox stored in a directory, recovering the mutations pending in it.
+     *
+     * @param directory The directory holding the segment files; created if missing.
+     * @param segmentSize The size in bytes of each segment file; {@code 64 MiB} when {@code null}.
+     * @param syncOnAppend Whether every append is forced to the storage device.
+     * @param compactionThreshold The share of pending records below which a segment is compacted; {@code 0.25} when
+     *                            {@code null}.
+     * @throws IOException If the directory or its segments cannot be read or created.
+     */
+    @Builder
+    private Outbox(@NonNull Path directory, Integer segmentSize, boolean syncOnAppend, Double compactionThreshold) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize != null ? segmentSize : 64 * 1024 * 1024;
+        this.syncOnAppend = syncOnAppend;
+        this.compactionThreshold = compactionThreshold != null ? compactionThreshold : 0.25;
+        if (this.segmentSize < 1024 || this.compactionThreshold < 0 || this.compactionThreshold > 1) {
+            throw new IllegalArgumentException("Invalid outbox configuration. Segments must be at least 1 KiB "
+                    + "and the compaction threshold must be between 0 and 1.");
+        }
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Appends the upsert of a product.
+     *
+     * @param accountId The account identifier for which the product is being upserted.
+     * @param product The product to be upserted.
+     * @return The sequence of the record, to be passed to {@link #ack(long)}.
+     * @throws IOException If the record cannot be written.
+     */
+    public synchronized long appendUpsert(@NonNull String accountId, @NonNull Product product) throws IOException {
+        return append(OutboxRecord.Type.UPSERT, accountId, product);
+    }
+
+    /**
+     * Appends the delete of a product.
+     *
+     * @param accountId The account identifier from which the product is being deleted.
+     * @param product The identifier of the product to be deleted.
+     * @return The sequence of the record, to be passed to {@link #ack(long)}.
+     * @throws IOException If the record cannot be written.
+     */
+    public synchronized long appendDelete(@NonNull String accountId, @NonNull ProductIdentifier product) throws IOException {
+        return append(OutboxRecord.Type.DELETE, accountId, product);
+    }
+
+    /**
+     * Marks a record as acknowledged so it is no longer returned by {@link #getPending()}. Acknowledging an unknown or
+     * already acknowledged sequence has no effect.
+     *
+     * @param sequence The sequence returned when the record was appended.
+     */
+    public synchronized void ack(long sequence) {
+        Location location = pending.remove(sequence);
+        if (location == null || closed) {
+            return;
+        }
+        Segment segment = location.segment();
+        segment.buffer.put(location.offset(), ACKED);
+        if (syncOnAppend) {
+            segment.buffer.force(location.offset(), 1);
+        }
+        segment.live--;
+        if (segment.live == 0 && segment != head) {
+            delete(segment);
+        }
+    }
+
+    /**
+     * Returns every record appended and not yet acknowledged, in the order they were appended.
+     *
+     * @return The pending records.
+     * @throws IOException If a record cannot be read.
+     */
+    public synchronized List<OutboxRecord> getPending() throws IOException {
+        List<OutboxRecord> records = new ArrayList<>(pending.size());
+        for (Map.Entry<Long, Location> entry : pending.entrySet()) {
+            records.add(read(entry.getKey(), entry.getValue()));
+        }
+        return records;
+    }
+
+    /**
+     * Returns the number of records appended and not yet acknowledged.
+     *
+     * @return The number of pending records.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of segment files currently on disk.
+     *
+     * @return The number of segments.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Forces every segment to the storage device and releases the outbox.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        segments.clear();
+        pending.clear();
+        head = null;
+    }
+
+    private long append(OutboxRecord.Type type, String accountId, ProductIdentifier product) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The outbox is closed.");
+        }
+        long sequence = nextSequence++;
+        write(sequence, (byte) (type.ordinal() + 1), payloadOf(accountId, product));
+        return sequence;
+    }
+
+    private void write(long sequence, byte type, byte[] payload) throws IOException {
+        int length = RECORD_HEADER_BYTES + payload.length;
+        if (length > segmentSize - SEGMENT_HEADER_BYTES) {
+            throw new IllegalArgumentException("The record of " + length + " bytes does not fit in a segment of " + segmentSize + " bytes.");
+        }
+        if (head == null || head.position + length > segmentSize) {
+            roll(length);
+        }
+
+        int offset = head.position;
+        MappedByteBuffer buffer = head.buffer;
+        buffer.put(offset + 1, type);
+        buffer.putInt(offset + 2, payload.length);
+        buffer.putInt(offset + 6, checksum(type, sequence, payload));
+        buffer.putLong(offset + 10, sequence);
+        buffer.put(offset + RECORD_HEADER_BYTES, payload);
+        buffer.put(offset, PENDING);
+        if (syncOnAppend) {
+            buffer.force(offset, length);
+        }
+
+        head.position += length;
+        head.records++;
+        head.live++;
+        pending.put(sequence, new Location(head, offset));
+    }
+
+    /**
+     * Starts a new head segment and compacts the sparse segments into it, keeping room for the record being written.
+     *
+     * @param reserved The length of the record that triggered the roll.
+     */
+    private void roll(int reserved) throws IOException {
+        Segment previous = head;
+        long id = segments.isEmpty() ? 1 : segments.get(segments.size() - 1).id + 1;
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        head = new Segment(id, file, buffer);
+        head.position = SEGMENT_HEADER_BYTES;
+        segments.add(head);
+
+        if (previous != null && previous.live == 0) {
+            delete(previous);
+        }
+        compact(reserved);
+    }
+
+    private void compact(int reserved) throws IOException {
+        for (Segment segment : List.copyOf(segments)) {
+            if (segment == head || segment.live > segment.records * compactionThreshold) {
+                continue;
+            }
+            List<Map.Entry<Long, Location>> live = pending.entrySet().stream()
+                    .filter(entry -> entry.getValue().segment() == segment)
+                    .toList();
+            if (!fitsInHead(live, reserved)) {
+                continue;
+            }
+            for (Map.Entry<Long, Location> entry : live) {
+                int offset = entry.getValue().offset();
+                byte[] payload = new byte[segment.buffer.getInt(offset + 2)];
+                segment.buffer.get(offset + RECORD_HEADER_BYTES, payload);
+                write(entry.getKey(), segment.buffer.get(offset + 1), payload);
+            }
+            if (syncOnAppend) {
+                head.buffer.force();
+            }
+            delete(segment);
+        }
+    }
+
+    private boolean fitsInHead(List<Map.Entry<Long, Location>> live, int reserved) {
+        long bytes = 0;
+        for (Map.Entry<Long, Location> entry : live) {
+            Location location = entry.getValue();
+            bytes += RECORD_HEADER_BYTES + location.segment().buffer.getInt(location.offset() + 2);
+        }
+        return head.position + bytes + reserved <= segmentSize;
+    }
+
+    private void delete(Segment segment) {
+        segments.remove(segment);
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to delete outbox segment " + segment.file, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> {
+                String name = file.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("File " + file + " is not an outbox segment.");
+            }
+            Segment segment = new Segment(id, file, buffer);
+            scan(segment);
+            segments.add(segment);
+        }
+
+        for (Segment segment : List.copyOf(segments)) {
+            if (segment.live == 0) {
+                delete(segment);
+            }
+        }
+        head = null;
+    }
+
+    private void scan(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = SEGMENT_HEADER_BYTES;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            byte state = buffer.get(offset);
+            int length = buffer.getInt(offset + 2);
+            if (state != PENDING && state != ACKED || length < 0 || offset + RECORD_HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            byte type = buffer.get(offset + 1);
+            long sequence = buffer.getLong(offset + 10);
+            byte[] payload = new byte[length];
+            buffer.get(offset + RECORD_HEADER_BYTES, payload);
+            if (buffer.getInt(offset + 6) != checksum(type, sequence, payload)) {
+                break;
+            }
+
+            segment.records++;
+            if (state == PENDING && pending.containsKey(sequence)) {
+                // A copy left by a compaction interrupted before the original segment was deleted
+                buffer.put(offset, ACKED);
+            } else if (state == PENDING) {
+                segment.live++;
+                pending.put(sequence, new Location(segment, offset));
+            }
+            nextSequence = Math.max(nextSequence, sequence + 1);
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        segment.position = offset;
+    }
+
+    private OutboxRecord read(long sequence, Location location) throws IOException {
+        MappedByteBuffer buffer = location.segment().buffer;
+        int offset = location.offset();
+        OutboxRecord.Type type = OutboxRecord.Type.values()[buffer.get(offset + 1) - 1];
+        byte[] payload = new byte[buffer.getInt(offset + 2)];
+        buffer.get(offset + RECORD_HEADER_BYTES, payload);
+
+        ByteBuffer input = ByteBuffer.wrap(payload);
+        byte[] accountId = new byte[input.getShort() & 0xFFFF];
+        input.get(accountId);
+        byte[] json = Arrays.copyOfRange(payload, input.position(), payload.length);
+        ProductIdentifier product = type == OutboxRecord.Type.UPSERT
+                ? objectMapper.readValue(json, Product.class)
+                : objectMapper.readValue(json, ProductIdentifier.class);
+        return new OutboxRecord(sequence, type, new String(accountId, StandardCharsets.UTF_8), product);
+    }
+
+    private static byte[] payloadOf(String accountId, ProductIdentifier product) throws IOException {
+        byte[] account = accountId.getBytes(StandardCharsets.UTF_8);
+        if (account.length > 0xFFFF) {
+            throw new IllegalArgumentException("The account identifier is too long.");
+        }
+        var bytes = new ByteArrayOutputStream(256);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeShort(account.length);
+            output.write(account);
+            output.write(objectMapper.writeValueAsBytes(product));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static int checksum(byte type, long sequence, byte[] payload) {
+        var crc = new CRC32C();
+        crc.update(type);
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private record Location(Segment segment, int offset) {
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int records;
+        private int live;
+
+        private Segment(long id, Path file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.admarketplace.sdk.shaapi.client.outbox;
+
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A product mutation stored in an {@link Outbox} and not yet acknowledged.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class OutboxRecord {
+
+    /**
+     * The kind of mutation.
+     */
+    public enum Type {
+        UPSERT,
+        DELETE
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String accountId;
+    private final ProductIdentifier product;
+
+    /**
+     * Returns the product of an upsert.
+     *
+     * @return The product to be upserted.
+     * @throws IllegalStateException If the record is a delete.
+     */
+    public Product getUpsertedProduct() {
+        if (type != Type.UPSERT) {
+            throw new IllegalStateException("Record " + sequence + " is not an upsert.");
+        }
+        return (Product) product;
+    }
+}
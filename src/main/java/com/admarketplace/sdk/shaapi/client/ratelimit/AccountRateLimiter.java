@@ -0,0 +1,145 @@
+package com.admarketplace.sdk.shaapi.client.ratelimit;
+
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Applies a {@link RateLimitConfig} to the requests of each account independently: a request-rate and a product-rate
+ * token bucket, and optionally an {@link AdaptiveConcurrencyLimit}, are kept per account ID.
+ *
+ * <p>Callers {@link #acquire(String, int) acquire} a {@link Permit} before sending a request, blocking as long as the
+ * account's limits require, and {@link Permit#release(int, int) release} it with the response status and the number of
+ * attempts once the request completes. Retries happen inside the HTTP client, below the limiter: the attempts beyond
+ * the first are charged to the token buckets when the permit is released, and a retried request counts as a sign of
+ * overload for the adaptive limit, since it was only retried after a 429, a 5xx or an I/O error. The limiter is
+ * thread-safe and meant to be shared by all threads using a client.</p>
+ */
+public class AccountRateLimiter {
+    /**
+     * The status of responses to requests that were not sent because the thread was interrupted while waiting for the
+     * limits of the account. It is outside the range of statuses sent by SHAAPI service and, being a 4xx status, tells
+     * that nothing was written.
+     */
+    public static final int HTTP_STATUS_INTERRUPTED = 499;
+
+    private final RateLimitConfig config;
+    private final LongSupplier nanoTime;
+    private final Map<String, AccountLimits> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a limiter applying the given limits to each account.
+     *
+     * @param config The rate and concurrency limits.
+     */
+    public AccountRateLimiter(RateLimitConfig config) {
+        this(config, System::nanoTime);
+    }
+
+    AccountRateLimiter(RateLimitConfig config, LongSupplier nanoTime) {
+        this.config = config;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Blocks until a request for the given account with the given number of products may be sent.
+     *
+     * @param accountId The account the request is sent for.
+     * @param products The number of products in the request, {@code 0} for requests without products.
+     * @return A {@link Permit} to release once the request completes.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    public Permit acquire(String accountId, int products) throws InterruptedException {
+        AccountLimits limits = accounts.computeIfAbsent(accountId, id -> new AccountLimits());
+        if (limits.concurrency != null) {
+            limits.concurrency.acquire();
+        }
+        try {
+            if (limits.requests != null) {
+                limits.requests.acquire(1);
+            }
+            if (limits.products != null && products > 0) {
+                limits.products.acquire(products);
+            }
+        } catch (InterruptedException e) {
+            if (limits.concurrency != null) {
+                limits.concurrency.cancel();
+            }
+            throw e;
+        }
+        return new Permit(limits, products, nanoTime.getAsLong());
+    }
+
+    /**
+     * Returns the current adaptive concurrency limit of the given account.
+     *
+     * @param accountId The account ID.
+     * @return The number of requests that may be in flight for the account, or {@code -1} if adaptive concurrency
+     * is disabled or no request was sent for the account yet.
+     */
+    public int getConcurrencyLimit(String accountId) {
+        AccountLimits limits = accounts.get(accountId);
+        return limits != null && limits.concurrency != null ? limits.concurrency.getLimit() : -1;
+    }
+
+    /**
+     * Permission to send a single request, to be released exactly once when the request completes.
+     */
+    public final class Permit {
+        private final AccountLimits limits;
+        private final int products;
+        private final long startNanos;
+
+        private Permit(AccountLimits limits, int products, long startNanos) {
+            this.limits = limits;
+            this.products = products;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Releases the permit of a request sent once, adapting the account's concurrency limit to its outcome.
+         *
+         * @param httpStatus The HTTP status of the response.
+         */
+        public void release(int httpStatus) {
+            release(httpStatus, 1);
+        }
+
+        /**
+         * Releases the permit, charging the retried attempts to the account's rate limits and adapting its concurrency
+         * limit to the outcome of the request.
+         *
+         * @param httpStatus The HTTP status of the last attempt.
+         * @param attempts The number of times the request was sent.
+         */
+        public void release(int httpStatus, int attempts) {
+            if (attempts > 1) {
+                // Paid for by the next requests of the account, as a large request is
+                if (limits.requests != null) {
+                    limits.requests.reserve(attempts - 1);
+                }
+                if (limits.products != null && products > 0) {
+                    limits.products.reserve((attempts - 1) * products);
+                }
+            }
+            if (limits.concurrency != null) {
+                boolean overloaded = attempts > 1 || httpStatus == HttpStatus.SC_TOO_MANY_REQUESTS || httpStatus >= HttpStatus.SC_SERVER_ERROR;
+                limits.concurrency.release(nanoTime.getAsLong() - startNanos, overloaded);
+            }
+        }
+    }
+
+    private final class AccountLimits {
+        private final TokenBucket requests = config.getRequestsPerSecond() > 0
+                ? new TokenBucket(config.getRequestsPerSecond(), config.getBurst(), nanoTime)
+                : null;
+        private final TokenBucket products = config.getProductsPerSecond() > 0
+                ? new TokenBucket(config.getProductsPerSecond(), config.getBurst(), nanoTime)
+                : null;
+        private final AdaptiveConcurrencyLimit concurrency = config.isAdaptiveConcurrency()
+                ? new AdaptiveConcurrencyLimit(config, nanoTime)
+                : null;
+    }
+}
@@ -0,0 +1,107 @@
+package com.admarketplace.sdk.shaapi.client.ratelimit;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * A concurrency limit adapted with AIMD (additive increase, multiplicative decrease) from the outcome of each request.
+ *
+ * <p>While responses are healthy and the limit is actually used, it grows by one per window of {@code limit} completed
+ * requests. When the service throttles (HTTP 429), fails (HTTP 5xx) or slows down beyond {@code latencyTolerance} times
+ * the best observed latency, the limit is multiplied by {@code backoffRatio}, at most once per round trip so that a burst
+ * of failures from requests sent under the previous limit shrinks it only once. The limit therefore settles just below
+ * the concurrency the service can absorb.</p>
+ */
+class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final LongSupplier nanoTime;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private long minLatencyNanos = Long.MAX_VALUE;
+    private long lastDecreaseNanos;
+
+    AdaptiveConcurrencyLimit(RateLimitConfig config, LongSupplier nanoTime) {
+        this.minLimit = Math.max(1, config.getMinConcurrency());
+        this.maxLimit = Math.max(minLimit, config.getMaxConcurrency());
+        this.backoffRatio = config.getBackoffRatio();
+        this.latencyTolerance = config.getLatencyTolerance();
+        this.nanoTime = nanoTime;
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.getInitialConcurrency()));
+        this.lastDecreaseNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Blocks until fewer requests than the current limit are in flight, then takes a slot.
+     *
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    void acquire() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight >= (int) limit) {
+                available.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot and adapts the limit to the outcome of the request.
+     *
+     * @param latencyNanos How long the request took.
+     * @param overloaded Whether the service reported being overloaded (HTTP 429 or 5xx).
+     */
+    void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight * 2 >= limit;
+            inFlight--;
+            minLatencyNanos = Math.min(minLatencyNanos, latencyNanos);
+
+            if (overloaded || latencyNanos > minLatencyNanos * latencyTolerance) {
+                long now = nanoTime.getAsLong();
+                if (now - lastDecreaseNanos >= latencyNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecreaseNanos = now;
+                }
+            } else if (saturated) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a slot without adapting the limit, for requests that were not sent.
+     */
+    void cancel() {
+        lock.lock();
+        try {
+            inFlight--;
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.admarketplace.sdk.shaapi.client.ratelimit;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Client-side rate limits applied by {@link com.admarketplace.sdk.shaapi.client.ShaapiClient} to the requests sent for each
+ * account, so that workers sharing an account stay below the service's throttling limits instead of tripping them and
+ * backing off.
+ *
+ * <ul>
+ *     <li><b>requestsPerSecond</b> – maximum rate of requests per account; {@code 0} (the default) means unlimited.</li>
+ *     <li><b>productsPerSecond</b> – maximum rate of products upserted or deleted per account; {@code 0} (the default)
+ *     means unlimited.</li>
+ *     <li><b>burst</b> – how much unused rate can be accumulated and spent at once, expressed as a duration at the
+ *     configured rate.</li>
+ *     <li><b>adaptiveConcurrency</b> – whether the number of concurrent requests per account is limited and adapted to
+ *     the service's responses: it grows by one each time a full window of requests completes with healthy latency, and
+ *     shrinks by {@code backoffRatio} on HTTP 429, 5xx, a request that had to be retried, or latency above
+ *     {@code latencyTolerance} times the best observed latency.</li>
+ *     <li><b>initialConcurrency</b>, <b>minConcurrency</b>, <b>maxConcurrency</b> – bounds of the adaptive limit.</li>
+ * </ul>
+ *
+ * <p>Retries of the {@link com.admarketplace.sdk.shaapi.client.retry.RetryPolicy} are sent by the HTTP client once the
+ * request was admitted: they are charged to the rate limits of the account after the request completes. A request
+ * interrupted while waiting for the limits is not sent and is reported with
+ * {@link AccountRateLimiter#HTTP_STATUS_INTERRUPTED}.</p>
+ */
+@Getter
+@Builder
+public class RateLimitConfig {
+
+    @Builder.Default
+    private final double requestsPerSecond = 0;
+    @Builder.Default
+    private final double productsPerSecond = 0;
+    @Builder.Default
+    private final Duration burst = Duration.ofSeconds(1);
+    @Builder.Default
+    private final boolean adaptiveConcurrency = false;
+    @Builder.Default
+    private final int initialConcurrency = 4;
+    @Builder.Default
+    private final int minConcurrency = 1;
+    @Builder.Default
+    private final int maxConcurrency = 64;
+    @Builder.Default
+    private final double backoffRatio = 0.9;
+    @Builder.Default
+    private final double latencyTolerance = 2.0;
+}
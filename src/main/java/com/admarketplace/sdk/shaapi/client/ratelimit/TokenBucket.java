@@ -0,0 +1,57 @@
+package com.admarketplace.sdk.shaapi.client.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket refilled at a constant rate. Acquiring more tokens than available puts the bucket in debt, which
+ * later callers wait for, so that a large request is admitted immediately when the bucket is full and paid for afterward.
+ */
+class TokenBucket {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoTime;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    TokenBucket(double tokensPerSecond, Duration burst, LongSupplier nanoTime) {
+        this.tokensPerNano = tokensPerSecond / NANOS_PER_SECOND;
+        this.capacity = Math.max(1, tokensPerSecond * burst.toNanos() / NANOS_PER_SECOND);
+        this.nanoTime = nanoTime;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes the given number of tokens and blocks until the bucket is out of debt.
+     *
+     * @param permits The number of tokens to take.
+     * @throws InterruptedException If the thread is interrupted while waiting.
+     */
+    void acquire(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Takes the given number of tokens without waiting.
+     *
+     * @param permits The number of tokens to take.
+     * @return How long the caller must wait before sending, in nanoseconds.
+     */
+    synchronized long reserve(int permits) {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+
+        long waitNanos = tokens >= 0 ? 0 : (long) (-tokens / tokensPerNano);
+        tokens -= permits;
+        return waitNanos;
+    }
+}
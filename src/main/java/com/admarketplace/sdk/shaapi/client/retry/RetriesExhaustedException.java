@@ -0,0 +1,25 @@
+package com.admarketplace.sdk.shaapi.client.retry;
+
+import lombok.Getter;
+
+import java.io.IOException;
+
+/**
+ * Signals that a request to SHAAPI service kept failing after being retried according to the {@link RetryPolicy}.
+ * The message and cause are those of the last failed attempt.
+ */
+@Getter
+public class RetriesExhaustedException extends IOException {
+    private final int attempts;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param attempts The number of attempts made.
+     * @param cause The failure of the last attempt.
+     */
+    public RetriesExhaustedException(int attempts, IOException cause) {
+        super(cause.getMessage(), cause);
+        this.attempts = attempts;
+    }
+}
@@ -0,0 +1,78 @@
+package com.admarketplace.sdk.shaapi.client.retry;
+
+import lombok.Builder;
+
+/**
+ * Limits the share of retries among all requests sent by a client, so that retries can't multiply the load on
+ * SHAAPI service while it is degraded or recovering from an outage.
+ *
+ * <p>Every first attempt deposits {@code ratio} into the budget and every retry withdraws one; a retry is only
+ * allowed while the balance holds at least one. In addition, {@code minRetriesPerSecond} are always available so
+ * that low-traffic clients can still retry. The balance never exceeds {@code maxBalance}.</p>
+ *
+ * <p>A budget is shared by all threads of a client and is thread-safe.</p>
+ */
+public class RetryBudget {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final double ratio;
+    private final double minRetriesPerSecond;
+    private final double maxBalance;
+
+    private double balance;
+    private long lastRefillNanos;
+
+    /**
+     * Creates a new retry budget.
+     *
+     * @param ratio The fraction of requests that may be retried; defaults to {@code 0.2} (20%).
+     * @param minRetriesPerSecond The retries per second allowed regardless of the ratio; defaults to {@code 10}.
+     * @param maxBalance The maximum number of retries that can be accumulated; defaults to {@code 100}.
+     */
+    @Builder
+    private RetryBudget(Double ratio, Integer minRetriesPerSecond, Integer maxBalance) {
+        this.ratio = ratio != null ? ratio : 0.2;
+        this.minRetriesPerSecond = minRetriesPerSecond != null ? minRetriesPerSecond : 10;
+        this.maxBalance = maxBalance != null ? maxBalance : 100;
+        this.balance = this.minRetriesPerSecond;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns a budget with the default ratio and minimum retries per second.
+     *
+     * @return A new {@link RetryBudget}.
+     */
+    public static RetryBudget defaults() {
+        return RetryBudget.builder().build();
+    }
+
+    /**
+     * Records a first attempt of a request.
+     */
+    public synchronized void recordRequest() {
+        refill();
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    /**
+     * Withdraws a retry from the budget.
+     *
+     * @return {@code true} if the retry is allowed, {@code false} if the budget is exhausted.
+     */
+    public synchronized boolean tryAcquireRetry() {
+        refill();
+        if (balance < 1) {
+            return false;
+        }
+        balance--;
+        return true;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double elapsedSeconds = (double) (now - lastRefillNanos) / NANOS_PER_SECOND;
+        lastRefillNanos = now;
+        balance = Math.min(maxBalance, balance + elapsedSeconds * minRetriesPerSecond);
+    }
+}
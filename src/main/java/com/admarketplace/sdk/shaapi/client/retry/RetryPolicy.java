@@ -0,0 +1,115 @@
+package com.admarketplace.sdk.shaapi.client.retry;
+
+import com.fasterxml.jackson.core.JacksonException;
+import lombok.Builder;
+import lombok.Getter;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException;
+
+import javax.net.ssl.SSLException;
+import java.io.IOException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines when and how failed requests to SHAAPI service are retried.
+ *
+ * <p>All SHAAPI operations are safe to repeat: upserting or deleting the same products twice leaves the catalog in the
+ * same state, and count and token requests have no side effects on products. A request is retried when it fails with
+ * one of {@code retryableExceptions} (and none of {@code nonRetryableExceptions}) or when the service answers with one
+ * of {@code retryableStatusCodes}, as long as attempts remain and the shared {@link RetryBudget} allows it.</p>
+ *
+ * <ul>
+ *     <li><b>maxAttempts</b> – total number of attempts per request, including the first one.</li>
+ *     <li><b>retryableStatusCodes</b> – HTTP statuses that trigger a retry; by default 429, 502, 503 and 504.</li>
+ *     <li><b>retryableExceptions</b> – exceptions that trigger a retry; by default any {@link IOException}.</li>
+ *     <li><b>nonRetryableExceptions</b> – exceptions never retried, even if they match {@code retryableExceptions};
+ *     by default unknown hosts, TLS failures, HTTP/2 protocol negotiation failures and JSON serialization errors.</li>
+ *     <li><b>initialBackoff</b>, <b>multiplier</b>, <b>maxBackoff</b> – the delay before retry {@code n} is
+ *     {@code initialBackoff * multiplier^(n-1)}, capped at {@code maxBackoff}.</li>
+ *     <li><b>jitter</b> – fraction of the delay that is randomized (0 disables jitter, 1 is full jitter), so that clients
+ *     recovering from the same outage don't retry in lockstep.</li>
+ *     <li><b>respectRetryAfter</b> – whether a {@code Retry-After} response header extends the delay, up to
+ *     {@code maxRetryAfter}.</li>
+ *     <li><b>retryBudget</b> – limits retries across all requests of the client.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class RetryPolicy {
+
+    @Builder.Default
+    private final int maxAttempts = 3;
+    @Builder.Default
+    private final Set<Integer> retryableStatusCodes = Set.of(HttpStatus.SC_TOO_MANY_REQUESTS, HttpStatus.SC_BAD_GATEWAY,
+            HttpStatus.SC_SERVICE_UNAVAILABLE, HttpStatus.SC_GATEWAY_TIMEOUT);
+    @Builder.Default
+    private final Set<Class<? extends Exception>> retryableExceptions = Set.of(IOException.class);
+    @Builder.Default
+    private final Set<Class<? extends Exception>> nonRetryableExceptions = Set.of(UnknownHostException.class,
+            SSLException.class, ProtocolNegotiationException.class, JacksonException.class);
+    @Builder.Default
+    private final Duration initialBackoff = Duration.ofMillis(200);
+    @Builder.Default
+    private final double multiplier = 2.0;
+    @Builder.Default
+    private final Duration maxBackoff = Duration.ofSeconds(10);
+    @Builder.Default
+    private final double jitter = 0.5;
+    @Builder.Default
+    private final boolean respectRetryAfter = true;
+    @Builder.Default
+    private final Duration maxRetryAfter = Duration.ofSeconds(60);
+    @Builder.Default
+    private final RetryBudget retryBudget = RetryBudget.defaults();
+
+    /**
+     * Returns a policy with the default settings and a new default {@link RetryBudget}.
+     *
+     * @return A {@link RetryPolicy} with default values.
+     */
+    public static RetryPolicy defaults() {
+        return RetryPolicy.builder().build();
+    }
+
+    /**
+     * Checks whether a response status should be retried.
+     *
+     * @param statusCode The HTTP status of the response.
+     * @return {@code true} if the status is retryable.
+     */
+    public boolean isRetryable(int statusCode) {
+        return retryableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Checks whether a request failure should be retried.
+     *
+     * @param exception The exception thrown while executing the request.
+     * @return {@code true} if the exception is retryable.
+     */
+    public boolean isRetryable(Exception exception) {
+        return nonRetryableExceptions.stream().noneMatch(type -> type.isInstance(exception))
+                && retryableExceptions.stream().anyMatch(type -> type.isInstance(exception));
+    }
+
+    /**
+     * Computes the delay before the given retry.
+     *
+     * @param retry The retry number, starting at 1 for the second attempt.
+     * @param retryAfter The delay requested by the service with {@code Retry-After}, or {@code null}.
+     * @return The delay to wait before the retry.
+     */
+    public Duration getDelay(int retry, Duration retryAfter) {
+        double exponential = initialBackoff.toMillis() * Math.pow(multiplier, retry - 1.0);
+        long backoff = (long) Math.min(exponential, maxBackoff.toMillis());
+        long jittered = backoff - (long) (backoff * jitter * ThreadLocalRandom.current().nextDouble());
+
+        if (respectRetryAfter && retryAfter != null) {
+            return Duration.ofMillis(Math.max(jittered, Math.min(retryAfter.toMillis(), maxRetryAfter.toMillis())));
+        }
+        return Duration.ofMillis(jittered);
+    }
+}
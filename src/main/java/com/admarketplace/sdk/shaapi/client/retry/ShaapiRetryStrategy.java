@@ -0,0 +1,97 @@
+package com.admarketplace.sdk.shaapi.client.retry;
+
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Adapts a {@link RetryPolicy} to the retry extension point of Apache HttpClient, so that failed requests are
+ * retried inside the HTTP client of both {@link com.admarketplace.sdk.shaapi.client.ShaapiClient} and
+ * {@link com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient}.
+ *
+ * <p>Every attempt is recorded in the {@link HttpContext} of the request, so the number of attempts can be read back
+ * with {@link #getAttempts(HttpContext)} once the request completes.</p>
+ */
+public final class ShaapiRetryStrategy implements HttpRequestRetryStrategy {
+    private static final String ATTEMPTS_ATTRIBUTE = "shaapi.retry.attempts";
+
+    private final RetryPolicy retryPolicy;
+
+    /**
+     * Creates a strategy that retries requests according to the given policy.
+     *
+     * @param retryPolicy The retry policy.
+     */
+    public ShaapiRetryStrategy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Returns the number of attempts made for the request executed with the given context.
+     *
+     * @param context The context the request was executed with.
+     * @return The number of attempts, {@code 1} if the request was not retried.
+     */
+    public static int getAttempts(HttpContext context) {
+        return context != null && context.getAttribute(ATTEMPTS_ATTRIBUTE) instanceof Integer attempts ? attempts : 1;
+    }
+
+    @Override
+    public boolean retryRequest(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        return shouldRetry(retryPolicy.isRetryable(exception), execCount, context);
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+        return shouldRetry(retryPolicy.isRetryable(response.getCode()), execCount, context);
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        return TimeValue.ofMilliseconds(retryPolicy.getDelay(execCount, null).toMillis());
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpResponse response, int execCount, HttpContext context) {
+        return TimeValue.ofMilliseconds(retryPolicy.getDelay(execCount, getRetryAfter(response)).toMillis());
+    }
+
+    private boolean shouldRetry(boolean retryable, int execCount, HttpContext context) {
+        RetryBudget retryBudget = retryPolicy.getRetryBudget();
+        if (execCount == 1 && retryBudget != null) {
+            retryBudget.recordRequest();
+        }
+
+        boolean retry = retryable
+                && execCount < retryPolicy.getMaxAttempts()
+                && (retryBudget == null || retryBudget.tryAcquireRetry());
+        if (retry) {
+            context.setAttribute(ATTEMPTS_ATTRIBUTE, execCount + 1);
+        }
+        return retry;
+    }
+
+    static Duration getRetryAfter(HttpResponse response) {
+        Header header = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+        if (header == null || header.getValue() == null) {
+            return null;
+        }
+
+        String value = header.getValue().trim();
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            Instant date = DateUtils.parseStandardDate(value);
+            return date != null ? Duration.ofMillis(Math.max(0, date.toEpochMilli() - System.currentTimeMillis())) : null;
+        }
+    }
+}
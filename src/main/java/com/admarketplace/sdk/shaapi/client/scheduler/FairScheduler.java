@@ -0,0 +1,336 @@
+package com.admarketplace.sdk.shaapi.client.scheduler;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.Builder;
+import lombok.NonNull;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Shares a {@link ShaapiClient} fairly between many accounts.
+ *
+ * <p>Requests are queued per account and dispatched with start-time fair queueing: each request is tagged with a
+ * virtual start time and cost (its number of products divided by the weight of its account, see
+ * {@link SchedulerConfig#getAccountWeights()}), and the backlogged account whose next request has the earliest tag goes
+ * first. An account that has been idle starts at the current virtual time, so a small update is sent after at most
+ * one request of every other backlogged account instead of behind the whole backlog of a large catalog push. While
+ * several accounts are backlogged, each receives product throughput in proportion to its weight.</p>
+ *
+ * <p>At most {@link SchedulerConfig#getMaxConcurrency()} requests are in flight in total, and at most
+ * {@link SchedulerConfig#getMaxConcurrencyPerAccount()} per account. Requests of an account are dispatched in
+ * submission order.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * try (FairScheduler scheduler = FairScheduler.builder()
+ *         .client(shaapiClient)
+ *         .config(SchedulerConfig.builder().maxConcurrency(16).maxConcurrencyPerAccount(4).build())
+ *         .build()) {
+ *     CompletableFuture<ProductResponse> response = scheduler.upsertProducts(accountId, batch);
+ * }
+ * }</pre>
+ *
+ * <p>The scheduler owns a pool of {@code maxConcurrency} threads, is safe to share between threads and must be closed
+ * when no longer needed. Closing it does not close the underlying {@link ShaapiClient}.</p>
+ */
+public class FairScheduler implements AutoCloseable {
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final ShaapiClient client;
+    private final SchedulerConfig config;
+    private final ExecutorService executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition idle = lock.newCondition();
+    private final Map<String, Account> accounts = new HashMap<>();
+    private final PriorityQueue<Account> ready = new PriorityQueue<>(Comparator.comparingDouble(Account::headStart));
+    private double virtualTime;
+    private int inFlight;
+    private int queued;
+    private boolean closed;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param client The client used to send every request.
+     * @param config The concurrency budget and account weights; defaults are used when {@code null}.
+     */
+    @Builder
+    private FairScheduler(@NonNull ShaapiClient client, SchedulerConfig config) {
+        this.client = client;
+        this.config = config != null ? config : SchedulerConfig.defaults();
+        if (this.config.getMaxConcurrency() < 1 || this.config.getMaxConcurrencyPerAccount() < 1 || this.config.getDefaultWeight() < 1
+                || this.config.getAccountWeights().values().stream().anyMatch(weight -> weight < 1)) {
+            throw new IllegalArgumentException("Invalid scheduler configuration. Concurrency limits and weights must be positive.");
+        }
+        this.executor = Executors.newFixedThreadPool(this.config.getMaxConcurrency(), threadFactory());
+    }
+
+    /**
+     * Queues the upsert of products.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The products to be upserted.
+     * @return The response, once the request has been sent.
+     * @throws IllegalStateException If the scheduler is closed.
+     */
+    public CompletableFuture<ProductResponse> upsertProducts(String accountId, String accessToken, Collection<Product> products) {
+        return submit(accountId, products.size(), () -> client.upsertProducts(accountId, accessToken, products), FairScheduler::productError);
+    }
+
+    /**
+     * Queues the upsert of products, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier for which products are being upserted.
+     * @param products The products to be upserted.
+     * @return The response, once the request has been sent.
+     * @throws IllegalStateException If the scheduler is closed.
+     * @see ShaapiClient#upsertProducts(String, Collection)
+     */
+    public CompletableFuture<ProductResponse> upsertProducts(String accountId, Collection<Product> products) {
+        return submit(accountId, products.size(), () -> client.upsertProducts(accountId, products), FairScheduler::productError);
+    }
+
+    /**
+     * Queues the deletion of products.
+     *
+     * @param accountId The account identifier from which products are being deleted.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The identifiers of the products to be deleted.
+     * @return The response, once the request has been sent.
+     * @throws IllegalStateException If the scheduler is closed.
+     */
+    public CompletableFuture<ProductResponse> deleteProducts(String accountId, String accessToken, Collection<ProductIdentifier> products) {
+        return submit(accountId, products.size(), () -> client.deleteProducts(accountId, accessToken, products), FairScheduler::productError);
+    }
+
+    /**
+     * Queues the deletion of products, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier from which products are being deleted.
+     * @param products The identifiers of the products to be deleted.
+     * @return The response, once the request has been sent.
+     * @throws IllegalStateException If the scheduler is closed.
+     * @see ShaapiClient#deleteProducts(String, Collection)
+     */
+    public CompletableFuture<ProductResponse> deleteProducts(String accountId, Collection<ProductIdentifier> products) {
+        return submit(accountId, products.size(), () -> client.deleteProducts(accountId, products), FairScheduler::productError);
+    }
+
+    /**
+     * Queues a product count request.
+     *
+     * @param accountId The account identifier for which the product count is requested.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @return The response, once the request has been sent.
+     * @throws IllegalStateException If the scheduler is closed.
+     */
+    public CompletableFuture<ProductCountResponse> getProductCount(String accountId, String accessToken) {
+        return submit(accountId, 0, () -> client.getProductCount(accountId, accessToken), FairScheduler::countError);
+    }
+
+    /**
+     * Queues a product count request, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier for which the product count is requested.
+     * @return The response, once the request has been sent.
+     * @throws IllegalStateException If the scheduler is closed.
+     * @see ShaapiClient#getProductCount(String)
+     */
+    public CompletableFuture<ProductCountResponse> getProductCount(String accountId) {
+        return submit(accountId, 0, () -> client.getProductCount(accountId), FairScheduler::countError);
+    }
+
+    /**
+     * Returns the number of requests of an account waiting to be sent.
+     *
+     * @param accountId The account.
+     * @return The number of queued requests.
+     */
+    public int getQueuedCount(String accountId) {
+        lock.lock();
+        try {
+            Account account = accounts.get(accountId);
+            return account != null ? account.queue.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests in flight across all accounts.
+     *
+     * @return The number of requests being sent.
+     */
+    public int getInFlightCount() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting requests, waits until every queued request has been sent and stops the threads.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while (queued > 0 || inFlight > 0) {
+                idle.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdown();
+    }
+
+    private <R> CompletableFuture<R> submit(String accountId, int products, Supplier<R> call, Function<String, R> error) {
+        var task = new Task<>(call, error, new CompletableFuture<>());
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The scheduler is closed.");
+            }
+            Account account = accounts.computeIfAbsent(accountId, id -> new Account(id, config.getWeight(id)));
+            // A request costs at least one product, so count requests still advance the account's virtual time
+            task.start = Math.max(virtualTime, account.finish);
+            account.finish = task.start + (double) Math.max(products, 1) / account.weight;
+            account.queue.add(task);
+            queued++;
+            if (account.queue.size() == 1 && account.inFlight < config.getMaxConcurrencyPerAccount()) {
+                ready.add(account);
+            }
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+        return task.future;
+    }
+
+    private void dispatch() {
+        while (inFlight < config.getMaxConcurrency() && !ready.isEmpty()) {
+            Account account = ready.poll();
+            Task<?> task = account.queue.poll();
+            virtualTime = Math.max(virtualTime, task.start);
+            queued--;
+            inFlight++;
+            account.inFlight++;
+            if (!account.queue.isEmpty() && account.inFlight < config.getMaxConcurrencyPerAccount()) {
+                ready.add(account);
+            }
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    complete(account);
+                }
+            });
+        }
+    }
+
+    private void complete(Account account) {
+        lock.lock();
+        try {
+            inFlight--;
+            account.inFlight--;
+            if (!account.queue.isEmpty() && account.inFlight == config.getMaxConcurrencyPerAccount() - 1) {
+                ready.add(account);
+            } else if (account.queue.isEmpty() && account.inFlight == 0) {
+                accounts.remove(account.id);
+            }
+            dispatch();
+            if (queued == 0 && inFlight == 0) {
+                idle.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static ProductResponse productError(String message) {
+        return new ProductResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, message, null, null);
+    }
+
+    private static ProductCountResponse countError(String message) {
+        return new ProductCountResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, message, null);
+    }
+
+    /**
+     * The queue and fair queueing state of an account. Guarded by the scheduler lock.
+     */
+    private static final class Account {
+        private final String id;
+        private final int weight;
+        private final Queue<Task<?>> queue = new ArrayDeque<>();
+        private double finish;
+        private int inFlight;
+
+        private Account(String id, int weight) {
+            this.id = id;
+            this.weight = weight;
+        }
+
+        private double headStart() {
+            return queue.peek().start;
+        }
+    }
+
+    /**
+     * A queued request and the future completed with its response.
+     */
+    private static final class Task<R> {
+        private final Supplier<R> call;
+        private final Function<String, R> error;
+        private final CompletableFuture<R> future;
+        private double start;
+
+        private Task(Supplier<R> call, Function<String, R> error, CompletableFuture<R> future) {
+            this.call = call;
+            this.error = error;
+            this.future = future;
+        }
+
+        private void run() {
+            try {
+                future.complete(call.get());
+            } catch (RuntimeException e) {
+                future.complete(error.apply("An unexpected error occurred during the request: " + e.getMessage()));
+            }
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        int pool = POOL_COUNTER.incrementAndGet();
+        AtomicInteger threadCounter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shaapi-scheduler-" + pool + "-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
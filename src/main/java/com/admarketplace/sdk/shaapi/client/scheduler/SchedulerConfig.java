@@ -0,0 +1,53 @@
+package com.admarketplace.sdk.shaapi.client.scheduler;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * Settings of a {@link FairScheduler}.
+ *
+ * <ul>
+ *     <li><b>maxConcurrency</b> – global budget of requests in flight across all accounts. It should not exceed the
+ *     connection pool size per route of the client ({@link com.admarketplace.sdk.shaapi.client.config.HttpClientConfig#getMaxConnectionsPerRoute()}),
+ *     otherwise requests wait for a connection outside the scheduler's control.</li>
+ *     <li><b>maxConcurrencyPerAccount</b> – maximum number of requests of a single account in flight at the same time,
+ *     so one account can never hold the whole budget.</li>
+ *     <li><b>defaultWeight</b> – share of the budget given to accounts not listed in {@code accountWeights}.</li>
+ *     <li><b>accountWeights</b> – per-account weights; while several accounts are backlogged, each receives products
+ *     throughput in proportion to its weight.</li>
+ * </ul>
+ */
+@Getter
+@Builder
+public class SchedulerConfig {
+
+    @Builder.Default
+    private final int maxConcurrency = 16;
+    @Builder.Default
+    private final int maxConcurrencyPerAccount = 4;
+    @Builder.Default
+    private final int defaultWeight = 1;
+    @Builder.Default
+    private final Map<String, Integer> accountWeights = Map.of();
+
+    /**
+     * Returns a configuration with the default budget and equal weights.
+     *
+     * @return A {@link SchedulerConfig} with default values.
+     */
+    public static SchedulerConfig defaults() {
+        return SchedulerConfig.builder().build();
+    }
+
+    /**
+     * Returns the weight of an account.
+     *
+     * @param accountId The account.
+     * @return Its configured weight, or {@code defaultWeight}.
+     */
+    public int getWeight(String accountId) {
+        return accountWeights.getOrDefault(accountId, defaultWeight);
+    }
+}
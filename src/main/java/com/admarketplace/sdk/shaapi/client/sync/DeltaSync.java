@@ -0,0 +1,427 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.Builder;
+import lombok.NonNull;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Upserts only the products that changed since the last sync of an account.
+ *
+ * <p>For every account, a {@link FingerprintIndex} persisted in {@code indexDirectory} maps each product (by ID, country
+ * and language) to a fingerprint of the content last upserted successfully. A sync run reads the full catalog, skips the
+ * products whose fingerprint is unchanged and upserts the others in batches of {@code batchSize}. Products reported as
+ * failures, or sent in a batch that failed as a whole, are not recorded and are therefore sent again on the next run.</p>
+ *
+ * <p>The catalog is consumed as an {@link Iterable}, so it can be streamed from a file or database; at most one batch of
+ * products is held in memory. The index lives in memory-mapped files outside the Java heap.</p>
+ *
+ * <p>{@link #reconcile(String, String, Iterable, ReconcileListener) Reconciling} an account additionally treats the catalog
+ * as complete: the products of the previously reconciled catalog that are missing from it are deleted. The identifiers of
+ * both catalogs are kept in snapshot files sorted by key (sorted in chunks of {@code spillThreshold} entries that are
+ * spilled to disk and merged), so finding the missing products takes a single sequential pass over both files. Deletes
+ * are only derived once the whole catalog has been read, so a catalog that fails mid-way never causes deletes. Deletes
+ * that fail with a retryable status (429, 5xx or an I/O error) are attempted again on the next reconciliation; a product
+ * reported as not found (404) counts as deleted, and deletes rejected with any other status are only reported.</p>
+ *
+ * <p>Example usage:</p>
+ * <pre>{@code
+ * try (DeltaSync deltaSync = DeltaSync.builder()
+ *         .client(shaapiClient)
+ *         .indexDirectory(Path.of("/var/lib/shaapi-sync"))
+ *         .build()) {
+ *     SyncResult result = deltaSync.sync(accountId, catalog);
+ * }
+ * }</pre>
+ *
+ * <p>Indexes must not be shared between processes. Closing the sync writes pending index changes to disk; it does not
+ * close the underlying {@link ShaapiClient}.</p>
+ */
+public class DeltaSync implements AutoCloseable {
+    private static final String INDEX_FILE_SUFFIX = ".fpi";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".snapshot";
+
+    private final ShaapiClient client;
+    private final Path indexDirectory;
+    private final int batchSize;
+    private final long expectedProducts;
+    private final int spillThreshold;
+    private final Clock clock;
+    private final Map<String, FingerprintIndex> indexes = new HashMap<>();
+
+    /**
+     * Creates a new delta sync.
+     *
+     * @param client The client used to upsert products.
+     * @param indexDirectory The directory holding one index file per account; created if missing.
+     * @param batchSize The maximum number of products per upsert request; defaults to {@code 1000}.
+     * @param expectedProducts The number of products per account new indexes are sized for; defaults to {@code 100 000}.
+     *                         Indexes grow as needed.
+     * @param spillThreshold The number of product identifiers sorted in memory before being spilled to disk during a
+     *                       reconciliation; defaults to {@code 100 000}.
+     * @param clock The clock used to record sync times; defaults to the system clock.
+     */
+    @Builder
+    private DeltaSync(@NonNull ShaapiClient client, @NonNull Path indexDirectory, Integer batchSize, Long expectedProducts,
+                      Integer spillThreshold, Clock clock) {
+        this.client = client;
+        this.indexDirectory = indexDirectory;
+        this.batchSize = batchSize != null ? batchSize : 1000;
+        this.expectedProducts = expectedProducts != null ? expectedProducts : 100_000;
+        this.spillThreshold = spillThreshold != null ? spillThreshold : 100_000;
+        this.clock = clock != null ? clock : Clock.systemUTC();
+        if (this.batchSize < 1 || this.spillThreshold < 1) {
+            throw new IllegalArgumentException("Invalid delta sync configuration. Batch size and spill threshold must be positive.");
+        }
+    }
+
+    /**
+     * Upserts the products of the catalog that are new or changed since the last sync.
+     *
+     * @param accountId The account identifier for which products are being synced.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The full catalog of the account.
+     * @return A {@link SyncResult} summarizing the run.
+     * @throws IOException If the index of the account cannot be read or written.
+     */
+    public SyncResult sync(String accountId, String accessToken, Iterable<Product> products) throws IOException {
+        return sync(accountId, products, batch -> client.upsertProducts(accountId, accessToken, batch));
+    }
+
+    /**
+     * Upserts the products of the catalog that are new or changed since the last sync, authenticating with the token
+     * managed by the client.
+     *
+     * @param accountId The account identifier for which products are being synced.
+     * @param products The full catalog of the account.
+     * @return A {@link SyncResult} summarizing the run.
+     * @throws IOException If the index of the account cannot be read or written.
+     * @see ShaapiClient#upsertProducts(String, java.util.Collection)
+     */
+    public SyncResult sync(String accountId, Iterable<Product> products) throws IOException {
+        return sync(accountId, products, batch -> client.upsertProducts(accountId, batch));
+    }
+
+    /**
+     * Makes SHAAPI service hold exactly the given catalog: upserts the products that are new or changed since the last
+     * sync, then deletes the products of the previously reconciled catalog that are not part of this one.
+     *
+     * @param accountId The account identifier for which products are being reconciled.
+     * @param accessToken A valid access token for SHAAPI service authentication.
+     * @param products The full catalog of the account.
+     * @param listener Notified of the progress after every batch; optional.
+     * @return A {@link ReconcileResult} summarizing the run.
+     * @throws IOException If the index or snapshot files of the account cannot be read or written.
+     */
+    public ReconcileResult reconcile(String accountId, String accessToken, Iterable<Product> products, ReconcileListener listener) throws IOException {
+        return reconcile(accountId, products, listener,
+                batch -> client.upsertProducts(accountId, accessToken, batch),
+                batch -> client.deleteProducts(accountId, accessToken, batch));
+    }
+
+    /**
+     * Makes SHAAPI service hold exactly the given catalog, authenticating with the token managed by the client.
+     *
+     * @param accountId The account identifier for which products are being reconciled.
+     * @param products The full catalog of the account.
+     * @param listener Notified of the progress after every batch; optional.
+     * @return A {@link ReconcileResult} summarizing the run.
+     * @throws IOException If the index or snapshot files of the account cannot be read or written.
+     * @see #reconcile(String, String, Iterable, ReconcileListener)
+     */
+    public ReconcileResult reconcile(String accountId, Iterable<Product> products, ReconcileListener listener) throws IOException {
+        return reconcile(accountId, products, listener,
+                batch -> client.upsertProducts(accountId, batch),
+                batch -> client.deleteProducts(accountId, batch));
+    }
+
+    /**
+     * Forgets everything synced for an account, so that its whole catalog is upserted on the next run and no deletes
+     * are derived from previously reconciled catalogs.
+     *
+     * @param accountId The account identifier.
+     * @throws IOException If the index or snapshot files cannot be deleted.
+     */
+    public synchronized void reset(String accountId) throws IOException {
+        FingerprintIndex index = indexes.remove(accountId);
+        if (index != null) {
+            index.close();
+        }
+        Files.deleteIfExists(indexFile(accountId));
+        Files.deleteIfExists(snapshotFile(accountId));
+    }
+
+    /**
+     * Writes pending index changes of all accounts to disk.
+     */
+    @Override
+    public synchronized void close() {
+        indexes.values().forEach(FingerprintIndex::close);
+        indexes.clear();
+    }
+
+    private SyncResult sync(String accountId, Iterable<Product> products, Function<List<Product>, ProductResponse> upsert) throws IOException {
+        FingerprintIndex index = getIndex(accountId);
+        var run = new Run(index, upsert, null, null);
+        scan(run, products, null);
+        index.flush();
+        return new SyncResult(run.scanned, run.unchanged, run.upserted, run.failed, run.failures, run.failedBatches);
+    }
+
+    private ReconcileResult reconcile(String accountId, Iterable<Product> products, ReconcileListener listener,
+                                      Function<List<Product>, ProductResponse> upsert,
+                                      Function<List<ProductIdentifier>, ProductResponse> delete) throws IOException {
+        FingerprintIndex index = getIndex(accountId);
+        var run = new Run(index, upsert, delete, listener);
+        Path previous = snapshotFile(accountId);
+        Path current = previous.resolveSibling(previous.getFileName() + ".new");
+
+        try (var sorter = new SpillSorter(indexDirectory, fileName(accountId), spillThreshold)) {
+            scan(run, products, sorter);
+            sorter.finish(current);
+        }
+
+        List<SnapshotFile.Entry> retained = new ArrayList<>();
+        if (Files.exists(previous)) {
+            try (var previousEntries = SnapshotFile.read(previous); var currentEntries = SnapshotFile.read(current)) {
+                SnapshotFile.Entry old = previousEntries.next();
+                SnapshotFile.Entry now = currentEntries.next();
+                while (old != null) {
+                    if (now == null || old.key() < now.key()) {
+                        run.delete(old, retained);
+                        old = previousEntries.next();
+                    } else if (old.key() == now.key()) {
+                        old = previousEntries.next();
+                        now = currentEntries.next();
+                    } else {
+                        now = currentEntries.next();
+                    }
+                }
+                run.sendDeletes(retained);
+            }
+        }
+
+        if (retained.isEmpty()) {
+            Files.move(current, previous, StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            // Products that could not be deleted stay in the snapshot, so that the delete is attempted again next time.
+            Path failedDeletes = previous.resolveSibling(previous.getFileName() + ".retained");
+            try (var writer = SnapshotFile.write(failedDeletes)) {
+                for (SnapshotFile.Entry entry : retained) {
+                    writer.write(entry);
+                }
+            }
+            SnapshotFile.merge(List.of(current, failedDeletes), previous);
+            Files.delete(current);
+            Files.delete(failedDeletes);
+        }
+        index.flush();
+        return new ReconcileResult(run.scanned, run.unchanged, run.upserted, run.deleted, run.failed, run.failures, run.failedBatches);
+    }
+
+    private void scan(Run run, Iterable<Product> products, SpillSorter snapshot) throws IOException {
+        for (Product product : products) {
+            run.scanned++;
+            long key = Fingerprints.keyOf(product);
+            if (snapshot != null) {
+                snapshot.add(new SnapshotFile.Entry(key, product.getId(), product.getCountry(), product.getLanguage()));
+            }
+            long fingerprint = fingerprintOf(product);
+            if (fingerprint != 0 && run.index.getFingerprint(key) == fingerprint) {
+                run.unchanged++;
+                continue;
+            }
+            run.add(product, key, fingerprint);
+            if (run.batch.size() >= batchSize) {
+                run.send();
+            }
+        }
+        run.send();
+    }
+
+    private synchronized FingerprintIndex getIndex(String accountId) throws IOException {
+        FingerprintIndex index = indexes.get(accountId);
+        if (index == null) {
+            Files.createDirectories(indexDirectory);
+            index = FingerprintIndex.open(indexFile(accountId), expectedProducts);
+            indexes.put(accountId, index);
+        }
+        return index;
+    }
+
+    private Path indexFile(String accountId) {
+        return indexDirectory.resolve(fileName(accountId) + INDEX_FILE_SUFFIX);
+    }
+
+    private Path snapshotFile(String accountId) {
+        return indexDirectory.resolve(fileName(accountId) + SNAPSHOT_FILE_SUFFIX);
+    }
+
+    private static String fileName(String accountId) {
+        return accountId.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static long fingerprintOf(Product product) {
+        try {
+            return Fingerprints.fingerprintOf(product);
+        } catch (IOException e) {
+            // Send it anyway, so the error is reported by the service, but never record it as synced.
+            return 0;
+        }
+    }
+
+    private static boolean isSuccessful(ProductResponse response) {
+        return response.getHttpStatus() >= 200 && response.getHttpStatus() < 300;
+    }
+
+    private static boolean isRetryable(int status) {
+        return status == 0 || status == HttpStatus.SC_TOO_MANY_REQUESTS || status >= 500;
+    }
+
+    /**
+     * State of a single sync run.
+     */
+    private final class Run {
+        private final FingerprintIndex index;
+        private final Function<List<Product>, ProductResponse> upsert;
+        private final Function<List<ProductIdentifier>, ProductResponse> delete;
+        private final ReconcileListener listener;
+        private final List<Product> batch = new ArrayList<>();
+        private final List<SnapshotFile.Entry> deletes = new ArrayList<>();
+        private final long[] keys = new long[batchSize];
+        private final long[] fingerprints = new long[batchSize];
+        private final List<Failure> failures = new ArrayList<>();
+        private final List<ProductResponse> failedBatches = new ArrayList<>();
+        private long scanned;
+        private long unchanged;
+        private long upserted;
+        private long deleted;
+        private long failed;
+
+        private Run(FingerprintIndex index, Function<List<Product>, ProductResponse> upsert,
+                    Function<List<ProductIdentifier>, ProductResponse> delete, ReconcileListener listener) {
+            this.index = index;
+            this.upsert = upsert;
+            this.delete = delete;
+            this.listener = listener;
+        }
+
+        private void add(Product product, long key, long fingerprint) {
+            keys[batch.size()] = key;
+            fingerprints[batch.size()] = fingerprint;
+            batch.add(product);
+        }
+
+        private void send() throws IOException {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            ProductResponse response = upsert.apply(List.copyOf(batch));
+            if (!isSuccessful(response)) {
+                failed += batch.size();
+                failedBatches.add(response);
+            } else {
+                Set<Long> failedKeys = collectFailures(response);
+                long syncedAt = clock.instant().getEpochSecond();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (failedKeys.contains(keys[i])) {
+                        failed++;
+                        continue;
+                    }
+                    if (fingerprints[i] != 0) {
+                        index.put(keys[i], fingerprints[i], response.getHttpStatus(), syncedAt);
+                    }
+                    upserted++;
+                }
+            }
+            batch.clear();
+            report(ReconcileProgress.Phase.UPSERTING);
+        }
+
+        private void delete(SnapshotFile.Entry entry, List<SnapshotFile.Entry> retained) {
+            deletes.add(entry);
+            if (deletes.size() >= batchSize) {
+                sendDeletes(retained);
+            }
+        }
+
+        private void sendDeletes(List<SnapshotFile.Entry> retained) {
+            if (deletes.isEmpty()) {
+                return;
+            }
+
+            ProductResponse response = delete.apply(deletes.stream().map(SnapshotFile.Entry::toIdentifier).toList());
+            if (!isSuccessful(response)) {
+                failed += deletes.size();
+                failedBatches.add(response);
+                if (isRetryable(response.getHttpStatus())) {
+                    retained.addAll(deletes);
+                }
+            } else {
+                Map<Long, Integer> failedKeys = new HashMap<>();
+                if (response.getResults() != null) {
+                    for (Failure failure : response.getResults()) {
+                        if (failure.product() == null) {
+                            failures.add(failure);
+                        } else if (failure.status() != HttpStatus.SC_NOT_FOUND) {
+                            failures.add(failure);
+                            failedKeys.put(Fingerprints.keyOf(failure.product()), failure.status());
+                        }
+                    }
+                }
+                for (SnapshotFile.Entry entry : deletes) {
+                    Integer status = failedKeys.get(entry.key());
+                    if (status == null) {
+                        // Products not found are already deleted
+                        index.remove(entry.key());
+                        deleted++;
+                    } else {
+                        failed++;
+                        if (isRetryable(status)) {
+                            retained.add(entry);
+                        }
+                    }
+                }
+            }
+            deletes.clear();
+            report(ReconcileProgress.Phase.DELETING);
+        }
+
+        private Set<Long> collectFailures(ProductResponse response) {
+            Set<Long> failedKeys = new HashSet<>();
+            if (response.getResults() != null) {
+                for (Failure failure : response.getResults()) {
+                    failures.add(failure);
+                    if (failure.product() != null) {
+                        failedKeys.add(Fingerprints.keyOf(failure.product()));
+                    }
+                }
+            }
+            return failedKeys;
+        }
+
+        private void report(ReconcileProgress.Phase phase) {
+            if (listener != null) {
+                listener.onProgress(new ReconcileProgress(phase, scanned, unchanged, upserted, deleted, failed));
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A persistent hash table from product key to content fingerprint, stored in a memory-mapped file so that tens of
+ * millions of entries live in the page cache rather than on the Java heap.
+ *
+ * <p>Each entry takes 24 bytes: the 64-bit product key, the 64-bit content fingerprint, the HTTP status of the last sync
+ * and the time of the last sync in epoch seconds. Keys are placed with linear probing and removed with backward-shift
+ * deletion, so no tombstones accumulate. The table doubles (into a new file that atomically replaces the old one) when it
+ * is 70% full. Key {@code 0} marks an empty slot and is never produced by {@link Fingerprints}.</p>
+ *
+ * <p>The file is mapped in segments of {@value #ENTRIES_PER_SEGMENT} entries to stay below the 2 GiB limit of a single
+ * mapping. Instances are thread-safe.</p>
+ */
+final class FingerprintIndex implements Closeable {
+    private static final int MAGIC = 0x53484658;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int ENTRY_BYTES = 24;
+    private static final int ENTRIES_PER_SEGMENT = 1 << 24;
+    private static final int MIN_CAPACITY = 1024;
+    private static final double MAX_LOAD_FACTOR = 0.7;
+
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 16;
+    private static final int CONTENT_OFFSET = 8;
+    private static final int STATUS_OFFSET = 16;
+    private static final int SYNCED_AT_OFFSET = 20;
+
+    private final Path file;
+    private MappedByteBuffer header;
+    private List<MappedByteBuffer> segments;
+    private long capacity;
+    private long mask;
+    private long size;
+
+    private FingerprintIndex(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the index stored in the given file, creating an empty one if the file does not exist.
+     *
+     * @param file The index file.
+     * @param initialCapacity The number of entries an index created by this call is sized for.
+     * @return The opened index.
+     * @throws IOException If the file cannot be read or created, or is not a valid index.
+     */
+    static FingerprintIndex open(Path file, long initialCapacity) throws IOException {
+        var index = new FingerprintIndex(file);
+        if (Files.exists(file)) {
+            index.map(file);
+        } else {
+            create(file, tableCapacity(initialCapacity));
+            index.map(file);
+        }
+        return index;
+    }
+
+    /**
+     * Returns the fingerprint recorded for a product key.
+     *
+     * @param key The product key.
+     * @return The content fingerprint, or {@code 0} if the key is not in the index.
+     */
+    synchronized long getFingerprint(long key) {
+        long slot = find(key);
+        return slot < 0 ? 0 : getLong(slot, CONTENT_OFFSET);
+    }
+
+    /**
+     * Returns the HTTP status of the last sync of a product key.
+     *
+     * @param key The product key.
+     * @return The status, or {@code 0} if the key is not in the index.
+     */
+    synchronized int getStatus(long key) {
+        long slot = find(key);
+        return slot < 0 ? 0 : segment(slot).getInt(offset(slot) + STATUS_OFFSET);
+    }
+
+    /**
+     * Records the fingerprint of a successfully synced product.
+     *
+     * @param key The product key.
+     * @param fingerprint The content fingerprint.
+     * @param status The HTTP status of the sync.
+     * @param syncedAtEpochSeconds When the product was synced.
+     * @throws IOException If the index needs to grow and the new file cannot be written.
+     */
+    synchronized void put(long key, long fingerprint, int status, long syncedAtEpochSeconds) throws IOException {
+        if (size + 1 > capacity * MAX_LOAD_FACTOR) {
+            grow();
+        }
+
+        long slot = home(key);
+        while (true) {
+            long current = getLong(slot, 0);
+            if (current == 0) {
+                size++;
+                header.putLong(SIZE_OFFSET, size);
+                break;
+            }
+            if (current == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        write(segment(slot), offset(slot), key, fingerprint, status, (int) syncedAtEpochSeconds);
+    }
+
+    /**
+     * Removes a product key from the index.
+     *
+     * @param key The product key.
+     * @return {@code true} if the key was in the index.
+     */
+    synchronized boolean remove(long key) {
+        long slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+
+        long hole = slot;
+        long next = (hole + 1) & mask;
+        while (getLong(next, 0) != 0) {
+            long home = home(getLong(next, 0));
+            boolean movable = hole <= next ? home <= hole || home > next : home <= hole && home > next;
+            if (movable) {
+                copy(next, hole);
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        write(segment(hole), offset(hole), 0, 0, 0, 0);
+        size--;
+        header.putLong(SIZE_OFFSET, size);
+        return true;
+    }
+
+    /**
+     * Returns the number of entries in the index.
+     *
+     * @return The number of product keys.
+     */
+    synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Writes all changes to the file.
+     */
+    synchronized void flush() {
+        header.force();
+        segments.forEach(MappedByteBuffer::force);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+    }
+
+    private long find(long key) {
+        long slot = home(key);
+        while (true) {
+            long current = getLong(slot, 0);
+            if (current == key) {
+                return slot;
+            }
+            if (current == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private long home(long key) {
+        // Fingerprints are already well mixed, but spread the bits once more so that the low bits used here are uniform.
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h & mask;
+    }
+
+    private void grow() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long newCapacity = capacity * 2;
+        create(tmp, newCapacity);
+
+        var grown = new FingerprintIndex(tmp);
+        grown.map(tmp);
+        for (long slot = 0; slot < capacity; slot++) {
+            long key = getLong(slot, 0);
+            if (key != 0) {
+                MappedByteBuffer segment = segment(slot);
+                int offset = offset(slot);
+                grown.put(key, segment.getLong(offset + CONTENT_OFFSET), segment.getInt(offset + STATUS_OFFSET),
+                        Integer.toUnsignedLong(segment.getInt(offset + SYNCED_AT_OFFSET)));
+            }
+        }
+        grown.flush();
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(file);
+    }
+
+    private static void create(Path file, long capacity) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(CAPACITY_OFFSET, capacity);
+            header.putLong(SIZE_OFFSET, 0);
+            header.force();
+            // Extending the file yields zero-filled (i.e. empty) slots, allocated lazily by the file system.
+            channel.write(ByteBuffer.allocate(1), HEADER_BYTES + capacity * ENTRY_BYTES - 1);
+        }
+    }
+
+    private void map(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer newHeader = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            newHeader.order(ByteOrder.LITTLE_ENDIAN);
+            if (newHeader.getInt(0) != MAGIC || newHeader.getInt(4) != VERSION) {
+                throw new IOException("Not a fingerprint index: " + path);
+            }
+
+            long newCapacity = newHeader.getLong(CAPACITY_OFFSET);
+            if (Long.bitCount(newCapacity) != 1 || channel.size() < HEADER_BYTES + newCapacity * ENTRY_BYTES) {
+                throw new IOException("Corrupted fingerprint index: " + path);
+            }
+
+            List<MappedByteBuffer> newSegments = new ArrayList<>();
+            for (long first = 0; first < newCapacity; first += ENTRIES_PER_SEGMENT) {
+                long entries = Math.min(ENTRIES_PER_SEGMENT, newCapacity - first);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + first * ENTRY_BYTES, entries * ENTRY_BYTES);
+                segment.order(ByteOrder.LITTLE_ENDIAN);
+                newSegments.add(segment);
+            }
+
+            header = newHeader;
+            segments = newSegments;
+            capacity = newCapacity;
+            mask = newCapacity - 1;
+            size = newHeader.getLong(SIZE_OFFSET);
+        }
+    }
+
+    private MappedByteBuffer segment(long slot) {
+        return segments.get((int) (slot / ENTRIES_PER_SEGMENT));
+    }
+
+    private static int offset(long slot) {
+        return (int) (slot % ENTRIES_PER_SEGMENT) * ENTRY_BYTES;
+    }
+
+    private long getLong(long slot, int field) {
+        return segment(slot).getLong(offset(slot) + field);
+    }
+
+    private void copy(long from, long to) {
+        MappedByteBuffer source = segment(from);
+        int offset = offset(from);
+        write(segment(to), offset(to), source.getLong(offset), source.getLong(offset + CONTENT_OFFSET),
+                source.getInt(offset + STATUS_OFFSET), source.getInt(offset + SYNCED_AT_OFFSET));
+    }
+
+    private static void write(MappedByteBuffer segment, int offset, long key, long fingerprint, int status, int syncedAt) {
+        segment.putLong(offset, key);
+        segment.putLong(offset + CONTENT_OFFSET, fingerprint);
+        segment.putInt(offset + STATUS_OFFSET, status);
+        segment.putInt(offset + SYNCED_AT_OFFSET, syncedAt);
+    }
+
+    private static long tableCapacity(long expectedEntries) {
+        long required = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedEntries / MAX_LOAD_FACTOR));
+        return Long.highestOneBit(required - 1) << 1;
+    }
+}
@@ -0,0 +1,87 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Computes the 64-bit keys and content fingerprints stored in a {@link FingerprintIndex}.
+ *
+ * <p>A product is identified by its ID, country and language. Its fingerprint is a hash of its JSON representation,
+ * computed while the JSON is being written so that no intermediate buffer is allocated. Both values are
+ * FNV-1a hashes, never {@code 0}.</p>
+ */
+@UtilityClass
+class Fingerprints {
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final ObjectWriter writer = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .writer();
+
+    /**
+     * Returns the key of a product.
+     *
+     * @param product The product or product identifier.
+     * @return The 64-bit key.
+     */
+    static long keyOf(ProductIdentifier product) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, product.getId());
+        hash = hash(hash, product.getCountry());
+        hash = hash(hash, product.getLanguage());
+        return nonZero(hash);
+    }
+
+    /**
+     * Returns the content fingerprint of a product.
+     *
+     * @param product The product.
+     * @return The 64-bit fingerprint.
+     * @throws IOException If the product cannot be serialized.
+     */
+    static long fingerprintOf(Product product) throws IOException {
+        var out = new HashingOutputStream();
+        writer.writeValue(out, product);
+        return nonZero(out.hash);
+    }
+
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+            }
+        }
+        // Separator, so that ("ab", "c") and ("a", "bc") differ.
+        return (hash ^ 0xff) * FNV_PRIME;
+    }
+
+    private static long nonZero(long hash) {
+        return hash != 0 ? hash : 1;
+    }
+
+    private static final class HashingOutputStream extends OutputStream {
+        private long hash = FNV_OFFSET_BASIS;
+
+        @Override
+        public void write(int b) {
+            hash = (hash ^ (b & 0xff)) * FNV_PRIME;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            long h = hash;
+            for (int i = off; i < off + len; i++) {
+                h = (h ^ (b[i] & 0xff)) * FNV_PRIME;
+            }
+            hash = h;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+/**
+ * Receives the progress of a {@link DeltaSync#reconcile(String, String, Iterable, ReconcileListener) reconciliation},
+ * after every batch sent to SHAAPI service. Called on the thread running the reconciliation.
+ */
+@FunctionalInterface
+public interface ReconcileListener {
+
+    /**
+     * Called after a batch of upserts or deletes completed.
+     *
+     * @param progress The counts reached so far.
+     */
+    void onProgress(ReconcileProgress progress);
+}
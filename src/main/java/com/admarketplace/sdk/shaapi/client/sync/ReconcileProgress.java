@@ -0,0 +1,36 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Progress of a reconciliation, reported to a {@link ReconcileListener}.
+ *
+ * <ul>
+ *     <li>{@code phase}: {@link Phase#UPSERTING} while the catalog is read and changed products upserted, then
+ *     {@link Phase#DELETING} while the products missing from the catalog are deleted.</li>
+ *     <li>{@code scanned}, {@code unchanged}, {@code upserted}: see {@link SyncResult}.</li>
+ *     <li>{@code deleted}: The products deleted so far.</li>
+ *     <li>{@code failed}: The upserts and deletes that failed so far.</li>
+ * </ul>
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class ReconcileProgress {
+
+    /**
+     * The phases of a reconciliation.
+     */
+    public enum Phase {
+        UPSERTING,
+        DELETING
+    }
+
+    private final Phase phase;
+    private final long scanned;
+    private final long unchanged;
+    private final long upserted;
+    private final long deleted;
+    private final long failed;
+}
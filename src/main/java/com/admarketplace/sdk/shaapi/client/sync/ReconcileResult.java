@@ -0,0 +1,28 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link DeltaSync} reconciliation for one account. In addition to the fields of {@link SyncResult},
+ * it includes:
+ *
+ * <ul>
+ *     <li>{@code deleted}: The products of the previous catalog that were missing from this one and were deleted.</li>
+ * </ul>
+ *
+ * <p>{@code failed}, {@code failures} and {@code failedBatches} cover both upserts and deletes. Deletes that failed with
+ * a retryable status are attempted again on the next reconciliation; products not found count as deleted.</p>
+ */
+@Getter
+public class ReconcileResult extends SyncResult {
+    private final long deleted;
+
+    ReconcileResult(long scanned, long unchanged, long upserted, long deleted, long failed, List<Failure> failures, List<ProductResponse> failedBatches) {
+        super(scanned, unchanged, upserted, failed, failures, failedBatches);
+        this.deleted = deleted;
+    }
+}
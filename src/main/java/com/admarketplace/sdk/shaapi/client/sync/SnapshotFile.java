@@ -0,0 +1,157 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Files of product identifiers sorted by product key, used by {@link DeltaSync} to remember which products were part of
+ * the last reconciled catalog and to find the ones that disappeared without holding either catalog in memory.
+ *
+ * <p>A file is a sequence of entries, each made of the 64-bit key followed by the ID, country and language. Files are
+ * read and written sequentially through buffered streams.</p>
+ */
+@UtilityClass
+class SnapshotFile {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Comparator<Entry> BY_KEY = Comparator.comparingLong(Entry::key);
+
+    /**
+     * A product identifier and its key.
+     */
+    record Entry(long key, String id, String country, String language) {
+
+        ProductIdentifier toIdentifier() {
+            return ProductIdentifier.builder().id(id).country(country).language(language).build();
+        }
+    }
+
+    static Writer write(Path file) throws IOException {
+        return new Writer(file);
+    }
+
+    static Reader read(Path file) throws IOException {
+        return new Reader(file);
+    }
+
+    /**
+     * Merges sorted files into a single sorted file, keeping one entry per key.
+     *
+     * @param sources The sorted files to merge.
+     * @param target The file to write.
+     * @throws IOException If a file cannot be read or written.
+     */
+    static void merge(List<Path> sources, Path target) throws IOException {
+        List<Reader> readers = new ArrayList<>(sources.size());
+        try (var writer = write(target)) {
+            var heads = new PriorityQueue<Head>(Comparator.comparing(Head::entry, BY_KEY));
+            for (Path source : sources) {
+                Reader reader = read(source);
+                readers.add(reader);
+                Entry first = reader.next();
+                if (first != null) {
+                    heads.add(new Head(first, reader));
+                }
+            }
+
+            Entry last = null;
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                if (last == null || last.key() != head.entry().key()) {
+                    writer.write(head.entry());
+                    last = head.entry();
+                }
+                Entry next = head.reader().next();
+                if (next != null) {
+                    heads.add(new Head(next, head.reader()));
+                }
+            }
+        } finally {
+            for (Reader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private record Head(Entry entry, Reader reader) {
+    }
+
+    /**
+     * Writes entries to a file. Entries must be written in key order for the file to be used as a snapshot.
+     */
+    static final class Writer implements Closeable {
+        private final DataOutputStream out;
+
+        private Writer(Path file) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE));
+        }
+
+        void write(Entry entry) throws IOException {
+            out.writeLong(entry.key());
+            writeNullable(entry.id());
+            writeNullable(entry.country());
+            writeNullable(entry.language());
+        }
+
+        private void writeNullable(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads the entries of a file in order.
+     */
+    static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        private Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE));
+        }
+
+        /**
+         * Reads the next entry.
+         *
+         * @return The entry, or {@code null} at the end of the file.
+         * @throws IOException If the file cannot be read.
+         */
+        Entry next() throws IOException {
+            long key;
+            try {
+                key = in.readLong();
+            } catch (EOFException e) {
+                return null;
+            }
+            return new Entry(key, readNullable(), readNullable(), readNullable());
+        }
+
+        private String readNullable() throws IOException {
+            return in.readBoolean() ? in.readUTF() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
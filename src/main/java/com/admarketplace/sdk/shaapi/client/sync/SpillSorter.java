@@ -0,0 +1,84 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorts an unbounded number of {@link SnapshotFile.Entry entries} by key with bounded memory: entries are buffered,
+ * and every {@code maxInMemory} entries the buffer is sorted and spilled to a temporary file. The spills are finally
+ * merged into a single sorted file without duplicate keys.
+ */
+final class SpillSorter implements Closeable {
+    private final Path directory;
+    private final String prefix;
+    private final int maxInMemory;
+    private final List<SnapshotFile.Entry> buffer = new ArrayList<>();
+    private final List<Path> spills = new ArrayList<>();
+
+    SpillSorter(Path directory, String prefix, int maxInMemory) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.maxInMemory = maxInMemory;
+    }
+
+    void add(SnapshotFile.Entry entry) throws IOException {
+        buffer.add(entry);
+        if (buffer.size() >= maxInMemory) {
+            spill();
+        }
+    }
+
+    /**
+     * Writes all entries added so far, sorted by key, to the target file.
+     *
+     * @param target The file to write.
+     * @throws IOException If a file cannot be read or written.
+     */
+    void finish(Path target) throws IOException {
+        if (spills.isEmpty()) {
+            Path sorted = writeSorted();
+            Files.move(sorted, target, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        SnapshotFile.merge(spills, target);
+    }
+
+    /**
+     * Deletes the temporary files.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Path spill : spills) {
+            Files.deleteIfExists(spill);
+        }
+    }
+
+    private void spill() throws IOException {
+        spills.add(writeSorted());
+    }
+
+    private Path writeSorted() throws IOException {
+        buffer.sort(Comparator.comparingLong(SnapshotFile.Entry::key));
+        Path spill = directory.resolve(prefix + ".spill-" + spills.size());
+        try (var writer = SnapshotFile.write(spill)) {
+            long lastKey = 0;
+            for (SnapshotFile.Entry entry : buffer) {
+                if (entry.key() != lastKey) {
+                    writer.write(entry);
+                    lastKey = entry.key();
+                }
+            }
+        }
+        buffer.clear();
+        return spill;
+    }
+}
@@ -0,0 +1,42 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link DeltaSync} run for one account.
+ *
+ * <ul>
+ *     <li>{@code scanned}: The number of products read from the catalog.</li>
+ *     <li>{@code unchanged}: The products skipped because they were synced before with the same content.</li>
+ *     <li>{@code upserted}: The products successfully upserted, now recorded in the index.</li>
+ *     <li>{@code failed}: The products that were sent but not upserted, either reported as failures or part of a batch
+ *     that failed as a whole. They are sent again on the next run.</li>
+ *     <li>{@code failures}: The per-product failures reported by SHAAPI service.</li>
+ *     <li>{@code failedBatches}: The responses of batches that did not complete with a 2xx status.</li>
+ * </ul>
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class SyncResult {
+    private final long scanned;
+    private final long unchanged;
+    private final long upserted;
+    private final long failed;
+    private final List<Failure> failures;
+    private final List<ProductResponse> failedBatches;
+
+    /**
+     * Checks whether every changed product was upserted.
+     *
+     * @return {@code true} if no product failed.
+     */
+    public boolean isSuccessful() {
+        return failed == 0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.admarketplace.sdk.shaapi.handler;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An input stream that keeps a copy of the first bytes read through it, up to a fixed limit.
+ * Response handlers parse the body straight from the wrapped stream and use the captured prefix only
+ * to describe the body when it cannot be deserialized, so the full body is never held in memory.
+ */
+final class CapturingInputStream extends FilterInputStream {
+    static final int DEFAULT_CAPTURE_LIMIT = 1024;
+
+    private final byte[] captured;
+    private int capturedLength;
+    private boolean truncated;
+
+    CapturingInputStream(InputStream in) {
+        this(in, DEFAULT_CAPTURE_LIMIT);
+    }
+
+    CapturingInputStream(InputStream in, int captureLimit) {
+        super(in);
+        this.captured = new byte[captureLimit];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            capture(new byte[]{(byte) b}, 0, 1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            capture(b, off, read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // Route skipped bytes through read() so they are captured as well.
+        byte[] buffer = new byte[(int) Math.min(n, 8192)];
+        int read = read(buffer, 0, buffer.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the captured prefix of the body as UTF-8 text, followed by {@code "..."} if more bytes were read
+     * than could be captured.
+     *
+     * @return The captured body text.
+     */
+    String getCapturedText() {
+        String text = new String(captured, 0, capturedLength, StandardCharsets.UTF_8);
+        return truncated ? text + "..." : text;
+    }
+
+    private void capture(byte[] b, int off, int len) {
+        int toCopy = Math.min(len, captured.length - capturedLength);
+        System.arraycopy(b, off, captured, capturedLength, toCopy);
+        capturedLength += toCopy;
+        truncated |= toCopy < len;
+    }
+}
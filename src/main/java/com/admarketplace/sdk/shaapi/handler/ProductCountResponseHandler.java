@@ -1,16 +1,14 @@
 package com.admarketplace.sdk.shaapi.handler;
 
+import com.admarketplace.sdk.shaapi.client.codec.CodecException;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
 import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
 import com.admarketplace.shaapi.api.model.v1.ProductCount;
 import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
-import com.fasterxml.jackson.core.JacksonException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Handles HTTP responses for product count API calls within SHAAPI SDK.
@@ -22,11 +20,28 @@ import java.nio.charset.StandardCharsets;
  * parsed and any errors are appropriately transformed into exceptions or error messages within the
  * {@code ProductCountResponse}.</p>
  *
- * <p>This class leverages Jackson for JSON parsing, converting the raw response body into
- * {@code ProductCountResponse} instances or extracting error information as needed.</p>
+ * <p>This class leverages a {@link ShaapiCodec} (Jackson by default) for JSON parsing, reading the response body directly
+ * from the entity stream into {@code ProductCountResponse} instances or extracting error information as needed. Only a bounded prefix
+ * of the body is retained, to describe it in the error message if it cannot be deserialized.</p>
  */
 public final class ProductCountResponseHandler implements HttpClientResponseHandler<ProductCountResponse> {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final ShaapiCodec codec;
+
+    /**
+     * Creates a handler deserializing responses with the default {@link ShaapiCodec}.
+     */
+    public ProductCountResponseHandler() {
+        this(ShaapiCodec.defaultCodec());
+    }
+
+    /**
+     * Creates a handler deserializing responses with the given codec.
+     *
+     * @param codec The codec reading the response body.
+     */
+    public ProductCountResponseHandler(ShaapiCodec codec) {
+        this.codec = codec;
+    }
 
     /**
      * Processes the {@link ClassicHttpResponse} from the products/count API endpoint,
@@ -43,24 +58,20 @@ public final class ProductCountResponseHandler implements HttpClientResponseHand
             return getErrorResponse(statusCode, "An unexpected error occurred. The server response is empty.");
         }
 
-        String responseBody;
-        try (var inputStream = response.getEntity().getContent()) {
-            responseBody = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        try (var inputStream = new CapturingInputStream(response.getEntity().getContent())) {
+            try {
+                ShaapiResponse<ProductCount> shaapi = codec.readProductCountResponse(inputStream);
+                return new ProductCountResponse(statusCode, shaapi.message(), shaapi.results());
+            } catch (CodecException e) {
+                String errorMessage = "An unexpected error occurred during deserialization: "
+                        + e.getMessage()
+                        + " response body: "
+                        + inputStream.getCapturedText();
+                return getErrorResponse(statusCode, errorMessage);
+            }
         } catch (IOException e) {
             return getErrorResponse(statusCode, "I/O error while reading response body: " + e.getMessage());
         }
-
-        try {
-            ShaapiResponse<ProductCount> shaapi = objectMapper.readValue(responseBody, new TypeReference<>() {
-            });
-            return new ProductCountResponse(statusCode, shaapi.message(), shaapi.results());
-        } catch (JacksonException e) {
-            String errorMessage = "An unexpected error occurred during deserialization: "
-                    + e.getMessage()
-                    + " response body: "
-                    + responseBody;
-            return getErrorResponse(statusCode, errorMessage);
-        }
     }
 
     private ProductCountResponse getErrorResponse(int statusCode, String message) {
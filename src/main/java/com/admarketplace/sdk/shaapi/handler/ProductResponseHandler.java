@@ -1,17 +1,15 @@
 package com.admarketplace.sdk.shaapi.handler;
 
+import com.admarketplace.sdk.shaapi.client.codec.CodecException;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
 import com.admarketplace.sdk.shaapi.model.ProductResponse;
 import com.admarketplace.shaapi.api.model.v1.Failure;
 import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
-import com.fasterxml.jackson.core.JacksonException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,12 +24,29 @@ import java.util.Optional;
  * {@code ProductResponse}. Additionally, it extracts the request ID from the {@code x-amp-request-id}
  * HTTP response header when available.</p>
  *
- * <p>This class leverages Jackson for JSON parsing, converting the raw response body into
- * {@code ProductResponse} instances or extracting error information as needed.</p>
+ * <p>This class leverages a {@link ShaapiCodec} (Jackson by default) for JSON parsing, reading the response body directly
+ * from the entity stream into {@code ProductResponse} instances or extracting error information as needed. Only a bounded prefix
+ * of the body is retained, to describe it in the error message if it cannot be deserialized.</p>
  */
 public final class ProductResponseHandler implements HttpClientResponseHandler<ProductResponse> {
     private static final String REQUEST_ID_HEADER_NAME = "x-amp-request-id";
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final ShaapiCodec codec;
+
+    /**
+     * Creates a handler deserializing responses with the default {@link ShaapiCodec}.
+     */
+    public ProductResponseHandler() {
+        this(ShaapiCodec.defaultCodec());
+    }
+
+    /**
+     * Creates a handler deserializing responses with the given codec.
+     *
+     * @param codec The codec reading the response body.
+     */
+    public ProductResponseHandler(ShaapiCodec codec) {
+        this.codec = codec;
+    }
 
     /**
      * Processes the {@link ClassicHttpResponse} from product-related API endpoints,
@@ -53,24 +68,20 @@ public final class ProductResponseHandler implements HttpClientResponseHandler<P
             return getErrorResponse(statusCode, "An unexpected error occurred. The server response is empty.", requestId);
         }
 
-        String responseBody;
-        try (var inputStream = response.getEntity().getContent()) {
-            responseBody = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        try (var inputStream = new CapturingInputStream(response.getEntity().getContent())) {
+            try {
+                ShaapiResponse<List<Failure>> shaapi = codec.readProductResponse(inputStream);
+                return new ProductResponse(statusCode, shaapi.message(), requestId, shaapi.results());
+            } catch (CodecException e) {
+                String errorMessage = "An unexpected error occurred during deserialization: "
+                        + e.getMessage()
+                        + " response body: "
+                        + inputStream.getCapturedText();
+                return getErrorResponse(statusCode, errorMessage, requestId);
+            }
         } catch (IOException e) {
             return getErrorResponse(statusCode, "I/O error while reading response body: " + e.getMessage(), requestId);
         }
-
-        try {
-            ShaapiResponse<List<Failure>> shaapi = objectMapper.readValue(responseBody, new TypeReference<>() {
-            });
-            return new ProductResponse(statusCode, shaapi.message(), requestId, shaapi.results());
-        } catch (JacksonException e) {
-            String errorMessage = "An unexpected error occurred during deserialization: "
-                    + e.getMessage()
-                    + " response body: "
-                    + responseBody;
-            return getErrorResponse(statusCode, errorMessage, requestId);
-        }
     }
 
     private ProductResponse getErrorResponse(int statusCode, String message, String requestId) {
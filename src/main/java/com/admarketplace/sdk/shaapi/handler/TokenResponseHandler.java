@@ -1,14 +1,13 @@
 package com.admarketplace.sdk.shaapi.handler;
 
 import com.admarketplace.authorization.api.model.v1.AuthenticationResponse;
+import com.admarketplace.sdk.shaapi.client.codec.CodecException;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
 import com.admarketplace.sdk.shaapi.model.TokenResponse;
-import com.fasterxml.jackson.core.JacksonException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.io.HttpClientResponseHandler;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 /**
  * Handles HTTP responses for token retrieval requests within SHAAPI SDK.
@@ -22,11 +21,28 @@ import java.nio.charset.StandardCharsets;
  * For error scenarios, the handler constructs a {@code TokenResponse} that encapsulates the error details
  * including the HTTP status code and error message.</p>
  *
- * <p>This class leverages Jackson for JSON parsing, converting the raw response body into
- * {@code TokenResponse} instances or extracting error information as needed.</p>
+ * <p>This class leverages a {@link ShaapiCodec} (Jackson by default) for JSON parsing, reading the response body directly
+ * from the entity stream into {@code TokenResponse} instances or extracting error information as needed. Only a bounded prefix
+ * of the body is retained, to describe it in the error message if it cannot be deserialized.</p>
  */
 public final class TokenResponseHandler implements HttpClientResponseHandler<TokenResponse> {
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private final ShaapiCodec codec;
+
+    /**
+     * Creates a handler deserializing responses with the default {@link ShaapiCodec}.
+     */
+    public TokenResponseHandler() {
+        this(ShaapiCodec.defaultCodec());
+    }
+
+    /**
+     * Creates a handler deserializing responses with the given codec.
+     *
+     * @param codec The codec reading the response body.
+     */
+    public TokenResponseHandler(ShaapiCodec codec) {
+        this.codec = codec;
+    }
 
     /**
      * Processes the {@link ClassicHttpResponse} from the token endpoint,
@@ -42,23 +58,20 @@ public final class TokenResponseHandler implements HttpClientResponseHandler<Tok
             return getErrorResponse(statusCode, "An unexpected error occurred. The server response is empty.");
         }
 
-        String responseBody;
-        try (var inputStream = response.getEntity().getContent()) {
-            responseBody = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        try (var inputStream = new CapturingInputStream(response.getEntity().getContent())) {
+            try {
+                AuthenticationResponse auth = codec.readAuthenticationResponse(inputStream);
+                return new TokenResponse(statusCode, auth.message(), auth.accessToken(), auth.expiresIn());
+            } catch (CodecException e) {
+                String errorMessage = "An unexpected error occurred during deserialization: "
+                        + e.getMessage()
+                        + " response body: "
+                        + inputStream.getCapturedText();
+                return getErrorResponse(statusCode, errorMessage);
+            }
         } catch (IOException e) {
             return getErrorResponse(statusCode, "I/O error while reading response body: " + e.getMessage());
         }
-
-        try {
-            AuthenticationResponse auth = objectMapper.readValue(responseBody, AuthenticationResponse.class);
-            return new TokenResponse(statusCode, auth.message(), auth.accessToken(), auth.expiresIn());
-        } catch (JacksonException e) {
-            String errorMessage = "An unexpected error occurred during deserialization: "
-                    + e.getMessage()
-                    + " response body: "
-                    + responseBody;
-            return getErrorResponse(statusCode, errorMessage);
-        }
     }
 
     private TokenResponse getErrorResponse(int statusCode, String message) {
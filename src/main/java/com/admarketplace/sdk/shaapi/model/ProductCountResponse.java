@@ -3,6 +3,7 @@ package com.admarketplace.sdk.shaapi.model;
 import com.admarketplace.shaapi.api.model.v1.ProductCount;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.With;
 
 /**
  * Response object returned by the <i>products/count</i> endpoint.
@@ -11,6 +12,7 @@ import lombok.Getter;
  *     <li><b>httpStatus</b> – HTTP status code delivered by SHAAPI service.</li>
  *     <li><b>message</b> – human-readable description of the outcome.</li>
  *     <li><b>result</b> – product count summary containing account ID and available product count.</li>
+ *     <li><b>attempts</b> – number of times the request was sent, {@code 1} unless it was retried according to the client's retry policy.</li>
  * </ul>
  */
 @Getter
@@ -19,4 +21,10 @@ public class ProductCountResponse {
     private int httpStatus;
     private String message;
     private ProductCount result;
+    @With
+    private int attempts;
+
+    public ProductCountResponse(int httpStatus, String message, ProductCount result) {
+        this(httpStatus, message, result, 1);
+    }
 }
@@ -3,6 +3,7 @@ package com.admarketplace.sdk.shaapi.model;
 import com.admarketplace.shaapi.api.model.v1.Failure;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.With;
 
 import java.util.List;
 
@@ -18,6 +19,7 @@ import java.util.List;
  *     <li>{@code message}: A message from SHAAPI service providing additional context about the response, which could be an error message or a success confirmation.</li>
  *     <li>{@code requestId}: The unique request identifier extracted from the {@code x-amp-request-id} HTTP response header, providing traceability for API requests. May be {@code null} if not provided by the service.</li>
  *     <li>{@code results}: A list of {@link com.admarketplace.shaapi.api.model.v1.Failure} objects, each representing a specific failure encountered during the operation. This list is not present if the operation was successful.</li>
+ *     <li>{@code attempts}: The number of times the request was sent, {@code 1} unless it was retried according to the client's retry policy.</li>
  * </ul>
  */
 @Getter
@@ -27,6 +29,12 @@ public class ProductResponse {
     private String message;
     private String requestId;
     private List<Failure> results;
+    @With
+    private int attempts;
+
+    public ProductResponse(int httpStatus, String message, String requestId, List<Failure> results) {
+        this(httpStatus, message, requestId, results, 1);
+    }
 
     public ProductResponse(int httpStatus, String message, List<Failure> results) {
         this(httpStatus, message, null, results);
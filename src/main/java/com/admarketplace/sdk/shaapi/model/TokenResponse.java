@@ -2,6 +2,7 @@ package com.admarketplace.sdk.shaapi.model;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.With;
 
 /**
  * Represents the response received from SHAAPI service for token retrieval requests.
@@ -14,6 +15,7 @@ import lombok.Getter;
  *     <li>{@code message}: A message from SHAAPI service providing additional context about the failure if any.</li>
  *     <li>{@code accessToken}: The authentication token value, which can be used in subsequent API requests.</li>
  *     <li>{@code expiresIn}: The number of seconds until the token expires, after which it can no longer be used.</li>
+ *     <li>{@code attempts}: The number of times the request was sent, {@code 1} unless it was retried according to the client's retry policy.</li>
  * </ul>
  */
 @Getter
@@ -23,4 +25,10 @@ public class TokenResponse {
     private String message;
     private String accessToken;
     private Integer expiresIn;
+    @With
+    private int attempts;
+
+    public TokenResponse(int httpStatus, String message, String accessToken, Integer expiresIn) {
+        this(httpStatus, message, accessToken, expiresIn, 1);
+    }
 }
@@ -0,0 +1,234 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.factory.ShaapiClientFactory;
+import com.admarketplace.sdk.shaapi.model.AuthType;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.AsyncResponseBuilder;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.H2ConnectionException;
+import org.apache.hc.core5.http2.H2Error;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.ProtocolNegotiationException;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncHttpExecutorTest {
+    private static final String HTTPS_URL = "https://shaapi.example.com/asset/v1/123/products/count";
+
+    @Mock
+    private CloseableHttpAsyncClient http2Client;
+
+    @Mock
+    private CloseableHttpAsyncClient http1Client;
+
+    @Test
+    void testRequestsAboveMaxConcurrentStreamsAreQueued() {
+        List<FutureCallback<SimpleHttpResponse>> streams = new ArrayList<>();
+        doAnswer(invocation -> {
+            streams.add(invocation.getArgument(2));
+            return null;
+        }).when(http2Client).execute(any(SimpleHttpRequest.class), any(), any());
+        try (var executor = new TestExecutor(http2Client, null, 2)) {
+
+            List<CompletableFuture<Integer>> responses = IntStream.range(0, 5).mapToObj(i -> executor.get(HTTPS_URL)).toList();
+
+            assertThat(streams).hasSize(2);
+            streams.get(0).completed(SimpleHttpResponse.create(HttpStatus.SC_OK));
+            assertThat(streams).hasSize(3);
+            streams.get(1).failed(new IOException("Connection reset"));
+            streams.get(2).completed(SimpleHttpResponse.create(HttpStatus.SC_OK));
+            assertThat(streams).hasSize(5);
+            assertThat(responses.get(0)).isCompletedWithValue(HttpStatus.SC_OK);
+            assertThat(responses.get(1)).isCompletedExceptionally();
+            assertThat(responses.get(4)).isNotDone();
+        }
+    }
+
+    @Test
+    void testHostFallsBackToHttp1WhenHttp2IsNotNegotiated() {
+        doAnswer(invocation -> {
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2)
+                    .failed(new ProtocolNegotiationException("ALPN: unexpected application protocol 'http/1.1'"));
+            return null;
+        }).when(http2Client).execute(any(SimpleHttpRequest.class), any(), any());
+        respondOk(http1Client);
+        try (var executor = new TestExecutor(http2Client, http1Client, 10)) {
+
+            assertThat(executor.get(HTTPS_URL)).isCompletedWithValue(HttpStatus.SC_OK);
+            assertThat(executor.get(HTTPS_URL)).isCompletedWithValue(HttpStatus.SC_OK);
+
+            verify(http2Client, times(1)).execute(any(SimpleHttpRequest.class), any(), any());
+            verify(http1Client, times(2)).execute(any(SimpleHttpRequest.class), any(), any());
+        }
+    }
+
+    @Test
+    void testConnectionErrorOfHttp2HostIsNotTreatedAsNegotiationFailure() {
+        var calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            FutureCallback<SimpleHttpResponse> callback = invocation.getArgument(2);
+            if (calls.incrementAndGet() == 1) {
+                callback.completed(SimpleHttpResponse.create(HttpStatus.SC_OK));
+            } else {
+                callback.failed(new H2ConnectionException(H2Error.PROTOCOL_ERROR, "Unexpected frame"));
+            }
+            return null;
+        }).when(http2Client).execute(any(SimpleHttpRequest.class), any(), any());
+        try (var executor = new TestExecutor(http2Client, http1Client, 10)) {
+
+            assertThat(executor.get(HTTPS_URL)).isCompletedWithValue(HttpStatus.SC_OK);
+            assertThat(executor.get(HTTPS_URL)).isCompletedExceptionally();
+
+            verify(http1Client, never()).execute(any(SimpleHttpRequest.class), any(), any());
+        }
+    }
+
+    @Test
+    void testConnectionErrorOnFirstHttp2ExchangeDoesNotPinHostToHttp1() {
+        var calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            FutureCallback<SimpleHttpResponse> callback = invocation.getArgument(2);
+            if (calls.incrementAndGet() == 1) {
+                callback.failed(new H2ConnectionException(H2Error.NO_ERROR, "GOAWAY received"));
+            } else {
+                callback.completed(SimpleHttpResponse.create(HttpStatus.SC_OK));
+            }
+            return null;
+        }).when(http2Client).execute(any(SimpleHttpRequest.class), any(), any());
+        try (var executor = new TestExecutor(http2Client, http1Client, 10)) {
+
+            assertThat(executor.get(HTTPS_URL)).isCompletedExceptionally();
+            assertThat(executor.get(HTTPS_URL)).isCompletedWithValue(HttpStatus.SC_OK);
+
+            verify(http2Client, times(2)).execute(any(SimpleHttpRequest.class), any(), any());
+            verify(http1Client, never()).execute(any(SimpleHttpRequest.class), any(), any());
+        }
+    }
+
+    @Test
+    void testPlainHttpUsesHttp1WhenFallbackIsAvailable() {
+        respondOk(http1Client);
+        try (var executor = new TestExecutor(http2Client, http1Client, 10)) {
+
+            assertThat(executor.get("http://localhost:8080/asset/v1/123/products/count")).isCompletedWithValue(HttpStatus.SC_OK);
+
+            verify(http2Client, never()).execute(any(SimpleHttpRequest.class), any(), any());
+        }
+    }
+
+    @Test
+    void testConcurrentRequestsAreMultiplexedOverOneHttp2Connection() throws Exception {
+        Set<ProtocolVersion> versions = ConcurrentHashMap.newKeySet();
+        Set<SocketAddress> connections = ConcurrentHashMap.newKeySet();
+        HttpAsyncServer server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(HttpRequest request, EntityDetails entityDetails,
+                                                                                  HttpContext context) {
+                        return new BasicRequestConsumer<>(entityDetails != null ? new DiscardingEntityConsumer<>() : null);
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, Void> request, ResponseTrigger responseTrigger,
+                                       HttpContext context) throws HttpException, IOException {
+                        var coreContext = HttpCoreContext.cast(context);
+                        versions.add(coreContext.getProtocolVersion());
+                        connections.add(coreContext.getEndpointDetails().getRemoteAddress());
+                        responseTrigger.submitResponse(AsyncResponseBuilder.create(HttpStatus.SC_OK)
+                                .setEntity("{\"message\":\"Success\"}", ContentType.APPLICATION_JSON)
+                                .build(), context);
+                    }
+                })
+                .create();
+        server.start();
+        try {
+            ListenerEndpoint endpoint = server.listen(new InetSocketAddress("localhost", 0), URIScheme.HTTP).get(5, TimeUnit.SECONDS);
+            String url = "http://localhost:" + ((InetSocketAddress) endpoint.getAddress()).getPort();
+            HttpClientConfig config = HttpClientConfig.builder().httpVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2).maxConcurrentStreams(4).build();
+
+            try (ShaapiAsyncClient client = ShaapiClientFactory.getAsyncInstance(url, url, "v1", config)) {
+                List<CompletableFuture<ProductResponse>> responses = IntStream.range(0, 20)
+                        .mapToObj(i -> client.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN,
+                                List.of((Product) Product.builder().id(String.valueOf(i)).build())))
+                        .toList();
+
+                assertThat(CompletableFuture.allOf(responses.toArray(CompletableFuture[]::new))).succeedsWithin(10, TimeUnit.SECONDS);
+                assertThat(responses).allSatisfy(response -> assertThat(response.join().getHttpStatus()).isEqualTo(HttpStatus.SC_OK));
+            }
+            assertThat(versions).extracting(ProtocolVersion::getMajor).containsOnly(2);
+            assertThat(connections).hasSize(1);
+        } finally {
+            server.close(CloseMode.IMMEDIATE);
+        }
+    }
+
+    private static void respondOk(CloseableHttpAsyncClient client) {
+        doAnswer(invocation -> {
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2).completed(SimpleHttpResponse.create(HttpStatus.SC_OK));
+            return null;
+        }).when(client).execute(any(SimpleHttpRequest.class), any(), any());
+    }
+
+    private static final class TestExecutor extends AsyncHttpExecutor {
+
+        TestExecutor(CloseableHttpAsyncClient httpAsyncClient, CloseableHttpAsyncClient http1Client, int maxConcurrentStreams) {
+            super(httpAsyncClient, http1Client, HttpClientConfig.builder()
+                    .httpVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                    .maxConcurrentStreams(maxConcurrentStreams)
+                    .build());
+        }
+
+        CompletableFuture<Integer> get(String url) {
+            return sendRequest(URI.create(url), Method.GET, AuthType.BEARER, TestUtils.ACCESS_TOKEN, null, response -> response.getCode());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.admarketplace.sdk.shaapi.client;
+
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.core5.http.ContentType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonStreamingEntityTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testWriteToStreamsSameJsonAsStringSerialization() throws Exception {
+        List<Product> products = getProductList(1000);
+        var entity = new JsonStreamingEntity(products, objectMapper);
+
+        var outputStream = new ByteArrayOutputStream();
+        entity.writeTo(outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(products));
+    }
+
+    @Test
+    void testEntityIsChunkedAndRepeatable() throws Exception {
+        var entity = new JsonStreamingEntity(getProductList(2), objectMapper);
+
+        var first = new ByteArrayOutputStream();
+        var second = new ByteArrayOutputStream();
+        entity.writeTo(first);
+        entity.writeTo(second);
+
+        assertThat(entity.isChunked()).isTrue();
+        assertThat(entity.isRepeatable()).isTrue();
+        assertThat(entity.isStreaming()).isFalse();
+        assertThat(entity.getContentLength()).isEqualTo(-1);
+        assertThat(entity.getContentType()).isEqualTo(ContentType.APPLICATION_JSON.toString());
+        assertThat(first.toByteArray()).isEqualTo(second.toByteArray());
+    }
+
+    @Test
+    void testWriteToDoesNotCloseTargetStream() throws Exception {
+        var entity = new JsonStreamingEntity(getProductList(1), objectMapper);
+        var outputStream = new CloseTrackingOutputStream();
+
+        entity.writeTo(outputStream);
+
+        assertThat(outputStream.closed).isFalse();
+        assertThat(outputStream.size()).isPositive();
+    }
+
+    @Test
+    void testGetContentReturnsSerializedBody() throws Exception {
+        List<Product> products = getProductList(3);
+        var entity = new JsonStreamingEntity(products, objectMapper);
+
+        try (var content = entity.getContent()) {
+            assertThat(new String(content.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(products));
+        }
+    }
+
+    private static List<Product> getProductList(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(id -> (Product) Product.builder().id(String.valueOf(id)).build())
+                .toList();
+    }
+
+    private static final class CloseTrackingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.admarketplace.sdk.shaapi.client.auth;
+
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingTokenProviderTest {
+    private static final String CREDENTIALS = "encodedCredentials";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+    }
+
+    @Test
+    void testTokenIsCachedUntilRefreshWindow() {
+        var provider = provider(credentials -> token(3600));
+
+        TokenResponse first = provider.getToken();
+        clock.advance(Duration.ofMinutes(30));
+        TokenResponse second = provider.getToken();
+
+        assertThat(second).isSameAs(first);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testTokenIsRefreshedBeforeExpiry() {
+        var provider = provider(credentials -> token(3600));
+
+        provider.getToken();
+        clock.advance(Duration.ofSeconds(3600 - 30));
+        provider.getToken();
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testCurrentTokenIsKeptWhenProactiveRefreshFails() {
+        var responses = new ArrayList<>(List.of(token(3600), failure()));
+        var provider = provider(credentials -> responses.remove(0));
+
+        TokenResponse first = provider.getToken();
+        clock.advance(Duration.ofSeconds(3600 - 30));
+        TokenResponse second = provider.getToken();
+
+        assertThat(second).isSameAs(first);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testFailureIsReturnedWhenNoValidTokenIsAvailable() {
+        var provider = provider(credentials -> failure());
+
+        TokenResponse response = provider.getToken();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_UNAUTHORIZED);
+        assertThat(response.getAccessToken()).isNull();
+    }
+
+    @Test
+    void testFailedRefreshIsNotRetriedBeforeRetryInterval() {
+        var provider = provider(credentials -> failure());
+
+        TokenResponse first = provider.getToken();
+        TokenResponse second = provider.getToken();
+        clock.advance(Duration.ofSeconds(4));
+        provider.getToken();
+
+        assertThat(second).isSameAs(first);
+        assertThat(calls).hasValue(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        provider.getToken();
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testCurrentTokenIsUsedWhileRefreshIsBackedOff() {
+        var responses = new ArrayList<>(List.of(token(3600), failure(), failure()));
+        var provider = provider(credentials -> responses.remove(0));
+
+        TokenResponse first = provider.getToken();
+        clock.advance(Duration.ofSeconds(3600 - 2));
+        provider.getToken();
+        TokenResponse backedOff = provider.getToken();
+        clock.advance(Duration.ofSeconds(3));
+        TokenResponse expired = provider.getToken();
+
+        assertThat(backedOff).isSameAs(first);
+        assertThat(expired.getHttpStatus()).isEqualTo(HttpStatus.SC_UNAUTHORIZED);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testInvalidateForcesNewToken() {
+        var provider = provider(credentials -> token(3600));
+
+        TokenResponse first = provider.getToken();
+        provider.invalidate(first.getAccessToken());
+        TokenResponse second = provider.getToken();
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void testInvalidateIgnoresStaleToken() {
+        var provider = provider(credentials -> token(3600));
+
+        provider.getToken();
+        provider.invalidate("previous-token");
+        provider.getToken();
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void testConcurrentCallersShareSingleRefresh() throws Exception {
+        var release = new CountDownLatch(1);
+        var provider = provider(credentials -> {
+            await(release);
+            return token(3600);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<TokenResponse>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(provider::getToken));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<TokenResponse> future : futures) {
+                assertThat(future.get().getAccessToken()).isNotNull();
+            }
+            assertThat(calls).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private CachingTokenProvider provider(Function<String, TokenResponse> source) {
+        return CachingTokenProvider.builder()
+                .tokenSource(credentials -> {
+                    calls.incrementAndGet();
+                    return source.apply(credentials);
+                })
+                .encodedCredentials(CREDENTIALS)
+                .refreshMargin(Duration.ofSeconds(60))
+                .retryInterval(Duration.ofSeconds(5))
+                .clock(clock)
+                .build();
+    }
+
+    private TokenResponse token(int expiresIn) {
+        return new TokenResponse(HttpStatus.SC_OK, null, TestUtils.ACCESS_TOKEN + "-" + calls.get(), expiresIn);
+    }
+
+    private static TokenResponse failure() {
+        return new TokenResponse(HttpStatus.SC_UNAUTHORIZED, "Invalid credentials", null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.codec.JacksonCodec;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkExecutorTest {
+
+    @Mock
+    private ShaapiClient shaapiClient;
+
+    private BulkExecutor bulkExecutor;
+
+    @AfterEach
+    void tearDown() {
+        if (bulkExecutor != null) {
+            bulkExecutor.close();
+        }
+    }
+
+    @Test
+    void testUpsertProductsIsSplitIntoBatches() {
+        bulkExecutor = executor(100, 4);
+        AtomicInteger requestCounter = new AtomicInteger();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<Product> batch = invocation.getArgument(2);
+                    assertThat(batch).hasSizeLessThanOrEqualTo(100);
+                    return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, "req-" + requestCounter.incrementAndGet(), null);
+                });
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList(250));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getMessage()).isEqualTo(TestUtils.SUCCESS);
+        assertThat(response.getBatchResponses()).hasSize(3);
+        assertThat(response.getRequestIds()).containsExactlyInAnyOrder("req-1", "req-2", "req-3");
+        assertThat(response.getResults()).isNull();
+        assertThat(response.getFailedBatches()).isEmpty();
+        verify(shaapiClient, times(3)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testFailuresOfAllBatchesAreMerged() {
+        bulkExecutor = executor(2, 2);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenAnswer(invocation -> {
+                    List<Product> batch = List.copyOf(invocation.getArgument(2));
+                    List<Failure> failures = List.of(new Failure(400, batch.get(0), List.of("Invalid ID")));
+                    return new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", null, failures);
+                });
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList(4));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getResults()).hasSize(2);
+        assertThat(response.getRequestId()).isNull();
+    }
+
+    @Test
+    void testMixedBatchStatusesAreReportedAsMultiStatus() {
+        bulkExecutor = executor(1, 1);
+        when(shaapiClient.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(
+                new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, "req-1", null),
+                new ProductResponse(HttpStatus.SC_SERVICE_UNAVAILABLE, "Service temporarily unavailable.", "req-2", null));
+
+        List<ProductIdentifier> identifiers = List.of(ProductIdentifier.builder().id("1").build(), ProductIdentifier.builder().id("2").build());
+        BulkProductResponse response = bulkExecutor.deleteProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, identifiers);
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getMessage()).isEqualTo("Processed 2 batches: 1 succeeded, 1 failed.");
+        assertThat(response.getRequestId()).isEqualTo("req-1,req-2");
+        assertThat(response.getFailedBatches()).extracting(ProductResponse::getHttpStatus).containsExactly(HttpStatus.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testOnlyRetryableFailuresAreResubmitted() {
+        bulkExecutor = resubmittingExecutor(3);
+        List<Product> products = getProductList(4);
+        ArgumentCaptor<Collection<Product>> batches = ArgumentCaptor.forClass(Collection.class);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), batches.capture())).thenReturn(
+                new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", "req-1", List.of(
+                        new Failure(HttpStatus.SC_SERVICE_UNAVAILABLE, products.get(1), List.of("Try again")),
+                        new Failure(HttpStatus.SC_BAD_REQUEST, products.get(2), List.of("Invalid title")))),
+                new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, "req-2", null));
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products);
+
+        assertThat(batches.getAllValues().get(1)).containsExactly(products.get(1));
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getResults()).extracting(Failure::status).containsExactly(HttpStatus.SC_BAD_REQUEST);
+        assertThat(response.getRequestId()).isEqualTo("req-1,req-2");
+        assertThat(response.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void testResubmittedFailuresThatSucceedAreNotReported() {
+        bulkExecutor = resubmittingExecutor(3);
+        List<Product> products = getProductList(2);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(
+                new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", null,
+                        List.of(new Failure(HttpStatus.SC_TOO_MANY_REQUESTS, products.get(0), List.of("Slow down")))),
+                new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products);
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getMessage()).isEqualTo(TestUtils.SUCCESS);
+        assertThat(response.getResults()).isNull();
+    }
+
+    @Test
+    void testResubmissionStopsAfterMaxAttempts() {
+        bulkExecutor = resubmittingExecutor(3);
+        List<Product> products = getProductList(2);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(
+                new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", null,
+                        List.of(new Failure(HttpStatus.SC_SERVICE_UNAVAILABLE, products.get(0), List.of("Try again")))));
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products);
+
+        verify(shaapiClient, times(3)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getResults()).extracting(Failure::status).containsExactly(HttpStatus.SC_SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void testParallelismIsBounded() {
+        bulkExecutor = executor(1, 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), anyCollection())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+        });
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, getProductList(12));
+
+        assertThat(response.getBatchResponses()).hasSize(12);
+        assertThat(maxInFlight.get()).isBetween(1, 3);
+    }
+
+    @Test
+    void testEmptyCollectionSendsNoRequest() {
+        bulkExecutor = executor(10, 2);
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, List.of());
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getBatchResponses()).isEmpty();
+    }
+
+    @Test
+    void testBatchesAreSplitBySerializedSize() throws Exception {
+        bulkExecutor = BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder().batchSize(100).maxBatchBytes(5_000).build())
+                .build();
+        var objectMapper = new ObjectMapper();
+        List<Collection<Product>> batches = new CopyOnWriteArrayList<>();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenAnswer(invocation -> {
+                    batches.add(invocation.getArgument(2));
+                    return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+                });
+        List<Product> products = IntStream.range(0, 30)
+                .mapToObj(id -> (Product) Product.builder().id(String.valueOf(id)).title("x".repeat(id % 3 == 0 ? 2_000 : 100)).build())
+                .toList();
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products);
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(batches).hasSizeGreaterThan(1);
+        assertThat(batches.stream().mapToInt(Collection::size).sum()).isEqualTo(30);
+        for (Collection<Product> batch : batches) {
+            assertThat(objectMapper.writeValueAsBytes(batch).length).isLessThanOrEqualTo(5_000);
+        }
+    }
+
+    @Test
+    void testProductsAreMeasuredWithConfiguredCodec() throws Exception {
+        Product product = (Product) Product.builder().id("1").title("Product").build();
+        long compactBytes = new ObjectMapper().writeValueAsBytes(List.of(product)).length;
+        bulkExecutor = BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder()
+                        .maxBatchBytes(compactBytes + 10)
+                        .codec(new JacksonCodec(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)))
+                        .build())
+                .build();
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, List.of(product));
+
+        assertThat(response.getResults()).singleElement()
+                .satisfies(failure -> assertThat(failure.status()).isEqualTo(HttpStatus.SC_REQUEST_TOO_LONG));
+        verify(shaapiClient, never()).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testProductThatCannotBeSerializedIsReportedWithoutBeingSent() throws IOException {
+        ShaapiCodec codec = mock(ShaapiCodec.class);
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) instanceof Product product && "broken".equals(product.getId())) {
+                throw new IOException("Unsupported value");
+            }
+            ShaapiCodec.defaultCodec().write(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(codec).write(any(), any());
+        bulkExecutor = BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder().maxBatchBytes(1_000).codec(codec).build())
+                .build();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+        Product broken = (Product) Product.builder().id("broken").build();
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN,
+                List.of((Product) Product.builder().id("valid").build(), broken));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getResults()).singleElement().satisfies(failure -> {
+            assertThat(failure.status()).isEqualTo(HttpStatus.SC_BAD_REQUEST);
+            assertThat(failure.product()).isSameAs(broken);
+            assertThat(failure.errors()).singleElement().asString().contains("Unsupported value");
+        });
+        verify(shaapiClient, times(1)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testOversizedProductIsReportedWithoutBeingSent() {
+        bulkExecutor = BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder().maxBatchBytes(1_000).build())
+                .build();
+        List<Collection<Product>> batches = new CopyOnWriteArrayList<>();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenAnswer(invocation -> {
+                    batches.add(invocation.getArgument(2));
+                    return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+                });
+        Product oversized = (Product) Product.builder().id("big").title("x".repeat(2_000)).build();
+
+        BulkProductResponse response = bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN,
+                List.of((Product) Product.builder().id("small").build(), oversized));
+
+        assertThat(batches).singleElement().satisfies(batch -> assertThat(batch).extracting(Product::getId).containsExactly("small"));
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getResults()).singleElement().satisfies(failure -> {
+            assertThat(failure.status()).isEqualTo(HttpStatus.SC_REQUEST_TOO_LONG);
+            assertThat(failure.product().getId()).isEqualTo("big");
+        });
+        assertThat(response.getFailedBatches()).singleElement().satisfies(batch -> assertThat(batch.getAttempts()).isZero());
+    }
+
+    @Test
+    void testPublishedProductsAreRequestedAsBatchesAreSent() throws Exception {
+        bulkExecutor = executor(100, 2);
+        List<Collection<Product>> batches = new CopyOnWriteArrayList<>();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenAnswer(invocation -> {
+                    batches.add(invocation.getArgument(2));
+                    return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+                });
+        var products = new ProductSource(250, null);
+
+        List<ProductResponse> responses = collect(bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products), Integer.MAX_VALUE)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(responses).hasSize(3).extracting(ProductResponse::getHttpStatus).containsOnly(HttpStatus.SC_OK);
+        assertThat(batches).extracting(Collection::size).containsExactlyInAnyOrder(100, 100, 50);
+        assertThat(products.maxDemand.get()).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    void testOversizedPublishedProductIsReportedWithoutBeingSent() throws Exception {
+        bulkExecutor = BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder().maxBatchBytes(1_000).build())
+                .build();
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+        var products = new SubmissionPublisher<Product>();
+
+        var responses = collect(bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, products), Integer.MAX_VALUE);
+        products.submit((Product) Product.builder().id("small").build());
+        products.submit((Product) Product.builder().id("big").title("x".repeat(2_000)).build());
+        products.close();
+
+        assertThat(responses.get(5, TimeUnit.SECONDS))
+                .extracting(ProductResponse::getHttpStatus, ProductResponse::getAttempts)
+                .containsExactly(tuple(HttpStatus.SC_OK, 1), tuple(HttpStatus.SC_REQUEST_TOO_LONG, 0));
+    }
+
+    @Test
+    void testUpstreamErrorIsPassedOnAfterReceivedProductsAreSent() {
+        bulkExecutor = executor(10, 2);
+        when(shaapiClient.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+        Flow.Publisher<ProductIdentifier> products = new ProductSource(15, new IllegalStateException("Feed unavailable"))::subscribe;
+
+        var responses = collect(bulkExecutor.deleteProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products), Integer.MAX_VALUE);
+
+        assertThat(responses).failsWithin(5, TimeUnit.SECONDS).withThrowableOfType(ExecutionException.class)
+                .withRootCauseInstanceOf(IllegalStateException.class).withMessageContaining("Feed unavailable");
+        verify(shaapiClient, times(2)).deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testCancellingTheSubscriptionCancelsUpstream() throws Exception {
+        bulkExecutor = executor(10, 1);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+        var products = new ProductSource(100_000, null);
+
+        collect(bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, products), 1).get(5, TimeUnit.SECONDS);
+
+        products.terminated.get(5, TimeUnit.SECONDS);
+        assertThat(products.emitted.get()).isLessThan(100_000);
+    }
+
+    @Test
+    void testSubscriberWithoutDemandDoesNotHoldTheExecutorThreads() throws Exception {
+        bulkExecutor = executor(1, 2);
+        when(shaapiClient.upsertProducts(anyString(), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+        var subscription = new CompletableFuture<Flow.Subscription>();
+        var delivered = new CompletableFuture<ProductResponse>();
+        bulkExecutor.upsertProducts("stream", TestUtils.ACCESS_TOKEN, new ProductSource(1_000, null)).subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.complete(s);
+            }
+
+            @Override
+            public void onNext(ProductResponse response) {
+                delivered.complete(response);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                delivered.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        var response = CompletableFuture.supplyAsync(
+                () -> bulkExecutor.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList(20)));
+
+        assertThat(response.get(5, TimeUnit.SECONDS).getBatchResponses()).hasSize(20);
+        verify(shaapiClient, never()).upsertProducts(eq("stream"), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+        subscription.get(5, TimeUnit.SECONDS).request(1);
+        assertThat(delivered.get(5, TimeUnit.SECONDS).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        subscription.get().cancel();
+    }
+
+    @Test
+    void testInvalidConfiguration() {
+        assertThatThrownBy(() -> executor(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BulkExecutor executor(int batchSize, int parallelism) {
+        return BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder().batchSize(batchSize).parallelism(parallelism).build())
+                .build();
+    }
+
+    private BulkExecutor resubmittingExecutor(int maxAttempts) {
+        return BulkExecutor.builder()
+                .client(shaapiClient)
+                .config(BulkConfig.builder()
+                        .batchSize(10)
+                        .resubmitPolicy(RetryPolicy.builder().maxAttempts(maxAttempts).initialBackoff(Duration.ZERO).build())
+                        .build())
+                .build();
+    }
+
+    private static List<Product> getProductList(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(id -> (Product) Product.builder().id(String.valueOf(id)).build())
+                .toList();
+    }
+
+    private static CompletableFuture<List<ProductResponse>> collect(Flow.Publisher<ProductResponse> publisher, int limit) {
+        var result = new CompletableFuture<List<ProductResponse>>();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            private final List<ProductResponse> responses = new ArrayList<>();
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(ProductResponse response) {
+                responses.add(response);
+                if (responses.size() == limit) {
+                    subscription.cancel();
+                    result.complete(responses);
+                } else {
+                    subscription.request(1);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(responses);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Emits products on the requesting thread without recursion, recording the largest outstanding demand.
+     */
+    private static final class ProductSource implements Flow.Publisher<Product> {
+        private final int count;
+        private final RuntimeException failure;
+        private final AtomicLong maxDemand = new AtomicLong();
+        private final AtomicInteger emitted = new AtomicInteger();
+        private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+
+        ProductSource(int count, RuntimeException failure) {
+            this.count = count;
+            this.failure = failure;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Product> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private long demand;
+                private boolean emitting;
+
+                @Override
+                public synchronized void request(long n) {
+                    demand += n;
+                    maxDemand.accumulateAndGet(demand, Math::max);
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (demand > 0 && emitted.get() < count && !terminated.isDone()) {
+                        demand--;
+                        subscriber.onNext((Product) Product.builder().id(String.valueOf(emitted.getAndIncrement())).build());
+                    }
+                    if (emitted.get() == count && !terminated.isDone()) {
+                        terminated.complete(null);
+                        if (failure != null) {
+                            subscriber.onError(failure);
+                        } else {
+                            subscriber.onComplete();
+                        }
+                    }
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                    terminated.complete(null);
+                }
+            });
+        }
+    }
+}
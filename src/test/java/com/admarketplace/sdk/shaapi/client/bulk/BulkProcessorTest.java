@@ -0,0 +1,310 @@
+package com.admarketplace.sdk.shaapi.client.bulk;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.outbox.Outbox;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BulkProcessorTest {
+    private static final ProductResponse SUCCESS = new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+
+    @Mock
+    private ShaapiClient shaapiClient;
+
+    private BulkProcessor bulkProcessor;
+
+    @AfterEach
+    void tearDown() {
+        if (bulkProcessor != null) {
+            bulkProcessor.close();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRepeatedWritesAreCoalesced() throws InterruptedException {
+        bulkProcessor = processor(BulkProcessorConfig.builder().flushInterval(null).build(), null);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+        when(shaapiClient.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("2", "Second"));
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "Updated"));
+        bulkProcessor.delete(TestUtils.ACCOUNT_ID, ProductIdentifier.builder().id("2").build());
+        bulkProcessor.flush();
+
+        ArgumentCaptor<Collection<Product>> upserts = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<ProductIdentifier>> deletes = ArgumentCaptor.forClass(Collection.class);
+        verify(shaapiClient).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), upserts.capture());
+        verify(shaapiClient).deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), deletes.capture());
+        assertThat(upserts.getValue()).extracting(Product::getTitle).containsExactly("Updated");
+        assertThat(deletes.getValue()).extracting(ProductIdentifier::getId).containsExactly("2");
+        assertThat(bulkProcessor.getPendingCount()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBufferIsFlushedWhenBatchSizeIsReached() throws InterruptedException {
+        bulkProcessor = processor(BulkProcessorConfig.builder().batchSize(2).flushInterval(null).build(), null);
+        ArgumentCaptor<Collection<Product>> upserts = ArgumentCaptor.forClass(Collection.class);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("2", "Second"));
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("3", "Third"));
+
+        verify(shaapiClient, timeout(1000)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), upserts.capture());
+        assertThat(upserts.getValue()).extracting(Product::getId).containsExactly("1", "2");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBatchesDoNotExceedMaxBytes() throws InterruptedException {
+        bulkProcessor = processor(BulkProcessorConfig.builder().maxBatchBytes(150).flushInterval(null).build(), null);
+        ArgumentCaptor<Collection<Product>> upserts = ArgumentCaptor.forClass(Collection.class);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), upserts.capture())).thenReturn(SUCCESS);
+
+        for (int i = 0; i < 6; i++) {
+            bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product(String.valueOf(i), "Product " + i));
+        }
+        bulkProcessor.flush();
+
+        assertThat(upserts.getAllValues()).hasSizeGreaterThan(1).allSatisfy(batch -> assertThat(batch).hasSizeLessThan(6));
+        assertThat(upserts.getAllValues().stream().mapToInt(Collection::size).sum()).isEqualTo(6);
+    }
+
+    @Test
+    void testBufferIsFlushedAfterInterval() throws InterruptedException {
+        bulkProcessor = processor(BulkProcessorConfig.builder().flushInterval(Duration.ofMillis(20)).build(), null);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+
+        verify(shaapiClient, timeout(1000)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testWritesBlockWhenBufferIsFull() throws Exception {
+        bulkProcessor = processor(BulkProcessorConfig.builder()
+                .batchSize(2).maxBufferedProducts(2).maxInFlightFlushes(1).flushInterval(null).build(), null);
+        CountDownLatch release = new CountDownLatch(1);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return SUCCESS;
+        });
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("2", "Second"));
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> {
+            try {
+                bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("3", "Third"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread.sleep(100);
+        assertThat(blocked).isNotDone();
+        release.countDown();
+        blocked.get(1, TimeUnit.SECONDS);
+        assertThat(bulkProcessor.getPendingCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWriteOfProductInFlightIsSentAfterPreviousRequest() throws Exception {
+        bulkProcessor = processor(BulkProcessorConfig.builder().batchSize(1).flushInterval(null).build(), null);
+        CountDownLatch release = new CountDownLatch(1);
+        ArgumentCaptor<Collection<Product>> upserts = ArgumentCaptor.forClass(Collection.class);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), upserts.capture())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return SUCCESS;
+        });
+
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+        verify(shaapiClient, timeout(1000)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("1", "Updated"));
+        Thread.sleep(50);
+        verify(shaapiClient, times(1)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+
+        release.countDown();
+        bulkProcessor.flush();
+
+        assertThat(upserts.getAllValues()).flatExtracting(batch -> batch.stream().map(Product::getTitle).toList())
+                .containsExactly("First", "Updated");
+    }
+
+    @Test
+    void testListenerReceivesResponses() throws InterruptedException {
+        BulkProcessorListener listener = mock(BulkProcessorListener.class);
+        bulkProcessor = processor(BulkProcessorConfig.builder().flushInterval(null).build(), listener);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenThrow(new IllegalStateException("Connection pool shut down"));
+        Product product = product("1", "First");
+
+        bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product);
+        bulkProcessor.flush();
+
+        ArgumentCaptor<ProductResponse> response = ArgumentCaptor.forClass(ProductResponse.class);
+        verify(listener).afterUpsert(eq(TestUtils.ACCOUNT_ID), eq(List.of(product)), response.capture());
+        assertThat(response.getValue().getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getValue().getMessage()).contains(TestUtils.UNEXPECTED_ERROR, "Connection pool shut down");
+    }
+
+    @Test
+    void testCloseSendsBufferedWritesAndRejectsNewOnes() throws InterruptedException {
+        bulkProcessor = processor(BulkProcessorConfig.builder().flushInterval(null).build(), null);
+        when(shaapiClient.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        bulkProcessor.delete(TestUtils.ACCOUNT_ID, ProductIdentifier.builder().id("1").build());
+        bulkProcessor.close();
+
+        verify(shaapiClient).deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+        verify(shaapiClient, never()).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+        assertThatThrownBy(() -> bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("2", "Second")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testUnacknowledgedWritesAreReplayedFromOutbox(@TempDir Path directory) throws IOException, InterruptedException {
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_SERVICE_UNAVAILABLE, "Service Unavailable", null, null))
+                .thenReturn(SUCCESS);
+
+        try (Outbox outbox = Outbox.builder().directory(directory).build()) {
+            try (BulkProcessor first = processor(BulkProcessorConfig.builder().flushInterval(null).build(), null, outbox)) {
+                first.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+            }
+            assertThat(outbox.getPendingCount()).isEqualTo(1);
+        }
+
+        try (Outbox outbox = Outbox.builder().directory(directory).build()) {
+            try (BulkProcessor second = processor(BulkProcessorConfig.builder().flushInterval(null).build(), null, outbox)) {
+                second.flush();
+            }
+            assertThat(outbox.getPendingCount()).isZero();
+        }
+        verify(shaapiClient, times(2)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testFailedWriteIsNotReplayedOverLaterSuccessfulWrite(@TempDir Path directory) throws IOException, InterruptedException {
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_SERVICE_UNAVAILABLE, "Service Unavailable", null, null))
+                .thenReturn(SUCCESS);
+
+        try (Outbox outbox = Outbox.builder().directory(directory).build()) {
+            try (BulkProcessor first = processor(BulkProcessorConfig.builder().flushInterval(null).build(), null, outbox)) {
+                first.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+                first.flush();
+                assertThat(outbox.getPendingCount()).isEqualTo(1);
+
+                first.upsert(TestUtils.ACCOUNT_ID, product("1", "Updated"));
+                first.flush();
+            }
+            assertThat(outbox.getPendingCount()).isZero();
+        }
+
+        try (Outbox outbox = Outbox.builder().directory(directory).build()) {
+            try (BulkProcessor second = processor(BulkProcessorConfig.builder().flushInterval(null).build(), null, outbox)) {
+                second.flush();
+            }
+        }
+        verify(shaapiClient, times(2)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testPermanentlyRejectedWriteIsNotReplayedFromOutbox(@TempDir Path directory) throws IOException, InterruptedException {
+        var rejected = new ProductResponse(HttpStatus.SC_BAD_REQUEST, "Bad Request", null, null);
+        when(shaapiClient.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(rejected);
+        List<ProductResponse> responses = new CopyOnWriteArrayList<>();
+        BulkProcessorListener listener = new BulkProcessorListener() {
+            @Override
+            public void afterUpsert(String accountId, List<Product> products, ProductResponse response) {
+                responses.add(response);
+            }
+        };
+
+        try (Outbox outbox = Outbox.builder().directory(directory).build()) {
+            try (BulkProcessor first = processor(BulkProcessorConfig.builder().flushInterval(null).build(), listener, outbox)) {
+                first.upsert(TestUtils.ACCOUNT_ID, product("1", "First"));
+            }
+            assertThat(outbox.getPendingCount()).isZero();
+        }
+
+        try (Outbox outbox = Outbox.builder().directory(directory).build()) {
+            try (BulkProcessor second = processor(BulkProcessorConfig.builder().flushInterval(null).build(), listener, outbox)) {
+                second.flush();
+            }
+        }
+        assertThat(responses).containsExactly(rejected);
+        verify(shaapiClient, times(1)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testOversizedProductIsRejected() {
+        bulkProcessor = processor(BulkProcessorConfig.builder().maxBatchBytes(1_000).build(), null);
+
+        assertThatThrownBy(() -> bulkProcessor.upsert(TestUtils.ACCOUNT_ID, product("big", "x".repeat(2_000))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maximum batch size of 1000 bytes");
+        assertThat(bulkProcessor.getPendingCount()).isZero();
+    }
+
+    @Test
+    void testInvalidConfigIsRejected() {
+        BulkProcessorConfig config = BulkProcessorConfig.builder().batchSize(100).maxBufferedProducts(10).build();
+
+        assertThatThrownBy(() -> processor(config, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private BulkProcessor processor(BulkProcessorConfig config, BulkProcessorListener listener) {
+        return processor(config, listener, null);
+    }
+
+    private BulkProcessor processor(BulkProcessorConfig config, BulkProcessorListener listener, Outbox outbox) {
+        return BulkProcessor.builder()
+                .client(shaapiClient)
+                .accessToken(TestUtils.ACCESS_TOKEN)
+                .config(config)
+                .listener(listener)
+                .outbox(outbox)
+                .build();
+    }
+
+    private static Product product(String id, String title) {
+        return (Product) Product.builder().id(id).title(title).build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.admarketplace.sdk.shaapi.client.cache;
+
+import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.ProductCount;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCountCacheTest {
+    private static final Duration TTL = Duration.ofSeconds(10);
+
+    private final AtomicLong nanoTime = new AtomicLong(-TimeUnit.DAYS.toNanos(1));
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ProductCountCache cache = new ProductCountCache(CountCacheConfig.builder().ttl(TTL).maxAccounts(2).build(), nanoTime::get);
+
+    @Test
+    void testCountIsServedFromCacheUntilItExpires() {
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_OK)).getResult().count()).isEqualTo(1);
+        nanoTime.addAndGet(TTL.toNanos() - 1);
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_OK)).getResult().count()).isEqualTo(1);
+        nanoTime.incrementAndGet();
+
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_OK)).getResult().count()).isEqualTo(2);
+        assertThat(requests).hasValue(2);
+    }
+
+    @Test
+    void testErrorsAreNotCached() {
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_SERVICE_UNAVAILABLE)).getHttpStatus()).isEqualTo(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_OK)).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+
+        assertThatThrownBy(() -> cache.get("other", () -> {
+            throw new IllegalStateException("Boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(cache.get("other", count(HttpStatus.SC_OK)).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(requests).hasValue(3);
+    }
+
+    @Test
+    void testConcurrentCallersShareOneRequest() throws Exception {
+        var release = new CountDownLatch(1);
+        Supplier<ProductCountResponse> slowCount = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return count(HttpStatus.SC_OK).get();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<ProductCountResponse>> futures = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> cache.get(TestUtils.ACCOUNT_ID, slowCount), executor))
+                    .toList();
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(futures).allSatisfy(future -> assertThat(future.get(5, TimeUnit.SECONDS).getResult().count()).isEqualTo(1));
+            assertThat(requests).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidationDiscardsCountInFlight() {
+        ProductCountResponse response = cache.get(TestUtils.ACCOUNT_ID, () -> {
+            // A write completes while the count is being requested
+            cache.invalidate(TestUtils.ACCOUNT_ID);
+            return count(HttpStatus.SC_OK).get();
+        });
+
+        assertThat(response.getResult().count()).isEqualTo(1);
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_OK)).getResult().count()).isEqualTo(2);
+        cache.invalidate(TestUtils.ACCOUNT_ID);
+        assertThat(cache.get(TestUtils.ACCOUNT_ID, count(HttpStatus.SC_OK)).getResult().count()).isEqualTo(3);
+    }
+
+    @Test
+    void testAccountsBeyondLimitAreNotCached() {
+        cache.get("first", count(HttpStatus.SC_OK));
+        cache.get("second", count(HttpStatus.SC_OK));
+        cache.get("third", count(HttpStatus.SC_OK));
+        cache.get("third", count(HttpStatus.SC_OK));
+        assertThat(requests).hasValue(4);
+
+        nanoTime.addAndGet(TTL.toNanos());
+        cache.get("third", count(HttpStatus.SC_OK));
+        cache.get("third", count(HttpStatus.SC_OK));
+        assertThat(requests).hasValue(5);
+    }
+
+    private Supplier<ProductCountResponse> count(int httpStatus) {
+        return () -> {
+            long count = requests.incrementAndGet();
+            return new ProductCountResponse(httpStatus, TestUtils.SUCCESS, new ProductCount(TestUtils.ACCOUNT_ID, count));
+        };
+    }
+}
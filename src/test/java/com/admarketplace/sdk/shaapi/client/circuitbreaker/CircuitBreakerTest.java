@@ -0,0 +1,132 @@
+package com.admarketplace.sdk.shaapi.client.circuitbreaker;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final List<String> transitions = new ArrayList<>();
+
+    @Test
+    void testOpensWhenFailureRateReachesThreshold() {
+        var circuitBreaker = circuitBreaker();
+
+        record(circuitBreaker, 5, FAST, false);
+        record(circuitBreaker, 4, FAST, true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        record(circuitBreaker, 1, FAST, true);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        assertThat(transitions).containsExactly("CLOSED->OPEN");
+    }
+
+    @Test
+    void testDoesNotOpenBeforeMinimumNumberOfCalls() {
+        var circuitBreaker = circuitBreaker();
+
+        record(circuitBreaker, 9, FAST, true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testOpensWhenSlowCallRateReachesThreshold() {
+        var circuitBreaker = circuitBreaker();
+
+        record(circuitBreaker, 2, FAST, false);
+        record(circuitBreaker, 8, SLOW, false);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void testOldOutcomesLeaveTheSlidingWindow() {
+        var circuitBreaker = circuitBreaker();
+
+        record(circuitBreaker, 4, FAST, true);
+        record(circuitBreaker, 20, FAST, false);
+        record(circuitBreaker, 4, FAST, true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void testClosesAfterSuccessfulProbesInHalfOpenState() {
+        var circuitBreaker = circuitBreaker();
+        record(circuitBreaker, 10, FAST, true);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        for (int i = 0; i < 3; i++) {
+            assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+        }
+        assertThat(circuitBreaker.tryAcquirePermission()).isFalse();
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onResult(FAST, false);
+        }
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->CLOSED");
+    }
+
+    @Test
+    void testReopensAfterFailedProbesInHalfOpenState() {
+        var circuitBreaker = circuitBreaker();
+        record(circuitBreaker, 10, FAST, true);
+
+        nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        record(circuitBreaker, 1, FAST, false);
+        record(circuitBreaker, 2, FAST, true);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(transitions).containsExactly("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN");
+    }
+
+    @Test
+    void testCircuitBreakersAreKeptPerEndpoint() {
+        var circuitBreakers = new CircuitBreakers(config(), nanoTime::get);
+        var products = circuitBreakers.get(URI.create("https://shaapi.example.com/asset/v1/123/products"));
+
+        record(products, 10, FAST, true);
+
+        assertThat(circuitBreakers.get(URI.create("https://shaapi.example.com/asset/v1/123/products/count"))).isSameAs(products);
+        assertThat(circuitBreakers.get(URI.create("https://auth.example.com/oauth2/v1/auth")).getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(products.getName()).isEqualTo("https://shaapi.example.com");
+    }
+
+    private void record(CircuitBreaker circuitBreaker, int calls, long durationNanos, boolean failed) {
+        for (int i = 0; i < calls; i++) {
+            assertThat(circuitBreaker.tryAcquirePermission()).isTrue();
+            circuitBreaker.onResult(durationNanos, failed);
+        }
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        return new CircuitBreaker("shaapi", config(), nanoTime::get);
+    }
+
+    private CircuitBreakerConfig config() {
+        return CircuitBreakerConfig.builder()
+                .slidingWindowSize(20)
+                .minimumNumberOfCalls(10)
+                .failureRateThreshold(0.5)
+                .slowCallDurationThreshold(Duration.ofSeconds(1))
+                .slowCallRateThreshold(0.8)
+                .waitDurationInOpenState(Duration.ofSeconds(30))
+                .permittedCallsInHalfOpenState(3)
+                .listener((name, from, to) -> transitions.add(from + "->" + to))
+                .build();
+    }
+}
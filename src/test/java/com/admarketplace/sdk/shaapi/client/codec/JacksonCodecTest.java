@@ -0,0 +1,86 @@
+package com.admarketplace.sdk.shaapi.client.codec;
+
+import com.admarketplace.authorization.api.model.v1.AuthenticationResponse;
+import com.admarketplace.sdk.shaapi.client.codec.blackbird.BlackbirdCodec;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductCount;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JacksonCodecTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void testWriteMatchesObjectMapperAndKeepsStreamOpen(ShaapiCodec codec) throws IOException {
+        List<Product> products = IntStream.range(0, 100)
+                .mapToObj(i -> (Product) Product.builder().id(String.valueOf(i)).country("US").language("en").title("Product " + i).build())
+                .toList();
+        var outputStream = new CloseTrackingOutputStream();
+
+        codec.write(products, outputStream);
+
+        assertThat(outputStream.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(products));
+        assertThat(codec.writeAsBytes(products)).isEqualTo(outputStream.toByteArray());
+        assertThat(outputStream.closed).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void testReadResponses(ShaapiCodec codec) throws IOException {
+        var failure = new Failure(HttpStatus.SC_BAD_REQUEST, ProductIdentifier.builder().id("1").build(), List.of("Missing title"));
+        var products = new ShaapiResponse<>("Partially processed", List.of(failure));
+        var count = new ShaapiResponse<>(TestUtils.SUCCESS, new ProductCount(TestUtils.ACCOUNT_ID, 42L));
+        var auth = new AuthenticationResponse(TestUtils.ACCESS_TOKEN, "Bearer", 3600, null);
+
+        assertThat(codec.readProductResponse(json(products))).isEqualTo(products);
+        assertThat(codec.readProductCountResponse(json(count))).isEqualTo(count);
+        assertThat(codec.readAuthenticationResponse(json(auth))).isEqualTo(auth);
+    }
+
+    @ParameterizedTest
+    @MethodSource("codecs")
+    void testMalformedBodyThrowsCodecException(ShaapiCodec codec) {
+        var body = new ByteArrayInputStream(TestUtils.INVALID_JSON.getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> codec.readProductResponse(body))
+                .isInstanceOf(CodecException.class)
+                .hasMessageStartingWith("Unexpected character")
+                .hasMessageNotContaining(TestUtils.INVALID_JSON);
+    }
+
+    private static Stream<ShaapiCodec> codecs() {
+        return Stream.of(JacksonCodec.defaults(), new BlackbirdCodec());
+    }
+
+    private ByteArrayInputStream json(Object value) throws IOException {
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(value));
+    }
+
+    private static final class CloseTrackingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
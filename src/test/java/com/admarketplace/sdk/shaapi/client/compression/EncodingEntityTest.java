@@ -0,0 +1,81 @@
+package com.admarketplace.sdk.shaapi.client.compression;
+
+import com.admarketplace.sdk.shaapi.client.JsonStreamingEntity;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EncodingEntityTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(StandardContentEncoder.class)
+    void testContentIsCompressedWhileStreaming(StandardContentEncoder encoder) throws Exception {
+        List<Product> products = getProductList(1000);
+        var entity = new EncodingEntity(new JsonStreamingEntity(products, objectMapper), encoder);
+
+        var outputStream = new ByteArrayOutputStream();
+        entity.writeTo(outputStream);
+
+        String expected = objectMapper.writeValueAsString(products);
+        assertThat(decode(encoder, outputStream.toByteArray())).isEqualTo(expected);
+        assertThat(outputStream.size()).isLessThan(expected.length() / 4);
+    }
+
+    @Test
+    void testEntityHeaders() {
+        var entity = new EncodingEntity(new JsonStreamingEntity(getProductList(1), objectMapper), StandardContentEncoder.GZIP);
+
+        assertThat(entity.getContentEncoding()).isEqualTo("gzip");
+        assertThat(entity.getContentLength()).isEqualTo(-1);
+        assertThat(entity.isChunked()).isTrue();
+        assertThat(entity.isRepeatable()).isTrue();
+    }
+
+    @Test
+    void testWriteToDoesNotCloseTargetStream() throws Exception {
+        var entity = new EncodingEntity(new JsonStreamingEntity(getProductList(1), objectMapper), StandardContentEncoder.GZIP);
+        var closed = new boolean[1];
+        var outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        entity.writeTo(outputStream);
+
+        assertThat(closed[0]).isFalse();
+        assertThat(decode(StandardContentEncoder.GZIP, outputStream.toByteArray())).startsWith("[{");
+    }
+
+    private static String decode(StandardContentEncoder encoder, byte[] bytes) throws IOException {
+        InputStream inputStream = switch (encoder) {
+            case GZIP -> new GZIPInputStream(new ByteArrayInputStream(bytes));
+            case DEFLATE -> new InflaterInputStream(new ByteArrayInputStream(bytes));
+        };
+        try (inputStream) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static List<Product> getProductList(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(id -> (Product) Product.builder().id(String.valueOf(id)).build())
+                .toList();
+    }
+}
@@ -1,9 +1,13 @@
 package com.admarketplace.sdk.shaapi.client.factory;
 
+import com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient;
 import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
 import com.admarketplace.sdk.shaapi.util.TestUtils;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -40,4 +44,51 @@ class ShaapiClientFactoryTest {
     void testGetInstanceWithInvalidVersion() {
         assertThrows(IllegalArgumentException.class, () -> ShaapiClientFactory.getInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, null));
     }
+
+    @Test
+    void testGetValidInstanceWithHttpClientConfig() {
+        HttpClientConfig config = HttpClientConfig.builder()
+                .maxTotalConnections(10)
+                .maxConnectionsPerRoute(5)
+                .keepAlive(Duration.ofSeconds(10))
+                .build();
+
+        try (ShaapiClient shaapiClient = ShaapiClientFactory.getInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, TestUtils.V1, config)) {
+            assertNotNull(shaapiClient);
+        }
+    }
+
+    @Test
+    void testGetInstanceWithNullHttpClientConfig() {
+        assertThrows(IllegalArgumentException.class, () -> ShaapiClientFactory.getInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, TestUtils.V1, null));
+    }
+
+    @Test
+    void testGetValidAsyncInstance() {
+        try (ShaapiAsyncClient shaapiAsyncClient = ShaapiClientFactory.getAsyncInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, TestUtils.V1)) {
+            assertNotNull(shaapiAsyncClient);
+        }
+    }
+
+    @Test
+    void testGetAsyncInstanceWithInvalidUrl() {
+        assertThrows(IllegalArgumentException.class, () -> ShaapiClientFactory.getAsyncInstance("www.example.net", TestUtils.SHAAPI_URL, TestUtils.V1));
+    }
+
+    @Test
+    void testGetAsyncInstanceWithInvalidVersion() {
+        assertThrows(IllegalArgumentException.class, () -> ShaapiClientFactory.getAsyncInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, "v2"));
+    }
+
+    @Test
+    void testGetValidAuthenticatedInstance() {
+        try (ShaapiClient shaapiClient = ShaapiClientFactory.getAuthenticatedInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, TestUtils.V1, "encodedCredentials")) {
+            assertNotNull(shaapiClient);
+        }
+    }
+
+    @Test
+    void testGetAuthenticatedInstanceWithBlankCredentials() {
+        assertThrows(IllegalArgumentException.class, () -> ShaapiClientFactory.getAuthenticatedInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, TestUtils.V1, " "));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,174 @@
+package com.admarketplace.sdk.shaapi.client.feed;
+
+import com.admarketplace.sdk.shaapi.client.bulk.BulkProcessor;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class FeedIngestorTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private BulkProcessor bulkProcessor;
+
+    private final List<Product> upserted = new CopyOnWriteArrayList<>();
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 8})
+    void testNdjsonRecordsAreUpsertedOnceAcrossSplits(int parallelism) throws Exception {
+        recordUpserts();
+        var lines = new ArrayList<String>();
+        IntStream.range(0, 1000).forEach(i -> lines.add("{\"id\":\"" + i + "\",\"country\":\"US\",\"title\":\"" + "x".repeat(i % 50) + "\"}"));
+        lines.add(500, "");
+        lines.add(700, "{not json}");
+        lines.add(800, "{\"title\":\"No id\"}");
+        Path feed = write("feed.ndjson", "\uFEFF" + String.join("\r\n", lines) + "\r\n");
+
+        FeedResult result = ingestor(parallelism).ingest(TestUtils.ACCOUNT_ID, feed, FeedFormat.NDJSON);
+
+        assertThat(upserted).extracting(Product::getId).containsExactlyInAnyOrderElementsOf(ids(1000));
+        assertThat(upserted).filteredOn(product -> product.getId().equals("49")).singleElement()
+                .satisfies(product -> assertThat(product.getTitle()).hasSize(49));
+        assertThat(result.getRecords()).isEqualTo(1002);
+        assertThat(result.getProducts()).isEqualTo(1000);
+        assertThat(result.getMalformed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(FeedError::getMessage).last().isEqualTo("The product has no id.");
+        assertThat(result.isResumed()).isFalse();
+    }
+
+    @Test
+    void testCsvRecordsAreMappedByHeader() throws Exception {
+        recordUpserts();
+        Path feed = write("feed.csv", """
+                id,country,language,title,price,ignored
+                1,US,en,"Shoes, red",10.00 USD,x
+                2,US,en,"The ""best"" hat",,x
+                3,US,en,"Unterminated,,x
+                4,US,en,Too few fields
+                """);
+
+        FeedResult result = ingestor(2).ingest(TestUtils.ACCOUNT_ID, feed, FeedFormat.CSV);
+
+        assertThat(upserted).extracting(Product::getId, Product::getTitle, Product::getPrice)
+                .containsExactlyInAnyOrder(
+                        tuple("1", "Shoes, red", "10.00 USD"),
+                        tuple("2", "The \"best\" hat", null));
+        assertThat(result.getMalformed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(FeedError::getMessage)
+                .containsExactly("Unterminated quoted field (line breaks inside fields are not supported)", "Expected 6 fields but found 4.");
+    }
+
+    @Test
+    void testCsvWithoutIdColumnIsRejected() throws IOException {
+        Path feed = write("feed.csv", "sku,title\n1,Shoes\n");
+
+        assertThatThrownBy(() -> ingestor(1).ingest(TestUtils.ACCOUNT_ID, feed, FeedFormat.CSV))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("id column");
+    }
+
+    @Test
+    void testInterruptedIngestionResumesFromCheckpoint() throws Exception {
+        Path feed = write("feed.ndjson", IntStream.range(0, 2000)
+                .mapToObj(i -> "{\"id\":\"" + i + "\"}")
+                .collect(Collectors.joining("\n")));
+        Path checkpoint = directory.resolve("feed.checkpoint");
+        Map<String, Integer> sends = new ConcurrentHashMap<>();
+        var calls = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (calls.incrementAndGet() > 1200) {
+                throw new IllegalStateException("The processor is closed.");
+            }
+            sends.merge(invocation.<Product>getArgument(1).getId(), 1, Integer::sum);
+            return null;
+        }).when(bulkProcessor).upsert(eq(TestUtils.ACCOUNT_ID), any(Product.class));
+        FeedIngestor ingestor = FeedIngestor.builder().bulkProcessor(bulkProcessor).parallelism(4).minSplitBytes(1L).checkpointInterval(100L).build();
+
+        assertThatThrownBy(() -> ingestor.ingest(TestUtils.ACCOUNT_ID, feed, FeedFormat.NDJSON, checkpoint))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(checkpoint).exists();
+
+        calls.set(Integer.MIN_VALUE);
+        FeedResult result = ingestor.ingest(TestUtils.ACCOUNT_ID, feed, FeedFormat.NDJSON, checkpoint);
+
+        assertThat(result.isResumed()).isTrue();
+        assertThat(result.getProducts()).isLessThan(2000 - 800);
+        assertThat(sends.keySet()).containsExactlyInAnyOrderElementsOf(ids(2000));
+        assertThat(checkpoint).doesNotExist();
+    }
+
+    @Test
+    void testCheckpointOfAnotherAccountIsRejected() throws Exception {
+        Path feed = write("feed.ndjson", "{\"id\":\"1\"}\n");
+        Path checkpoint = directory.resolve("feed.checkpoint");
+        new FeedCheckpoint("other", FeedFormat.NDJSON, Files.size(feed), Files.getLastModifiedTime(feed).toMillis(),
+                List.of(new FeedCheckpoint.Split(0, Files.size(feed), 0))).write(checkpoint);
+
+        assertThatThrownBy(() -> ingestor(1).ingest(TestUtils.ACCOUNT_ID, feed, FeedFormat.NDJSON, checkpoint))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("different feed file");
+    }
+
+    @Test
+    void testLinesSpanningSeveralWindowsAreReadWhole() throws IOException {
+        Path file = write("lines.txt", "short\nа line longer than the window\r\n\nlast");
+
+        try (FileChannel channel = FileChannel.open(file)) {
+            var reader = new MappedLineReader(channel, 0, 7);
+            List<String> lines = new ArrayList<>();
+            while (reader.next()) {
+                lines.add(reader.getLineAsString());
+            }
+
+            assertThat(lines).containsExactly("short", "а line longer than the window", "", "last");
+            assertThat(reader.getPosition()).isEqualTo(Files.size(file));
+        }
+    }
+
+    private FeedIngestor ingestor(int parallelism) {
+        return FeedIngestor.builder().bulkProcessor(bulkProcessor).parallelism(parallelism).minSplitBytes(1L).build();
+    }
+
+    private void recordUpserts() throws InterruptedException {
+        doAnswer(invocation -> upserted.add(invocation.getArgument(1)))
+                .when(bulkProcessor).upsert(eq(TestUtils.ACCOUNT_ID), any(Product.class));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(String::valueOf).toList();
+    }
+}
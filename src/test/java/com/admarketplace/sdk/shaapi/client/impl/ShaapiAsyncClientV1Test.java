@@ -0,0 +1,248 @@
+package com.admarketplace.sdk.shaapi.client.impl;
+
+import com.admarketplace.authorization.api.model.v1.AuthenticationResponse;
+import com.admarketplace.sdk.shaapi.client.ShaapiAsyncClient;
+import com.admarketplace.sdk.shaapi.client.compression.StandardContentEncoder;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import com.admarketplace.sdk.shaapi.client.retry.ShaapiRetryStrategy;
+import com.admarketplace.sdk.shaapi.model.ProductCountResponse;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.model.TokenResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductCount;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ShaapiAsyncClientV1Test {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CloseableHttpAsyncClient httpAsyncClient;
+
+    private ShaapiAsyncClient shaapiAsyncClient;
+
+    @BeforeEach
+    void setUp() {
+        shaapiAsyncClient = ShaapiAsyncClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpAsyncClient(httpAsyncClient)
+                .build();
+    }
+
+    @Test
+    void testClientIsStartedOnCreation() {
+        verify(httpAsyncClient).start();
+    }
+
+    @Test
+    void testGetToken() throws Exception {
+        var authResponse = new AuthenticationResponse(TestUtils.ACCESS_TOKEN, "Bearer", 3600, null);
+        var request = respondWith(HttpStatus.SC_OK, objectMapper.writeValueAsString(authResponse));
+
+        TokenResponse response = shaapiAsyncClient.getToken("encodedCredentials").join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getAccessToken()).isEqualTo(TestUtils.ACCESS_TOKEN);
+        assertThat(response.getExpiresIn()).isEqualTo(3600);
+        assertThat(request.getValue().getMethod()).isEqualTo(Method.POST.name());
+        assertThat(request.getValue().getUri()).isEqualTo(URI.create(TestUtils.AUTH_URL + "/oauth2/v1/auth"));
+        assertThat(request.getValue().getFirstHeader("Authorization").getValue()).isEqualTo("Basic encodedCredentials");
+    }
+
+    @Test
+    void testUpsertProductsWithPartialFailure() throws Exception {
+        var failures = List.of(new Failure(400, Product.builder().id("789").build(), List.of("Invalid ID")));
+        var request = respondWith(HttpStatus.SC_MULTI_STATUS, objectMapper.writeValueAsString(new ShaapiResponse<>("Partial Success", failures)));
+
+        ProductResponse response = shaapiAsyncClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123", "789")).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getMessage()).isEqualTo("Partial Success");
+        assertThat(response.getResults()).hasSize(1);
+        assertThat(request.getValue().getMethod()).isEqualTo(Method.PUT.name());
+        assertThat(request.getValue().getUri()).isEqualTo(URI.create(TestUtils.SHAAPI_URL + "/asset/v1/" + TestUtils.ACCOUNT_ID + "/products"));
+        assertThat(request.getValue().getFirstHeader("Authorization").getValue()).isEqualTo("Bearer " + TestUtils.ACCESS_TOKEN);
+        assertThat(request.getValue().getBodyText()).contains("\"123\"", "\"789\"");
+    }
+
+    @Test
+    void testDeleteProducts() throws Exception {
+        var request = respondWith(HttpStatus.SC_OK, objectMapper.writeValueAsString(new ShaapiResponse<>(TestUtils.SUCCESS, null)));
+        List<ProductIdentifier> identifiers = List.of(ProductIdentifier.builder().id("123").build());
+
+        ProductResponse response = shaapiAsyncClient.deleteProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, identifiers).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getMessage()).isEqualTo(TestUtils.SUCCESS);
+        assertThat(request.getValue().getMethod()).isEqualTo(Method.DELETE.name());
+    }
+
+    @Test
+    void testGetProductCount() throws Exception {
+        var count = new ProductCount(TestUtils.ACCOUNT_ID, 250L);
+        var request = respondWith(HttpStatus.SC_OK, objectMapper.writeValueAsString(new ShaapiResponse<>(TestUtils.SUCCESS, count)));
+
+        ProductCountResponse response = shaapiAsyncClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getResult()).isEqualTo(count);
+        assertThat(request.getValue().getUri()).isEqualTo(URI.create(TestUtils.SHAAPI_URL + "/asset/v1/" + TestUtils.ACCOUNT_ID + "/products/count"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRequestFailureIsMappedToErrorResponse() {
+        when(httpAsyncClient.execute(any(SimpleHttpRequest.class), any(HttpContext.class), any(FutureCallback.class))).thenAnswer(invocation -> {
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2).failed(new IOException("Connection reset"));
+            return null;
+        });
+
+        ProductResponse response = shaapiAsyncClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123")).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getMessage()).contains(TestUtils.UNEXPECTED_ERROR, "Connection reset");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAttemptsOfRetriedRequestAreReported() throws Exception {
+        String body = objectMapper.writeValueAsString(new ShaapiResponse<>(TestUtils.SUCCESS, null));
+        when(httpAsyncClient.execute(any(SimpleHttpRequest.class), any(HttpContext.class), any(FutureCallback.class))).thenAnswer(invocation -> {
+            retry(invocation.getArgument(1), 2);
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2).completed(SimpleHttpResponse.create(HttpStatus.SC_OK, body, ContentType.APPLICATION_JSON));
+            return null;
+        });
+
+        ProductResponse response = shaapiAsyncClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123")).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAttemptsOfExhaustedRetriesAreReported() {
+        when(httpAsyncClient.execute(any(SimpleHttpRequest.class), any(HttpContext.class), any(FutureCallback.class))).thenAnswer(invocation -> {
+            retry(invocation.getArgument(1), 1);
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2).failed(new IOException("Connection reset"));
+            return null;
+        });
+
+        ProductCountResponse response = shaapiAsyncClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getMessage()).contains("Connection reset");
+        assertThat(response.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGzipResponseIsDecompressed() throws Exception {
+        byte[] body = gzip(objectMapper.writeValueAsBytes(new ShaapiResponse<>(TestUtils.SUCCESS, null)));
+        when(httpAsyncClient.execute(any(SimpleHttpRequest.class), any(HttpContext.class), any(FutureCallback.class))).thenAnswer(invocation -> {
+            var response = SimpleHttpResponse.create(HttpStatus.SC_OK, body, ContentType.APPLICATION_JSON);
+            response.setHeader("Content-Encoding", "gzip");
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2).completed(response);
+            return null;
+        });
+
+        ProductResponse response = shaapiAsyncClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123")).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getMessage()).isEqualTo(TestUtils.SUCCESS);
+    }
+
+    @Test
+    void testRequestBodyIsCompressedWithConfiguredEncoder() throws Exception {
+        shaapiAsyncClient = ShaapiAsyncClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClientConfig(HttpClientConfig.builder().requestEncoder(StandardContentEncoder.GZIP).build())
+                .httpAsyncClient(httpAsyncClient)
+                .build();
+        var request = respondWith(HttpStatus.SC_OK, objectMapper.writeValueAsString(new ShaapiResponse<>(TestUtils.SUCCESS, null)));
+        List<Product> products = getProductList("123", "456");
+
+        shaapiAsyncClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, products).join();
+
+        assertThat(request.getValue().getFirstHeader("Content-Encoding").getValue()).isEqualTo("gzip");
+        try (var inputStream = new GZIPInputStream(new ByteArrayInputStream(request.getValue().getBodyBytes()))) {
+            assertThat(inputStream.readAllBytes()).isEqualTo(objectMapper.writeValueAsBytes(products));
+        }
+    }
+
+    @Test
+    void testCloseReleasesHttpClient() {
+        shaapiAsyncClient.close();
+
+        verify(httpAsyncClient).close(CloseMode.GRACEFUL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<SimpleHttpRequest> respondWith(int status, String body) {
+        var request = ArgumentCaptor.forClass(SimpleHttpRequest.class);
+        when(httpAsyncClient.execute(request.capture(), any(HttpContext.class), any(FutureCallback.class))).thenAnswer(invocation -> {
+            invocation.<FutureCallback<SimpleHttpResponse>>getArgument(2).completed(SimpleHttpResponse.create(status, body, ContentType.APPLICATION_JSON));
+            return null;
+        });
+        return request;
+    }
+
+    private static void retry(HttpContext context, int retries) {
+        // Records the retries in the context as the retry strategy of the async client does
+        var strategy = new ShaapiRetryStrategy(RetryPolicy.builder().maxAttempts(retries + 1).build());
+        for (int execCount = 1; execCount <= retries; execCount++) {
+            strategy.retryRequest(new BasicHttpResponse(HttpStatus.SC_SERVICE_UNAVAILABLE), execCount, context);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var buffer = new ByteArrayOutputStream();
+        try (var outputStream = new GZIPOutputStream(buffer)) {
+            outputStream.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static List<Product> getProductList(String... ids) {
+        return Arrays.stream(ids)
+                .map(id -> (Product) Product.builder().id(id).build())
+                .toList();
+    }
+}
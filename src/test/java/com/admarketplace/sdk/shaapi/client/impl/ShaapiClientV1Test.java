@@ -1,7 +1,20 @@
 package com.admarketplace.sdk.shaapi.client.impl;
 
 import com.admarketplace.sdk.shaapi.client.ShaapiClient;
-import com.admarketplace.sdk.shaapi.client.factory.ShaapiClientFactory;
+import com.admarketplace.sdk.shaapi.client.JsonStreamingEntity;
+import com.admarketplace.sdk.shaapi.client.auth.TokenProvider;
+import com.admarketplace.sdk.shaapi.client.cache.CountCacheConfig;
+import com.admarketplace.sdk.shaapi.client.compression.EncodingEntity;
+import com.admarketplace.sdk.shaapi.client.compression.StandardContentEncoder;
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CallNotPermittedException;
+import com.admarketplace.sdk.shaapi.client.circuitbreaker.CircuitBreakerConfig;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.metrics.Endpoint;
+import com.admarketplace.sdk.shaapi.client.metrics.InMemoryMetrics;
+import com.admarketplace.sdk.shaapi.client.ratelimit.AccountRateLimiter;
+import com.admarketplace.sdk.shaapi.client.ratelimit.RateLimitConfig;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import com.admarketplace.sdk.shaapi.client.retry.ShaapiRetryStrategy;
 import com.admarketplace.sdk.shaapi.handler.ProductCountResponseHandler;
 import com.admarketplace.sdk.shaapi.handler.ProductResponseHandler;
 import com.admarketplace.sdk.shaapi.handler.TokenResponseHandler;
@@ -13,29 +26,42 @@ import com.admarketplace.shaapi.api.model.v1.Failure;
 import com.admarketplace.shaapi.api.model.v1.Product;
 import com.admarketplace.shaapi.api.model.v1.ProductCount;
 import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpStatus;
-import org.junit.jupiter.api.AfterEach;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
-import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -44,29 +70,22 @@ class ShaapiClientV1Test {
 
     @Mock
     private CloseableHttpClient httpClient;
-    private MockedStatic<HttpClients> mockedStatic;
 
     private ShaapiClient shaapiClient;
 
     @BeforeEach
     void setUp() {
-        shaapiClient = ShaapiClientFactory.getInstance(TestUtils.AUTH_URL, TestUtils.SHAAPI_URL, TestUtils.V1);
-
-        mockedStatic = mockStatic(HttpClients.class);
-        mockedStatic.when(HttpClients::createDefault).thenReturn(httpClient);
-    }
-
-    @AfterEach
-    void tearDown() {
-        if (mockedStatic != null) {
-            mockedStatic.close();
-        }
+        shaapiClient = ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClient(httpClient)
+                .build();
     }
 
     @Test
     void testGetTokenWithValidCredentials() throws Exception {
         TokenResponse expectedResponse = new TokenResponse(HttpStatus.SC_OK,null, TestUtils.ACCESS_TOKEN, 3600);
-        when(httpClient.execute(any(ClassicHttpRequest.class), any(TokenResponseHandler.class))).thenReturn(expectedResponse);
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(TokenResponseHandler.class))).thenReturn(expectedResponse);
 
         TokenResponse actualResponse = shaapiClient.getToken("encodedCredentials");
         assertToken(actualResponse, expectedResponse);
@@ -75,7 +94,7 @@ class ShaapiClientV1Test {
     @Test
     void testGetTokenWithInvalidCredentials() throws Exception {
         TokenResponse expectedResponse = new TokenResponse(HttpStatus.SC_BAD_REQUEST, "The request could not be processed due to invalid data or formatting.", null, null);
-        when(httpClient.execute(any(ClassicHttpRequest.class), any(TokenResponseHandler.class))).thenReturn(expectedResponse);
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(TokenResponseHandler.class))).thenReturn(expectedResponse);
 
         TokenResponse actualResponse = shaapiClient.getToken("invalidCredentials");
         assertToken(actualResponse, expectedResponse);
@@ -84,7 +103,7 @@ class ShaapiClientV1Test {
     @ParameterizedTest(name = "{index} => {0}")
     @MethodSource("productTestProvider")
     void testUpsertProducts(String scenarioName, String accessToken, List<Product> products, ProductResponse expectedResponse) throws Exception {
-        when(httpClient.execute(any(ClassicHttpRequest.class), any(ProductResponseHandler.class))).thenReturn(expectedResponse);
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class))).thenReturn(expectedResponse);
 
         ProductResponse actualResponse = shaapiClient.upsertProducts(TestUtils.ACCOUNT_ID, accessToken, products);
         assertProduct(expectedResponse, actualResponse);
@@ -93,7 +112,7 @@ class ShaapiClientV1Test {
     @ParameterizedTest(name = "{index} => {0}")
     @MethodSource("productTestProvider")
     void testDeleteProducts(String scenarioName, String accessToken, List<ProductIdentifier> products, ProductResponse expectedResponse) throws Exception {
-        when(httpClient.execute(any(ClassicHttpRequest.class), any(ProductResponseHandler.class))).thenReturn(expectedResponse);
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class))).thenReturn(expectedResponse);
 
         ProductResponse actualResponse = shaapiClient.deleteProducts(TestUtils.ACCOUNT_ID, accessToken, products);
 
@@ -102,19 +121,300 @@ class ShaapiClientV1Test {
         assertThat(actualResponse.getMessage()).isEqualTo(expectedResponse.getMessage());
         assertThat(actualResponse.getResults()).isEqualTo(expectedResponse.getResults());
 
-        verify(httpClient).execute(any(ClassicHttpRequest.class), any(ProductResponseHandler.class));
-        verify(httpClient).close();
+        verify(httpClient).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class));
+        verify(httpClient, never()).close(any(CloseMode.class));
     }
 
     @ParameterizedTest(name = "{index} => {0}")
     @MethodSource("productCountTestProvider")
     void testGetProductCount(String ignoredScenarioName, String accessToken, ProductCountResponse expectedResponse) throws Exception {
-        when(httpClient.execute(any(ClassicHttpRequest.class), any(ProductCountResponseHandler.class))).thenReturn(expectedResponse);
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class))).thenReturn(expectedResponse);
 
         ProductCountResponse actualResponse = shaapiClient.getProductCount(TestUtils.ACCOUNT_ID, accessToken);
         assertProductCount(actualResponse, expectedResponse);
     }
 
+    @Test
+    void testHttpClientIsReusedAcrossRequests() throws Exception {
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class)))
+                .thenReturn(new ProductCountResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null));
+
+        shaapiClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN);
+        shaapiClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN);
+
+        verify(httpClient, times(2)).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class));
+        verify(httpClient, never()).close(any(CloseMode.class));
+    }
+
+    @Test
+    void testUpsertProductsWithManagedToken() throws Exception {
+        TokenProvider tokenProvider = mock(TokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn(new TokenResponse(HttpStatus.SC_OK, null, TestUtils.ACCESS_TOKEN, 3600));
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class)))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        ProductResponse response = clientWithTokenProvider(tokenProvider).upsertProducts(TestUtils.ACCOUNT_ID, getProductList("123"));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        verify(httpClient).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class));
+        verify(tokenProvider, never()).invalidate(any());
+    }
+
+    @Test
+    void testUnauthorizedRequestIsRetriedOnceWithNewToken() throws Exception {
+        TokenProvider tokenProvider = mock(TokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn(
+                new TokenResponse(HttpStatus.SC_OK, null, "expired_token", 3600),
+                new TokenResponse(HttpStatus.SC_OK, null, TestUtils.ACCESS_TOKEN, 3600));
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class))).thenReturn(
+                new ProductCountResponse(HttpStatus.SC_UNAUTHORIZED, "Your access token is invalid or has expired.", null),
+                new ProductCountResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null));
+
+        ProductCountResponse response = clientWithTokenProvider(tokenProvider).getProductCount(TestUtils.ACCOUNT_ID);
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        verify(tokenProvider).invalidate("expired_token");
+        verify(httpClient, times(2)).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class));
+    }
+
+    @Test
+    void testTokenFailureIsReturnedWithoutCallingShaapi() throws Exception {
+        TokenProvider tokenProvider = mock(TokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn(new TokenResponse(HttpStatus.SC_UNAUTHORIZED, "Invalid credentials", null, null));
+
+        ProductResponse response = clientWithTokenProvider(tokenProvider).deleteProducts(TestUtils.ACCOUNT_ID, List.of(ProductIdentifier.builder().id("123").build()));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_UNAUTHORIZED);
+        assertThat(response.getMessage()).contains("Invalid credentials");
+        verify(httpClient, never()).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class));
+    }
+
+    @Test
+    void testManagedTokenOverloadWithoutCredentials() {
+        assertThatThrownBy(() -> shaapiClient.getProductCount(TestUtils.ACCOUNT_ID)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testRequestBodyIsStreamed() throws Exception {
+        var request = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        when(httpClient.execute(request.capture(), any(HttpContext.class), any(ProductResponseHandler.class)))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        shaapiClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123"));
+
+        assertThat(request.getValue().getEntity()).isInstanceOf(JsonStreamingEntity.class);
+    }
+
+    @Test
+    void testRequestBodyIsCompressedWithConfiguredEncoder() throws Exception {
+        ShaapiClient compressingClient = ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClientConfig(HttpClientConfig.builder().requestEncoder(StandardContentEncoder.GZIP).build())
+                .httpClient(httpClient)
+                .build();
+        var request = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        when(httpClient.execute(request.capture(), any(HttpContext.class), any(ProductResponseHandler.class)))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        compressingClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123"));
+
+        assertThat(request.getValue().getEntity()).isInstanceOf(EncodingEntity.class);
+        assertThat(request.getValue().getEntity().getContentEncoding()).isEqualTo("gzip");
+    }
+
+    @Test
+    void testAttemptsAreReportedWhenRequestIsRetried() throws Exception {
+        var retryStrategy = new ShaapiRetryStrategy(RetryPolicy.defaults());
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class))).thenAnswer(invocation -> {
+            HttpContext context = invocation.getArgument(1);
+            retryStrategy.retryRequest(new BasicHttpResponse(HttpStatus.SC_SERVICE_UNAVAILABLE), 1, context);
+            return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+        });
+
+        ProductResponse response = shaapiClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123"));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getAttempts()).isEqualTo(2);
+    }
+
+    @Test
+    void testAttemptsAreReportedWhenRetriesAreExhausted() throws Exception {
+        var retryStrategy = new ShaapiRetryStrategy(RetryPolicy.defaults());
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class))).thenAnswer(invocation -> {
+            HttpContext context = invocation.getArgument(1);
+            var exception = new IOException("Connection reset");
+            for (int execCount = 1; retryStrategy.retryRequest(null, exception, execCount, context); execCount++) {
+                // retried until the policy gives up
+            }
+            throw exception;
+        });
+
+        ProductCountResponse response = shaapiClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN);
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getMessage()).contains(TestUtils.UNEXPECTED_ERROR, "Connection reset");
+        assertThat(response.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void testAttemptsDefaultToOne() throws Exception {
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(TokenResponseHandler.class)))
+                .thenReturn(new TokenResponse(HttpStatus.SC_OK, null, TestUtils.ACCESS_TOKEN, 3600));
+
+        assertThat(shaapiClient.getToken("encodedCredentials").getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void testRateLimitedRequestIsNotSentWhenInterrupted() throws Exception {
+        ShaapiClient rateLimitedClient = ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClientConfig(HttpClientConfig.builder().rateLimit(RateLimitConfig.builder().requestsPerSecond(1).build()).build())
+                .httpClient(httpClient)
+                .build();
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class)))
+                .thenReturn(new ProductCountResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null));
+
+        assertThat(rateLimitedClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(rateLimitedClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        Thread.currentThread().interrupt();
+        ProductCountResponse response = rateLimitedClient.getProductCount(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN);
+
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(response.getHttpStatus()).isEqualTo(AccountRateLimiter.HTTP_STATUS_INTERRUPTED);
+        assertThat(response.getAttempts()).isZero();
+        assertThat(response.getMessage()).contains("rate limit");
+        verify(httpClient, times(2)).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class));
+    }
+
+    @Test
+    void testProductCountIsCachedUntilProductsAreWritten() throws Exception {
+        TokenProvider tokenProvider = mock(TokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn(new TokenResponse(HttpStatus.SC_OK, null, TestUtils.ACCESS_TOKEN, 3600));
+        ShaapiClient cachingClient = cachingClient(tokenProvider);
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class)))
+                .thenReturn(new ProductCountResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, new ProductCount(TestUtils.ACCOUNT_ID, 1L)));
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class)))
+                .thenReturn(new ProductResponse(HttpStatus.SC_BAD_REQUEST, "Invalid products", null, null))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        cachingClient.getProductCount(TestUtils.ACCOUNT_ID);
+        cachingClient.getProductCount(TestUtils.ACCOUNT_ID);
+        cachingClient.upsertProducts(TestUtils.ACCOUNT_ID, getProductList("123"));
+        cachingClient.getProductCount(TestUtils.ACCOUNT_ID);
+        verify(httpClient, times(1)).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class));
+
+        cachingClient.deleteProducts(TestUtils.ACCOUNT_ID, List.of(ProductIdentifier.builder().id("123").build()));
+        ProductCountResponse response = cachingClient.getProductCount(TestUtils.ACCOUNT_ID);
+
+        assertThat(response.getResult().count()).isEqualTo(1L);
+        verify(httpClient, times(2)).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class));
+    }
+
+    @Test
+    void testProductCountWithExplicitTokenIsNotCached() throws Exception {
+        TokenProvider tokenProvider = mock(TokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn(new TokenResponse(HttpStatus.SC_OK, null, TestUtils.ACCESS_TOKEN, 3600));
+        ShaapiClient cachingClient = cachingClient(tokenProvider);
+        var request = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        when(httpClient.execute(request.capture(), any(HttpContext.class), any(ProductCountResponseHandler.class)))
+                .thenReturn(new ProductCountResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, new ProductCount(TestUtils.ACCOUNT_ID, 1L)))
+                .thenReturn(new ProductCountResponse(HttpStatus.SC_FORBIDDEN, "Forbidden", null));
+
+        cachingClient.getProductCount(TestUtils.ACCOUNT_ID);
+        ProductCountResponse response = cachingClient.getProductCount(TestUtils.ACCOUNT_ID, "other_token");
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_FORBIDDEN);
+        assertThat(request.getAllValues().get(0).getFirstHeader("Authorization").getValue()).isEqualTo("Bearer " + TestUtils.ACCESS_TOKEN);
+        assertThat(request.getAllValues().get(1).getFirstHeader("Authorization").getValue()).isEqualTo("Bearer other_token");
+    }
+
+    @Test
+    void testRequestsFailFastWhileCircuitIsOpen() throws Exception {
+        ShaapiClient protectedClient = ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClientConfig(HttpClientConfig.builder().circuitBreaker(CircuitBreakerConfig.builder()
+                        .slidingWindowSize(4)
+                        .minimumNumberOfCalls(4)
+                        .build()).build())
+                .httpClient(httpClient)
+                .build();
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class)))
+                .thenThrow(new IOException("Read timed out"));
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(protectedClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123")).getHttpStatus())
+                    .isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        }
+        ProductResponse response = protectedClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123"));
+
+        assertThat(response.getHttpStatus()).isEqualTo(CallNotPermittedException.HTTP_STATUS);
+        assertThat(response.getMessage()).contains("is open");
+        assertThat(response.getAttempts()).isZero();
+        verify(httpClient, times(4)).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEveryCallIsReportedToMetrics() throws Exception {
+        var objectMapper = new ObjectMapper();
+        var metrics = new InMemoryMetrics();
+        ShaapiClient instrumentedClient = ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClientConfig(HttpClientConfig.builder().metrics(metrics).build())
+                .httpClient(httpClient)
+                .build();
+        String body = objectMapper.writeValueAsString(new ShaapiResponse<>(TestUtils.SUCCESS, null));
+        when(httpClient.execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(HttpClientResponseHandler.class))).thenAnswer(invocation -> {
+            invocation.<ClassicHttpRequest>getArgument(0).getEntity().writeTo(OutputStream.nullOutputStream());
+            var response = new BasicClassicHttpResponse(HttpStatus.SC_OK);
+            response.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+            invocation.<HttpClientContext>getArgument(1).setResponse(response);
+            return invocation.<HttpClientResponseHandler<ProductResponse>>getArgument(2).handleResponse(response);
+        });
+
+        ProductResponse response = instrumentedClient.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, getProductList("123", "456"));
+
+        InMemoryMetrics.EndpointMetrics upserts = metrics.get(Endpoint.UPSERT);
+        assertThat(response.getMessage()).isEqualTo(TestUtils.SUCCESS);
+        assertThat(upserts.getLatency().getCount()).isEqualTo(1);
+        assertThat(upserts.getDeserialization().getCount()).isEqualTo(1);
+        assertThat(upserts.getStatusCounts().get(HttpStatus.SC_OK)).isEqualTo(1L);
+        assertThat(upserts.getProducts()).isEqualTo(2);
+        assertThat(upserts.getRequestBytes()).isEqualTo(objectMapper.writeValueAsBytes(getProductList("123", "456")).length);
+        assertThat(upserts.getResponseBytes()).isEqualTo(body.length());
+        assertThat(metrics.get(Endpoint.DELETE).getLatency().getCount()).isZero();
+    }
+
+    @Test
+    void testCloseReleasesHttpClient() {
+        shaapiClient.close();
+
+        verify(httpClient).close(CloseMode.GRACEFUL);
+    }
+
+    private ShaapiClient cachingClient(TokenProvider tokenProvider) {
+        return ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClientConfig(HttpClientConfig.builder().countCache(CountCacheConfig.defaults()).build())
+                .httpClient(httpClient)
+                .tokenProvider(tokenProvider)
+                .build();
+    }
+
+    private ShaapiClient clientWithTokenProvider(TokenProvider tokenProvider) {
+        return ShaapiClientV1.builder()
+                .authServiceUrl(URI.create(TestUtils.AUTH_URL))
+                .shaapiUrl(URI.create(TestUtils.SHAAPI_URL))
+                .httpClient(httpClient)
+                .tokenProvider(tokenProvider)
+                .build();
+    }
+
     private void assertToken(TokenResponse actualResponse, TokenResponse expectedResponse) throws IOException {
         assertThat(actualResponse).isNotNull();
         assertThat(actualResponse.getHttpStatus()).isEqualTo(expectedResponse.getHttpStatus());
@@ -122,8 +422,8 @@ class ShaapiClientV1Test {
         assertThat(actualResponse.getAccessToken()).isEqualTo(expectedResponse.getAccessToken());
         assertThat(actualResponse.getExpiresIn()).isEqualTo(expectedResponse.getExpiresIn());
 
-        verify(httpClient).execute(any(ClassicHttpRequest.class), any(TokenResponseHandler.class));
-        verify(httpClient).close();
+        verify(httpClient).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(TokenResponseHandler.class));
+        verify(httpClient, never()).close(any(CloseMode.class));
     }
 
     private void assertProduct(ProductResponse expectedResponse, ProductResponse actualResponse) throws IOException {
@@ -132,8 +432,8 @@ class ShaapiClientV1Test {
         assertThat(actualResponse.getMessage()).isEqualTo(expectedResponse.getMessage());
         assertThat(actualResponse.getResults()).isEqualTo(expectedResponse.getResults());
 
-        verify(httpClient).execute(any(ClassicHttpRequest.class), any(ProductResponseHandler.class));
-        verify(httpClient).close();
+        verify(httpClient).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductResponseHandler.class));
+        verify(httpClient, never()).close(any(CloseMode.class));
     }
 
     private void assertProductCount(ProductCountResponse actualResponse, ProductCountResponse expectedResponse) throws IOException {
@@ -142,8 +442,8 @@ class ShaapiClientV1Test {
         assertThat(actualResponse.getMessage()).isEqualTo(expectedResponse.getMessage());
         assertThat(actualResponse.getResult()).isEqualTo(expectedResponse.getResult());
 
-        verify(httpClient).execute(any(ClassicHttpRequest.class), any(ProductCountResponseHandler.class));
-        verify(httpClient).close();
+        verify(httpClient).execute(any(ClassicHttpRequest.class), any(HttpContext.class), any(ProductCountResponseHandler.class));
+        verify(httpClient, never()).close(any(CloseMode.class));
     }
 
     private static Stream<Arguments> productCountTestProvider() {
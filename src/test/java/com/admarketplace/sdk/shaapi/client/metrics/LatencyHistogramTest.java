@@ -0,0 +1,42 @@
+package com.admarketplace.sdk.shaapi.client.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketBoundsContainTheirValues() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789, 1L << 40}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+
+            assertThat(LatencyHistogram.upperBoundOf(bucket)).isGreaterThanOrEqualTo(value);
+            assertThat(bucket == 0 || LatencyHistogram.upperBoundOf(bucket - 1) < value).isTrue();
+        }
+    }
+
+    @Test
+    void testPercentilesAreWithinRelativeError() {
+        var histogram = new LatencyHistogram();
+        LongStream.rangeClosed(1, 10_000).forEach(millis -> histogram.record(millis * 1_000_000));
+
+        assertThat(histogram.getCount()).isEqualTo(10_000);
+        assertThat(histogram.getMaxNanos()).isEqualTo(10_000_000_000L);
+        assertThat((double) histogram.getPercentileNanos(0.5)).isCloseTo(5_000_000_000.0, within(5_000_000_000.0 * 0.07));
+        assertThat((double) histogram.getPercentileNanos(0.99)).isCloseTo(9_900_000_000.0, within(9_900_000_000.0 * 0.07));
+        assertThat(histogram.getPercentileNanos(1)).isEqualTo(10_000_000_000L);
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        var histogram = new LatencyHistogram();
+
+        assertThat(histogram.getPercentileNanos(0.99)).isZero();
+        assertThatThrownBy(() -> histogram.getPercentileNanos(1.5)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.admarketplace.sdk.shaapi.client.metrics.micrometer;
+
+import com.admarketplace.sdk.shaapi.client.metrics.Endpoint;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.core5.pool.PoolStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerMetrics metrics = new MicrometerMetrics(registry);
+
+    @Test
+    void testRequestsAreTimedPerEndpointAndStatus() {
+        metrics.recordRequest(Endpoint.UPSERT, 200, 5_000_000, 2048, 64, 10);
+        metrics.recordRequest(Endpoint.UPSERT, 200, 7_000_000, 1024, 64, 5);
+        metrics.recordRequest(Endpoint.UPSERT, 0, 1_000_000, 512, 0, 2);
+
+        var timer = registry.get("shaapi.client.requests").tags("endpoint", "upsert", "status", "200").timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(12.0);
+        assertThat(registry.get("shaapi.client.requests").tags("endpoint", "upsert", "status", "none").timer().count()).isEqualTo(1);
+        assertThat(registry.get("shaapi.client.bytes.sent").tags("endpoint", "upsert").counter().count()).isEqualTo(3584.0);
+        assertThat(registry.get("shaapi.client.bytes.received").tags("endpoint", "upsert").counter().count()).isEqualTo(128.0);
+        assertThat(registry.get("shaapi.client.batch.size").tags("endpoint", "upsert").summary().totalAmount()).isEqualTo(17.0);
+    }
+
+    @Test
+    void testDeserializationIsTimed() {
+        metrics.recordDeserialization(Endpoint.TOKEN, 2_000_000);
+
+        assertThat(registry.get("shaapi.client.deserialization").tags("endpoint", "token").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void testConnectionPoolIsObserved() {
+        metrics.registerConnectionPool("sync", () -> new PoolStats(3, 1, 2, 20));
+
+        assertThat(registry.get("shaapi.client.connections.leased").tags("pool", "sync").gauge().value()).isEqualTo(3.0);
+        assertThat(registry.get("shaapi.client.connections.pending").tags("pool", "sync").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.get("shaapi.client.connections.available").tags("pool", "sync").gauge().value()).isEqualTo(2.0);
+        assertThat(registry.get("shaapi.client.connections.max").tags("pool", "sync").gauge().value()).isEqualTo(20.0);
+    }
+}
@@ -0,0 +1,161 @@
+package com.admarketplace.sdk.shaapi.client.outbox;
+
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPendingRecordsSurviveReopen() throws IOException {
+        try (Outbox outbox = open()) {
+            long first = outbox.appendUpsert(TestUtils.ACCOUNT_ID, product("1"));
+            outbox.appendDelete(TestUtils.ACCOUNT_ID, ProductIdentifier.builder().id("2").country("US").build());
+            outbox.appendUpsert("other-account", product("3"));
+            outbox.ack(first);
+        }
+
+        try (Outbox outbox = open()) {
+            List<OutboxRecord> records = outbox.getPending();
+
+            assertThat(records).extracting(OutboxRecord::getType)
+                    .containsExactly(OutboxRecord.Type.DELETE, OutboxRecord.Type.UPSERT);
+            assertThat(records).extracting(OutboxRecord::getAccountId).containsExactly(TestUtils.ACCOUNT_ID, "other-account");
+            assertThat(records.get(0).getProduct().getCountry()).isEqualTo("US");
+            assertThat(records.get(1).getUpsertedProduct().getTitle()).isEqualTo("Product 3");
+            assertThat(outbox.appendUpsert(TestUtils.ACCOUNT_ID, product("4"))).isGreaterThan(records.get(1).getSequence());
+        }
+    }
+
+    @Test
+    void testTornRecordIsDropped() throws IOException {
+        try (Outbox outbox = open()) {
+            outbox.appendUpsert(TestUtils.ACCOUNT_ID, product("1"));
+            outbox.appendUpsert(TestUtils.ACCOUNT_ID, product("2"));
+        }
+        try (var file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            file.seek(10);
+            int firstPayload = file.readInt();
+            long secondPayload = 8 + 18 + firstPayload + 18;
+            file.seek(secondPayload);
+            file.write(file.read() ^ 0xFF);
+        }
+
+        try (Outbox outbox = open()) {
+            assertThat(outbox.getPending()).extracting(record -> record.getProduct().getId()).containsExactly("1");
+        }
+    }
+
+    @Test
+    void testAcknowledgedSegmentsAreDeletedAndSparseSegmentsCompacted() throws IOException {
+        try (Outbox outbox = open()) {
+            long kept = outbox.appendUpsert(TestUtils.ACCOUNT_ID, product("kept"));
+            for (int i = 0; i < 200; i++) {
+                outbox.ack(outbox.appendUpsert(TestUtils.ACCOUNT_ID, product(String.valueOf(i))));
+            }
+
+            assertThat(outbox.getSegmentCount()).isLessThanOrEqualTo(2);
+            assertThat(segments()).hasSize(outbox.getSegmentCount());
+            assertThat(outbox.getPending()).extracting(OutboxRecord::getSequence).containsExactly(kept);
+        }
+
+        try (Outbox outbox = open()) {
+            assertThat(outbox.getPending()).extracting(record -> record.getProduct().getId()).containsExactly("kept");
+        }
+    }
+
+    @Test
+    void testSparseSegmentsAreCompactedWithoutOverflowingTheHead() throws IOException {
+        for (int seed = 0; seed < 20; seed++) {
+            var random = new Random(seed);
+            Path segmentDirectory = directory.resolve("seed-" + seed);
+            List<String> kept = new ArrayList<>();
+            try (Outbox outbox = Outbox.builder().directory(segmentDirectory).segmentSize(1024).build()) {
+                Map<Long, String> sent = new LinkedHashMap<>();
+                for (int i = 0; i < 300; i++) {
+                    String id = String.valueOf(i);
+                    sent.put(outbox.appendUpsert(TestUtils.ACCOUNT_ID, product(id, "x".repeat(random.nextInt(800)))), id);
+                    if (sent.size() == 5) {
+                        // Acknowledges the batch except for about one record in ten
+                        for (Map.Entry<Long, String> entry : sent.entrySet()) {
+                            if (random.nextInt(10) == 0) {
+                                kept.add(entry.getValue());
+                            } else {
+                                outbox.ack(entry.getKey());
+                            }
+                        }
+                        sent.clear();
+                    }
+                }
+                kept.addAll(sent.values());
+
+                assertThat(outbox.getPending()).extracting(record -> record.getProduct().getId()).containsExactlyElementsOf(kept);
+            }
+
+            try (Outbox outbox = Outbox.builder().directory(segmentDirectory).segmentSize(1024).build()) {
+                assertThat(outbox.getPending()).extracting(record -> record.getProduct().getId()).containsExactlyElementsOf(kept);
+            }
+        }
+    }
+
+    @Test
+    void testFullSegmentsAreNotCompactedWithoutRoomForTheRecordBeingWritten() throws IOException {
+        var random = new Random(7);
+        try (Outbox outbox = Outbox.builder().directory(directory).segmentSize(1024).compactionThreshold(1.0).build()) {
+            for (int i = 0; i < 50; i++) {
+                outbox.appendUpsert(TestUtils.ACCOUNT_ID, product(String.valueOf(i), "x".repeat(random.nextInt(800))));
+            }
+
+            assertThat(outbox.getPendingCount()).isEqualTo(50);
+        }
+
+        try (Outbox outbox = open()) {
+            assertThat(outbox.getPending()).extracting(OutboxRecord::getSequence).isSorted().hasSize(50);
+        }
+    }
+
+    @Test
+    void testClosedOutboxRejectsAppends() throws IOException {
+        Outbox outbox = open();
+        outbox.close();
+
+        assertThatThrownBy(() -> outbox.appendUpsert(TestUtils.ACCOUNT_ID, product("1"))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private Outbox open() throws IOException {
+        return Outbox.builder().directory(directory).segmentSize(1024).build();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Product product(String id) {
+        return (Product) Product.builder().id(id).title("Product " + id).build();
+    }
+
+    private static Product product(String id, String description) {
+        return (Product) Product.builder().id(id).title("Product " + id).description(description).build();
+    }
+}
@@ -0,0 +1,185 @@
+package com.admarketplace.sdk.shaapi.client.ratelimit;
+
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccountRateLimiterTest {
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void testTokenBucketAllowsBurstThenPacesRequests() {
+        var bucket = new TokenBucket(10, Duration.ofSeconds(1), nanoTime::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(bucket.reserve(1)).isZero();
+        }
+        assertThat(bucket.reserve(1)).isZero();
+        assertThat(bucket.reserve(1)).isEqualTo(100 * MILLIS);
+
+        nanoTime.addAndGet(200 * MILLIS);
+        assertThat(bucket.reserve(1)).isZero();
+    }
+
+    @Test
+    void testTokenBucketAdmitsLargeRequestAndMakesNextOneWait() {
+        var bucket = new TokenBucket(100, Duration.ofSeconds(1), nanoTime::get);
+
+        assertThat(bucket.reserve(500)).isZero();
+        assertThat(bucket.reserve(1)).isEqualTo(4000 * MILLIS);
+    }
+
+    @Test
+    void testAdaptiveLimitGrowsWhileHealthy() throws InterruptedException {
+        var limit = new AdaptiveConcurrencyLimit(adaptiveConfig(), nanoTime::get);
+
+        for (int round = 0; round < 3; round++) {
+            int concurrency = limit.getLimit();
+            for (int i = 0; i < concurrency; i++) {
+                limit.acquire();
+            }
+            for (int i = 0; i < concurrency; i++) {
+                limit.release(10 * MILLIS, false);
+            }
+        }
+
+        assertThat(limit.getLimit()).isGreaterThan(4);
+    }
+
+    @Test
+    void testAdaptiveLimitDoesNotGrowWhenUnused() throws InterruptedException {
+        var limit = new AdaptiveConcurrencyLimit(adaptiveConfig(), nanoTime::get);
+
+        for (int i = 0; i < 100; i++) {
+            limit.acquire();
+            limit.release(10 * MILLIS, false);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void testAdaptiveLimitShrinksOnThrottlingOncePerRoundTrip() throws InterruptedException {
+        var limit = new AdaptiveConcurrencyLimit(RateLimitConfig.builder().adaptiveConcurrency(true)
+                .initialConcurrency(20).backoffRatio(0.5).build(), nanoTime::get);
+        nanoTime.addAndGet(1000 * MILLIS);
+
+        for (int i = 0; i < 5; i++) {
+            limit.acquire();
+        }
+        for (int i = 0; i < 5; i++) {
+            limit.release(10 * MILLIS, true);
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void testAdaptiveLimitShrinksOnSlowResponses() throws InterruptedException {
+        var limit = new AdaptiveConcurrencyLimit(RateLimitConfig.builder().adaptiveConcurrency(true)
+                .initialConcurrency(10).build(), nanoTime::get);
+
+        limit.acquire();
+        limit.release(10 * MILLIS, false);
+        nanoTime.addAndGet(1000 * MILLIS);
+        limit.acquire();
+        limit.release(50 * MILLIS, false);
+
+        assertThat(limit.getLimit()).isEqualTo(9);
+    }
+
+    @Test
+    void testAdaptiveLimitSettlesNearServiceCapacity() throws InterruptedException {
+        var limit = new AdaptiveConcurrencyLimit(adaptiveConfig(), nanoTime::get);
+        int capacity = 12;
+        List<Integer> limits = new ArrayList<>();
+
+        for (int round = 0; round < 300; round++) {
+            int concurrency = limit.getLimit();
+            for (int i = 0; i < concurrency; i++) {
+                limit.acquire();
+            }
+            nanoTime.addAndGet(10 * MILLIS);
+            for (int i = 0; i < concurrency; i++) {
+                limit.release(10 * MILLIS, concurrency > capacity);
+            }
+            limits.add(concurrency);
+        }
+
+        assertThat(limits.subList(200, 300)).allSatisfy(concurrency -> assertThat(concurrency).isBetween(9, capacity + 1));
+    }
+
+    @Test
+    void testLimitsAreKeptPerAccount() throws InterruptedException {
+        var limiter = new AccountRateLimiter(adaptiveConfig(), nanoTime::get);
+
+        limiter.acquire("account-1", 10).release(HttpStatus.SC_TOO_MANY_REQUESTS);
+        nanoTime.addAndGet(1000 * MILLIS);
+        limiter.acquire("account-1", 10).release(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        limiter.acquire("account-2", 10).release(HttpStatus.SC_OK);
+
+        assertThat(limiter.getConcurrencyLimit("account-1")).isLessThan(4);
+        assertThat(limiter.getConcurrencyLimit("account-2")).isEqualTo(4);
+        assertThat(limiter.getConcurrencyLimit("account-3")).isEqualTo(-1);
+    }
+
+    @Test
+    void testRetriedAttemptsAreChargedAndCountAsOverload() throws Exception {
+        var limiter = new AccountRateLimiter(RateLimitConfig.builder().requestsPerSecond(10).adaptiveConcurrency(true)
+                .initialConcurrency(4).build(), nanoTime::get);
+        nanoTime.addAndGet(1000 * MILLIS);
+
+        limiter.acquire("account-1", 10).release(HttpStatus.SC_OK, 20);
+        limiter.acquire("account-2", 10).release(HttpStatus.SC_OK, 1);
+
+        assertThat(limiter.getConcurrencyLimit("account-1")).isLessThan(4);
+        assertThat(limiter.getConcurrencyLimit("account-2")).isEqualTo(4);
+        var waiting = new Thread(() -> {
+            try {
+                limiter.acquire("account-1", 1).release(HttpStatus.SC_OK);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        waiting.join(200);
+        assertThat(waiting.isAlive()).isTrue();
+        waiting.interrupt();
+        waiting.join(1000);
+    }
+
+    @Test
+    void testBlockedRequestProceedsWhenSlotIsReleased() throws Exception {
+        var limiter = new AccountRateLimiter(RateLimitConfig.builder().adaptiveConcurrency(true)
+                .initialConcurrency(1).minConcurrency(1).build());
+        var permit = limiter.acquire("account-1", 1);
+
+        var waiting = new Thread(() -> {
+            try {
+                limiter.acquire("account-1", 1).release(HttpStatus.SC_OK);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        waiting.join(100);
+        assertThat(waiting.isAlive()).isTrue();
+
+        permit.release(HttpStatus.SC_OK);
+        waiting.join(1000);
+        assertThat(waiting.isAlive()).isFalse();
+    }
+
+    private static RateLimitConfig adaptiveConfig() {
+        return RateLimitConfig.builder().adaptiveConcurrency(true).initialConcurrency(4).build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.admarketplace.sdk.shaapi.client.retry;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLHandshakeException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryPolicyTest {
+
+    @Test
+    void testDefaultRetryableStatusCodes() {
+        var policy = RetryPolicy.defaults();
+
+        assertThat(policy.isRetryable(HttpStatus.SC_TOO_MANY_REQUESTS)).isTrue();
+        assertThat(policy.isRetryable(HttpStatus.SC_SERVICE_UNAVAILABLE)).isTrue();
+        assertThat(policy.isRetryable(HttpStatus.SC_BAD_GATEWAY)).isTrue();
+        assertThat(policy.isRetryable(HttpStatus.SC_GATEWAY_TIMEOUT)).isTrue();
+        assertThat(policy.isRetryable(HttpStatus.SC_OK)).isFalse();
+        assertThat(policy.isRetryable(HttpStatus.SC_BAD_REQUEST)).isFalse();
+        assertThat(policy.isRetryable(HttpStatus.SC_INTERNAL_SERVER_ERROR)).isFalse();
+    }
+
+    @Test
+    void testDefaultRetryableExceptions() {
+        var policy = RetryPolicy.defaults();
+
+        assertThat(policy.isRetryable(new IOException("Connection reset"))).isTrue();
+        assertThat(policy.isRetryable(new SocketTimeoutException("Read timed out"))).isTrue();
+        assertThat(policy.isRetryable(new UnknownHostException("shaapi"))).isFalse();
+        assertThat(policy.isRetryable(new SSLHandshakeException("handshake"))).isFalse();
+        assertThat(policy.isRetryable(new JsonParseException(null, "Unexpected character"))).isFalse();
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyUpToMaximum() {
+        var policy = RetryPolicy.builder()
+                .initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(500))
+                .jitter(0)
+                .build();
+
+        assertThat(policy.getDelay(1, null)).isEqualTo(Duration.ofMillis(100));
+        assertThat(policy.getDelay(2, null)).isEqualTo(Duration.ofMillis(200));
+        assertThat(policy.getDelay(3, null)).isEqualTo(Duration.ofMillis(400));
+        assertThat(policy.getDelay(4, null)).isEqualTo(Duration.ofMillis(500));
+    }
+
+    @Test
+    void testJitterReducesBackoffWithinBounds() {
+        var policy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(1000)).jitter(0.5).build();
+
+        IntStream.range(0, 100).forEach(i ->
+                assertThat(policy.getDelay(1, null)).isBetween(Duration.ofMillis(500), Duration.ofMillis(1000)));
+    }
+
+    @Test
+    void testRetryAfterExtendsBackoffUpToMaximum() {
+        var policy = RetryPolicy.builder().jitter(0).maxRetryAfter(Duration.ofSeconds(5)).build();
+
+        assertThat(policy.getDelay(1, Duration.ofSeconds(2))).isEqualTo(Duration.ofSeconds(2));
+        assertThat(policy.getDelay(1, Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(5));
+        assertThat(policy.getDelay(1, Duration.ZERO)).isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void testRetryAfterIsIgnoredWhenDisabled() {
+        var policy = RetryPolicy.builder().jitter(0).respectRetryAfter(false).build();
+
+        assertThat(policy.getDelay(1, Duration.ofSeconds(2))).isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void testBudgetAllowsMinimumRetriesThenRatioOfRequests() {
+        var budget = RetryBudget.builder().ratio(0.5).minRetriesPerSecond(1).build();
+
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+
+        budget.recordRequest();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+        budget.recordRequest();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+    }
+}
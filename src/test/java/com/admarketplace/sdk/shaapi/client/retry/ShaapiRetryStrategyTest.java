@@ -0,0 +1,119 @@
+package com.admarketplace.sdk.shaapi.client.retry;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.impl.ShaapiClientV1;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShaapiRetryStrategyTest {
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testRetriesUntilMaxAttempts() {
+        var strategy = new ShaapiRetryStrategy(RetryPolicy.builder().maxAttempts(3).build());
+        var context = HttpClientContext.create();
+        var response = new BasicHttpResponse(HttpStatus.SC_SERVICE_UNAVAILABLE);
+
+        assertThat(strategy.retryRequest(response, 1, context)).isTrue();
+        assertThat(strategy.retryRequest(response, 2, context)).isTrue();
+        assertThat(strategy.retryRequest(response, 3, context)).isFalse();
+        assertThat(ShaapiRetryStrategy.getAttempts(context)).isEqualTo(3);
+    }
+
+    @Test
+    void testNonRetryableFailuresAreNotRetried() {
+        var strategy = new ShaapiRetryStrategy(RetryPolicy.defaults());
+        var context = HttpClientContext.create();
+
+        assertThat(strategy.retryRequest(new BasicHttpResponse(HttpStatus.SC_BAD_REQUEST), 1, context)).isFalse();
+        assertThat(ShaapiRetryStrategy.getAttempts(context)).isEqualTo(1);
+    }
+
+    @Test
+    void testRetryIsDeniedWhenBudgetIsExhausted() {
+        var budget = RetryBudget.builder().ratio(0.0).minRetriesPerSecond(0).build();
+        var strategy = new ShaapiRetryStrategy(RetryPolicy.builder().retryBudget(budget).build());
+
+        assertThat(strategy.retryRequest(null, new IOException("Connection reset"), 1, HttpClientContext.create())).isFalse();
+    }
+
+    @Test
+    void testRetryAfterInSecondsAndHttpDate() {
+        var seconds = new BasicHttpResponse(HttpStatus.SC_TOO_MANY_REQUESTS);
+        seconds.setHeader(HttpHeaders.RETRY_AFTER, "7");
+        var date = new BasicHttpResponse(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        date.setHeader(HttpHeaders.RETRY_AFTER, DateUtils.formatStandardDate(Instant.now().plusSeconds(30)));
+        var invalid = new BasicHttpResponse(HttpStatus.SC_SERVICE_UNAVAILABLE);
+        invalid.setHeader(HttpHeaders.RETRY_AFTER, "soon");
+
+        assertThat(ShaapiRetryStrategy.getRetryAfter(seconds)).isEqualTo(Duration.ofSeconds(7));
+        assertThat(ShaapiRetryStrategy.getRetryAfter(date)).isBetween(Duration.ofSeconds(25), Duration.ofSeconds(30));
+        assertThat(ShaapiRetryStrategy.getRetryAfter(invalid)).isNull();
+        assertThat(ShaapiRetryStrategy.getRetryAfter(new BasicHttpResponse(HttpStatus.SC_OK))).isNull();
+    }
+
+    @Test
+    void testUpsertIsRetriedAfterServiceUnavailable() throws IOException {
+        var requests = new AtomicInteger();
+        List<String> bodies = new ArrayList<>();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            bodies.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            boolean first = requests.incrementAndGet() == 1;
+            byte[] body = (first ? "{\"message\":\"Unavailable\"}" : "{\"message\":\"Success\"}").getBytes(StandardCharsets.UTF_8);
+            if (first) {
+                exchange.getResponseHeaders().set(HttpHeaders.RETRY_AFTER, "0");
+            }
+            exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(first ? HttpStatus.SC_SERVICE_UNAVAILABLE : HttpStatus.SC_OK, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        var retryPolicy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(10)).build();
+        URI url = URI.create("http://localhost:" + server.getAddress().getPort());
+        try (ShaapiClient client = ShaapiClientV1.builder()
+                .shaapiUrl(url)
+                .authServiceUrl(url)
+                .httpClientConfig(HttpClientConfig.builder().retryPolicy(retryPolicy).build())
+                .build()) {
+            ProductResponse response = client.upsertProducts(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN,
+                    List.of((Product) Product.builder().id("123").build()));
+
+            assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+            assertThat(response.getMessage()).isEqualTo("Success");
+            assertThat(response.getAttempts()).isEqualTo(2);
+            assertThat(bodies).hasSize(2).allSatisfy(body -> assertThat(body).contains("\"123\""));
+        }
+    }
+}
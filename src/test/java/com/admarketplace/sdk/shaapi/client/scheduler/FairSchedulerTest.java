@@ -0,0 +1,158 @@
+package com.admarketplace.sdk.shaapi.client.scheduler;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FairSchedulerTest {
+    private static final String BIG = "big-account";
+    private static final String SMALL = "small-account";
+
+    @Mock
+    private ShaapiClient shaapiClient;
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private FairScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    void testIdleAccountIsServedBeforeBacklog() {
+        scheduler = scheduler(SchedulerConfig.builder().maxConcurrency(1).build());
+        recordCalls();
+
+        List<CompletableFuture<ProductResponse>> backfill = IntStream.range(0, 20)
+                .mapToObj(i -> scheduler.upsertProducts(BIG, products(100)))
+                .toList();
+        CompletableFuture<ProductResponse> update = scheduler.upsertProducts(SMALL, products(1));
+        release.countDown();
+
+        assertThat(update.join().getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        backfill.forEach(CompletableFuture::join);
+        // The first backfill request was already in flight, the small update goes right after it
+        assertThat(calls.subList(0, 2)).containsExactly(BIG, SMALL);
+        assertThat(calls).hasSize(21);
+    }
+
+    @Test
+    void testBackloggedAccountsShareThroughputByWeight() {
+        scheduler = scheduler(SchedulerConfig.builder()
+                .maxConcurrency(1)
+                .accountWeights(Map.of(BIG, 3))
+                .build());
+        recordCalls();
+
+        List<CompletableFuture<ProductResponse>> futures = IntStream.range(0, 40)
+                .boxed()
+                .flatMap(i -> List.of(scheduler.upsertProducts(BIG, products(10)), scheduler.upsertProducts(SMALL, products(10))).stream())
+                .toList();
+        release.countDown();
+        futures.forEach(CompletableFuture::join);
+
+        long big = calls.subList(1, 41).stream().filter(BIG::equals).count();
+        assertThat(big).isBetween(29L, 31L);
+    }
+
+    @Test
+    void testConcurrencyIsCappedPerAccount() {
+        scheduler = scheduler(SchedulerConfig.builder().maxConcurrency(4).maxConcurrencyPerAccount(2).build());
+        Map<String, AtomicInteger> current = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> peak = new ConcurrentHashMap<>();
+        when(shaapiClient.upsertProducts(anyString(), anyCollection())).thenAnswer(invocation -> {
+            String accountId = invocation.getArgument(0);
+            int running = current.computeIfAbsent(accountId, id -> new AtomicInteger()).incrementAndGet();
+            peak.computeIfAbsent(accountId, id -> new AtomicInteger()).accumulateAndGet(running, Math::max);
+            Thread.sleep(20);
+            current.get(accountId).decrementAndGet();
+            return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+        });
+
+        List<CompletableFuture<ProductResponse>> futures = IntStream.range(0, 10)
+                .boxed()
+                .flatMap(i -> List.of(scheduler.upsertProducts(BIG, products(10)), scheduler.upsertProducts(SMALL, products(10))).stream())
+                .toList();
+        futures.forEach(CompletableFuture::join);
+
+        assertThat(peak.get(BIG).get()).isEqualTo(2);
+        assertThat(peak.get(SMALL).get()).isEqualTo(2);
+    }
+
+    @Test
+    void testUnexpectedExceptionCompletesWithErrorResponse() {
+        scheduler = scheduler(SchedulerConfig.defaults());
+        when(shaapiClient.upsertProducts(anyString(), anyCollection())).thenThrow(new IllegalStateException("Boom"));
+
+        ProductResponse response = scheduler.upsertProducts(BIG, products(1)).join();
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getMessage()).isEqualTo("An unexpected error occurred during the request: Boom");
+    }
+
+    @Test
+    void testCloseSendsQueuedRequestsAndRejectsNewOnes() throws InterruptedException {
+        scheduler = scheduler(SchedulerConfig.builder().maxConcurrency(1).build());
+        recordCalls();
+        List<CompletableFuture<ProductResponse>> futures = IntStream.range(0, 5)
+                .mapToObj(i -> scheduler.upsertProducts(BIG, products(1)))
+                .toList();
+        assertThat(scheduler.getQueuedCount(BIG)).isEqualTo(4);
+        assertThat(scheduler.getInFlightCount()).isEqualTo(1);
+
+        Thread closer = new Thread(scheduler::close);
+        closer.start();
+        release.countDown();
+        closer.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertThat(futures).allSatisfy(future -> assertThat(future).isCompleted());
+        assertThatThrownBy(() -> scheduler.upsertProducts(BIG, products(1))).isInstanceOf(IllegalStateException.class);
+    }
+
+    private FairScheduler scheduler(SchedulerConfig config) {
+        return FairScheduler.builder().client(shaapiClient).config(config).build();
+    }
+
+    private void recordCalls() {
+        when(shaapiClient.upsertProducts(anyString(), anyCollection())).thenAnswer(invocation -> {
+            release.await();
+            calls.add(invocation.getArgument(0));
+            return new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+        });
+    }
+
+    private static List<Product> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> (Product) Product.builder().id(String.valueOf(i)).build())
+                .toList();
+    }
+}
@@ -0,0 +1,170 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DeltaSyncTest {
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ShaapiClient client;
+
+    @Test
+    void testOnlyNewAndChangedProductsAreUpserted() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            SyncResult first = deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(10, "v1"));
+            assertThat(first.getUpserted()).isEqualTo(10);
+
+            List<Product> changed = new ArrayList<>(catalog(10, "v1"));
+            changed.set(3, product("3", "v2"));
+            changed.add(product("10", "v1"));
+            SyncResult second = deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, changed);
+
+            assertThat(second.getScanned()).isEqualTo(11);
+            assertThat(second.getUnchanged()).isEqualTo(9);
+            assertThat(second.getUpserted()).isEqualTo(2);
+            assertThat(second.isSuccessful()).isTrue();
+        }
+
+        var batches = captureBatches(4);
+        assertThat(batches.get(3)).extracting(Product::getId).containsExactly("3", "10");
+    }
+
+    @Test
+    void testIndexSurvivesRestart() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(5, "v1"));
+        }
+        try (DeltaSync deltaSync = deltaSync()) {
+            SyncResult result = deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(5, "v1"));
+
+            assertThat(result.getUnchanged()).isEqualTo(5);
+            assertThat(result.getUpserted()).isZero();
+        }
+        verify(client, times(2)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testFailedProductsAreSentAgain() throws IOException {
+        var failure = new Failure(HttpStatus.SC_BAD_REQUEST, product("1", "v1"), List.of("Invalid price"));
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", null, List.of(failure)))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            SyncResult first = deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(3, "v1"));
+            SyncResult second = deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(3, "v1"));
+
+            assertThat(first.getUpserted()).isEqualTo(2);
+            assertThat(first.getFailed()).isEqualTo(1);
+            assertThat(first.getFailures()).containsExactly(failure);
+            assertThat(second.getUnchanged()).isEqualTo(2);
+            assertThat(second.getUpserted()).isEqualTo(1);
+        }
+
+        var batches = captureBatches(2);
+        assertThat(batches.get(1)).extracting(Product::getId).containsExactly("1");
+    }
+
+    @Test
+    void testFailedBatchIsNotRecorded() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), any(Collection.class)))
+                .thenReturn(new ProductResponse(HttpStatus.SC_SERVICE_UNAVAILABLE, "Unavailable", null, null))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            SyncResult first = deltaSync.sync(TestUtils.ACCOUNT_ID, catalog(3, "v1"));
+            SyncResult second = deltaSync.sync(TestUtils.ACCOUNT_ID, catalog(3, "v1"));
+
+            assertThat(first.getFailed()).isEqualTo(3);
+            assertThat(first.getFailedBatches()).hasSize(1);
+            assertThat(second.getUpserted()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testCatalogIsSentInBatches() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(10, "v1"));
+        }
+
+        assertThat(captureBatches(3)).extracting(List::size).containsExactly(4, 4, 2);
+    }
+
+    @Test
+    void testResetForgetsAccount() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(3, "v1"));
+            deltaSync.reset(TestUtils.ACCOUNT_ID);
+            SyncResult result = deltaSync.sync(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(3, "v1"));
+
+            assertThat(result.getUpserted()).isEqualTo(3);
+        }
+        verify(client, never()).upsertProducts(eq(TestUtils.ACCOUNT_ID), anyCollection());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Product>> captureBatches(int count) {
+        ArgumentCaptor<Collection<Product>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(client, times(count)).upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), captor.capture());
+        return captor.getAllValues().stream().map(batch -> (List<Product>) List.copyOf(batch)).toList();
+    }
+
+    private DeltaSync deltaSync() {
+        return DeltaSync.builder()
+                .client(client)
+                .indexDirectory(directory)
+                .batchSize(4)
+                .expectedProducts(16L)
+                .build();
+    }
+
+    private static List<Product> catalog(int size, String version) {
+        return IntStream.range(0, size).mapToObj(i -> product(String.valueOf(i), version)).toList();
+    }
+
+    private static Product product(String id, String version) {
+        return (Product) Product.builder().id(id).title("Product " + id + " " + version).build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FingerprintIndexTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPutGetAndRemove() throws IOException {
+        try (var index = FingerprintIndex.open(directory.resolve("index"), 10)) {
+            index.put(42, 1001, 200, 1_700_000_000L);
+
+            assertThat(index.getFingerprint(42)).isEqualTo(1001);
+            assertThat(index.getStatus(42)).isEqualTo(200);
+            assertThat(index.getFingerprint(43)).isZero();
+
+            index.put(42, 1002, 207, 1_700_000_001L);
+            assertThat(index.getFingerprint(42)).isEqualTo(1002);
+            assertThat(index.size()).isEqualTo(1);
+
+            assertThat(index.remove(42)).isTrue();
+            assertThat(index.remove(42)).isFalse();
+            assertThat(index.getFingerprint(42)).isZero();
+            assertThat(index.size()).isZero();
+        }
+    }
+
+    @Test
+    void testGrowsAndKeepsEntriesAcrossReopen() throws IOException {
+        Path file = directory.resolve("index");
+        Map<Long, Long> expected = new HashMap<>();
+        var random = new Random(7);
+
+        try (var index = FingerprintIndex.open(file, 10)) {
+            for (int i = 0; i < 5000; i++) {
+                long key = random.nextLong() | 1;
+                long fingerprint = random.nextLong() | 1;
+                index.put(key, fingerprint, 200, 0);
+                expected.put(key, fingerprint);
+            }
+        }
+
+        try (var index = FingerprintIndex.open(file, 10)) {
+            assertThat(index.size()).isEqualTo(expected.size());
+            expected.forEach((key, fingerprint) -> assertThat(index.getFingerprint(key)).isEqualTo(fingerprint));
+        }
+        assertThat(Files.exists(directory.resolve("index.tmp"))).isFalse();
+    }
+
+    @Test
+    void testRemoveKeepsCollidingEntriesReachable() throws IOException {
+        Map<Long, Long> expected = new HashMap<>();
+        var random = new Random(11);
+
+        try (var index = FingerprintIndex.open(directory.resolve("index"), 1000)) {
+            for (int i = 0; i < 700; i++) {
+                long key = random.nextLong() | 1;
+                index.put(key, key * 31, 200, 0);
+                expected.put(key, key * 31);
+            }
+            var keys = expected.keySet().stream().limit(350).toList();
+            keys.forEach(key -> {
+                assertThat(index.remove(key)).isTrue();
+                expected.remove(key);
+            });
+
+            assertThat(index.size()).isEqualTo(350);
+            expected.forEach((key, fingerprint) -> assertThat(index.getFingerprint(key)).isEqualTo(fingerprint));
+            keys.forEach(key -> assertThat(index.getFingerprint(key)).isZero());
+        }
+    }
+
+    @Test
+    void testRejectsFileThatIsNotAnIndex() throws IOException {
+        Path file = directory.resolve("index");
+        Files.write(file, new byte[64]);
+
+        assertThatThrownBy(() -> FingerprintIndex.open(file, 10)).isInstanceOf(IOException.class);
+    }
+}
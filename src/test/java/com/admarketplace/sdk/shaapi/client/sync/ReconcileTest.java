@@ -0,0 +1,188 @@
+package com.admarketplace.sdk.shaapi.client.sync;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReconcileTest {
+    private static final ProductResponse SUCCESS = new ProductResponse(HttpStatus.SC_OK, TestUtils.SUCCESS, null, null);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private ShaapiClient client;
+
+    @Test
+    void testProductsMissingFromCatalogAreDeleted() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+        when(client.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            ReconcileResult first = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 20), null);
+            ReconcileResult second = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(5, 22), null);
+
+            assertThat(first.getUpserted()).isEqualTo(20);
+            assertThat(first.getDeleted()).isZero();
+            assertThat(second.getUnchanged()).isEqualTo(15);
+            assertThat(second.getUpserted()).isEqualTo(2);
+            assertThat(second.getDeleted()).isEqualTo(5);
+        }
+
+        assertThat(deletedIds(2)).containsExactlyInAnyOrder("0", "1", "2", "3", "4");
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(file -> file.getFileName().toString())).allMatch(name -> name.endsWith(".fpi") || name.endsWith(".snapshot"));
+        }
+    }
+
+    @Test
+    void testDeletedProductIsUpsertedAgainWhenItReappears() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+        when(client.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 3), null);
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 2), null);
+            ReconcileResult result = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 3), null);
+
+            assertThat(result.getUpserted()).isEqualTo(1);
+            assertThat(result.getDeleted()).isZero();
+        }
+    }
+
+    @Test
+    void testFailedDeletesAreRetriedOnNextReconciliation() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+        var failure = new Failure(HttpStatus.SC_SERVICE_UNAVAILABLE, product(1), List.of("Service Unavailable"));
+        when(client.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", null, List.of(failure)))
+                .thenReturn(SUCCESS);
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 4), null);
+            ReconcileResult second = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(2, 4), null);
+            ReconcileResult third = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(2, 4), null);
+
+            assertThat(second.getDeleted()).isEqualTo(1);
+            assertThat(second.getFailed()).isEqualTo(1);
+            assertThat(third.getDeleted()).isEqualTo(1);
+        }
+
+        assertThat(deletedIds(2)).containsExactlyInAnyOrder("0", "1", "1");
+    }
+
+    @Test
+    void testPermanentlyRejectedDeletesAreNotRetried() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+        var notFound = new Failure(HttpStatus.SC_NOT_FOUND, product(0), List.of("Product not found"));
+        var rejected = new Failure(HttpStatus.SC_BAD_REQUEST, product(1), List.of("Invalid product"));
+        when(client.deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection()))
+                .thenReturn(new ProductResponse(HttpStatus.SC_MULTI_STATUS, "Partial Success", null, List.of(notFound, rejected)));
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 4), null);
+            ReconcileResult second = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(2, 4), null);
+            ReconcileResult third = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(2, 4), null);
+
+            assertThat(second.getDeleted()).isEqualTo(1);
+            assertThat(second.getFailed()).isEqualTo(1);
+            assertThat(second.getFailures()).containsExactly(rejected);
+            assertThat(third.getDeleted()).isZero();
+            assertThat(third.getFailed()).isZero();
+        }
+
+        assertThat(deletedIds(1)).containsExactlyInAnyOrder("0", "1");
+    }
+
+    @Test
+    void testNothingIsDeletedWhenCatalogFailsMidway() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection())).thenReturn(SUCCESS);
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 10), null);
+            Iterable<Product> failing = () -> Stream.concat(catalog(0, 2).stream(), Stream.<Product>generate(() -> {
+                throw new IllegalStateException("Feed unavailable");
+            })).iterator();
+
+            try {
+                deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, failing, null);
+            } catch (IllegalStateException expected) {
+                // The feed failed
+            }
+            ReconcileResult result = deltaSync.reconcile(TestUtils.ACCOUNT_ID, TestUtils.ACCESS_TOKEN, catalog(0, 10), null);
+
+            assertThat(result.getDeleted()).isZero();
+        }
+        verify(client, never()).deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), anyCollection());
+    }
+
+    @Test
+    void testProgressIsReportedAfterEveryBatch() throws IOException {
+        when(client.upsertProducts(eq(TestUtils.ACCOUNT_ID), anyCollection())).thenReturn(SUCCESS);
+        when(client.deleteProducts(eq(TestUtils.ACCOUNT_ID), anyCollection())).thenReturn(SUCCESS);
+        List<ReconcileProgress> progress = new ArrayList<>();
+
+        try (DeltaSync deltaSync = deltaSync()) {
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, catalog(0, 10), null);
+            deltaSync.reconcile(TestUtils.ACCOUNT_ID, catalog(5, 10), progress::add);
+        }
+
+        assertThat(progress).extracting(ReconcileProgress::getPhase)
+                .containsExactly(ReconcileProgress.Phase.DELETING, ReconcileProgress.Phase.DELETING);
+        assertThat(progress.get(1).getDeleted()).isEqualTo(5);
+        assertThat(progress.get(1).getUnchanged()).isEqualTo(5);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> deletedIds(int batches) {
+        ArgumentCaptor<Collection<ProductIdentifier>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(client, times(batches)).deleteProducts(eq(TestUtils.ACCOUNT_ID), eq(TestUtils.ACCESS_TOKEN), captor.capture());
+        return captor.getAllValues().stream().flatMap(Collection::stream).map(ProductIdentifier::getId).toList();
+    }
+
+    private DeltaSync deltaSync() {
+        return DeltaSync.builder()
+                .client(client)
+                .indexDirectory(directory)
+                .batchSize(4)
+                .spillThreshold(3)
+                .expectedProducts(16L)
+                .build();
+    }
+
+    private static List<Product> catalog(int from, int to) {
+        return IntStream.range(from, to).mapToObj(ReconcileTest::product).toList();
+    }
+
+    private static Product product(int id) {
+        return (Product) Product.builder().id(String.valueOf(id)).country("US").language("en").title("Product " + id).build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.admarketplace.sdk.shaapi.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CapturingInputStreamTest {
+
+    @Test
+    void testBodyShorterThanLimitIsCapturedEntirely() throws Exception {
+        var inputStream = new CapturingInputStream(new ByteArrayInputStream("{\"message\":\"ok\"}".getBytes(StandardCharsets.UTF_8)), 64);
+
+        inputStream.readAllBytes();
+
+        assertThat(inputStream.getCapturedText()).isEqualTo("{\"message\":\"ok\"}");
+    }
+
+    @Test
+    void testBodyLongerThanLimitIsTruncated() throws Exception {
+        var inputStream = new CapturingInputStream(new ByteArrayInputStream("x".repeat(10_000).getBytes(StandardCharsets.UTF_8)), 16);
+
+        byte[] read = inputStream.readAllBytes();
+
+        assertThat(read).hasSize(10_000);
+        assertThat(inputStream.getCapturedText()).isEqualTo("x".repeat(16) + "...");
+    }
+
+    @Test
+    void testSingleByteReadsAreCaptured() throws Exception {
+        var inputStream = new CapturingInputStream(new ByteArrayInputStream("abc".getBytes(StandardCharsets.UTF_8)), 2);
+
+        while (inputStream.read() >= 0) {
+            // Read the whole stream byte by byte.
+        }
+
+        assertThat(inputStream.getCapturedText()).isEqualTo("ab...");
+    }
+}
@@ -1,5 +1,7 @@
 package com.admarketplace.sdk.shaapi.handler;
 
+import com.admarketplace.sdk.shaapi.client.codec.CodecException;
+import com.admarketplace.sdk.shaapi.client.codec.ShaapiCodec;
 import com.admarketplace.sdk.shaapi.model.ProductResponse;
 import com.admarketplace.sdk.shaapi.util.TestUtils;
 import com.admarketplace.shaapi.api.model.v1.Failure;
@@ -16,11 +18,15 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class ProductResponseHandlerTest {
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -65,6 +71,34 @@ class ProductResponseHandlerTest {
         assertThat(productResponse.getResults()).isNull();
     }
 
+    @Test
+    void testHandleResponseWithLargeNonJsonBodyKeepsTruncatedBody() {
+        CloseableHttpResponse response = CloseableHttpResponse.adapt(new BasicClassicHttpResponse(HttpStatus.SC_BAD_GATEWAY));
+        String htmlPage = "<html><body>" + "Bad gateway. ".repeat(100_000) + "</body></html>";
+        response.setEntity(HttpEntities.create(htmlPage, ContentType.TEXT_HTML));
+
+        ProductResponse productResponse = new ProductResponseHandler().handleResponse(response);
+
+        assertThat(productResponse.getHttpStatus()).isEqualTo(HttpStatus.SC_BAD_GATEWAY);
+        assertThat(productResponse.getMessage()).contains(TestUtils.UNEXPECTED_ERROR, "<html><body>Bad gateway.");
+        assertThat(productResponse.getMessage()).endsWith("...");
+        assertThat(productResponse.getMessage().length()).isLessThan(2 * CapturingInputStream.DEFAULT_CAPTURE_LIMIT);
+    }
+
+    @Test
+    void testHandleResponseWithCustomCodec() throws Exception {
+        CloseableHttpResponse response = CloseableHttpResponse.adapt(new BasicClassicHttpResponse(HttpStatus.SC_OK));
+        response.setEntity(HttpEntities.create("{\"message\":\"ignored\"}", ContentType.APPLICATION_JSON));
+        ShaapiCodec codec = mock(ShaapiCodec.class);
+        when(codec.readProductResponse(any(InputStream.class))).thenThrow(new CodecException("Unsupported document", null));
+
+        ProductResponse productResponse = new ProductResponseHandler(codec).handleResponse(response);
+
+        assertThat(productResponse.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(productResponse.getMessage()).isEqualTo("An unexpected error occurred during deserialization: Unsupported document"
+                + " response body: ");
+    }
+
     @ParameterizedTest(name = "{index} => {0}")
     @MethodSource("requestIdWithHeaderDataProvider")
     void testRequestIdExtractionWithHeader(String ignoredScenarioName, int httpStatus, Object responseBody) throws Exception {
@@ -0,0 +1,372 @@
+package com.admarketplace.sdk.shaapi.testing;
+
+import com.admarketplace.authorization.api.model.v1.AuthenticationResponse;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.ProductCount;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import com.admarketplace.shaapi.api.model.v1.ShaapiResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * An in-process stand-in for the authentication service and SHAAPI service, for integration, load and
+ * fault-injection tests of code using the SDK without network access.
+ *
+ * <p>The server answers the token endpoint ({@code POST /oauth2/v1/auth}) and the asset endpoints
+ * ({@code PUT} and {@code DELETE /asset/v1/{account}/products}, {@code GET /asset/v1/{account}/products/count}) the
+ * way the real services do, and keeps the upserted products of each account in memory so counts and deletes are
+ * consistent. Both base URLs of a client point to {@link #getUrl()}.</p>
+ *
+ * <ul>
+ *     <li><b>port</b> – the local port; {@code 0} (the default) picks a free one.</li>
+ *     <li><b>threads</b> – number of threads handling requests concurrently; 16 by default.</li>
+ *     <li><b>latency</b> – the time waited before answering each request; see {@link LatencyDistribution}.</li>
+ *     <li><b>errorRate</b>, <b>errorStatus</b> – share of asset requests answered with {@code errorStatus}
+ *     (503 by default).</li>
+ *     <li><b>throttleRate</b>, <b>retryAfter</b> – share of asset requests answered with HTTP 429 and a
+ *     {@code Retry-After} header of {@code retryAfter} (1 second by default).</li>
+ *     <li><b>dropRate</b> – share of asset requests whose connection is closed without a response.</li>
+ *     <li><b>partialFailureRate</b>, <b>partialFailureShare</b>, <b>partialFailureStatus</b> – share of upsert and
+ *     delete requests in which {@code partialFailureShare} of the products (10% by default) are rejected with
+ *     {@code partialFailureStatus} (400 by default).</li>
+ *     <li><b>seed</b> – seeds the random faults and latencies, for reproducible runs.</li>
+ *     <li><b>encodedCredentials</b> – the only Base64-encoded credentials accepted by the token endpoint;
+ *     {@code null} (the default) accepts any.</li>
+ *     <li><b>tokenLifetime</b> – the lifetime of issued tokens; 1 hour by default.</li>
+ *     <li><b>requireIssuedToken</b> – whether asset requests must carry a token issued by this server and not yet
+ *     expired or revoked; by default any bearer token is accepted.</li>
+ * </ul>
+ *
+ * <p>Faults only affect asset requests. Faults queued with {@link #enqueue(Fault)} are applied, in order, to the next
+ * asset requests before any random fault is drawn.</p>
+ */
+public final class FakeShaapiServer implements AutoCloseable {
+    private static final String AUTH_PATH = "/oauth2/v1/auth";
+    private static final String ASSET_PATH = "/asset/v1/";
+    private static final String PRODUCTS = "products";
+    private static final String COUNT = "count";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final LatencyDistribution latency;
+    private final double errorRate;
+    private final int errorStatus;
+    private final double throttleRate;
+    private final Duration retryAfter;
+    private final double dropRate;
+    private final double partialFailureRate;
+    private final double partialFailureShare;
+    private final int partialFailureStatus;
+    private final Random random;
+    private final String encodedCredentials;
+    private final Duration tokenLifetime;
+    private final boolean requireIssuedToken;
+
+    private final Queue<Fault> faults = new ConcurrentLinkedQueue<>();
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Map<Key, JsonNode>> catalogs = new ConcurrentHashMap<>();
+    private final AtomicLong tokenRequests = new AtomicLong();
+    private final AtomicLong assetRequests = new AtomicLong();
+    private final AtomicLong injectedFaults = new AtomicLong();
+
+    /**
+     * Identifies a product within an account.
+     */
+    private record Key(String id, String country, String language) {
+    }
+
+    /**
+     * Creates and starts a server listening on the loopback interface.
+     *
+     * @throws IOException If the server cannot be bound.
+     */
+    @Builder
+    private FakeShaapiServer(int port, Integer threads, LatencyDistribution latency, double errorRate, Integer errorStatus,
+                             double throttleRate, Duration retryAfter, double dropRate, double partialFailureRate,
+                             Double partialFailureShare, Integer partialFailureStatus, Long seed, String encodedCredentials,
+                             Duration tokenLifetime, boolean requireIssuedToken) throws IOException {
+        this.latency = latency != null ? latency : LatencyDistribution.none();
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus != null ? errorStatus : HttpStatus.SC_SERVICE_UNAVAILABLE;
+        this.throttleRate = throttleRate;
+        this.retryAfter = retryAfter != null ? retryAfter : Duration.ofSeconds(1);
+        this.dropRate = dropRate;
+        this.partialFailureRate = partialFailureRate;
+        this.partialFailureShare = partialFailureShare != null ? partialFailureShare : 0.1;
+        this.partialFailureStatus = partialFailureStatus != null ? partialFailureStatus : HttpStatus.SC_BAD_REQUEST;
+        this.random = seed != null ? new Random(seed) : new Random();
+        this.encodedCredentials = encodedCredentials;
+        this.tokenLifetime = tokenLifetime != null ? tokenLifetime : Duration.ofHours(1);
+        this.requireIssuedToken = requireIssuedToken;
+
+        this.executor = Executors.newFixedThreadPool(threads != null ? threads : 16);
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Returns the base URL of the server, to be used as both the SHAAPI and the authentication service URL.
+     *
+     * @return The URL.
+     */
+    public URI getUrl() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    /**
+     * Queues a fault for the next asset request that has not been assigned one yet.
+     *
+     * @param fault The fault.
+     * @return This server.
+     */
+    public FakeShaapiServer enqueue(Fault fault) {
+        faults.add(fault);
+        return this;
+    }
+
+    /**
+     * Revokes all issued tokens, so asset requests are rejected with HTTP 401 until a new token is obtained when
+     * {@code requireIssuedToken} is set.
+     */
+    public void revokeTokens() {
+        tokens.clear();
+    }
+
+    /**
+     * Returns the products currently stored for an account, as received.
+     *
+     * @param accountId The account.
+     * @return The stored products, in no particular order.
+     */
+    public List<JsonNode> getProducts(String accountId) {
+        return List.copyOf(catalogs.getOrDefault(accountId, Map.of()).values());
+    }
+
+    /**
+     * Returns the number of requests received by the token endpoint.
+     *
+     * @return The number of token requests.
+     */
+    public long getTokenRequestCount() {
+        return tokenRequests.get();
+    }
+
+    /**
+     * Returns the number of requests received by the asset endpoints, including the ones answered with a fault.
+     *
+     * @return The number of asset requests.
+     */
+    public long getAssetRequestCount() {
+        return assetRequests.get();
+    }
+
+    /**
+     * Returns the number of asset requests answered with a fault, whether queued or random.
+     *
+     * @return The number of faults injected.
+     */
+    public long getInjectedFaultCount() {
+        return injectedFaults.get();
+    }
+
+    /**
+     * Stops the server, closing open connections.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body = readBody(exchange);
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals(AUTH_PATH) && exchange.getRequestMethod().equals("POST")) {
+                sleep(latency.next(random));
+                handleToken(exchange);
+            } else if (path.startsWith(ASSET_PATH)) {
+                handleAsset(exchange, path.substring(ASSET_PATH.length()).split("/"), body);
+            } else {
+                respond(exchange, HttpStatus.SC_NOT_FOUND, new ShaapiResponse<>("Not found", null));
+            }
+        }
+    }
+
+    private void handleToken(HttpExchange exchange) throws IOException {
+        tokenRequests.incrementAndGet();
+        String authorization = exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith("Basic ")
+                || encodedCredentials != null && !authorization.equals("Basic " + encodedCredentials)) {
+            respond(exchange, HttpStatus.SC_UNAUTHORIZED, new AuthenticationResponse(null, null, null, "Invalid credentials"));
+            return;
+        }
+        String token = "fake-token-" + Long.toHexString(random.nextLong());
+        tokens.put(token, System.nanoTime() + tokenLifetime.toNanos());
+        respond(exchange, HttpStatus.SC_OK, new AuthenticationResponse(token, "Bearer", (int) tokenLifetime.toSeconds(), null));
+    }
+
+    private void handleAsset(HttpExchange exchange, String[] segments, byte[] body) throws IOException {
+        assetRequests.incrementAndGet();
+        String method = exchange.getRequestMethod();
+        boolean products = segments.length == 2 && segments[1].equals(PRODUCTS) && (method.equals("PUT") || method.equals("DELETE"));
+        boolean count = segments.length == 3 && segments[1].equals(PRODUCTS) && segments[2].equals(COUNT) && method.equals("GET");
+        if (!products && !count) {
+            respond(exchange, HttpStatus.SC_NOT_FOUND, new ShaapiResponse<>("Not found", null));
+            return;
+        }
+        if (!isAuthorized(exchange)) {
+            respond(exchange, HttpStatus.SC_UNAUTHORIZED, new ShaapiResponse<>("Unauthorized", null));
+            return;
+        }
+
+        Fault fault = nextFault(products);
+        sleep(latency.next(random));
+        if (fault != null) {
+            injectedFaults.incrementAndGet();
+            switch (fault.getType()) {
+                case ERROR -> {
+                    respond(exchange, fault.getStatus(), new ShaapiResponse<>("Injected error", null));
+                    return;
+                }
+                case THROTTLE -> {
+                    exchange.getResponseHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(fault.getDuration().toSeconds()));
+                    respond(exchange, HttpStatus.SC_TOO_MANY_REQUESTS, new ShaapiResponse<>("Too many requests", null));
+                    return;
+                }
+                case DROP -> {
+                    // Closing the exchange before response headers are sent closes the connection.
+                    return;
+                }
+                case DELAY -> sleep(fault.getDuration());
+                default -> {
+                }
+            }
+        }
+
+        String accountId = segments[0];
+        if (count) {
+            long size = catalogs.getOrDefault(accountId, Map.of()).size();
+            respond(exchange, HttpStatus.SC_OK, new ShaapiResponse<>("Success", new ProductCount(accountId, size)));
+            return;
+        }
+
+        JsonNode batch = objectMapper.readTree(body);
+        if (batch == null || !batch.isArray()) {
+            respond(exchange, HttpStatus.SC_BAD_REQUEST, new ShaapiResponse<>("Request body must be an array of products", null));
+            return;
+        }
+        int rejected = 0;
+        if (fault != null && fault.getType() == Fault.Type.PARTIAL_FAILURE && !batch.isEmpty()) {
+            rejected = Math.max(1, (int) Math.round(batch.size() * fault.getShare()));
+        }
+        Map<Key, JsonNode> catalog = catalogs.computeIfAbsent(accountId, key -> new ConcurrentHashMap<>());
+        List<Failure> failures = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            JsonNode product = batch.get(i);
+            var key = new Key(product.path("id").asText(null), product.path("country").asText(null), product.path("language").asText(null));
+            if (i < rejected) {
+                var identifier = ProductIdentifier.builder().id(key.id()).country(key.country()).language(key.language()).build();
+                failures.add(new Failure(fault.getStatus(), identifier, List.of("Injected failure")));
+            } else if (method.equals("PUT")) {
+                catalog.put(key, product);
+            } else {
+                catalog.remove(key);
+            }
+        }
+        if (failures.isEmpty()) {
+            respond(exchange, HttpStatus.SC_OK, new ShaapiResponse<>("Success", null));
+        } else {
+            respond(exchange, HttpStatus.SC_MULTI_STATUS, new ShaapiResponse<>("Partial success", failures));
+        }
+    }
+
+    private boolean isAuthorized(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return false;
+        }
+        if (!requireIssuedToken) {
+            return true;
+        }
+        Long expiresAt = tokens.get(authorization.substring("Bearer ".length()));
+        return expiresAt != null && expiresAt - System.nanoTime() > 0;
+    }
+
+    private Fault nextFault(boolean products) {
+        Fault fault = faults.poll();
+        if (fault != null) {
+            return fault;
+        }
+        double draw = random.nextDouble();
+        if ((draw -= dropRate) < 0) {
+            return Fault.drop();
+        }
+        if ((draw -= throttleRate) < 0) {
+            return Fault.throttle(retryAfter);
+        }
+        if ((draw -= errorRate) < 0) {
+            return Fault.error(errorStatus);
+        }
+        if (products && (draw - partialFailureRate) < 0) {
+            return Fault.partialFailure(partialFailureShare, partialFailureStatus);
+        }
+        return null;
+    }
+
+    private byte[] readBody(HttpExchange exchange) throws IOException {
+        String encoding = exchange.getRequestHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        InputStream raw = exchange.getRequestBody();
+        try (InputStream body = "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(raw)
+                : "deflate".equalsIgnoreCase(encoding) ? new InflaterInputStream(raw) : raw) {
+            return body.readAllBytes();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.getResponseHeaders().set("x-amp-request-id", Long.toHexString(random.nextLong()));
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis(), duration.toNanosPart() % 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new IOException("Interrupted while delaying the response", e));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.admarketplace.sdk.shaapi.testing;
+
+import com.admarketplace.sdk.shaapi.client.ShaapiClient;
+import com.admarketplace.sdk.shaapi.client.compression.StandardContentEncoder;
+import com.admarketplace.sdk.shaapi.client.config.HttpClientConfig;
+import com.admarketplace.sdk.shaapi.client.impl.ShaapiClientV1;
+import com.admarketplace.sdk.shaapi.client.retry.RetryPolicy;
+import com.admarketplace.sdk.shaapi.model.ProductResponse;
+import com.admarketplace.sdk.shaapi.util.TestUtils;
+import com.admarketplace.shaapi.api.model.v1.Failure;
+import com.admarketplace.shaapi.api.model.v1.Product;
+import com.admarketplace.shaapi.api.model.v1.ProductIdentifier;
+import org.apache.hc.core5.http.HttpStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class FakeShaapiServerTest {
+    private static final String CREDENTIALS = Base64.getEncoder().encodeToString("client:secret".getBytes());
+    private static final RetryPolicy FAST_RETRIES = RetryPolicy.builder().initialBackoff(Duration.ofMillis(10)).jitter(0).build();
+
+    private FakeShaapiServer server;
+    private ShaapiClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testProductsAreStoredCountedAndDeleted() throws IOException {
+        server = FakeShaapiServer.builder().encodedCredentials(CREDENTIALS).requireIssuedToken(true).build();
+        client = client(HttpClientConfig.builder().requestEncoder(StandardContentEncoder.GZIP).build());
+
+        assertThat(client.upsertProducts(TestUtils.ACCOUNT_ID, products(10)).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        ProductResponse delete = client.deleteProducts(TestUtils.ACCOUNT_ID, List.of(ProductIdentifier.builder().id("0").country("US").language("en").build()));
+
+        assertThat(delete.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(delete.getRequestId()).isNotNull();
+        assertThat(client.getProductCount(TestUtils.ACCOUNT_ID).getResult().count()).isEqualTo(9);
+        assertThat(server.getProducts(TestUtils.ACCOUNT_ID)).hasSize(9)
+                .allSatisfy(product -> assertThat(product.get("title").asText()).startsWith("Product"));
+        assertThat(server.getTokenRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testInvalidCredentialsAreRejected() throws IOException {
+        server = FakeShaapiServer.builder().encodedCredentials(CREDENTIALS).build();
+        client = client(HttpClientConfig.defaults());
+
+        assertThat(client.getToken("invalid").getHttpStatus()).isEqualTo(HttpStatus.SC_UNAUTHORIZED);
+    }
+
+    @Test
+    void testRevokedTokenIsRefreshed() throws IOException {
+        server = FakeShaapiServer.builder().requireIssuedToken(true).build();
+        client = client(HttpClientConfig.defaults());
+        client.upsertProducts(TestUtils.ACCOUNT_ID, products(1));
+
+        server.revokeTokens();
+
+        assertThat(client.upsertProducts(TestUtils.ACCOUNT_ID, products(1)).getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(server.getTokenRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testThrottledAndDroppedRequestsAreRetried() throws IOException {
+        server = FakeShaapiServer.builder().build()
+                .enqueue(Fault.throttle(Duration.ZERO))
+                .enqueue(Fault.drop());
+        client = client(HttpClientConfig.builder().retryPolicy(FAST_RETRIES).build());
+
+        ProductResponse response = client.upsertProducts(TestUtils.ACCOUNT_ID, products(5));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_OK);
+        assertThat(response.getAttempts()).isEqualTo(3);
+        assertThat(server.getAssetRequestCount()).isEqualTo(3);
+        assertThat(server.getInjectedFaultCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testDroppedConnectionWithoutRetriesIsAnError() throws IOException {
+        server = FakeShaapiServer.builder().dropRate(1).build();
+        client = client(HttpClientConfig.builder().retryPolicy(null).build());
+
+        ProductResponse response = client.upsertProducts(TestUtils.ACCOUNT_ID, products(1));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getMessage()).startsWith("An unexpected error occurred during the request");
+    }
+
+    @Test
+    void testPartialFailureRejectsShareOfProducts() throws IOException {
+        server = FakeShaapiServer.builder().build()
+                .enqueue(Fault.partialFailure(0.3, HttpStatus.SC_BAD_REQUEST));
+        client = client(HttpClientConfig.defaults());
+
+        ProductResponse response = client.upsertProducts(TestUtils.ACCOUNT_ID, products(10));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_MULTI_STATUS);
+        assertThat(response.getResults()).hasSize(3).extracting(Failure::status).containsOnly(HttpStatus.SC_BAD_REQUEST);
+        assertThat(server.getProducts(TestUtils.ACCOUNT_ID)).hasSize(7);
+    }
+
+    @Test
+    void testDelayedResponseTimesOut() throws IOException {
+        server = FakeShaapiServer.builder().build().enqueue(Fault.delay(Duration.ofSeconds(2)));
+        client = client(HttpClientConfig.builder().socketTimeout(Duration.ofMillis(200)).retryPolicy(null).build());
+
+        ProductResponse response = client.upsertProducts(TestUtils.ACCOUNT_ID, products(1));
+
+        assertThat(response.getHttpStatus()).isEqualTo(HttpStatus.SC_INTERNAL_SERVER_ERROR);
+        assertThat(response.getMessage()).contains("timed out");
+    }
+
+    @Test
+    void testRandomErrorsFollowRate() throws IOException {
+        server = FakeShaapiServer.builder().errorRate(0.5).seed(42L).build();
+        client = client(HttpClientConfig.builder().retryPolicy(null).build());
+
+        long errors = IntStream.range(0, 200)
+                .map(i -> client.upsertProducts(TestUtils.ACCOUNT_ID, products(1)).getHttpStatus())
+                .filter(status -> status == HttpStatus.SC_SERVICE_UNAVAILABLE)
+                .count();
+
+        assertThat(errors).isBetween(70L, 130L);
+        assertThat(server.getInjectedFaultCount()).isEqualTo(errors);
+    }
+
+    @Test
+    void testLogNormalLatencyMatchesPercentiles() {
+        var distribution = LatencyDistribution.logNormal(Duration.ofMillis(20), Duration.ofMillis(200));
+        var random = new Random(7);
+
+        double[] millis = IntStream.range(0, 20_000)
+                .mapToDouble(i -> distribution.next(random).toNanos() / 1e6)
+                .sorted()
+                .toArray();
+
+        assertThat(millis[10_000]).isCloseTo(20, within(2.0));
+        assertThat(millis[19_800]).isCloseTo(200, within(30.0));
+    }
+
+    private ShaapiClient client(HttpClientConfig config) {
+        return ShaapiClientV1.builder()
+                .shaapiUrl(server.getUrl())
+                .authServiceUrl(server.getUrl())
+                .httpClientConfig(config)
+                .encodedCredentials(CREDENTIALS)
+                .build();
+    }
+
+    private static List<Product> products(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> (Product) Product.builder().id(String.valueOf(i)).country("US").language("en").title("Product " + i).build())
+                .toList();
+    }
+}
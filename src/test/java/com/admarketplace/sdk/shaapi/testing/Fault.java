@@ -0,0 +1,88 @@
+package com.admarketplace.sdk.shaapi.testing;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * A misbehaviour injected by {@link FakeShaapiServer} into an asset request, either at random according to the rates
+ * of the server or for the next request through {@link FakeShaapiServer#enqueue(Fault)}.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Fault {
+
+    /**
+     * The kind of misbehaviour.
+     */
+    public enum Type {
+        /** Answers with an error status and a JSON message. */
+        ERROR,
+        /** Answers with HTTP 429 and a {@code Retry-After} header. */
+        THROTTLE,
+        /** Processes the request but reports a share of its products as {@code Failure}s. */
+        PARTIAL_FAILURE,
+        /** Closes the connection without answering. */
+        DROP,
+        /** Processes the request normally after an extra delay, e.g. to trigger socket timeouts. */
+        DELAY
+    }
+
+    private final Type type;
+    private final int status;
+    private final double share;
+    private final Duration duration;
+
+    /**
+     * Answers with the given error status.
+     *
+     * @param status The HTTP status, e.g. 500 or 503.
+     * @return The fault.
+     */
+    public static Fault error(int status) {
+        return new Fault(Type.ERROR, status, 0, null);
+    }
+
+    /**
+     * Answers with HTTP 429.
+     *
+     * @param retryAfter The value of the {@code Retry-After} header, rounded to seconds.
+     * @return The fault.
+     */
+    public static Fault throttle(Duration retryAfter) {
+        return new Fault(Type.THROTTLE, 429, 0, retryAfter);
+    }
+
+    /**
+     * Rejects a share of the products of the request. Rejected products are not stored and the response has
+     * HTTP status 207.
+     *
+     * @param share The share of products rejected, between 0 and 1; at least one product is rejected.
+     * @param status The status of each {@code Failure}, e.g. 400 for invalid products or 503 for retryable ones.
+     * @return The fault.
+     */
+    public static Fault partialFailure(double share, int status) {
+        return new Fault(Type.PARTIAL_FAILURE, status, share, null);
+    }
+
+    /**
+     * Closes the connection after reading the request, without sending a response.
+     *
+     * @return The fault.
+     */
+    public static Fault drop() {
+        return new Fault(Type.DROP, 0, 0, null);
+    }
+
+    /**
+     * Delays the response on top of the latency distribution of the server.
+     *
+     * @param delay The extra delay.
+     * @return The fault.
+     */
+    public static Fault delay(Duration delay) {
+        return new Fault(Type.DELAY, 0, 0, delay);
+    }
+}
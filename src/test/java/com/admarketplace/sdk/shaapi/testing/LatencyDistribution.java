@@ -0,0 +1,66 @@
+package com.admarketplace.sdk.shaapi.testing;
+
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * The distribution of the time {@link FakeShaapiServer} waits before answering a request.
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * Draws the latency of the next response.
+     *
+     * @param random The source of randomness of the server, seeded for reproducible runs.
+     * @return The latency, never negative.
+     */
+    Duration next(Random random);
+
+    /**
+     * Answers immediately.
+     *
+     * @return A distribution that is always zero.
+     */
+    static LatencyDistribution none() {
+        return random -> Duration.ZERO;
+    }
+
+    /**
+     * Answers after a constant delay.
+     *
+     * @param latency The delay.
+     * @return A constant distribution.
+     */
+    static LatencyDistribution fixed(Duration latency) {
+        return random -> latency;
+    }
+
+    /**
+     * Answers after a delay drawn uniformly between two bounds.
+     *
+     * @param min The shortest delay.
+     * @param max The longest delay.
+     * @return A uniform distribution.
+     */
+    static LatencyDistribution uniform(Duration min, Duration max) {
+        long minNanos = min.toNanos();
+        long range = max.toNanos() - minNanos;
+        return random -> Duration.ofNanos(minNanos + (long) (random.nextDouble() * range));
+    }
+
+    /**
+     * Answers after a log-normally distributed delay, the usual shape of service latencies: most responses are close
+     * to the median and a long tail reaches the 99th percentile and beyond.
+     *
+     * @param median The median delay.
+     * @param p99 The 99th percentile delay, at least the median.
+     * @return A log-normal distribution.
+     */
+    static LatencyDistribution logNormal(Duration median, Duration p99) {
+        double mu = Math.log(median.toNanos());
+        // 2.326 is the 99th percentile of the standard normal distribution.
+        double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+        return random -> Duration.ofNanos((long) Math.exp(mu + sigma * random.nextGaussian()));
+    }
+}